@@ -0,0 +1,87 @@
+package com.qa.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.qa.client.cassette.CassetteReader;
+import com.qa.client.cassette.CassetteWriter;
+import com.qa.client.cassette.RecordedResponse;
+import com.qa.client.cassette.RequestKey;
+import com.qa.client.cassette.RequestMatcher;
+
+/**
+ * Replay lookups on a memory-mapped cassette of 10,000 exchanges: index probe
+ * plus decoding of the matching record, with and without building the request
+ * key.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CassetteBenchmark {
+
+	private static final int EXCHANGES = 10000;
+
+	private final RequestMatcher matcher = new RequestMatcher();
+	private final HashMap<String, String> headers = new HashMap<>();
+	private final List<RequestKey> keys = new ArrayList<>();
+	private File file;
+	private CassetteReader reader;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		headers.put("Content-Type", "application/json");
+		file = File.createTempFile("bench", ".cassette");
+		try (CassetteWriter writer = new CassetteWriter(file)) {
+			List<String[]> responseHeaders = new ArrayList<>();
+			responseHeaders.add(new String[] { "Content-Type", "application/json; charset=utf-8" });
+			for (int i = 0; i < EXCHANGES; i++) {
+				RequestKey key = matcher.key("GET", "http://localhost/api/users/" + i, headers, null);
+				byte[] body = ("{\"data\":{\"id\":" + i + ",\"email\":\"user" + i + "@reqres.in\"}}")
+						.getBytes(StandardCharsets.UTF_8);
+				writer.append(key, new RecordedResponse(200, "OK", responseHeaders, body));
+				keys.add(key);
+			}
+		}
+		reader = new CassetteReader(file);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		reader.close();
+		file.delete();
+	}
+
+	@Benchmark
+	public RecordedResponse find() {
+		next = (next + 1) % EXCHANGES;
+		return reader.find(keys.get(next));
+	}
+
+	@Benchmark
+	public RecordedResponse keyAndFind() {
+		next = (next + 1) % EXCHANGES;
+		return reader.find(matcher.key("GET", "http://localhost/api/users/" + next, headers, null));
+	}
+}
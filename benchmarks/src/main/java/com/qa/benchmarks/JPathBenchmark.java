@@ -0,0 +1,84 @@
+package com.qa.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.qa.util.JPath;
+import com.qa.util.TestUtilities;
+
+/**
+ * TestUtilities.getValueByJPath on a small (single user) and a large (list of
+ * users) payload. "parse" includes building the JSONObject, as the tests do.
+ * "Compiled" evaluates a pre-compiled JPath with no lookup at all.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JPathBenchmark {
+
+	@Param({ "1", "1000" })
+	public int users;
+
+	private String payload;
+	private JSONObject json;
+	private String lastUserPath;
+	private JPath compiledLastUserPath;
+
+	@Setup
+	public void setUp() {
+		StringBuilder sb = new StringBuilder("{\"page\":1,\"per_page\":").append(users).append(",\"data\":[");
+		for (int i = 0; i < users; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append("{\"id\":").append(i + 1).append(",\"email\":\"user").append(i + 1)
+					.append("@reqres.in\",\"first_name\":\"First").append(i + 1)
+					.append("\",\"last_name\":\"Last").append(i + 1).append("\"}");
+		}
+		sb.append("]}");
+		payload = sb.toString();
+		json = new JSONObject(payload);
+		lastUserPath = "data[" + (users - 1) + "]/first_name";
+		compiledLastUserPath = JPath.compile(lastUserPath);
+	}
+
+	@Benchmark
+	public String firstUserId() {
+		return TestUtilities.getValueByJPath(json, "data[0]/id");
+	}
+
+	@Benchmark
+	public String lastUserName() {
+		return TestUtilities.getValueByJPath(json, lastUserPath);
+	}
+
+	@Benchmark
+	public String lastUserNameCompiled() {
+		return compiledLastUserPath.getValue(json);
+	}
+
+	@Benchmark
+	public JPath compileOnly() {
+		return JPath.compile(lastUserPath);
+	}
+
+	@Benchmark
+	public String parseAndExtract() {
+		return TestUtilities.getValueByJPath(new JSONObject(payload), lastUserPath);
+	}
+}
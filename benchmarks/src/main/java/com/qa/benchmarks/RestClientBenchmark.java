@@ -0,0 +1,78 @@
+package com.qa.benchmarks;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.qa.client.RestClient;
+import com.qa.mock.MockUserServer;
+
+/**
+ * RestClient request building + execution against the embedded
+ * MockUserServer, so results measure the client, not the network.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+@State(Scope.Benchmark)
+public class RestClientBenchmark {
+
+	private static final String PAYLOAD = "{\"name\":\"morpheus\",\"job\":\"leader\"}";
+
+	private MockUserServer server;
+	private RestClient restClient;
+	private String url;
+	private HashMap<String, String> headerMap;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		server = new MockUserServer().start();
+		restClient = new RestClient();
+		url = server.getResourceUrl();
+		headerMap = new HashMap<>();
+		headerMap.put("Content-Type", "application/json");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		restClient.close();
+		server.stop();
+	}
+
+	@Benchmark
+	public String getUser() throws IOException {
+		try (CloseableHttpResponse response = restClient.get(url + "/2", headerMap)) {
+			return EntityUtils.toString(response.getEntity(), "UTF-8");
+		}
+	}
+
+	@Benchmark
+	public String postUser() throws IOException {
+		try (CloseableHttpResponse response = restClient.post(url, PAYLOAD, headerMap)) {
+			return EntityUtils.toString(response.getEntity(), "UTF-8");
+		}
+	}
+
+	@Benchmark
+	public byte[] getUserAsync() throws InterruptedException, ExecutionException {
+		return restClient.getAsync(url + "/2", headerMap).get().getBody();
+	}
+}
@@ -0,0 +1,61 @@
+package com.qa.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qa.data.JsonCodecs;
+import com.qa.data.Users;
+
+/**
+ * Jackson round trip (serialize + deserialize) of com.qa.data.Users, with a
+ * shared mapper, through the JsonCodecs registry and with a new mapper per
+ * call as the tests used to do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UsersJacksonBenchmark {
+
+	private ObjectMapper sharedMapper;
+	private Users users;
+
+	@Setup
+	public void setUp() {
+		sharedMapper = new ObjectMapper();
+		users = new Users("morpheus", "leader", "42", "2024-01-01T00:00:00.000Z", null);
+	}
+
+	@Benchmark
+	public Users roundTripSharedMapper() throws IOException {
+		byte[] json = sharedMapper.writeValueAsBytes(users);
+		return sharedMapper.readValue(json, Users.class);
+	}
+
+	@Benchmark
+	public Users roundTripJsonCodecs() throws IOException {
+		byte[] json = JsonCodecs.toBytes(users);
+		return JsonCodecs.reader(Users.class).readValue(json);
+	}
+
+	@Benchmark
+	public Users roundTripNewMapper() throws IOException {
+		ObjectMapper mapper = new ObjectMapper();
+		String json = mapper.writeValueAsString(users);
+		return mapper.readValue(json, Users.class);
+	}
+}
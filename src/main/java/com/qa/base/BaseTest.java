@@ -1,46 +1,124 @@
 package com.qa.base;
 
-import java.io.FileInputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
+import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 import org.apache.log4j.PropertyConfigurator;
+import org.testng.IHookCallBack;
+import org.testng.IHookable;
 import org.testng.ITestContext;
 import org.testng.ITestResult;
+import org.testng.Reporter;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.BeforeSuite;
+import org.testng.annotations.DataProvider;
+import org.testng.xml.XmlSuite;
 
 import com.aventstack.extentreports.ExtentReports;
-import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.Status;
 import com.aventstack.extentreports.markuputils.ExtentColor;
 import com.aventstack.extentreports.markuputils.MarkupHelper;
 import com.aventstack.extentreports.reporter.ExtentSparkReporter;
 import com.aventstack.extentreports.reporter.configuration.Theme;
+import com.qa.capture.CaptureConfig;
+import com.qa.capture.PayloadCapture;
+import com.qa.client.ConnectionPoolConfig;
+import com.qa.client.RestClient;
+import com.qa.client.cache.CacheConfig;
+import com.qa.client.cache.ResponseCache;
+import com.qa.client.cassette.Cassette;
+import com.qa.client.compress.CompressionConfig;
+import com.qa.client.cassette.CassetteMode;
+import com.qa.client.cassette.RequestMatcher;
+import com.qa.client.limit.RequestLimiter;
+import com.qa.client.retry.RetryPolicy;
+import com.qa.config.LayeredConfig;
+import com.qa.config.TestConfig;
+import com.qa.data.DataFileReader;
+import com.qa.data.DataShard;
+import com.qa.data.Users;
+import com.qa.load.LoadProfile;
+import com.qa.load.LoadReport;
+import com.qa.load.LoadRunner;
+import com.qa.load.Scenario;
+import com.qa.log.AsyncRingAppender;
+import com.qa.log.LogPayload;
+import com.qa.mock.MockServerConfig;
+import com.qa.mock.MockUserServer;
+import com.qa.report.AsyncReportWriter;
+import com.qa.report.ReportRenderer;
+import com.qa.report.ReportTest;
 
 /**
  * BaseTest - Base class for all test classes Handles configuration, logging,
  * and reporting setup
+ * 
+ * Shared state is safe for parallel="methods": the configuration is an
+ * immutable TestConfig loaded once per suite, the RestClient is thread-safe,
+ * and the report entry of the running test is kept per thread (see test()).
+ * Report calls are queued to a JSON-lines journal written in the background;
+ * the HTML report is rendered from it in tearDown.
+ * Request/response payloads are saved the same way, to one gzip-compressed
+ * JSON-lines artifact per run (see capture()).
+ * Test methods keep their responses in local variables.
+ * 
+ * Also hooks every test invocation: when load mode is enabled (load.enabled,
+ * e.g. -Dload.enabled=true) the test method is re-run as a load scenario after
+ * its normal functional run. See LoadProfile for the settings.
  */
-public class BaseTest {
+public class BaseTest implements IHookable {
 
 	// Logger
 	private static final Logger logger = Logger.getLogger(BaseTest.class);
 
-	// Properties
-	public Properties prop;
+	// Configuration - layered snapshot, shared read-only by all instances and threads
+	private static volatile LayeredConfig config;
 
-	// Extent Reports - FIXED: Made static and proper initialization
-	public static ExtentReports extent;
+	// Extent Reports - rendered at the end of the suite from the report journal
+	public static volatile ExtentReports extent;
 	public static ExtentSparkReporter sparkReporter;
 
-	// FIXED: Changed from static ThreadLocal to instance variable
-	protected ExtentTest extentTest;
+	// Report journal - ReportTest handles queue their events here
+	private static volatile AsyncReportWriter reportWriter;
+
+	// Report entry of the test running on the current thread
+	private static final ThreadLocal<ReportTest> currentTest = new ThreadLocal<>();
+
+	// Set on load-mode virtual user threads, whose iterations are not reported
+	private static final ThreadLocal<Boolean> loadIteration = new ThreadLocal<>();
+
+	// Request/response payloads of the run (capture.* keys), closed in tearDown
+	private static volatile PayloadCapture payloadCapture;
+
+	// Whether the test invocation running on this thread captures payloads
+	private static final ThreadLocal<Boolean> captureSampled = new ThreadLocal<>();
+
+	// Shared pooled HTTP client - created once per suite, closed in tearDown
+	protected static RestClient restClient;
+
+	// Embedded users API, replaces baseURL unless mock.server=false
+	private static MockUserServer mockServer;
+
+	// Suite start time, used to name report files
+	private static String runTimestamp = new SimpleDateFormat("yyyy.MM.dd.HH.mm.ss").format(new Date());
 
 	// HTTP Status Code Constants
 	public static final int RESPONSE_STATUS_CODE_200 = 200;
@@ -53,25 +131,63 @@ public class BaseTest {
 	public static final int RESPONSE_STATUS_CODE_500 = 500;
 	public static final int RESPONSE_STATUS_CODE_503 = 503;
 
+	// Data-driven tests (see usersFromFile)
+	public static final String USERS_DATA_PROVIDER = "usersFromFile";
+	public static final String DATA_USERS_FILE = "data.users.file";
+	// Sample records on the classpath, used when data.users.file is not set
+	private static final String DEFAULT_USERS_RESOURCE = "com/qa/data/users.ndjson";
+
 	/**
 	 * BeforeSuite - Runs once before entire test suite
+	 * 
+	 * Not named setUp() so the @BeforeMethod setUp() of the test classes does not
+	 * override it.
 	 */
 	@BeforeSuite(alwaysRun = true)
-	public void setUp() {
+	public void setUpSuite(ITestContext context) {
 		try {
 			logger.info("========================================");
 			logger.info("===== STARTING TEST SUITE SETUP ======");
 			logger.info("========================================");
 
-			// Load configuration
-			loadConfiguration();
+			// Resolve configuration: classpath defaults, profile, system properties, suite parameters
+			configure(context);
 
 			// Configure Log4j
 			configureLogging();
 
+			// Start the embedded users API
+			startMockServer();
+
 			// Setup Extent Reports
 			setupExtentReports();
 
+			// Payload artifacts, written in the background
+			openPayloadCapture(context);
+
+			// Create the shared HTTP client
+			ConnectionPoolConfig poolConfig = ConnectionPoolConfig.fromProperties(config().toProperties());
+			restClient = new RestClient(poolConfig);
+			restClient.setRetryPolicy(RetryPolicy.fromProperties(config().toProperties()));
+			restClient.setLimiter(RequestLimiter.fromProperties(config().toProperties()));
+			restClient.setCompression(CompressionConfig.fromProperties(config().toProperties()));
+			CacheConfig cacheConfig = CacheConfig.fromProperties(config().toProperties());
+			if (cacheConfig.isEnabled()) {
+				restClient.setCache(new ResponseCache(cacheConfig));
+			}
+
+			// One connection per parallel test thread, so no test waits on the pool
+			XmlSuite suite = context.getSuite().getXmlSuite();
+			if (suite.getParallel() != null && suite.getParallel().isParallel()) {
+				restClient.ensurePoolCapacity(suite.getThreadCount());
+			}
+
+			// Record or replay the API traffic (cassette.mode)
+			useCassette();
+
+			// Pick up config file edits during long runs (config.watch)
+			watchConfiguration();
+
 			logger.info("========================================");
 			logger.info("===== TEST SUITE SETUP COMPLETED =====");
 			logger.info("========================================");
@@ -84,29 +200,140 @@ public class BaseTest {
 	}
 
 	/**
-	 * Load configuration from properties file
+	 * Current configuration snapshot, resolved on first use. Keep the returned
+	 * object for reads that must agree with each other; a reload swaps in a new
+	 * snapshot and never changes an old one.
+	 * 
+	 * @return TestConfig
 	 */
-	private void loadConfiguration() throws IOException {
-		try {
-			logger.info("Loading configuration properties...");
+	protected static TestConfig config() {
+		return layers().current();
+	}
+
+	/**
+	 * The configuration layers (without suite parameters if used before the
+	 * suite started)
+	 */
+	private static LayeredConfig layers() {
+		LayeredConfig loaded = config;
+		if (loaded == null) {
+			synchronized (BaseTest.class) {
+				loaded = config;
+				if (loaded == null) {
+					loaded = loadConfiguration(null);
+					config = loaded;
+				}
+			}
+		}
+		return loaded;
+	}
 
-			prop = new Properties();
-			String configPath = System.getProperty("user.dir") + "/src/main/java/com/qa/config/config.properties";
+	/**
+	 * Resolve the configuration again with the suite parameters of testng.xml
+	 */
+	private static void configure(ITestContext context) {
+		LayeredConfig loaded = loadConfiguration(context.getSuite().getXmlSuite().getAllParameters());
+		synchronized (BaseTest.class) {
+			if (config != null) {
+				config.close();
+			}
+			config = loaded;
+		}
+	}
 
-			logger.info("Config file path: " + configPath);
+	/**
+	 * Load configuration from the classpath and its overriding layers
+	 */
+	private static LayeredConfig loadConfiguration(Map<String, String> suiteParameters) {
+		try {
+			logger.info("Loading configuration properties...");
 
-			FileInputStream fis = new FileInputStream(configPath);
-			prop.load(fis);
-			fis.close();
+			LayeredConfig loaded = new LayeredConfig(suiteParameters);
 
-			logger.info("Configuration loaded successfully");
-			logger.info("Base URL: " + prop.getProperty("baseURL"));
-			logger.info("Environment: " + prop.getProperty("environment", "test"));
+			logger.info("Configuration loaded from: " + loaded.getSources());
+			logger.info("Base URL: " + loaded.current().get("baseURL"));
+			logger.info("Environment: " + loaded.current().get("environment", "test"));
+			return loaded;
 
 		} catch (IOException e) {
 			logger.error("Failed to load configuration: " + e.getMessage(), e);
-			throw new IOException("Configuration loading failed", e);
+			throw new RuntimeException("Configuration loading failed", e);
+		}
+	}
+
+	/**
+	 * With config.watch=true, reload the configuration whenever one of its files
+	 * changes and apply what can change at runtime (see applyConfigChange)
+	 */
+	private static void watchConfiguration() throws IOException {
+		if (!Boolean.parseBoolean(config().get(LayeredConfig.WATCH, "false").trim())) {
+			return;
+		}
+		layers().addListener(BaseTest::applyConfigChange);
+		layers().startWatching();
+	}
+
+	/**
+	 * Apply a reloaded configuration to the running suite: request limits and
+	 * retries are replaced, the connection pool grows to a larger maxPerRoute
+	 * (it never shrinks while requests may be using it). Running rate-based
+	 * load runs follow load.rps (see run()).
+	 */
+	private static void applyConfigChange(TestConfig previous, TestConfig current) {
+		RestClient client = restClient;
+		if (client == null) {
+			return;
+		}
+		List<String> changed = LayeredConfig.changedKeys(previous, current);
+		if (changed.stream().anyMatch(key -> key.startsWith("limit."))) {
+			client.setLimiter(RequestLimiter.fromProperties(current.toProperties()));
+			logger.info("Request limits reloaded");
+		}
+		if (changed.stream().anyMatch(key -> key.startsWith("retry."))) {
+			client.setRetryPolicy(RetryPolicy.fromProperties(current.toProperties()));
+		}
+		if (changed.contains(ConnectionPoolConfig.MAX_PER_ROUTE)) {
+			client.ensurePoolCapacity(ConnectionPoolConfig.fromProperties(current.toProperties()).getMaxPerRoute());
+		}
+	}
+
+	/**
+	 * Start MockUserServer and point baseURL at it. On by default; run against
+	 * the real service with -Dmock.server=false (or mock.server=false in
+	 * config.properties).
+	 */
+	private static void startMockServer() throws IOException {
+		if (!Boolean.parseBoolean(config().get(MockServerConfig.ENABLED, "true").trim())) {
+			logger.info("Mock server disabled, using baseURL " + config().get("baseURL"));
+			return;
+		}
+		MockServerConfig mockConfig = MockServerConfig.fromProperties(config().toProperties());
+		mockServer = new MockUserServer(mockConfig,
+				config().get("resourcePath", MockUserServer.DEFAULT_RESOURCE_PATH)).start();
+		layers().override("baseURL", mockServer.getBaseUrl());
+		logger.info("Base URL replaced by mock server: " + mockServer.getBaseUrl());
+	}
+
+	/**
+	 * Put a cassette on the shared client when cassette.mode is record or
+	 * replay. Replay needs no server: every
+	 * response comes from the cassette file.
+	 */
+	private static void useCassette() throws IOException {
+		TestConfig current = config();
+		CassetteMode mode = CassetteMode.parse(current.get("cassette.mode", "passthrough"));
+		if (mode == CassetteMode.PASSTHROUGH) {
+			return;
 		}
+		String path = current.get("cassette.file", "cassettes/api.cassette").trim();
+		File file = new File(path);
+		if (!file.isAbsolute()) {
+			file = new File(System.getProperty("user.dir"), path);
+		}
+		RequestMatcher matcher = new RequestMatcher(
+				Arrays.asList(current.get("cassette.matchHeaders", "Content-Type,Accept").split(",")),
+				Boolean.parseBoolean(current.get("cassette.matchHost", "false").trim()));
+		restClient.useCassette(Cassette.open(mode, file, matcher));
 	}
 
 	@BeforeMethod
@@ -115,15 +342,37 @@ public class BaseTest {
 	}
 
 	/**
-	 * Configure Log4j logging
+	 * Configure Log4j logging, then move the root appenders behind an
+	 * AsyncRingAppender (log.async.* keys in log4j.properties)
 	 */
 	private void configureLogging() {
 		try {
 			logger.info("Configuring Log4j...");
 
-			String log4jConfigFile = System.getProperty("user.dir") + "/src/main/resources/log4j.properties";
+			Properties log4jProperties = new Properties();
+			try (InputStream in = BaseTest.class.getClassLoader().getResourceAsStream("log4j.properties")) {
+				if (in == null) {
+					throw new IOException("log4j.properties not found on the classpath");
+				}
+				log4jProperties.load(in);
+			}
 
-			PropertyConfigurator.configure(log4jConfigFile);
+			LogManager.resetConfiguration();
+			PropertyConfigurator.configure(log4jProperties);
+
+			LogPayload.setMaxChars(Integer.parseInt(log4jProperties
+					.getProperty(LogPayload.MAX_CHARS_PROPERTY, String.valueOf(LogPayload.getMaxChars())).trim()));
+
+			if (Boolean.parseBoolean(log4jProperties.getProperty("log.async.enabled", "true").trim())) {
+				int bufferSize = Integer.parseInt(log4jProperties
+						.getProperty("log.async.bufferSize", String.valueOf(AsyncRingAppender.DEFAULT_BUFFER_SIZE))
+						.trim());
+				AsyncRingAppender.DropPolicy dropPolicy = AsyncRingAppender.DropPolicy
+						.valueOf(log4jProperties.getProperty("log.async.dropPolicy",
+								AsyncRingAppender.DropPolicy.DROP_BELOW_WARN.name()).trim().toUpperCase());
+				AsyncRingAppender.wrap(LogManager.getRootLogger(), bufferSize, dropPolicy);
+				logger.info("Async logging enabled: buffer " + bufferSize + ", drop policy " + dropPolicy);
+			}
 
 			logger.info("Log4j configured successfully");
 
@@ -139,8 +388,7 @@ public class BaseTest {
 		try {
 			logger.info("Setting up Extent Reports...");
 
-			String timestamp = new SimpleDateFormat("yyyy.MM.dd.HH.mm.ss").format(new Date());
-			String reportPath = System.getProperty("user.dir") + "/test-output/ExtentReport_" + timestamp + ".html";
+			String reportPath = System.getProperty("user.dir") + "/test-output/ExtentReport_" + runTimestamp + ".html";
 
 			sparkReporter = new ExtentSparkReporter(reportPath);
 			sparkReporter.config().setDocumentTitle("REST API Test Automation Report");
@@ -155,11 +403,17 @@ public class BaseTest {
 			extent.setSystemInfo("Operating System", System.getProperty("os.name"));
 			extent.setSystemInfo("User Name", System.getProperty("user.name"));
 			extent.setSystemInfo("Java Version", System.getProperty("java.version"));
-			extent.setSystemInfo("Environment", prop.getProperty("environment", "Test"));
-			extent.setSystemInfo("Base URL", prop.getProperty("baseURL"));
+			extent.setSystemInfo("Environment", getProperty("environment", "Test"));
+			extent.setSystemInfo("Base URL", getProperty("baseURL"));
+
+			String journalPath = System.getProperty("user.dir") + "/test-output/ExtentReport_" + runTimestamp
+					+ ".jsonl";
+			reportWriter = new AsyncReportWriter(new File(journalPath), Integer.parseInt(
+					getProperty("report.queueCapacity", String.valueOf(AsyncReportWriter.DEFAULT_CAPACITY)).trim()));
 
 			logger.info("Extent Reports configured successfully");
 			logger.info("Report will be generated at: " + reportPath);
+			logger.info("Report journal: " + journalPath);
 
 		} catch (Exception e) {
 			logger.error("Failed to setup Extent Reports: " + e.getMessage(), e);
@@ -167,14 +421,98 @@ public class BaseTest {
 		}
 	}
 
+	/**
+	 * Open the per-run capture directory (capture.dir/Capture_<timestamp>) with
+	 * one compressed NDJSON file for the suite. -Dcapture.enabled=false turns
+	 * capturing off.
+	 */
+	private static void openPayloadCapture(ITestContext context) {
+		CaptureConfig captureConfig = CaptureConfig.fromProperties(config().toProperties());
+		if (!captureConfig.isEnabled()) {
+			logger.info("Payload capture disabled");
+			return;
+		}
+		File dir = new File(captureConfig.getDir());
+		if (!dir.isAbsolute()) {
+			dir = new File(System.getProperty("user.dir"), captureConfig.getDir());
+		}
+		String suiteName = context.getSuite().getName().replaceAll("[^A-Za-z0-9._-]+", "_");
+		File file = new File(new File(dir, "Capture_" + runTimestamp), suiteName + ".ndjson.gz");
+		try {
+			payloadCapture = new PayloadCapture(file, captureConfig);
+			logger.info("Capturing payloads to: " + file.getPath() + " (" + captureConfig + ")");
+		} catch (IOException e) {
+			logger.error("Failed to open payload capture " + file + ": " + e.getMessage(), e);
+		}
+	}
+
+	private static void closePayloadCapture() {
+		PayloadCapture capture = payloadCapture;
+		payloadCapture = null;
+		if (capture == null) {
+			return;
+		}
+		try {
+			capture.close();
+		} catch (IOException e) {
+			logger.error("Failed to close payload capture: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Save a request or response payload of the running test as an artifact.
+	 * Returns at once: the payload is serialized and written in the background,
+	 * subject to capture.sampleRate and the size caps. Load iterations are not
+	 * captured.
+	 * 
+	 * @param name    - What it is, e.g. "request" or "response"
+	 * @param payload - POJO, String or byte[]; must not be changed afterwards
+	 */
+	protected void capture(String name, Object payload) {
+		PayloadCapture capture = payloadCapture;
+		if (capture == null || !Boolean.TRUE.equals(captureSampled.get())
+				|| Boolean.TRUE.equals(loadIteration.get())) {
+			return;
+		}
+		ITestResult result = Reporter.getCurrentTestResult();
+		String test = result != null ? getClass().getSimpleName() + "." + result.getMethod().getMethodName()
+				: getClass().getSimpleName();
+		capture.capture(test, name, payload);
+	}
+
+	/**
+	 * Start a report entry for the test running on this thread
+	 * 
+	 * @param name - Test name shown in the report
+	 * @return ReportTest
+	 */
+	protected ReportTest startTest(String name) {
+		ReportTest test = Boolean.TRUE.equals(loadIteration.get()) ? ReportTest.NONE
+				: ReportTest.create(reportWriter, name);
+		currentTest.set(test);
+		return test;
+	}
+
+	/**
+	 * Report entry of the test running on this thread (a no-op handle if none
+	 * was started)
+	 * 
+	 * @return ReportTest
+	 */
+	protected ReportTest test() {
+		ReportTest test = currentTest.get();
+		return test != null ? test : ReportTest.NONE;
+	}
+
 	/**
 	 * AfterMethod - Runs after each test method
 	 */
 	@AfterMethod(alwaysRun = true)
 	public void afterMethod(ITestResult result) {
+		ReportTest extentTest = test();
+		currentTest.remove();
 		try {
-			// FIXED: Use instance variable instead of ThreadLocal
-			if (extentTest != null) {
+			if (extentTest.isActive()) {
 				String testName = result.getMethod().getMethodName();
 
 				if (result.getStatus() == ITestResult.SUCCESS) {
@@ -196,6 +534,7 @@ public class BaseTest {
 				}
 
 				logger.info("Test execution time: " + (result.getEndMillis() - result.getStartMillis()) + " ms");
+				extentTest.end();
 			}
 
 		} catch (Exception e) {
@@ -203,6 +542,126 @@ public class BaseTest {
 		}
 	}
 
+	/**
+	 * Runs the test method normally, then drives it as a load scenario when load
+	 * mode is enabled
+	 */
+	@Override
+	public void run(IHookCallBack callBack, ITestResult testResult) {
+		PayloadCapture capture = payloadCapture;
+		captureSampled.set(capture != null && capture.sample());
+		callBack.runTestMethod(testResult);
+
+		LoadProfile profile = LoadProfile.resolve(config());
+		if (!profile.isEnabled()) {
+			return;
+		}
+		if (testResult.getThrowable() != null) {
+			logger.warn("Skipping load run - functional run of " + testResult.getName() + " failed");
+			return;
+		}
+
+		String name = getClass().getSimpleName() + "." + testResult.getMethod().getMethodName();
+		restClient.ensurePoolCapacity(profile.isRateBased() ? profile.getMaxThreads() : profile.getUsers());
+
+		// A reloaded load.rps retargets the running open-model run
+		BiConsumer<TestConfig, TestConfig> rateListener = (previous, current) -> {
+			String rps = current.get(LoadProfile.RPS);
+			if (profile.isRateBased() && rps != null && !rps.equals(previous.get(LoadProfile.RPS))
+					&& Double.parseDouble(rps.trim()) > 0) {
+				profile.setRps(Double.parseDouble(rps.trim()));
+				logger.info("Load run " + name + " now targets " + profile.getRps() + " rps");
+			}
+		};
+		layers().addListener(rateListener);
+		LoadReport report;
+		try {
+			report = new LoadRunner(name, profile, () -> newVirtualUser(testResult)).run();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Load run interrupted: " + name, e);
+		} finally {
+			layers().removeListener(rateListener);
+		}
+
+		test().log(Status.INFO, MarkupHelper.createCodeBlock(report.toString()));
+		if (report.isErrorRateExceeded()) {
+			throw new AssertionError(String.format("Load run %s error rate %.3f%% exceeds limit %.3f%%", name,
+					report.getErrorRate() * 100, profile.getMaxErrorRate() * 100));
+		}
+	}
+
+	/**
+	 * Build a scenario backed by a fresh instance of the test class, so virtual
+	 * users never share test fields
+	 */
+	private Scenario newVirtualUser(ITestResult testResult) throws Exception {
+		BaseTest instance = getClass().getDeclaredConstructor().newInstance();
+
+		Method testMethod = testResult.getMethod().getConstructorOrMethod().getMethod();
+		Object[] parameters = testResult.getParameters();
+
+		for (Method beforeMethod : beforeMethods(getClass())) {
+			try {
+				invoke(beforeMethod, instance, resolveArguments(beforeMethod, testResult, testMethod));
+			} catch (Exception | Error e) {
+				throw e;
+			} catch (Throwable t) {
+				throw new Exception(t);
+			}
+		}
+		return () -> {
+			loadIteration.set(Boolean.TRUE);
+			invoke(testMethod, instance, parameters);
+		};
+	}
+
+	/**
+	 * Effective @BeforeMethod methods of a class, superclass methods first
+	 */
+	private static List<Method> beforeMethods(Class<?> type) {
+		List<Method> methods = new ArrayList<>();
+		Set<String> seen = new HashSet<>();
+		for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+			List<Method> declared = new ArrayList<>();
+			for (Method method : c.getDeclaredMethods()) {
+				String signature = method.getName() + Arrays.toString(method.getParameterTypes());
+				// Only the most-derived declaration counts
+				if (seen.add(signature) && method.isAnnotationPresent(BeforeMethod.class)) {
+					method.setAccessible(true);
+					declared.add(method);
+				}
+			}
+			methods.addAll(0, declared);
+		}
+		return methods;
+	}
+
+	private static Object[] resolveArguments(Method method, ITestResult testResult, Method testMethod) {
+		Class<?>[] types = method.getParameterTypes();
+		Object[] args = new Object[types.length];
+		for (int i = 0; i < types.length; i++) {
+			if (ITestContext.class.isAssignableFrom(types[i])) {
+				args[i] = testResult.getTestContext();
+			} else if (ITestResult.class.isAssignableFrom(types[i])) {
+				args[i] = testResult;
+			} else if (Method.class.equals(types[i])) {
+				args[i] = testMethod;
+			} else if (Object[].class.equals(types[i])) {
+				args[i] = testResult.getParameters();
+			}
+		}
+		return args;
+	}
+
+	private static void invoke(Method method, Object instance, Object[] args) throws Throwable {
+		try {
+			method.invoke(instance, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
 	/**
 	 * AfterSuite - Runs once after entire test suite
 	 */
@@ -213,9 +672,22 @@ public class BaseTest {
 			logger.info("===== TEST SUITE TEAR DOWN ==========");
 			logger.info("========================================");
 
-			if (extent != null) {
-				extent.flush();
-				logger.info("Extent Report generated successfully");
+			if (config != null) {
+				config.close();
+			}
+
+			renderReport();
+			closePayloadCapture();
+
+			if (restClient != null) {
+				exportLatencyReport();
+				restClient.close();
+				restClient = null;
+			}
+
+			if (mockServer != null) {
+				mockServer.stop();
+				mockServer = null;
 			}
 
 			logger.info("========================================");
@@ -227,17 +699,86 @@ public class BaseTest {
 		}
 	}
 
+	/**
+	 * Write the remaining report events, then render the HTML report from the
+	 * journal. Only the first report.maxTests tests are rendered in full.
+	 */
+	private void renderReport() {
+		AsyncReportWriter writer = reportWriter;
+		reportWriter = null;
+		if (writer == null || extent == null) {
+			return;
+		}
+		try {
+			writer.close();
+			int maxTests = Integer.parseInt(
+					getProperty("report.maxTests", String.valueOf(ReportRenderer.DEFAULT_MAX_TESTS)).trim());
+			new ReportRenderer(extent, maxTests).render(writer.getFile());
+			extent.flush();
+			logger.info("Extent Report generated successfully");
+		} catch (IOException | RuntimeException e) {
+			logger.error("Failed to render Extent Report: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Log the RestClient latency percentiles and save them as CSV next to the
+	 * Extent report
+	 */
+	private void exportLatencyReport() {
+		try {
+			logger.info("HTTP latency percentiles (ms):\n" + restClient.getMetrics().report());
+			if (restClient.getLimiter() != null) {
+				logger.info("Request limits:\n" + restClient.getLimiter().report());
+			}
+			if (restClient.getCache() != null) {
+				logger.info(restClient.getCache().toString());
+			}
+
+			File csv = new File(System.getProperty("user.dir") + "/test-output/LatencyReport_" + runTimestamp + ".csv");
+			restClient.getMetrics().writeCsv(csv);
+			logger.info("Latency report written to: " + csv.getPath());
+		} catch (IOException e) {
+			logger.error("Failed to write latency report: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Users records streamed from the data file (data.users.file, NDJSON or CSV,
+	 * default the sample users on the classpath), one test invocation each. Rows are read lazily, so the file can hold
+	 * millions of records. -Ddata.shard=i/n limits a fork to its slice.
+	 * 
+	 * Usage: @Test(dataProvider = "usersFromFile")
+	 */
+	@DataProvider(name = USERS_DATA_PROVIDER)
+	public Iterator<Object[]> usersFromFile() throws IOException {
+		TestConfig current = config();
+		String path = current.get(DATA_USERS_FILE);
+		File file;
+		if (path == null || path.trim().isEmpty()) {
+			file = DataFileReader.resourceFile(DEFAULT_USERS_RESOURCE);
+		} else {
+			file = new File(path);
+			if (!file.isAbsolute()) {
+				file = new File(System.getProperty("user.dir"), path);
+			}
+		}
+		DataShard shard = DataShard.parse(current.get(DataShard.PROPERTY));
+		logger.info("Streaming test data from " + file + " (shard " + shard + ")");
+		return DataFileReader.open(file, Users.class, shard).asParameters();
+	}
+
 	/**
 	 * Get property value
 	 */
 	public String getProperty(String key) {
-		return prop.getProperty(key);
+		return config().get(key);
 	}
 
 	/**
 	 * Get property with default value
 	 */
 	public String getProperty(String key, String defaultValue) {
-		return prop.getProperty(key, defaultValue);
+		return config().get(key, defaultValue);
 	}
 }
\ No newline at end of file
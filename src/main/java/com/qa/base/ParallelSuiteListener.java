@@ -0,0 +1,56 @@
+package com.qa.base;
+
+import java.util.List;
+
+import org.apache.log4j.Logger;
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+
+import com.qa.util.VirtualThreads;
+
+/**
+ * ParallelSuiteListener - Lets the thread count of testng.xml be overridden
+ * from the command line:
+ * 
+ * mvn test -Dthreads=16 (fixed number of threads)
+ * mvn test -Dthreads=auto (scaled to the number of cores)
+ * mvn -Pvirtual-threads test (virtual threads, JDK 21+, see TestSuiteLauncher)
+ * 
+ * API tests spend most of their time waiting on the network, so "auto" uses
+ * several platform threads per core, or VIRTUAL_AUTO_THREADS when test methods
+ * run on virtual threads. The RestClient pool is sized from the resulting
+ * thread count in BaseTest.
+ */
+public class ParallelSuiteListener implements IAlterSuiteListener {
+
+	private static final Logger logger = Logger.getLogger(ParallelSuiteListener.class);
+
+	public static final String THREADS = "threads";
+	public static final int THREADS_PER_CORE = 4;
+	public static final int VIRTUAL_AUTO_THREADS = 1024;
+
+	@Override
+	public void alter(List<XmlSuite> suites) {
+		boolean virtual = VirtualThreadExecutorFactory.isInstalled();
+		if (VirtualThreads.isEnabled() && !virtual) {
+			logger.warn("Test methods run on platform threads unless the suite is started by TestSuiteLauncher"
+					+ " (mvn -Pvirtual-threads test); load runs and the mock server still use virtual threads");
+		}
+
+		String threads = System.getProperty(THREADS);
+		if (threads == null || threads.trim().isEmpty()) {
+			return;
+		}
+		int count;
+		if ("auto".equalsIgnoreCase(threads.trim())) {
+			count = virtual ? VIRTUAL_AUTO_THREADS : Runtime.getRuntime().availableProcessors() * THREADS_PER_CORE;
+		} else {
+			count = Integer.parseInt(threads.trim());
+		}
+		for (XmlSuite suite : suites) {
+			suite.setThreadCount(Math.max(1, count));
+			logger.info("Suite '" + suite.getName() + "' runs " + suite.getParallel() + " in parallel with "
+					+ suite.getThreadCount() + (virtual ? " virtual" : "") + " threads");
+		}
+	}
+}
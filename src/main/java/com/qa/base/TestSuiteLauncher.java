@@ -0,0 +1,45 @@
+package com.qa.base;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+import org.testng.TestNG;
+
+import com.qa.util.VirtualThreads;
+
+/**
+ * TestSuiteLauncher - Runs TestNG suites outside Surefire, so the executor
+ * factory can be set before the run. With -Dthreads.virtual=true on JDK 21+
+ * test methods run on virtual threads (VirtualThreadExecutorFactory).
+ *
+ * mvn -Pvirtual-threads test
+ * java -Dthreads.virtual=true -Dthreads=auto com.qa.base.TestSuiteLauncher testng.xml
+ *
+ * The exit code is TestNG's status (0 = all passed).
+ */
+public class TestSuiteLauncher {
+
+	private static final Logger logger = Logger.getLogger(TestSuiteLauncher.class);
+
+	public static final String DEFAULT_SUITE = "testng.xml";
+
+	/**
+	 * @param args - Suite files (default testng.xml)
+	 */
+	public static void main(String[] args) {
+		List<String> suites = args.length > 0 ? Arrays.asList(args) : Collections.singletonList(DEFAULT_SUITE);
+		TestNG testng = new TestNG();
+		testng.setTestSuites(suites);
+		if (Boolean.getBoolean(VirtualThreads.ENABLED_PROPERTY)) {
+			if (VirtualThreadExecutorFactory.install(testng)) {
+				logger.info("Running test methods on virtual threads");
+			} else {
+				logger.warn("Virtual threads need JDK 21+, running test methods on platform threads");
+			}
+		}
+		testng.run();
+		System.exit(testng.getStatus());
+	}
+}
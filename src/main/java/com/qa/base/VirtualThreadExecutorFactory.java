@@ -0,0 +1,93 @@
+package com.qa.base;
+
+import java.util.Comparator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.testng.IDynamicGraph;
+import org.testng.ISuite;
+import org.testng.ITestNGMethod;
+import org.testng.TestNG;
+import org.testng.thread.IExecutorFactory;
+import org.testng.thread.ITestNGThreadPoolExecutor;
+import org.testng.thread.IThreadWorkerFactory;
+
+import com.qa.util.VirtualThreads;
+
+/**
+ * VirtualThreadExecutorFactory - TestNG executor factory that runs parallel
+ * test methods on virtual threads (JDK 21+). Scheduling stays with TestNG's
+ * own executors, only their worker threads are replaced, so priorities,
+ * dependencies and preserve-order behave exactly as with platform threads.
+ *
+ * TestNG only takes an executor factory before the run starts and Maven
+ * Surefire cannot pass one, so it is installed by TestSuiteLauncher
+ * (mvn -Pvirtual-threads test).
+ */
+public class VirtualThreadExecutorFactory implements IExecutorFactory {
+
+	private static final Logger logger = Logger.getLogger(VirtualThreadExecutorFactory.class);
+
+	private static volatile boolean installed;
+
+	private final IExecutorFactory delegate;
+
+	/**
+	 * @param delegate - TestNG's executor factory, whose executors get virtual
+	 *                 worker threads
+	 */
+	public VirtualThreadExecutorFactory(IExecutorFactory delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public ITestNGThreadPoolExecutor newSuiteExecutor(String name, IDynamicGraph<ISuite> graph,
+			IThreadWorkerFactory<ISuite> factory, int corePoolSize, int maximumPoolSize, long keepAliveTime,
+			TimeUnit unit, BlockingQueue<Runnable> workQueue, Comparator<ISuite> comparator) {
+		return withVirtualThreads(delegate.newSuiteExecutor(name, graph, factory, corePoolSize, maximumPoolSize,
+				keepAliveTime, unit, workQueue, comparator), "testng-suite-");
+	}
+
+	@Override
+	public ITestNGThreadPoolExecutor newTestMethodExecutor(String name, IDynamicGraph<ITestNGMethod> graph,
+			IThreadWorkerFactory<ITestNGMethod> factory, int corePoolSize, int maximumPoolSize, long keepAliveTime,
+			TimeUnit unit, BlockingQueue<Runnable> workQueue, Comparator<ITestNGMethod> comparator) {
+		return withVirtualThreads(delegate.newTestMethodExecutor(name, graph, factory, corePoolSize, maximumPoolSize,
+				keepAliveTime, unit, workQueue, comparator), "testng-vt-");
+	}
+
+	private static ITestNGThreadPoolExecutor withVirtualThreads(ITestNGThreadPoolExecutor executor, String prefix) {
+		if (executor instanceof ThreadPoolExecutor) {
+			((ThreadPoolExecutor) executor).setThreadFactory(VirtualThreads.threadFactory(prefix));
+		} else {
+			logger.warn("TestNG executor " + executor.getClass().getName()
+					+ " has no thread factory, running on platform threads");
+		}
+		return executor;
+	}
+
+	/**
+	 * Run the test methods of a TestNG instance on virtual threads. Call before
+	 * TestNG.run().
+	 *
+	 * @param testng - TestNG instance that has not run yet
+	 * @return true if installed, false if virtual threads are not supported
+	 */
+	public static boolean install(TestNG testng) {
+		if (!VirtualThreads.isSupported()) {
+			return false;
+		}
+		testng.setExecutorFactory(new VirtualThreadExecutorFactory(testng.getExecutorFactory()));
+		installed = true;
+		return true;
+	}
+
+	/**
+	 * True once install() succeeded in this JVM
+	 */
+	public static boolean isInstalled() {
+		return installed;
+	}
+}
@@ -0,0 +1,134 @@
+package com.qa.capture;
+
+import java.util.Properties;
+
+/**
+ * CaptureConfig - Settings for PayloadCapture. Values can be loaded from
+ * config.properties using the "capture.*" keys, anything missing falls back to
+ * the defaults below.
+ */
+public class CaptureConfig {
+
+	// Property keys (config.properties)
+	public static final String ENABLED = "capture.enabled";
+	public static final String DIR = "capture.dir";
+	public static final String SAMPLE_RATE = "capture.sampleRate";
+	public static final String MAX_PAYLOAD_BYTES = "capture.maxPayloadBytes";
+	public static final String MAX_BYTES = "capture.maxBytes";
+	public static final String QUEUE_CAPACITY = "capture.queueCapacity";
+
+	private boolean enabled = true;
+	private String dir = "test-output";
+	private double sampleRate = 1.0;
+	private int maxPayloadBytes = 64 * 1024;
+	private long maxBytes = 256L * 1024 * 1024;
+	private int queueCapacity = 10000;
+
+	/**
+	 * Build a config from properties, using defaults for missing keys
+	 *
+	 * @param prop - Loaded configuration (may be null)
+	 * @return CaptureConfig
+	 */
+	public static CaptureConfig fromProperties(Properties prop) {
+		CaptureConfig config = new CaptureConfig();
+		if (prop == null) {
+			return config;
+		}
+		config.setEnabled(Boolean.parseBoolean(prop.getProperty(ENABLED, String.valueOf(config.enabled)).trim()));
+		config.setDir(prop.getProperty(DIR, config.dir).trim());
+		config.setSampleRate(Double.parseDouble(prop.getProperty(SAMPLE_RATE, String.valueOf(config.sampleRate)).trim()));
+		config.setMaxPayloadBytes(
+				Integer.parseInt(prop.getProperty(MAX_PAYLOAD_BYTES, String.valueOf(config.maxPayloadBytes)).trim()));
+		config.setMaxBytes(Long.parseLong(prop.getProperty(MAX_BYTES, String.valueOf(config.maxBytes)).trim()));
+		config.setQueueCapacity(
+				Integer.parseInt(prop.getProperty(QUEUE_CAPACITY, String.valueOf(config.queueCapacity)).trim()));
+		return config;
+	}
+
+	// ============ GETTERS AND SETTERS ============
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Parent directory of the per-run capture directories (relative paths are
+	 * resolved against user.dir)
+	 */
+	public String getDir() {
+		return dir;
+	}
+
+	public void setDir(String dir) {
+		this.dir = dir;
+	}
+
+	/**
+	 * Fraction of test invocations whose payloads are captured (0.0 - 1.0)
+	 */
+	public double getSampleRate() {
+		return sampleRate;
+	}
+
+	public void setSampleRate(double sampleRate) {
+		if (sampleRate < 0 || sampleRate > 1) {
+			throw new IllegalArgumentException("sampleRate must be between 0 and 1: " + sampleRate);
+		}
+		this.sampleRate = sampleRate;
+	}
+
+	/**
+	 * Payloads whose JSON is larger are cut to this many bytes
+	 */
+	public int getMaxPayloadBytes() {
+		return maxPayloadBytes;
+	}
+
+	public void setMaxPayloadBytes(int maxPayloadBytes) {
+		if (maxPayloadBytes <= 0) {
+			throw new IllegalArgumentException("maxPayloadBytes must be > 0: " + maxPayloadBytes);
+		}
+		this.maxPayloadBytes = maxPayloadBytes;
+	}
+
+	/**
+	 * Uncompressed bytes written per run; later payloads are dropped
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public void setMaxBytes(long maxBytes) {
+		if (maxBytes <= 0) {
+			throw new IllegalArgumentException("maxBytes must be > 0: " + maxBytes);
+		}
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Payloads waiting for the writer; when full, new payloads are dropped
+	 * rather than slowing the test down
+	 */
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		if (queueCapacity <= 0) {
+			throw new IllegalArgumentException("queueCapacity must be > 0: " + queueCapacity);
+		}
+		this.queueCapacity = queueCapacity;
+	}
+
+	@Override
+	public String toString() {
+		return "CaptureConfig{enabled=" + enabled + ", dir=" + dir + ", sampleRate=" + sampleRate
+				+ ", maxPayloadBytes=" + maxPayloadBytes + ", maxBytes=" + maxBytes + ", queueCapacity="
+				+ queueCapacity + "}";
+	}
+}
@@ -0,0 +1,333 @@
+package com.qa.capture;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.log4j.Logger;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.qa.data.JsonCodecs;
+import com.qa.util.VirtualThreads;
+
+/**
+ * PayloadCapture - Saves request/response payloads of a run as test artifacts:
+ * one gzip-compressed JSON-lines file, appended on a background thread.
+ *
+ * capture() only timestamps the payload and adds it to a lock-free queue; the
+ * writer thread serializes it (JsonCodecs), cuts it to maxPayloadBytes and
+ * appends one line per payload. Test threads never touch the disk or each
+ * other, and never wait: when the queue is full, or maxBytes have been written,
+ * payloads are dropped and counted instead. Payload objects must not be changed
+ * after they are captured.
+ *
+ * Each line: {"t":millis,"thread":..,"test":..,"name":..,"payload":<JSON>};
+ * cut payloads have "truncated":true, "bytes":<full size> and the first bytes
+ * as a string.
+ */
+public class PayloadCapture implements AutoCloseable {
+
+	private static final Logger logger = Logger.getLogger(PayloadCapture.class);
+
+	private static final JsonFactory FACTORY = new JsonFactory();
+
+	// Payloads written between flushes while the queue stays busy
+	private static final int BATCH_SIZE = 256;
+
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+	private final File file;
+	private final CaptureConfig config;
+	private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pending = new AtomicInteger();
+	private final CountingOutputStream counter;
+	private final JsonGenerator generator;
+	private final Thread writer;
+
+	private final AtomicLong captured = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private volatile long written;
+	private volatile long truncated;
+
+	private volatile boolean closed;
+	// Set by the writer before its last poll; entries offered later are dropped
+	private volatile boolean exited;
+	private volatile boolean failed;
+	private volatile boolean full;
+
+	/**
+	 * Open the capture file and start the writer thread
+	 *
+	 * @param file   - Target .ndjson.gz file, replaced if it exists
+	 * @param config - Sampling and size caps
+	 * @throws IOException if the file cannot be created
+	 */
+	public PayloadCapture(File file, CaptureConfig config) throws IOException {
+		this.file = file;
+		this.config = config;
+		if (file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+		OutputStream out = new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024),
+				64 * 1024);
+		this.counter = new CountingOutputStream(out);
+		this.generator = FACTORY.createGenerator(counter, JsonEncoding.UTF8);
+		generator.setRootValueSeparator(null);
+		this.writer = VirtualThreads.platformThreadFactory("payload-capture-").newThread(this::drainLoop);
+		writer.start();
+	}
+
+	/**
+	 * Sampling decision for one test invocation, so its request and response
+	 * are captured together or not at all
+	 *
+	 * @return true if the invocation's payloads should be captured
+	 */
+	public boolean sample() {
+		double rate = config.getSampleRate();
+		return rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+	}
+
+	/**
+	 * Queue a payload. Never blocks; drops it when the queue is full or the
+	 * byte cap has been reached.
+	 *
+	 * @param test    - Test that produced it, e.g. "PostAPITest.createUserTest"
+	 * @param name    - What it is, e.g. "request" or "response"
+	 * @param payload - POJO, String or byte[] (null is recorded as null)
+	 */
+	public void capture(String test, String name, Object payload) {
+		if (closed || full || pending.get() >= config.getQueueCapacity()) {
+			dropped.incrementAndGet();
+			return;
+		}
+		pending.incrementAndGet();
+		captured.incrementAndGet();
+		Entry entry = new Entry(System.currentTimeMillis(), Thread.currentThread().getName(), test, name, payload);
+		queue.offer(entry);
+		// close() raced with this capture: the writer may be gone, take it back
+		if (exited && queue.remove(entry)) {
+			pending.decrementAndGet();
+			captured.decrementAndGet();
+			dropped.incrementAndGet();
+		}
+	}
+
+	private void drainLoop() {
+		int batch = 0;
+		while (true) {
+			Entry entry = queue.poll();
+			if (entry == null) {
+				if (batch > 0) {
+					flush();
+					batch = 0;
+				}
+				if (closed) {
+					if (exited) {
+						break;
+					}
+					// One more poll after exited is visible, so an entry is either
+					// written here or taken back by capture()
+					exited = true;
+					continue;
+				}
+				LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+				continue;
+			}
+			pending.decrementAndGet();
+			write(entry);
+			if (++batch >= BATCH_SIZE) {
+				flush();
+				batch = 0;
+			}
+		}
+	}
+
+	private void write(Entry entry) {
+		if (failed || full) {
+			dropped.incrementAndGet();
+			return;
+		}
+		try {
+			byte[] json = serialize(entry.payload);
+			generator.writeStartObject();
+			generator.writeNumberField("t", entry.timestamp);
+			generator.writeStringField("thread", entry.thread);
+			generator.writeStringField("test", entry.test);
+			generator.writeStringField("name", entry.name);
+			if (json.length > config.getMaxPayloadBytes()) {
+				generator.writeBooleanField("truncated", true);
+				generator.writeNumberField("bytes", json.length);
+				generator.writeStringField("payload",
+						new String(json, 0, utf8Boundary(json, config.getMaxPayloadBytes()), StandardCharsets.UTF_8));
+				truncated++;
+			} else {
+				generator.writeFieldName("payload");
+				generator.writeRawValue(new String(json, StandardCharsets.UTF_8));
+			}
+			generator.writeEndObject();
+			generator.writeRaw('\n');
+			written++;
+			if (counter.count + generator.getOutputBuffered() >= config.getMaxBytes()) {
+				full = true;
+				logger.warn("Payload capture reached " + config.getMaxBytes() + " bytes, dropping further payloads");
+			}
+		} catch (IOException e) {
+			failed = true;
+			logger.error("Failed to write payload capture " + file + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Largest cut of at most maxBytes that does not split a UTF-8 character
+	 */
+	private static int utf8Boundary(byte[] utf8, int maxBytes) {
+		int end = maxBytes;
+		// Continuation bytes are 10xxxxxx: back off to the start of that character
+		while (end > 0 && (utf8[end] & 0xC0) == 0x80) {
+			end--;
+		}
+		return end;
+	}
+
+	/**
+	 * Payload as JSON: POJOs via JsonCodecs, String / byte[] as a JSON string
+	 */
+	private static byte[] serialize(Object payload) throws IOException {
+		if (payload instanceof byte[]) {
+			payload = new String((byte[]) payload, StandardCharsets.UTF_8);
+		}
+		if (payload == null) {
+			return "null".getBytes(StandardCharsets.UTF_8);
+		}
+		if (payload instanceof String) {
+			return JsonCodecs.writer(String.class).writeValueAsBytes(payload);
+		}
+		return JsonCodecs.toBytes(payload);
+	}
+
+	private void flush() {
+		if (failed) {
+			return;
+		}
+		try {
+			generator.flush();
+		} catch (IOException e) {
+			failed = true;
+			logger.error("Failed to write payload capture " + file + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Payloads accepted by capture()
+	 */
+	public long getCaptured() {
+		return captured.get();
+	}
+
+	/**
+	 * Payloads written to the file so far
+	 */
+	public long getWritten() {
+		return written;
+	}
+
+	/**
+	 * Payloads not written: queue full, byte cap reached or a write error
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	/**
+	 * Payloads cut to maxPayloadBytes
+	 */
+	public long getTruncated() {
+		return truncated;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Write all queued payloads and finish the gzip stream. Payloads captured
+	 * afterwards are dropped.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		LockSupport.unpark(writer);
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		generator.close();
+		logger.info("Payload capture closed: " + this);
+	}
+
+	@Override
+	public String toString() {
+		return "PayloadCapture{" + file.getPath() + ", written=" + written + ", dropped=" + getDropped()
+				+ ", truncated=" + truncated + ", bytes=" + counter.count + "}";
+	}
+
+	private static final class Entry {
+
+		final long timestamp;
+		final String thread;
+		final String test;
+		final String name;
+		final Object payload;
+
+		Entry(long timestamp, String thread, String test, String name, Object payload) {
+			this.timestamp = timestamp;
+			this.thread = thread;
+			this.test = test;
+			this.name = name;
+			this.payload = payload;
+		}
+	}
+
+	/**
+	 * Counts the uncompressed bytes handed to the gzip stream
+	 */
+	private static final class CountingOutputStream extends FilterOutputStream {
+
+		volatile long count;
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+}
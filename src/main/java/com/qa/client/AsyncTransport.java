@@ -0,0 +1,227 @@
+package com.qa.client;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+import com.qa.client.compress.CompressionConfig;
+import com.qa.client.compress.ContentCodings;
+import com.qa.client.metrics.EndpointMetrics;
+import com.qa.client.metrics.Phase;
+
+/**
+ * AsyncTransport - Non-blocking transport behind the RestClient *Async methods.
+ * 
+ * Uses the JDK java.net.http.HttpClient, so a small fixed pool of threads can
+ * keep many requests in flight. A semaphore caps the number of outstanding
+ * requests: once the cap is reached, submitting a new request blocks the
+ * caller until one completes (backpressure). It speaks HTTP/1.1, or HTTP/2
+ * with fallback when http.transport=http2.
+ * 
+ * Retries are resubmitted after their backoff on a separate resend pool (see
+ * afterDelay). Its threads may block on the in-flight cap and the request
+ * limits, so neither the callback threads nor the common ForkJoin pool ever
+ * wait for a permit.
+ * 
+ * The JDK client does not handle Content-Encoding: accepted encodings are
+ * advertised here and compressed bodies are decoded once received, since the
+ * response is buffered anyway.
+ */
+class AsyncTransport {
+
+	private static final Logger logger = Logger.getLogger(AsyncTransport.class);
+
+	// Headers the JDK client manages itself and refuses to accept
+	private static final Set<String> RESTRICTED_HEADERS = new HashSet<>(
+			Arrays.asList("connection", "content-length", "expect", "host", "upgrade"));
+
+	private final HttpClient httpClient;
+	private final ExecutorService executor;
+	// Blocking by design: a resend waits here for its permits
+	private final ExecutorService resendExecutor;
+	private final int maxInFlight;
+	private final Semaphore inFlight;
+	private final Duration requestTimeout;
+
+	AsyncTransport(ConnectionPoolConfig poolConfig) {
+		AtomicInteger threadCount = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(poolConfig.getAsyncThreads(), runnable -> {
+			Thread thread = new Thread(runnable, "rest-async-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		AtomicInteger resendCount = new AtomicInteger();
+		resendExecutor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "rest-async-resend-" + resendCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		maxInFlight = poolConfig.getAsyncMaxInFlight();
+		inFlight = new Semaphore(maxInFlight);
+		requestTimeout = Duration.ofMillis(poolConfig.getSocketTimeoutMillis());
+
+		httpClient = HttpClient.newBuilder()
+				.version(poolConfig.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofMillis(poolConfig.getConnectTimeoutMillis()))
+				.executor(executor)
+				.build();
+	}
+
+	/**
+	 * Send a request and buffer the whole response body
+	 * 
+	 * @param method    - HTTP method
+	 * @param url       - Complete API endpoint URL
+	 * @param endpoint  - Metrics the request latency is recorded into
+	 * @param body      - Request body (null for none)
+	 * @param headerMap   - HTTP headers
+	 * @param compression - Accept-Encoding and request compression
+	 * @return future completed with the buffered response
+	 */
+	CompletableFuture<BufferedResponse> send(String method, String url, EndpointMetrics endpoint, byte[] body,
+			Map<String, String> headerMap, CompressionConfig compression) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).timeout(requestTimeout);
+
+		boolean acceptSet = false;
+		boolean encodingSet = false;
+		if (headerMap != null) {
+			for (Map.Entry<String, String> entry : headerMap.entrySet()) {
+				if (RESTRICTED_HEADERS.contains(entry.getKey().toLowerCase())) {
+					logger.debug("Skipping restricted header: " + entry.getKey());
+					continue;
+				}
+				builder.header(entry.getKey(), entry.getValue());
+				acceptSet |= "accept-encoding".equalsIgnoreCase(entry.getKey());
+				encodingSet |= "content-encoding".equalsIgnoreCase(entry.getKey());
+			}
+		}
+
+		String acceptEncoding = compression.getAcceptEncoding();
+		if (acceptEncoding != null && !acceptSet) {
+			builder.header("Accept-Encoding", acceptEncoding);
+		}
+		if (body != null && !encodingSet && compression.shouldCompress(body.length)) {
+			byte[] gzipped = ContentCodings.gzip(body);
+			endpoint.recordRequestCompression(body.length, gzipped.length);
+			builder.header("Content-Encoding", "gzip");
+			body = gzipped;
+		}
+
+		builder.method(method, body != null ? HttpRequest.BodyPublishers.ofByteArray(body)
+				: HttpRequest.BodyPublishers.noBody());
+		HttpRequest request = builder.build();
+
+		// Backpressure: block the caller while too many requests are outstanding
+		try {
+			inFlight.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			CompletableFuture<BufferedResponse> failed = new CompletableFuture<>();
+			failed.completeExceptionally(e);
+			return failed;
+		}
+
+		long start = System.nanoTime();
+		HttpResponse.BodyHandler<byte[]> bodyHandler = responseInfo -> {
+			// Called once the status line and headers have arrived
+			endpoint.record(Phase.FIRST_BYTE, System.nanoTime() - start);
+			String coding = responseInfo.headers().firstValue("Content-Encoding").orElse(null);
+			if (ContentCodings.isIdentity(coding)) {
+				return HttpResponse.BodySubscribers.ofByteArray();
+			}
+			return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(),
+					wire -> decode(coding, wire, endpoint));
+		};
+
+		CompletableFuture<HttpResponse<byte[]>> future;
+		try {
+			future = httpClient.sendAsync(request, bodyHandler);
+		} catch (RuntimeException e) {
+			inFlight.release();
+			throw e;
+		}
+
+		return future.whenComplete((response, error) -> {
+			inFlight.release();
+			if (response != null) {
+				endpoint.record(Phase.TOTAL, System.nanoTime() - start);
+			}
+		}).thenApply(response -> new BufferedResponse(response.statusCode(), decodedHeaders(response),
+				response.body()));
+	}
+
+	private static byte[] decode(String coding, byte[] wire, EndpointMetrics endpoint) {
+		long start = System.nanoTime();
+		try {
+			byte[] decoded = ContentCodings.decode(coding, wire);
+			endpoint.recordDecompression(wire.length, decoded.length, System.nanoTime() - start);
+			return decoded;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Response headers, without the encoding headers once the body is decoded
+	 */
+	private static Map<String, List<String>> decodedHeaders(HttpResponse<byte[]> response) {
+		Map<String, List<String>> headers = response.headers().map();
+		if (ContentCodings.isIdentity(response.headers().firstValue("Content-Encoding").orElse(null))) {
+			return headers;
+		}
+		Map<String, List<String>> decoded = new LinkedHashMap<>();
+		for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+			String name = entry.getKey().toLowerCase(Locale.ROOT);
+			if (!"content-encoding".equals(name) && !"content-length".equals(name)) {
+				decoded.put(entry.getKey(), entry.getValue());
+			}
+		}
+		return decoded;
+	}
+
+	/**
+	 * Executor that runs a task on the resend pool once the delay has passed.
+	 * The task may block on the in-flight cap and the request limits.
+	 * 
+	 * @param delayNanos - Backoff before the task runs
+	 */
+	Executor afterDelay(long delayNanos) {
+		return CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS, resendExecutor);
+	}
+
+	/**
+	 * Number of requests currently in flight
+	 */
+	int getInFlightCount() {
+		return maxInFlight - inFlight.availablePermits();
+	}
+
+	/**
+	 * Stop the callback and resend threads. In-flight requests are abandoned.
+	 */
+	void shutdown() {
+		executor.shutdown();
+		resendExecutor.shutdown();
+	}
+}
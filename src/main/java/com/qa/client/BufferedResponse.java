@@ -0,0 +1,93 @@
+package com.qa.client;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.qa.data.JsonCodecs;
+
+/**
+ * BufferedResponse - Fully read HTTP response returned by the async RestClient
+ * API. The body is already in memory, so nothing needs to be closed.
+ */
+public class BufferedResponse {
+
+	private final int statusCode;
+	private final Map<String, List<String>> headers;
+	private final byte[] body;
+
+	public BufferedResponse(int statusCode, Map<String, List<String>> headers, byte[] body) {
+		this.statusCode = statusCode;
+		this.headers = headers != null ? headers : Collections.<String, List<String>>emptyMap();
+		this.body = body != null ? body : new byte[0];
+	}
+
+	/**
+	 * Get HTTP status code
+	 * 
+	 * @return status code
+	 */
+	public int getStatusCode() {
+		return statusCode;
+	}
+
+	/**
+	 * Get all response headers
+	 * 
+	 * @return header name to values
+	 */
+	public Map<String, List<String>> getHeaders() {
+		return headers;
+	}
+
+	/**
+	 * Get the first value of a header (case-insensitive)
+	 * 
+	 * @param name - Header name
+	 * @return header value or null
+	 */
+	public String getHeader(String name) {
+		for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+			if (entry.getKey() != null && entry.getKey().equalsIgnoreCase(name) && !entry.getValue().isEmpty()) {
+				return entry.getValue().get(0);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Get raw response body
+	 * 
+	 * @return body bytes (never null)
+	 */
+	public byte[] getBody() {
+		return body;
+	}
+
+	/**
+	 * Get response body decoded as UTF-8
+	 * 
+	 * @return body string
+	 */
+	public String getBodyAsString() {
+		return new String(body, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Deserialize the body through the shared JsonCodecs reader
+	 * 
+	 * @param type - Target class
+	 * @return deserialized object
+	 * @throws IOException
+	 */
+	public <T> T getBodyAs(Class<T> type) throws IOException {
+		return JsonCodecs.reader(type).readValue(body);
+	}
+
+	@Override
+	public String toString() {
+		return "BufferedResponse{statusCode=" + statusCode + ", bodyLength=" + body.length + "}";
+	}
+}
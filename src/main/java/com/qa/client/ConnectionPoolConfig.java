@@ -0,0 +1,198 @@
+package com.qa.client;
+
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * ConnectionPoolConfig - Settings for the pooled HTTP client owned by
+ * RestClient. Values can be loaded from config.properties using the "http.*"
+ * keys, anything missing falls back to the defaults below.
+ */
+public class ConnectionPoolConfig {
+
+	// Property keys (config.properties)
+	public static final String MAX_TOTAL = "http.pool.maxTotal";
+	public static final String MAX_PER_ROUTE = "http.pool.maxPerRoute";
+	public static final String KEEP_ALIVE_MILLIS = "http.keepAliveMillis";
+	public static final String IDLE_EVICTION_SECONDS = "http.idleEvictionSeconds";
+	public static final String VALIDATE_AFTER_INACTIVITY_MILLIS = "http.validateAfterInactivityMillis";
+	public static final String CONNECT_TIMEOUT_MILLIS = "http.connectTimeoutMillis";
+	public static final String SOCKET_TIMEOUT_MILLIS = "http.socketTimeoutMillis";
+	public static final String ASYNC_MAX_IN_FLIGHT = "http.async.maxInFlight";
+	public static final String ASYNC_THREADS = "http.async.threads";
+	public static final String TRANSPORT = "http.transport";
+
+	/**
+	 * Apache HttpClient, HTTP/1.1 over the connection pool
+	 */
+	public static final String TRANSPORT_HTTP1 = "http1";
+
+	/**
+	 * JDK HttpClient, HTTP/2 multiplexed (h2 via ALPN, h2c upgrade), falling
+	 * back to HTTP/1.1
+	 */
+	public static final String TRANSPORT_HTTP2 = "http2";
+
+	private int maxTotal = 50;
+	private int maxPerRoute = 20;
+	private long keepAliveMillis = 30000;
+	private long idleEvictionSeconds = 30;
+	private int validateAfterInactivityMillis = 2000;
+	private int connectTimeoutMillis = 10000;
+	private int socketTimeoutMillis = 30000;
+	private int asyncMaxInFlight = 256;
+	private int asyncThreads = 4;
+	private String transport = TRANSPORT_HTTP1;
+
+	/**
+	 * Build a config from properties, using defaults for missing keys
+	 *
+	 * @param prop - Loaded configuration (may be null)
+	 * @return ConnectionPoolConfig
+	 */
+	public static ConnectionPoolConfig fromProperties(Properties prop) {
+		ConnectionPoolConfig config = new ConnectionPoolConfig();
+		if (prop == null) {
+			return config;
+		}
+		config.setMaxTotal(Integer.parseInt(prop.getProperty(MAX_TOTAL, String.valueOf(config.maxTotal)).trim()));
+		config.setMaxPerRoute(
+				Integer.parseInt(prop.getProperty(MAX_PER_ROUTE, String.valueOf(config.maxPerRoute)).trim()));
+		config.setKeepAliveMillis(
+				Long.parseLong(prop.getProperty(KEEP_ALIVE_MILLIS, String.valueOf(config.keepAliveMillis)).trim()));
+		config.setIdleEvictionSeconds(Long.parseLong(
+				prop.getProperty(IDLE_EVICTION_SECONDS, String.valueOf(config.idleEvictionSeconds)).trim()));
+		config.setValidateAfterInactivityMillis(Integer.parseInt(prop
+				.getProperty(VALIDATE_AFTER_INACTIVITY_MILLIS, String.valueOf(config.validateAfterInactivityMillis))
+				.trim()));
+		config.setConnectTimeoutMillis(Integer.parseInt(
+				prop.getProperty(CONNECT_TIMEOUT_MILLIS, String.valueOf(config.connectTimeoutMillis)).trim()));
+		config.setSocketTimeoutMillis(Integer.parseInt(
+				prop.getProperty(SOCKET_TIMEOUT_MILLIS, String.valueOf(config.socketTimeoutMillis)).trim()));
+		config.setAsyncMaxInFlight(Integer.parseInt(
+				prop.getProperty(ASYNC_MAX_IN_FLIGHT, String.valueOf(config.asyncMaxInFlight)).trim()));
+		config.setAsyncThreads(
+				Integer.parseInt(prop.getProperty(ASYNC_THREADS, String.valueOf(config.asyncThreads)).trim()));
+		config.setTransport(prop.getProperty(TRANSPORT, config.transport).trim());
+		return config;
+	}
+
+	// ============ GETTERS AND SETTERS ============
+
+	public int getMaxTotal() {
+		return maxTotal;
+	}
+
+	public void setMaxTotal(int maxTotal) {
+		this.maxTotal = maxTotal;
+	}
+
+	public int getMaxPerRoute() {
+		return maxPerRoute;
+	}
+
+	public void setMaxPerRoute(int maxPerRoute) {
+		this.maxPerRoute = maxPerRoute;
+	}
+
+	/**
+	 * Keep-alive used when the server does not send a Keep-Alive timeout
+	 */
+	public long getKeepAliveMillis() {
+		return keepAliveMillis;
+	}
+
+	public void setKeepAliveMillis(long keepAliveMillis) {
+		this.keepAliveMillis = keepAliveMillis;
+	}
+
+	/**
+	 * Pooled connections idle for longer than this are closed in the background
+	 */
+	public long getIdleEvictionSeconds() {
+		return idleEvictionSeconds;
+	}
+
+	public void setIdleEvictionSeconds(long idleEvictionSeconds) {
+		this.idleEvictionSeconds = idleEvictionSeconds;
+	}
+
+	/**
+	 * Connections idle for longer than this are re-validated before reuse
+	 */
+	public int getValidateAfterInactivityMillis() {
+		return validateAfterInactivityMillis;
+	}
+
+	public void setValidateAfterInactivityMillis(int validateAfterInactivityMillis) {
+		this.validateAfterInactivityMillis = validateAfterInactivityMillis;
+	}
+
+	public int getConnectTimeoutMillis() {
+		return connectTimeoutMillis;
+	}
+
+	public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+		this.connectTimeoutMillis = connectTimeoutMillis;
+	}
+
+	public int getSocketTimeoutMillis() {
+		return socketTimeoutMillis;
+	}
+
+	public void setSocketTimeoutMillis(int socketTimeoutMillis) {
+		this.socketTimeoutMillis = socketTimeoutMillis;
+	}
+
+	/**
+	 * Maximum async requests in flight before callers are blocked
+	 */
+	public int getAsyncMaxInFlight() {
+		return asyncMaxInFlight;
+	}
+
+	public void setAsyncMaxInFlight(int asyncMaxInFlight) {
+		this.asyncMaxInFlight = asyncMaxInFlight;
+	}
+
+	/**
+	 * Threads used by the async client for I/O callbacks
+	 */
+	public int getAsyncThreads() {
+		return asyncThreads;
+	}
+
+	public void setAsyncThreads(int asyncThreads) {
+		this.asyncThreads = asyncThreads;
+	}
+
+	/**
+	 * Transport used by RestClient: TRANSPORT_HTTP1 or TRANSPORT_HTTP2
+	 */
+	public String getTransport() {
+		return transport;
+	}
+
+	public void setTransport(String transport) {
+		String value = transport.trim().toLowerCase(Locale.ROOT);
+		if (!TRANSPORT_HTTP1.equals(value) && !TRANSPORT_HTTP2.equals(value)) {
+			throw new IllegalArgumentException(
+					"Unknown " + TRANSPORT + ": " + transport + " (expected http1 or http2)");
+		}
+		this.transport = value;
+	}
+
+	/**
+	 * True if the HTTP/2 transport is selected
+	 */
+	public boolean isHttp2() {
+		return TRANSPORT_HTTP2.equals(transport);
+	}
+
+	@Override
+	public String toString() {
+		return "ConnectionPoolConfig{maxTotal=" + maxTotal + ", maxPerRoute=" + maxPerRoute + ", keepAliveMillis="
+				+ keepAliveMillis + ", idleEvictionSeconds=" + idleEvictionSeconds + ", asyncMaxInFlight="
+				+ asyncMaxInFlight + ", transport=" + transport + "}";
+	}
+}
@@ -0,0 +1,69 @@
+package com.qa.client;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * CountingInputStream - Counts the bytes read through it, so tests can check
+ * payload sizes while streaming instead of buffering.
+ */
+public class CountingInputStream extends FilterInputStream {
+
+	private long count;
+	private long mark = -1;
+
+	public CountingInputStream(InputStream in) {
+		super(in);
+	}
+
+	/**
+	 * Number of bytes read (or skipped) so far
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	@Override
+	public int read() throws IOException {
+		int b = in.read();
+		if (b >= 0) {
+			count++;
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		int n = in.read(b, off, len);
+		if (n > 0) {
+			count += n;
+		}
+		return n;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = in.skip(n);
+		count += skipped;
+		return skipped;
+	}
+
+	@Override
+	public synchronized void mark(int readlimit) {
+		in.mark(readlimit);
+		mark = count;
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		if (!in.markSupported()) {
+			throw new IOException("Mark not supported");
+		}
+		if (mark < 0) {
+			throw new IOException("Mark not set");
+		}
+		in.reset();
+		count = mark;
+	}
+}
@@ -0,0 +1,27 @@
+package com.qa.client;
+
+import java.io.IOException;
+
+/**
+ * ResponseTooLargeException - Thrown by RestResponse.readBody when a response
+ * body is larger than the limit the caller is willing to buffer.
+ */
+public class ResponseTooLargeException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long limit;
+
+	public ResponseTooLargeException(String url, long limit, long contentLength) {
+		super("Response body of " + url + " exceeds " + limit + " bytes"
+				+ (contentLength >= 0 ? " (Content-Length: " + contentLength + ")" : ""));
+		this.limit = limit;
+	}
+
+	/**
+	 * Maximum number of bytes that was allowed
+	 */
+	public long getLimit() {
+		return limit;
+	}
+}
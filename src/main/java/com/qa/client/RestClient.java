@@ -1,60 +1,182 @@
 package com.qa.client;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
 import org.apache.log4j.Logger;
 
+import com.qa.client.batch.BatchConfig;
+import com.qa.client.batch.BatchExecution;
+import com.qa.client.batch.RequestSpec;
+import com.qa.client.cache.CachedResponse;
+import com.qa.client.cache.ResponseCache;
+import com.qa.client.cassette.Cassette;
+import com.qa.client.cassette.CassetteMode;
+import com.qa.client.cassette.RecordedResponse;
+import com.qa.client.cassette.RequestKey;
+import com.qa.client.compress.CompressionConfig;
+import com.qa.client.compress.ContentCodings;
+import com.qa.client.compress.DecompressingEntity;
+import com.qa.client.compress.GzipRequestEntity;
+import com.qa.client.entity.ByteBufferEntity;
+import com.qa.client.entity.JsonEntity;
+import com.qa.client.limit.Limits;
+import com.qa.client.limit.RequestLimiter;
+import com.qa.client.metrics.EndpointMetrics;
+import com.qa.client.metrics.Phase;
+import com.qa.client.metrics.RequestMetrics;
+import com.qa.client.metrics.RequestTimer;
+import com.qa.client.metrics.TimedEntity;
+import com.qa.client.retry.RetryBudget;
+import com.qa.client.retry.RetryPolicy;
+import com.qa.client.transport.ApacheTransport;
+import com.qa.client.transport.Http2Transport;
+import com.qa.client.transport.Transport;
+import com.qa.data.JsonCodecs;
+import com.qa.log.LogPayload;
+
 /**
  * RestClient - Wrapper class for Apache HttpClient Provides methods for HTTP
  * operations: GET, POST, PUT, DELETE
+ * 
+ * Each RestClient owns one long-lived Transport: by default an Apache
+ * HttpClient backed by a PoolingHttpClientConnectionManager (ApacheTransport),
+ * or with http.transport=http2 the JDK client multiplexing requests over
+ * HTTP/2 (Http2Transport). Connections (and TLS sessions) are reused across
+ * calls. Create it once per suite and close() it when done. Responses must
+ * always be closed so their connection or stream is released.
+ * 
+ * The *Async methods run on a separate non-blocking transport (see
+ * AsyncTransport) and return fully buffered responses. batch() keeps a window
+ * of them in flight for bulk data setup.
+ * 
+ * Every request is timed (connect, first byte, full body) into per-endpoint
+ * HdrHistograms, available through getMetrics().
+ * 
+ * With a cassette (see useCassette) requests are recorded to disk, or replayed
+ * from it without touching the network.
+ * 
+ * With a RetryPolicy (see setRetryPolicy) failed requests are retried with
+ * jittered exponential backoff, within a RetryBudget shared by all threads.
+ * A RequestLimiter (see setLimiter) caps the rate and concurrency per host or
+ * endpoint so parallel runs stay below server-side throttles. A ResponseCache
+ * (see setCache) serves repeated GETs and is invalidated by writes.
+ * 
+ * Responses are requested gzip/deflate (br when a decoder is available) and
+ * decoded while they are read; large request bodies can be sent gzipped (see
+ * setCompression).
  */
-public class RestClient {
+public class RestClient implements Closeable {
 
 	private static final Logger logger = Logger.getLogger(RestClient.class);
 
+	private final ConnectionPoolConfig poolConfig;
+	private final Transport transport;
+	private final RequestMetrics metrics = new RequestMetrics();
+
+	// Created on first *Async call
+	private volatile AsyncTransport asyncTransport;
+
+	// Record/replay store, null = passthrough
+	private volatile Cassette cassette;
+
+	// Retries are off unless a policy is set
+	private volatile RetryPolicy retryPolicy = RetryPolicy.disabled();
+	private volatile RetryBudget retryBudget = retryPolicy.newBudget();
+
+	// Client-side rate/concurrency limits, null = unlimited
+	private volatile RequestLimiter limiter;
+
+	// GET response cache, null = off
+	private volatile ResponseCache cache;
+
+	// Accept-Encoding and request body compression
+	private volatile CompressionConfig compression = new CompressionConfig();
+
+	/**
+	 * Create a client with the default pool settings
+	 */
+	public RestClient() {
+		this(new ConnectionPoolConfig());
+	}
+
+	/**
+	 * Create a client with the given pool settings
+	 * 
+	 * @param poolConfig - Pool limits, keep-alive, eviction and transport settings
+	 */
+	public RestClient(ConnectionPoolConfig poolConfig) {
+		this(poolConfig, poolConfig.isHttp2() ? new Http2Transport(poolConfig) : new ApacheTransport(poolConfig));
+	}
+
+	/**
+	 * Create a client on a specific transport
+	 * 
+	 * @param poolConfig - Timeouts and async settings
+	 * @param transport  - Sends the blocking requests, closed with the client
+	 */
+	public RestClient(ConnectionPoolConfig poolConfig, Transport transport) {
+		this.poolConfig = poolConfig;
+		this.transport = transport;
+		logger.info("RestClient created with " + poolConfig);
+	}
+
 	/**
 	 * GET Request
 	 * 
 	 * @param url       - Complete API endpoint URL
 	 * @param headerMap - HTTP headers
-	 * @return CloseableHttpResponse
+	 * @return RestResponse (close it, or use try-with-resources)
 	 * @throws ClientProtocolException
 	 * @throws IOException
 	 */
-	public CloseableHttpResponse get(String url, HashMap<String, String> headerMap)
+	public RestResponse get(String url, HashMap<String, String> headerMap)
 			throws ClientProtocolException, IOException {
 
-		logger.info("Executing GET request to: " + url);
-
-		// Create HTTP Client
-		CloseableHttpClient httpClient = HttpClients.createDefault();
+		if (logger.isInfoEnabled()) {
+			logger.info("Executing GET request to: " + url);
+		}
 
 		// Create GET request
 		HttpGet httpGet = new HttpGet(url);
 
-		// Add headers to request
-		if (headerMap != null) {
-			for (Map.Entry<String, String> entry : headerMap.entrySet()) {
-				httpGet.addHeader(entry.getKey(), entry.getValue());
-				logger.debug("Adding header: " + entry.getKey() + " = " + entry.getValue());
-			}
-		}
+		// Execute request (or answer from the cache) and get response
+		ResponseCache cache = this.cache;
+		RestResponse response = cache != null && this.cassette == null
+				? executeCached(cache, httpGet, url, headerMap)
+				: execute(httpGet, url, headerMap);
 
-		// Execute request and get response
-		CloseableHttpResponse response = httpClient.execute(httpGet);
-
-		logger.info("GET request executed. Status: " + response.getStatusLine().getStatusCode());
+		if (logger.isInfoEnabled()) {
+			logger.info("GET request executed. Status: " + response.getStatusCode());
+		}
 
 		return response;
 	}
@@ -63,40 +185,120 @@ public class RestClient {
 	 * POST Request
 	 * 
 	 * @param url          - Complete API endpoint URL
-	 * @param entityString - Request body as JSON string
+	 * @param entityString - Request body as JSON string (sent as UTF-8)
 	 * @param headerMap    - HTTP headers
-	 * @return CloseableHttpResponse
+	 * @return RestResponse (close it, or use try-with-resources)
 	 * @throws ClientProtocolException
 	 * @throws IOException
 	 */
-	public CloseableHttpResponse post(String url, String entityString, HashMap<String, String> headerMap)
+	public RestResponse post(String url, String entityString, HashMap<String, String> headerMap)
 			throws ClientProtocolException, IOException {
 
-		logger.info("Executing POST request to: " + url);
-		logger.debug("Request body: " + entityString);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Request body: " + LogPayload.truncate(entityString));
+		}
+		return post(url, new StringEntity(entityString, ContentType.APPLICATION_JSON), headerMap);
+	}
 
-		// Create HTTP Client
-		CloseableHttpClient httpClient = HttpClients.createDefault();
+	/**
+	 * POST Request with a byte[] body. The array is sent as is, without a copy.
+	 * 
+	 * @param url         - Complete API endpoint URL
+	 * @param body        - Request body
+	 * @param contentType - Content-Type including charset, e.g.
+	 *                    ContentType.APPLICATION_JSON
+	 * @param headerMap   - HTTP headers
+	 * @return RestResponse (close it, or use try-with-resources)
+	 * @throws ClientProtocolException
+	 * @throws IOException
+	 */
+	public RestResponse post(String url, byte[] body, ContentType contentType,
+			HashMap<String, String> headerMap) throws ClientProtocolException, IOException {
 
-		// Create POST request
-		HttpPost httpPost = new HttpPost(url);
+		return post(url, new ByteArrayEntity(body, contentType), headerMap);
+	}
 
-		// Set request body
-		StringEntity entity = new StringEntity(entityString);
-		httpPost.setEntity(entity);
+	/**
+	 * POST Request with the remaining bytes of a ByteBuffer as body
+	 * 
+	 * @param url         - Complete API endpoint URL
+	 * @param body        - Request body (position is not changed)
+	 * @param contentType - Content-Type including charset
+	 * @param headerMap   - HTTP headers
+	 * @return RestResponse (close it, or use try-with-resources)
+	 * @throws ClientProtocolException
+	 * @throws IOException
+	 */
+	public RestResponse post(String url, ByteBuffer body, ContentType contentType,
+			HashMap<String, String> headerMap) throws ClientProtocolException, IOException {
 
-		// Add headers to request
-		if (headerMap != null) {
-			for (Map.Entry<String, String> entry : headerMap.entrySet()) {
-				httpPost.addHeader(entry.getKey(), entry.getValue());
-				logger.debug("Adding header: " + entry.getKey() + " = " + entry.getValue());
-			}
+		return post(url, new ByteBufferEntity(body, contentType), headerMap);
+	}
+
+	/**
+	 * POST Request streaming the body from an InputStream. The stream is read
+	 * once while sending, so the request cannot be retried.
+	 * 
+	 * @param url         - Complete API endpoint URL
+	 * @param body        - Request body stream
+	 * @param length      - Number of bytes in the stream (-1 to send chunked)
+	 * @param contentType - Content-Type including charset
+	 * @param headerMap   - HTTP headers
+	 * @return RestResponse (close it, or use try-with-resources)
+	 * @throws ClientProtocolException
+	 * @throws IOException
+	 */
+	public RestResponse post(String url, InputStream body, long length, ContentType contentType,
+			HashMap<String, String> headerMap) throws ClientProtocolException, IOException {
+
+		return post(url, new InputStreamEntity(body, length, contentType), headerMap);
+	}
+
+	/**
+	 * POST Request with a POJO body, written straight to the connection by the
+	 * shared JsonCodecs writer
+	 * 
+	 * @param url       - Complete API endpoint URL
+	 * @param body      - Request object
+	 * @param headerMap - HTTP headers
+	 * @return RestResponse (close it, or use try-with-resources)
+	 * @throws ClientProtocolException
+	 * @throws IOException
+	 */
+	public RestResponse postJson(String url, Object body, HashMap<String, String> headerMap)
+			throws ClientProtocolException, IOException {
+
+		return post(url, new JsonEntity(body), headerMap);
+	}
+
+	/**
+	 * POST Request with a prepared entity
+	 * 
+	 * @param url       - Complete API endpoint URL
+	 * @param entity    - Request body
+	 * @param headerMap - HTTP headers
+	 * @return RestResponse (close it, or use try-with-resources)
+	 * @throws ClientProtocolException
+	 * @throws IOException
+	 */
+	public RestResponse post(String url, HttpEntity entity, HashMap<String, String> headerMap)
+			throws ClientProtocolException, IOException {
+
+		if (logger.isInfoEnabled()) {
+			logger.info("Executing POST request to: " + url);
 		}
 
+		// Create POST request
+		HttpPost httpPost = new HttpPost(url);
+		httpPost.setEntity(entity);
+
 		// Execute request and get response
-		CloseableHttpResponse response = httpClient.execute(httpPost);
+		RestResponse response = execute(httpPost, url, headerMap);
+		invalidateCached(url);
 
-		logger.info("POST request executed. Status: " + response.getStatusLine().getStatusCode());
+		if (logger.isInfoEnabled()) {
+			logger.info("POST request executed. Status: " + response.getStatusCode());
+		}
 
 		return response;
 	}
@@ -105,40 +307,119 @@ public class RestClient {
 	 * PUT Request
 	 * 
 	 * @param url          - Complete API endpoint URL
-	 * @param entityString - Request body as JSON string
+	 * @param entityString - Request body as JSON string (sent as UTF-8)
 	 * @param headerMap    - HTTP headers
-	 * @return CloseableHttpResponse
+	 * @return RestResponse (close it, or use try-with-resources)
 	 * @throws ClientProtocolException
 	 * @throws IOException
 	 */
-	public CloseableHttpResponse put(String url, String entityString, HashMap<String, String> headerMap)
+	public RestResponse put(String url, String entityString, HashMap<String, String> headerMap)
 			throws ClientProtocolException, IOException {
 
-		logger.info("Executing PUT request to: " + url);
-		logger.debug("Request body: " + entityString);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Request body: " + LogPayload.truncate(entityString));
+		}
+		return put(url, new StringEntity(entityString, ContentType.APPLICATION_JSON), headerMap);
+	}
 
-		// Create HTTP Client
-		CloseableHttpClient httpClient = HttpClients.createDefault();
+	/**
+	 * PUT Request with a byte[] body. The array is sent as is, without a copy.
+	 * 
+	 * @param url         - Complete API endpoint URL
+	 * @param body        - Request body
+	 * @param contentType - Content-Type including charset
+	 * @param headerMap   - HTTP headers
+	 * @return RestResponse (close it, or use try-with-resources)
+	 * @throws ClientProtocolException
+	 * @throws IOException
+	 */
+	public RestResponse put(String url, byte[] body, ContentType contentType,
+			HashMap<String, String> headerMap) throws ClientProtocolException, IOException {
 
-		// Create PUT request
-		HttpPut httpPut = new HttpPut(url);
+		return put(url, new ByteArrayEntity(body, contentType), headerMap);
+	}
 
-		// Set request body
-		StringEntity entity = new StringEntity(entityString);
-		httpPut.setEntity(entity);
+	/**
+	 * PUT Request with the remaining bytes of a ByteBuffer as body
+	 * 
+	 * @param url         - Complete API endpoint URL
+	 * @param body        - Request body (position is not changed)
+	 * @param contentType - Content-Type including charset
+	 * @param headerMap   - HTTP headers
+	 * @return RestResponse (close it, or use try-with-resources)
+	 * @throws ClientProtocolException
+	 * @throws IOException
+	 */
+	public RestResponse put(String url, ByteBuffer body, ContentType contentType,
+			HashMap<String, String> headerMap) throws ClientProtocolException, IOException {
 
-		// Add headers to request
-		if (headerMap != null) {
-			for (Map.Entry<String, String> entry : headerMap.entrySet()) {
-				httpPut.addHeader(entry.getKey(), entry.getValue());
-				logger.debug("Adding header: " + entry.getKey() + " = " + entry.getValue());
-			}
+		return put(url, new ByteBufferEntity(body, contentType), headerMap);
+	}
+
+	/**
+	 * PUT Request streaming the body from an InputStream. The stream is read
+	 * once while sending, so the request cannot be retried.
+	 * 
+	 * @param url         - Complete API endpoint URL
+	 * @param body        - Request body stream
+	 * @param length      - Number of bytes in the stream (-1 to send chunked)
+	 * @param contentType - Content-Type including charset
+	 * @param headerMap   - HTTP headers
+	 * @return RestResponse (close it, or use try-with-resources)
+	 * @throws ClientProtocolException
+	 * @throws IOException
+	 */
+	public RestResponse put(String url, InputStream body, long length, ContentType contentType,
+			HashMap<String, String> headerMap) throws ClientProtocolException, IOException {
+
+		return put(url, new InputStreamEntity(body, length, contentType), headerMap);
+	}
+
+	/**
+	 * PUT Request with a POJO body, written straight to the connection by the
+	 * shared JsonCodecs writer
+	 * 
+	 * @param url       - Complete API endpoint URL
+	 * @param body      - Request object
+	 * @param headerMap - HTTP headers
+	 * @return RestResponse (close it, or use try-with-resources)
+	 * @throws ClientProtocolException
+	 * @throws IOException
+	 */
+	public RestResponse putJson(String url, Object body, HashMap<String, String> headerMap)
+			throws ClientProtocolException, IOException {
+
+		return put(url, new JsonEntity(body), headerMap);
+	}
+
+	/**
+	 * PUT Request with a prepared entity
+	 * 
+	 * @param url       - Complete API endpoint URL
+	 * @param entity    - Request body
+	 * @param headerMap - HTTP headers
+	 * @return RestResponse (close it, or use try-with-resources)
+	 * @throws ClientProtocolException
+	 * @throws IOException
+	 */
+	public RestResponse put(String url, HttpEntity entity, HashMap<String, String> headerMap)
+			throws ClientProtocolException, IOException {
+
+		if (logger.isInfoEnabled()) {
+			logger.info("Executing PUT request to: " + url);
 		}
 
+		// Create PUT request
+		HttpPut httpPut = new HttpPut(url);
+		httpPut.setEntity(entity);
+
 		// Execute request and get response
-		CloseableHttpResponse response = httpClient.execute(httpPut);
+		RestResponse response = execute(httpPut, url, headerMap);
+		invalidateCached(url);
 
-		logger.info("PUT request executed. Status: " + response.getStatusLine().getStatusCode());
+		if (logger.isInfoEnabled()) {
+			logger.info("PUT request executed. Status: " + response.getStatusCode());
+		}
 
 		return response;
 	}
@@ -148,34 +429,746 @@ public class RestClient {
 	 * 
 	 * @param url       - Complete API endpoint URL
 	 * @param headerMap - HTTP headers
-	 * @return CloseableHttpResponse
+	 * @return RestResponse (close it, or use try-with-resources)
 	 * @throws ClientProtocolException
 	 * @throws IOException
 	 */
-	public CloseableHttpResponse delete(String url, HashMap<String, String> headerMap)
+	public RestResponse delete(String url, HashMap<String, String> headerMap)
 			throws ClientProtocolException, IOException {
 
-		logger.info("Executing DELETE request to: " + url);
-
-		// Create HTTP Client
-		CloseableHttpClient httpClient = HttpClients.createDefault();
+		if (logger.isInfoEnabled()) {
+			logger.info("Executing DELETE request to: " + url);
+		}
 
 		// Create DELETE request
 		HttpDelete httpDelete = new HttpDelete(url);
 
+		// Execute request and get response
+		RestResponse response = execute(httpDelete, url, headerMap);
+		invalidateCached(url);
+
+		if (logger.isInfoEnabled()) {
+			logger.info("DELETE request executed. Status: " + response.getStatusCode());
+		}
+
+		return response;
+	}
+
+	/**
+	 * Deserialize a response body straight from the entity stream
+	 * 
+	 * @param response - Response returned by this client
+	 * @param type     - Target class
+	 * @return deserialized object, or null if the response has no body
+	 * @throws IOException
+	 */
+	public <T> T readEntity(CloseableHttpResponse response, Class<T> type) throws IOException {
+		HttpEntity entity = response.getEntity();
+		if (entity == null) {
+			return null;
+		}
+		try (InputStream in = entity.getContent()) {
+			return JsonCodecs.read(in, type);
+		}
+	}
+
+	/**
+	 * Asynchronous GET Request
+	 * 
+	 * @param url       - Complete API endpoint URL
+	 * @param headerMap - HTTP headers
+	 * @return CompletableFuture completed with the fully buffered response
+	 */
+	public CompletableFuture<BufferedResponse> getAsync(String url, HashMap<String, String> headerMap) {
+		if (logger.isInfoEnabled()) {
+			logger.info("Submitting async GET request to: " + url);
+		}
+		return sendAsync("GET", url, null, headerMap);
+	}
+
+	/**
+	 * Asynchronous POST Request
+	 * 
+	 * @param url          - Complete API endpoint URL
+	 * @param entityString - Request body as JSON string
+	 * @param headerMap    - HTTP headers
+	 * @return CompletableFuture completed with the fully buffered response
+	 */
+	public CompletableFuture<BufferedResponse> postAsync(String url, String entityString,
+			HashMap<String, String> headerMap) {
+		if (logger.isInfoEnabled()) {
+			logger.info("Submitting async POST request to: " + url);
+		}
+		return sendAsync("POST", url, entityString.getBytes(StandardCharsets.UTF_8), headerMap);
+	}
+
+	/**
+	 * Asynchronous PUT Request
+	 * 
+	 * @param url          - Complete API endpoint URL
+	 * @param entityString - Request body as JSON string
+	 * @param headerMap    - HTTP headers
+	 * @return CompletableFuture completed with the fully buffered response
+	 */
+	public CompletableFuture<BufferedResponse> putAsync(String url, String entityString,
+			HashMap<String, String> headerMap) {
+		if (logger.isInfoEnabled()) {
+			logger.info("Submitting async PUT request to: " + url);
+		}
+		return sendAsync("PUT", url, entityString.getBytes(StandardCharsets.UTF_8), headerMap);
+	}
+
+	/**
+	 * Asynchronous DELETE Request
+	 * 
+	 * @param url       - Complete API endpoint URL
+	 * @param headerMap - HTTP headers
+	 * @return CompletableFuture completed with the fully buffered response
+	 */
+	public CompletableFuture<BufferedResponse> deleteAsync(String url, HashMap<String, String> headerMap) {
+		if (logger.isInfoEnabled()) {
+			logger.info("Submitting async DELETE request to: " + url);
+		}
+		return sendAsync("DELETE", url, null, headerMap);
+	}
+
+	/**
+	 * Send many requests with up to maxInFlight of them outstanding at once, on
+	 * the async transport (with the cassette, cache, retries and limits of this
+	 * client). Outcomes stream back in completion order by iterating the result;
+	 * a failed request does not stop the others unless failFast is set.
+	 * 
+	 * @param specs  - Requests to send, read lazily
+	 * @param config - Window size and failure handling
+	 * @return the running batch; iterate it or call awaitAll()
+	 */
+	public BatchExecution batch(Iterable<RequestSpec> specs, BatchConfig config) {
+		return batch(specs.spliterator(), config);
+	}
+
+	/**
+	 * Same as batch(Iterable, BatchConfig) for a stream of specs, e.g. generated
+	 * test data that should not be held in memory
+	 * 
+	 * @param specs  - Requests to send, consumed lazily
+	 * @param config - Window size and failure handling
+	 * @return the running batch
+	 */
+	public BatchExecution batch(Stream<RequestSpec> specs, BatchConfig config) {
+		return batch(specs.spliterator(), config);
+	}
+
+	private BatchExecution batch(Spliterator<RequestSpec> specs, BatchConfig config) {
+		if (logger.isInfoEnabled()) {
+			logger.info("Starting batch with " + config);
+		}
+		return BatchExecution.start(specs, config, spec -> {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Submitting batch request " + spec);
+			}
+			return sendAsync(spec.getMethod(), spec.getUrl(), spec.getBody(), spec.getHeaders());
+		});
+	}
+
+	/**
+	 * Send on the async transport, or answer from / record to the cassette
+	 */
+	private CompletableFuture<BufferedResponse> sendAsync(String method, String url, byte[] body,
+			HashMap<String, String> headerMap) {
+		Cassette cassette = this.cassette;
+		if (cassette == null) {
+			ResponseCache cache = this.cache;
+			if (cache == null) {
+				return sendAsyncWithRetry(method, url, body, headerMap);
+			}
+			if ("GET".equals(method)) {
+				return sendAsyncCached(cache, url, headerMap);
+			}
+			return sendAsyncWithRetry(method, url, body, headerMap).whenComplete((response, error) -> {
+				cache.invalidate(url);
+			});
+		}
+		RequestKey key = cassette.key(method, url, headerMap, body);
+		if (cassette.getMode() == CassetteMode.REPLAY) {
+			try {
+				return CompletableFuture.completedFuture(cassette.replay(key).toBufferedResponse());
+			} catch (IOException e) {
+				return CompletableFuture.failedFuture(e);
+			}
+		}
+		return sendAsyncWithRetry(method, url, body, headerMap).thenApply(response -> {
+			try {
+				cassette.record(key, RecordedResponse.of(response));
+			} catch (IOException e) {
+				logger.error("Failed to record " + method + " " + url + " on cassette: " + e.getMessage());
+			}
+			return response;
+		});
+	}
+
+	/**
+	 * Async GET through the response cache, see executeCached
+	 */
+	private CompletableFuture<BufferedResponse> sendAsyncCached(ResponseCache cache, String url,
+			HashMap<String, String> headerMap) {
+		String key = cache.key(url, headerMap);
+		long generation = cache.generation(url);
+		CachedResponse cached = cache.lookup(key);
+		if (cached != null && cached.isFresh()) {
+			return CompletableFuture.completedFuture(cached.getResponse().toBufferedResponse());
+		}
+		HashMap<String, String> headers = headerMap;
+		if (cached != null) {
+			headers = headerMap != null ? new HashMap<>(headerMap) : new HashMap<>();
+			cached.addValidators(headers);
+		}
+		return sendAsyncWithRetry("GET", url, null, headers).thenApply(response -> {
+			if (cached != null && response.getStatusCode() == 304) {
+				return cache.revalidated(cached, RecordedResponse.of(response), generation).getResponse()
+						.toBufferedResponse();
+			}
+			RecordedResponse recorded = RecordedResponse.of(response);
+			if (cache.isCacheable(recorded)) {
+				cache.store(key, url, recorded, generation);
+			}
+			return response;
+		});
+	}
+
+	/**
+	 * Send on the async transport, retrying on a delayed executor (no thread
+	 * waits during the backoff). The resend runs on the transport's resend
+	 * pool, never on the callback threads or the common ForkJoin pool, because
+	 * it may block on the in-flight cap and the request limits.
+	 */
+	private CompletableFuture<BufferedResponse> sendAsyncWithRetry(String method, String url, byte[] body,
+			HashMap<String, String> headerMap) {
+		EndpointMetrics endpoint = metrics.forRequest(method, url);
+		RetryPolicy policy = retryPolicy;
+		if (!policy.isRetryableMethod(method)) {
+			return sendLimited(method, url, endpoint, body, headerMap);
+		}
+		RetryBudget budget = retryBudget;
+		budget.onRequest();
+		return sendAsyncAttempt(method, url, endpoint, body, headerMap, policy, budget, 1);
+	}
+
+	private CompletableFuture<BufferedResponse> sendAsyncAttempt(String method, String url, EndpointMetrics endpoint,
+			byte[] body, HashMap<String, String> headerMap, RetryPolicy policy, RetryBudget budget, int attempt) {
+		return sendLimited(method, url, endpoint, body, headerMap).handle((response, error) -> {
+			Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause()
+					: error;
+			String reason;
+			long delay;
+			if (cause == null) {
+				if (!policy.isRetryableStatus(response.getStatusCode())
+						|| !mayRetry(policy, budget, endpoint, attempt)) {
+					return CompletableFuture.completedFuture(response);
+				}
+				reason = String.valueOf(response.getStatusCode());
+				delay = policy.delayNanos(attempt, response.getHeader("Retry-After"));
+			} else {
+				if (!policy.isRetryableException(cause) || !mayRetry(policy, budget, endpoint, attempt)) {
+					return CompletableFuture.<BufferedResponse>failedFuture(cause);
+				}
+				reason = cause.getClass().getSimpleName();
+				delay = policy.delayNanos(attempt, null);
+			}
+			logRetry(method, url, reason, attempt, policy, delay);
+			endpoint.recordRetry(reason, delay);
+			return CompletableFuture
+					.supplyAsync(() -> sendAsyncAttempt(method, url, endpoint, body, headerMap, policy, budget,
+							attempt + 1), async().afterDelay(delay))
+					.thenCompose(next -> next);
+		}).thenCompose(next -> next);
+	}
+
+	/**
+	 * Send on the async transport within the request limits. Waiting for a limit
+	 * blocks the caller, like the transport's own in-flight cap; for a retry the
+	 * caller is a resend pool thread.
+	 */
+	private CompletableFuture<BufferedResponse> sendLimited(String method, String url, EndpointMetrics endpoint,
+			byte[] body, HashMap<String, String> headerMap) {
+		RequestLimiter limiter = this.limiter;
+		Limits limits = limiter != null ? limiter.forRequest(url, endpoint.getEndpoint()) : null;
+		if (limits == null) {
+			return async().send(method, url, endpoint, body, headerMap, compression);
+		}
+		try {
+			limits.acquire();
+		} catch (InterruptedIOException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+		long start = System.nanoTime();
+		CompletableFuture<BufferedResponse> future;
+		try {
+			future = async().send(method, url, endpoint, body, headerMap, compression);
+		} catch (RuntimeException e) {
+			limits.releaseFailed();
+			throw e;
+		}
+		return future.whenComplete((response, error) -> {
+			if (response != null) {
+				limits.release(response.getStatusCode(), System.nanoTime() - start);
+			} else {
+				limits.releaseFailed();
+			}
+		});
+	}
+
+	/**
+	 * Lazily create the async transport so blocking-only suites don't pay for it
+	 */
+	private AsyncTransport async() {
+		AsyncTransport transport = asyncTransport;
+		if (transport == null) {
+			synchronized (this) {
+				transport = asyncTransport;
+				if (transport == null) {
+					transport = new AsyncTransport(poolConfig);
+					asyncTransport = transport;
+				}
+			}
+		}
+		return transport;
+	}
+
+	/**
+	 * Add headers and execute the request on the shared pooled client, retrying
+	 * it as the RetryPolicy allows
+	 */
+	private RestResponse execute(HttpRequestBase request, String url, HashMap<String, String> headerMap)
+			throws ClientProtocolException, IOException {
+
 		// Add headers to request
 		if (headerMap != null) {
+			boolean debug = logger.isDebugEnabled();
 			for (Map.Entry<String, String> entry : headerMap.entrySet()) {
-				httpDelete.addHeader(entry.getKey(), entry.getValue());
-				logger.debug("Adding header: " + entry.getKey() + " = " + entry.getValue());
+				request.addHeader(entry.getKey(), entry.getValue());
+				if (debug) {
+					logger.debug("Adding header: " + entry.getKey() + " = " + entry.getValue());
+				}
 			}
 		}
 
-		// Execute request and get response
-		CloseableHttpResponse response = httpClient.execute(httpDelete);
+		Cassette cassette = this.cassette;
+		if (cassette != null) {
+			return executeWithCassette(cassette, request, url, headerMap);
+		}
+		return executeWithRetry(request, url);
+	}
+
+	/**
+	 * Execute the request (headers already added), retrying it as the
+	 * RetryPolicy allows
+	 */
+	private RestResponse executeWithRetry(HttpRequestBase request, String url) throws IOException {
+		EndpointMetrics endpoint = metrics.forRequest(request.getMethod(), url);
+		RetryPolicy policy = retryPolicy;
+		if (!policy.isRetryableMethod(request.getMethod()) || !isRepeatable(request)) {
+			return new RestResponse(executeTimed(request, url, endpoint), url);
+		}
+
+		RetryBudget budget = retryBudget;
+		budget.onRequest();
+		for (int attempt = 1;; attempt++) {
+			String reason;
+			long delay;
+			try {
+				CloseableHttpResponse response = executeTimed(request, url, endpoint);
+				int status = response.getStatusLine().getStatusCode();
+				if (!policy.isRetryableStatus(status) || !mayRetry(policy, budget, endpoint, attempt)) {
+					return new RestResponse(response, url);
+				}
+				reason = String.valueOf(status);
+				Header retryAfter = response.getFirstHeader("Retry-After");
+				delay = policy.delayNanos(attempt, retryAfter != null ? retryAfter.getValue() : null);
+				// Release the connection before waiting
+				EntityUtils.consumeQuietly(response.getEntity());
+				response.close();
+			} catch (IOException e) {
+				if (!policy.isRetryableException(e) || !mayRetry(policy, budget, endpoint, attempt)) {
+					throw e;
+				}
+				reason = e.getClass().getSimpleName();
+				delay = policy.delayNanos(attempt, null);
+			}
+			logRetry(request.getMethod(), url, reason, attempt, policy, delay);
+			endpoint.recordRetry(reason, delay);
+			try {
+				TimeUnit.NANOSECONDS.sleep(delay);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting to retry " + url);
+			}
+			request.reset();
+		}
+	}
+
+	/**
+	 * Execute once on the pooled client within the request limits, recording its
+	 * latency phases (the time spent waiting for a limit is not included)
+	 */
+	private CloseableHttpResponse executeTimed(HttpRequestBase request, String url, EndpointMetrics endpoint)
+			throws IOException {
+		RequestLimiter limiter = this.limiter;
+		Limits limits = limiter != null ? limiter.forRequest(url, endpoint.getEndpoint()) : null;
+		if (limits != null) {
+			limits.acquire();
+		}
+
+		CompressionConfig compression = this.compression;
+		encodeRequest(request, endpoint, compression);
 
-		logger.info("DELETE request executed. Status: " + response.getStatusLine().getStatusCode());
+		HttpClientContext context = HttpClientContext.create();
+		RequestTimer timer = new RequestTimer();
+		timer.attach(context);
 
+		CloseableHttpResponse response;
+		try {
+			response = transport.execute(request, context);
+		} catch (IOException | RuntimeException e) {
+			if (limits != null) {
+				limits.releaseFailed();
+			}
+			throw e;
+		}
+
+		if (timer.getConnectNanos() >= 0) {
+			endpoint.record(Phase.CONNECT, timer.getConnectNanos());
+		}
+		long firstByte = timer.getFirstByteNanos() >= 0 ? timer.getFirstByteNanos() : timer.elapsedNanos();
+		endpoint.record(Phase.FIRST_BYTE, firstByte);
+		if (limits != null) {
+			limits.release(response.getStatusLine().getStatusCode(), firstByte);
+		}
+		if (response.getEntity() == null) {
+			endpoint.record(Phase.TOTAL, timer.elapsedNanos());
+		} else {
+			decodeResponse(response, endpoint);
+			response.setEntity(new TimedEntity(response.getEntity(), endpoint, timer));
+		}
 		return response;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Advertise the accepted encodings and gzip a large request body, unless the
+	 * caller set them already
+	 */
+	private static void encodeRequest(HttpRequestBase request, EndpointMetrics endpoint,
+			CompressionConfig compression) {
+		String acceptEncoding = compression.getAcceptEncoding();
+		if (acceptEncoding != null && !request.containsHeader("Accept-Encoding")) {
+			request.setHeader("Accept-Encoding", acceptEncoding);
+		}
+		if (request instanceof HttpEntityEnclosingRequest) {
+			HttpEntityEnclosingRequest enclosing = (HttpEntityEnclosingRequest) request;
+			HttpEntity entity = enclosing.getEntity();
+			// A retried request already carries the wrapper
+			if (entity != null && entity.getContentEncoding() == null
+					&& !request.containsHeader("Content-Encoding")
+					&& compression.shouldCompress(entity.getContentLength())) {
+				enclosing.setEntity(new GzipRequestEntity(entity, endpoint));
+			}
+		}
+	}
+
+	/**
+	 * Decode a compressed body as it is read. The encoding headers are removed,
+	 * so callers, the cache and cassettes only see the decoded body.
+	 */
+	private static void decodeResponse(CloseableHttpResponse response, EndpointMetrics endpoint) {
+		Header encoding = response.getFirstHeader("Content-Encoding");
+		if (encoding == null || ContentCodings.isIdentity(encoding.getValue())) {
+			return;
+		}
+		response.setEntity(new DecompressingEntity(response.getEntity(), encoding.getValue(), endpoint));
+		response.removeHeaders("Content-Encoding");
+		response.removeHeaders("Content-Length");
+		response.removeHeaders("Content-MD5");
+	}
+
+	/**
+	 * A streamed body can only be sent once
+	 */
+	private static boolean isRepeatable(HttpRequestBase request) {
+		if (request instanceof HttpEntityEnclosingRequest) {
+			HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+			return entity == null || entity.isRepeatable();
+		}
+		return true;
+	}
+
+	/**
+	 * Attempts left and budget available; records why not otherwise
+	 */
+	private static boolean mayRetry(RetryPolicy policy, RetryBudget budget, EndpointMetrics endpoint,
+			int attempt) {
+		if (attempt >= policy.getMaxAttempts()) {
+			endpoint.recordRetriesExhausted();
+			return false;
+		}
+		if (!budget.tryAcquire()) {
+			endpoint.recordRetryDenied();
+			logger.warn("Retry budget exhausted, not retrying " + endpoint.getMethod() + " "
+					+ endpoint.getEndpoint());
+			return false;
+		}
+		return true;
+	}
+
+	private static void logRetry(String method, String url, String reason, int attempt, RetryPolicy policy,
+			long delayNanos) {
+		logger.warn("Retrying " + method + " " + url + " after " + reason + " (attempt " + (attempt + 1) + "/"
+				+ policy.getMaxAttempts() + ") in " + TimeUnit.NANOSECONDS.toMillis(delayNanos) + " ms");
+	}
+
+	/**
+	 * GET through the response cache: a fresh entry is returned without a
+	 * request, a stale one is revalidated (304 reuses the cached body), and a
+	 * cacheable 200 is read in full and stored
+	 */
+	private RestResponse executeCached(ResponseCache cache, HttpGet request, String url,
+			HashMap<String, String> headerMap) throws IOException {
+		String key = cache.key(url, headerMap);
+		long generation = cache.generation(url);
+		CachedResponse cached = cache.lookup(key);
+		if (cached != null && cached.isFresh()) {
+			return new RestResponse(cached.getResponse().toHttpResponse(), url);
+		}
+		if (cached != null) {
+			cached.addValidators(request);
+		}
+
+		RestResponse response = execute(request, url, headerMap);
+		if (cached != null && response.getStatusCode() == 304) {
+			RecordedResponse notModified = RecordedResponse.of(response, null);
+			response.close();
+			return new RestResponse(cache.revalidated(cached, notModified, generation).getResponse().toHttpResponse(),
+					url);
+		}
+		if (!cache.isCacheable(response)) {
+			return response;
+		}
+		RecordedResponse recorded;
+		try {
+			HttpEntity entity = response.getEntity();
+			recorded = RecordedResponse.of(response, entity != null ? EntityUtils.toByteArray(entity) : null);
+		} finally {
+			response.close();
+		}
+		if (cache.isCacheable(recorded)) {
+			cache.store(key, url, recorded, generation);
+		}
+		return new RestResponse(recorded.toHttpResponse(), url);
+	}
+
+	private void invalidateCached(String url) {
+		ResponseCache cache = this.cache;
+		if (cache != null) {
+			cache.invalidate(url);
+		}
+	}
+
+	/**
+	 * Replay the request from the cassette, or execute it and record the
+	 * exchange. Recording reads the whole (decoded) response body before
+	 * returning it.
+	 */
+	private RestResponse executeWithCassette(Cassette cassette, HttpRequestBase request, String url,
+			HashMap<String, String> headerMap) throws IOException {
+
+		byte[] body = null;
+		if (request instanceof HttpEntityEnclosingRequest) {
+			HttpEntityEnclosingRequest enclosing = (HttpEntityEnclosingRequest) request;
+			HttpEntity entity = enclosing.getEntity();
+			if (entity != null) {
+				body = EntityUtils.toByteArray(entity);
+				if (!entity.isRepeatable()) {
+					// A stream body is consumed by hashing it; send the copy instead
+					ByteArrayEntity copy = new ByteArrayEntity(body);
+					copy.setContentType(entity.getContentType());
+					copy.setContentEncoding(entity.getContentEncoding());
+					enclosing.setEntity(copy);
+				}
+			}
+		}
+		RequestKey key = cassette.key(request.getMethod(), url, headerMap, body);
+
+		if (cassette.getMode() == CassetteMode.REPLAY) {
+			return new RestResponse(cassette.replay(key).toHttpResponse(), url);
+		}
+
+		// Same path as passthrough (limits, retries, metrics, compression), so the
+		// cassette holds the decoded response callers would have seen
+		RecordedResponse recorded;
+		try (RestResponse response = executeWithRetry(request, url)) {
+			HttpEntity entity = response.getEntity();
+			recorded = RecordedResponse.of(response, entity != null ? EntityUtils.toByteArray(entity) : null);
+		}
+		cassette.record(key, recorded);
+		return new RestResponse(recorded.toHttpResponse(), url);
+	}
+
+	/**
+	 * Use a cassette for every following request. The client closes it in
+	 * close().
+	 * 
+	 * @param cassette - Cassette in RECORD or REPLAY mode, null for passthrough
+	 */
+	public void useCassette(Cassette cassette) {
+		this.cassette = cassette;
+		if (cassette != null) {
+			logger.info("RestClient using cassette in " + cassette.getMode() + " mode");
+		}
+	}
+
+	/**
+	 * Cassette in use, or null in passthrough mode
+	 * 
+	 * @return Cassette
+	 */
+	public Cassette getCassette() {
+		return cassette;
+	}
+
+	/**
+	 * Retry failed requests according to the policy. Replaces the retry budget,
+	 * which is shared by all threads using this client.
+	 * 
+	 * @param retryPolicy - Policy, RetryPolicy.disabled() to turn retries off
+	 */
+	public void setRetryPolicy(RetryPolicy retryPolicy) {
+		this.retryBudget = retryPolicy.newBudget();
+		this.retryPolicy = retryPolicy;
+		logger.info("RestClient using " + retryPolicy);
+	}
+
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	/**
+	 * Shared retry budget (available tokens, denied retries)
+	 * 
+	 * @return RetryBudget
+	 */
+	public RetryBudget getRetryBudget() {
+		return retryBudget;
+	}
+
+	/**
+	 * Apply client-side rate and concurrency limits to every following request
+	 * 
+	 * @param limiter - Limits per host/endpoint, null for none
+	 */
+	public void setLimiter(RequestLimiter limiter) {
+		this.limiter = limiter;
+	}
+
+	/**
+	 * Request limits in use, or null
+	 * 
+	 * @return RequestLimiter
+	 */
+	public RequestLimiter getLimiter() {
+		return limiter;
+	}
+
+	/**
+	 * Content-encoding settings for later requests
+	 * 
+	 * @param compression - Accept-Encoding and request compression, see
+	 *                    CompressionConfig.disabled() to turn both off
+	 */
+	public void setCompression(CompressionConfig compression) {
+		this.compression = compression != null ? compression : CompressionConfig.disabled();
+	}
+
+	public CompressionConfig getCompression() {
+		return compression;
+	}
+
+	/**
+	 * Cache GET responses. PUT, POST and DELETE requests sent through this
+	 * client invalidate the resource they target.
+	 * 
+	 * @param cache - Response cache, null to turn caching off
+	 */
+	public void setCache(ResponseCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Response cache in use (hit/miss counters), or null
+	 * 
+	 * @return ResponseCache
+	 */
+	public ResponseCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Raise the pool limits (never lowers them) so the given number of concurrent
+	 * blocking requests do not queue for a connection, e.g. when tests run on
+	 * many (virtual) threads or in load mode
+	 * 
+	 * @param concurrentRequests - Expected number of requests in flight
+	 */
+	public void ensurePoolCapacity(int concurrentRequests) {
+		transport.ensureCapacity(concurrentRequests);
+	}
+
+	/**
+	 * Latency histograms of every request made by this client
+	 * 
+	 * @return RequestMetrics
+	 */
+	public RequestMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Current pool usage (leased, pending, available, max); streams in flight on
+	 * the HTTP/2 transport
+	 * 
+	 * @return PoolStats
+	 */
+	public PoolStats getPoolStats() {
+		return transport.getPoolStats();
+	}
+
+	/**
+	 * Transport the blocking requests are sent on
+	 * 
+	 * @return Transport
+	 */
+	public Transport getTransport() {
+		return transport;
+	}
+
+	/**
+	 * Pool settings this client was created with
+	 * 
+	 * @return ConnectionPoolConfig
+	 */
+	public ConnectionPoolConfig getPoolConfig() {
+		return poolConfig;
+	}
+
+	/**
+	 * Close the client, its eviction thread and every pooled connection
+	 */
+	@Override
+	public void close() throws IOException {
+		logger.info("Closing RestClient. Pool stats: " + transport.getPoolStats());
+		transport.close();
+		if (asyncTransport != null) {
+			asyncTransport.shutdown();
+		}
+		if (cassette != null) {
+			cassette.close();
+		}
+	}
+}
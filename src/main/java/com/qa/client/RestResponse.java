@@ -0,0 +1,392 @@
+package com.qa.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.apache.http.Header;
+import org.apache.http.HeaderIterator;
+import org.apache.http.HttpEntity;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.entity.ContentType;
+import org.apache.http.params.HttpParams;
+import org.apache.http.util.EntityUtils;
+import org.apache.log4j.Logger;
+
+import com.qa.client.metrics.TimedEntity;
+
+/**
+ * RestResponse - Response returned by the blocking RestClient methods. It is a
+ * CloseableHttpResponse, so existing code keeps working, and adds several ways
+ * to consume the body:
+ *
+ * openStream() - stream the body and count the bytes read
+ * readBody(max) - buffer the body, failing fast above a size limit
+ * discard() - status-only checks: release the connection without reading
+ *
+ * Use it with try-with-resources so the pooled connection is always released.
+ */
+@SuppressWarnings("deprecation")
+public class RestResponse implements CloseableHttpResponse {
+
+	private static final Logger logger = Logger.getLogger(RestResponse.class);
+
+	/**
+	 * Default limit for readBody() / readBodyAsString()
+	 */
+	public static final int DEFAULT_MAX_BODY_BYTES = 16 * 1024 * 1024;
+
+	/**
+	 * Unread bodies up to this size are drained on discard so the connection
+	 * can be reused; larger bodies close the connection
+	 */
+	public static final long DISCARD_DRAIN_LIMIT = 64 * 1024;
+
+	private final CloseableHttpResponse response;
+	private final String url;
+	private CountingInputStream stream;
+	private boolean closed;
+
+	public RestResponse(CloseableHttpResponse response, String url) {
+		this.response = response;
+		this.url = url;
+	}
+
+	/**
+	 * Get HTTP status code
+	 *
+	 * @return status code
+	 */
+	public int getStatusCode() {
+		return response.getStatusLine().getStatusCode();
+	}
+
+	/**
+	 * Get request URL this response belongs to
+	 *
+	 * @return URL
+	 */
+	public String getUrl() {
+		return url;
+	}
+
+	// ============ BODY ============
+
+	/**
+	 * Stream the body. The same stream is returned on every call.
+	 *
+	 * @return byte counting stream, empty if there is no body
+	 * @throws IOException
+	 */
+	public CountingInputStream openStream() throws IOException {
+		if (stream == null) {
+			HttpEntity entity = response.getEntity();
+			InputStream content = entity != null ? entity.getContent() : null;
+			stream = new CountingInputStream(content != null ? content : InputStream.nullInputStream());
+		}
+		return stream;
+	}
+
+	/**
+	 * Bytes read from the body so far
+	 *
+	 * @return byte count
+	 */
+	public long getBytesRead() {
+		return stream != null ? stream.getCount() : 0;
+	}
+
+	/**
+	 * Buffer the whole body, up to DEFAULT_MAX_BODY_BYTES
+	 *
+	 * @return body bytes
+	 * @throws ResponseTooLargeException if the body is larger than the limit
+	 * @throws IOException
+	 */
+	public byte[] readBody() throws IOException {
+		return readBody(DEFAULT_MAX_BODY_BYTES);
+	}
+
+	/**
+	 * Buffer the whole body. A Content-Length above the limit fails before
+	 * anything is read, otherwise reading stops as soon as the limit is passed.
+	 *
+	 * @param maxBytes - Largest body accepted
+	 * @return body bytes
+	 * @throws ResponseTooLargeException if the body is larger than maxBytes
+	 * @throws IOException
+	 */
+	public byte[] readBody(int maxBytes) throws IOException {
+		HttpEntity entity = response.getEntity();
+		long contentLength = entity != null ? entity.getContentLength() : 0;
+		if (contentLength > maxBytes) {
+			release(false);
+			throw new ResponseTooLargeException(url, maxBytes, contentLength);
+		}
+
+		InputStream in = openStream();
+		ByteArrayOutputStream out = new ByteArrayOutputStream(
+				contentLength >= 0 ? (int) contentLength : Math.min(maxBytes, 8192));
+		byte[] buffer = new byte[8192];
+		int n;
+		while ((n = in.read(buffer)) >= 0) {
+			if (out.size() + n > maxBytes) {
+				// Over the limit already, so do not read any further
+				release(false);
+				throw new ResponseTooLargeException(url, maxBytes, contentLength);
+			}
+			out.write(buffer, 0, n);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Buffer the body as text, up to DEFAULT_MAX_BODY_BYTES
+	 *
+	 * @return body string
+	 * @throws IOException
+	 */
+	public String readBodyAsString() throws IOException {
+		return readBodyAsString(DEFAULT_MAX_BODY_BYTES);
+	}
+
+	/**
+	 * Buffer the body as text, using the response charset (UTF-8 if none)
+	 *
+	 * @param maxBytes - Largest body accepted
+	 * @return body string
+	 * @throws IOException
+	 */
+	public String readBodyAsString(int maxBytes) throws IOException {
+		return new String(readBody(maxBytes), charset());
+	}
+
+	private Charset charset() {
+		HttpEntity entity = response.getEntity();
+		ContentType contentType = entity != null ? ContentType.get(entity) : null;
+		return contentType != null && contentType.getCharset() != null ? contentType.getCharset()
+				: StandardCharsets.UTF_8;
+	}
+
+	/**
+	 * Release the response without reading the body. Bodies of up to
+	 * DISCARD_DRAIN_LIMIT bytes are drained so the connection goes back to the
+	 * pool; for unknown lengths at most that many bytes are read to find out.
+	 * Anything longer closes the connection instead of downloading it.
+	 *
+	 * @throws IOException
+	 */
+	public void discard() throws IOException {
+		release(true);
+	}
+
+	/**
+	 * @param drain - Drain short bodies so the connection can be reused
+	 */
+	private void release(boolean drain) throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		HttpEntity entity = response.getEntity();
+		try {
+			if (entity != null) {
+				long contentLength = entity.getContentLength();
+				if (drain && contentLength >= 0 && contentLength - getBytesRead() <= DISCARD_DRAIN_LIMIT) {
+					EntityUtils.consume(entity);
+				} else if (drain && contentLength < 0 && drain(DISCARD_DRAIN_LIMIT)) {
+					// Unknown length (chunked or decompressed) but short: the stream
+					// reached its end, closing it releases the connection for reuse
+					openStream().close();
+				} else if (logger.isDebugEnabled()) {
+					logger.debug("Discarding unread body of " + url + " without draining it");
+				}
+				if (entity instanceof TimedEntity) {
+					((TimedEntity) entity).finish();
+				}
+			}
+		} finally {
+			response.close();
+		}
+	}
+
+	/**
+	 * Read and drop up to limit more bytes of the body
+	 *
+	 * @param limit - Most bytes to read
+	 * @return true if the body ended within the limit
+	 */
+	private boolean drain(long limit) {
+		try {
+			InputStream in = openStream();
+			byte[] buffer = new byte[8192];
+			long remaining = limit;
+			while (remaining >= 0) {
+				int n = in.read(buffer, 0, (int) Math.min(buffer.length, remaining + 1));
+				if (n < 0) {
+					return true;
+				}
+				remaining -= n;
+			}
+		} catch (IOException e) {
+			// Already closed through getEntity(), or the connection failed
+			logger.debug("Could not drain the body of " + url + ": " + e.getMessage());
+		}
+		return false;
+	}
+
+	/**
+	 * Same as discard(): the connection is always released
+	 */
+	@Override
+	public void close() throws IOException {
+		discard();
+	}
+
+	// ============ HttpResponse DELEGATION ============
+
+	@Override
+	public StatusLine getStatusLine() {
+		return response.getStatusLine();
+	}
+
+	@Override
+	public void setStatusLine(StatusLine statusline) {
+		response.setStatusLine(statusline);
+	}
+
+	@Override
+	public void setStatusLine(ProtocolVersion ver, int code) {
+		response.setStatusLine(ver, code);
+	}
+
+	@Override
+	public void setStatusLine(ProtocolVersion ver, int code, String reason) {
+		response.setStatusLine(ver, code, reason);
+	}
+
+	@Override
+	public void setStatusCode(int code) {
+		response.setStatusCode(code);
+	}
+
+	@Override
+	public void setReasonPhrase(String reason) {
+		response.setReasonPhrase(reason);
+	}
+
+	@Override
+	public HttpEntity getEntity() {
+		return response.getEntity();
+	}
+
+	@Override
+	public void setEntity(HttpEntity entity) {
+		response.setEntity(entity);
+	}
+
+	@Override
+	public Locale getLocale() {
+		return response.getLocale();
+	}
+
+	@Override
+	public void setLocale(Locale loc) {
+		response.setLocale(loc);
+	}
+
+	@Override
+	public ProtocolVersion getProtocolVersion() {
+		return response.getProtocolVersion();
+	}
+
+	@Override
+	public boolean containsHeader(String name) {
+		return response.containsHeader(name);
+	}
+
+	@Override
+	public Header[] getHeaders(String name) {
+		return response.getHeaders(name);
+	}
+
+	@Override
+	public Header getFirstHeader(String name) {
+		return response.getFirstHeader(name);
+	}
+
+	@Override
+	public Header getLastHeader(String name) {
+		return response.getLastHeader(name);
+	}
+
+	@Override
+	public Header[] getAllHeaders() {
+		return response.getAllHeaders();
+	}
+
+	@Override
+	public void addHeader(Header header) {
+		response.addHeader(header);
+	}
+
+	@Override
+	public void addHeader(String name, String value) {
+		response.addHeader(name, value);
+	}
+
+	@Override
+	public void setHeader(Header header) {
+		response.setHeader(header);
+	}
+
+	@Override
+	public void setHeader(String name, String value) {
+		response.setHeader(name, value);
+	}
+
+	@Override
+	public void setHeaders(Header[] headers) {
+		response.setHeaders(headers);
+	}
+
+	@Override
+	public void removeHeader(Header header) {
+		response.removeHeader(header);
+	}
+
+	@Override
+	public void removeHeaders(String name) {
+		response.removeHeaders(name);
+	}
+
+	@Override
+	public HeaderIterator headerIterator() {
+		return response.headerIterator();
+	}
+
+	@Override
+	public HeaderIterator headerIterator(String name) {
+		return response.headerIterator(name);
+	}
+
+	@Override
+	public HttpParams getParams() {
+		return response.getParams();
+	}
+
+	@Override
+	public void setParams(HttpParams params) {
+		response.setParams(params);
+	}
+
+	@Override
+	public String toString() {
+		return "RestResponse{" + url + ", " + response.getStatusLine() + "}";
+	}
+}
@@ -0,0 +1,69 @@
+package com.qa.client.batch;
+
+import java.util.Properties;
+
+/**
+ * BatchConfig - Settings for RestClient.batch(). Values can be loaded from
+ * config.properties using the "batch.*" keys, anything missing falls back to
+ * the defaults below.
+ */
+public class BatchConfig {
+
+	// Property keys (config.properties)
+	public static final String MAX_IN_FLIGHT = "batch.maxInFlight";
+	public static final String FAIL_FAST = "batch.failFast";
+
+	private int maxInFlight = 32;
+	private boolean failFast = false;
+
+	/**
+	 * Build a config from properties, using defaults for missing keys
+	 *
+	 * @param prop - Loaded configuration (may be null)
+	 * @return BatchConfig
+	 */
+	public static BatchConfig fromProperties(Properties prop) {
+		BatchConfig config = new BatchConfig();
+		if (prop == null) {
+			return config;
+		}
+		config.setMaxInFlight(
+				Integer.parseInt(prop.getProperty(MAX_IN_FLIGHT, String.valueOf(config.maxInFlight)).trim()));
+		config.setFailFast(Boolean.parseBoolean(prop.getProperty(FAIL_FAST, String.valueOf(config.failFast)).trim()));
+		return config;
+	}
+
+	// ============ GETTERS AND SETTERS ============
+
+	/**
+	 * Requests sent but not yet consumed as outcomes. The batch waits for the
+	 * caller once this many are outstanding, so memory stays bounded.
+	 */
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	public void setMaxInFlight(int maxInFlight) {
+		if (maxInFlight <= 0) {
+			throw new IllegalArgumentException("maxInFlight must be > 0: " + maxInFlight);
+		}
+		this.maxInFlight = maxInFlight;
+	}
+
+	/**
+	 * Stop sending after the first failed outcome; the unsent rest is reported
+	 * as cancelled. Otherwise every spec is sent whatever the others return.
+	 */
+	public boolean isFailFast() {
+		return failFast;
+	}
+
+	public void setFailFast(boolean failFast) {
+		this.failFast = failFast;
+	}
+
+	@Override
+	public String toString() {
+		return "BatchConfig{maxInFlight=" + maxInFlight + ", failFast=" + failFast + "}";
+	}
+}
@@ -0,0 +1,299 @@
+package com.qa.client.batch;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.log4j.Logger;
+
+import com.qa.client.BufferedResponse;
+import com.qa.util.VirtualThreads;
+
+/**
+ * BatchExecution - A running batch of requests (see RestClient.batch).
+ *
+ * A feeder thread pulls specs from the source lazily and sends each one on the
+ * async transport as soon as a slot of the window is free, so up to
+ * maxInFlight requests are always outstanding instead of one round trip at a
+ * time. Outcomes are queued in completion order and consumed by iterating this
+ * object (once, from one thread). A slot is freed when its outcome is
+ * consumed, which bounds both in-flight requests and buffered results.
+ *
+ * Failures never end the batch: an error response or an exception becomes that
+ * spec's outcome and the others carry on. With failFast (or abort()) the
+ * feeder stops reading the source, and the specs left unsent are reported as
+ * one count, getCancelled(), rather than one outcome each.
+ */
+public class BatchExecution implements Iterable<BatchOutcome>, AutoCloseable {
+
+	private static final Logger logger = Logger.getLogger(BatchExecution.class);
+
+	// Queued after the last outcome
+	private static final BatchOutcome END = new BatchOutcome(RequestSpec.get(null, "batch:end"), -1, null, null, 0);
+
+	private final Iterator<RequestSpec> specs;
+	// Specs in the source, -1 if unknown
+	private final long size;
+	private final Function<RequestSpec, CompletableFuture<BufferedResponse>> sender;
+	private final boolean failFast;
+	private final Semaphore window;
+	private final BlockingQueue<BatchOutcome> outcomes = new LinkedBlockingQueue<>();
+
+	// Feeder's own token plus one per request in flight; END is queued at 0
+	private final AtomicInteger pending = new AtomicInteger(1);
+
+	private final AtomicLong submitted = new AtomicLong();
+	private final AtomicLong succeeded = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong cancelled = new AtomicLong();
+
+	private final Thread feeder;
+	private final OutcomeIterator iterator = new OutcomeIterator();
+
+	private volatile boolean aborted;
+	private volatile RuntimeException sourceError;
+
+	private BatchExecution(Spliterator<RequestSpec> specs, BatchConfig config,
+			Function<RequestSpec, CompletableFuture<BufferedResponse>> sender) {
+		this.specs = Spliterators.iterator(specs);
+		this.size = specs.getExactSizeIfKnown();
+		this.sender = sender;
+		this.failFast = config.isFailFast();
+		this.window = new Semaphore(config.getMaxInFlight());
+		this.feeder = VirtualThreads.platformThreadFactory("rest-batch-").newThread(this::feed);
+	}
+
+	/**
+	 * Start sending the specs
+	 *
+	 * @param specs  - Source of requests, read lazily on the feeder thread; its
+	 *               exact size, if known, gives the cancelled count on abort
+	 * @param config - Window size and failure handling
+	 * @param sender - Sends one spec, e.g. RestClient's async path
+	 * @return the running batch
+	 */
+	public static BatchExecution start(Spliterator<RequestSpec> specs, BatchConfig config,
+			Function<RequestSpec, CompletableFuture<BufferedResponse>> sender) {
+		BatchExecution batch = new BatchExecution(specs, config, sender);
+		batch.feeder.start();
+		return batch;
+	}
+
+	private void feed() {
+		long index = 0;
+		boolean unsent = false;
+		try {
+			while (specs.hasNext()) {
+				if (aborted) {
+					unsent = true;
+					break;
+				}
+				RequestSpec spec = specs.next();
+				window.acquire();
+				if (aborted) {
+					unsent = true;
+					break;
+				}
+				send(spec, index++);
+			}
+		} catch (InterruptedException e) {
+			aborted = true;
+			unsent = true;
+			logger.warn("Batch feeder interrupted after " + index + " requests");
+		} catch (RuntimeException e) {
+			aborted = true;
+			sourceError = e;
+			logger.error("Batch request source failed after " + index + " requests: " + e, e);
+		} finally {
+			if (unsent) {
+				// The rest of the source is never read, it may be lazy or unbounded
+				cancelled.set(size >= 0 ? size - index : -1);
+				logger.warn("Batch aborted after " + index + " requests, "
+						+ (size >= 0 ? (size - index) + " not sent" : "the rest of the source not sent"));
+			}
+			done();
+		}
+	}
+
+	private void send(RequestSpec spec, long position) {
+		pending.incrementAndGet();
+		submitted.incrementAndGet();
+		long start = System.nanoTime();
+		CompletableFuture<BufferedResponse> future;
+		try {
+			future = sender.apply(spec);
+		} catch (RuntimeException e) {
+			future = CompletableFuture.failedFuture(e);
+		}
+		future.whenComplete((response, error) -> {
+			complete(new BatchOutcome(spec, position, response, error, System.nanoTime() - start));
+			done();
+		});
+	}
+
+	private void complete(BatchOutcome outcome) {
+		if (outcome.isSuccess()) {
+			succeeded.incrementAndGet();
+		} else {
+			failed.incrementAndGet();
+			if (failFast && !aborted) {
+				aborted = true;
+				logger.warn("Batch aborted after failed " + outcome);
+			}
+		}
+		outcomes.add(outcome);
+	}
+
+	private void done() {
+		if (pending.decrementAndGet() == 0) {
+			outcomes.add(END);
+		}
+	}
+
+	/**
+	 * Outcomes in completion order, blocking until each is available. Can be
+	 * iterated once.
+	 */
+	@Override
+	public Iterator<BatchOutcome> iterator() {
+		return iterator;
+	}
+
+	/**
+	 * Outcomes as a sequential stream, in completion order
+	 */
+	public Stream<BatchOutcome> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+	}
+
+	/**
+	 * Wait for the whole batch
+	 *
+	 * @return every remaining outcome, in completion order
+	 */
+	public List<BatchOutcome> awaitAll() {
+		List<BatchOutcome> all = new ArrayList<>();
+		while (iterator.hasNext()) {
+			all.add(iterator.next());
+		}
+		return all;
+	}
+
+	/**
+	 * Stop sending; requests in flight still complete, the unsent rest is
+	 * counted in getCancelled()
+	 */
+	public void abort() {
+		aborted = true;
+	}
+
+	/**
+	 * Abort and discard the outcomes of the requests in flight
+	 */
+	@Override
+	public void close() {
+		abort();
+		try {
+			while (iterator.hasNext()) {
+				iterator.next();
+			}
+		} catch (IllegalStateException e) {
+			logger.debug("Batch closed: " + e.getMessage());
+		}
+	}
+
+	public boolean isAborted() {
+		return aborted;
+	}
+
+	/**
+	 * Requests sent so far
+	 */
+	public long getSubmitted() {
+		return submitted.get();
+	}
+
+	/**
+	 * Outcomes with a status below 400
+	 */
+	public long getSucceeded() {
+		return succeeded.get();
+	}
+
+	/**
+	 * Outcomes with an error status or an exception
+	 */
+	public long getFailed() {
+		return failed.get();
+	}
+
+	/**
+	 * Specs not sent because the batch was aborted, counted once the batch has
+	 * ended. -1 if specs were left but the source has no known size.
+	 */
+	public long getCancelled() {
+		return cancelled.get();
+	}
+
+	@Override
+	public String toString() {
+		return "BatchExecution{submitted=" + getSubmitted() + ", succeeded=" + getSucceeded() + ", failed="
+				+ getFailed() + ", cancelled=" + getCancelled() + ", aborted=" + aborted + "}";
+	}
+
+	private final class OutcomeIterator implements Iterator<BatchOutcome> {
+
+		private BatchOutcome next;
+		private boolean ended;
+
+		@Override
+		public boolean hasNext() {
+			if (next != null) {
+				return true;
+			}
+			if (ended) {
+				return false;
+			}
+			BatchOutcome outcome;
+			try {
+				outcome = outcomes.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for batch outcomes", e);
+			}
+			if (outcome == END) {
+				ended = true;
+				if (sourceError != null) {
+					throw new IllegalStateException("Batch request source failed", sourceError);
+				}
+				return false;
+			}
+			// Consumed: the slot can take the next request
+			window.release();
+			next = outcome;
+			return true;
+		}
+
+		@Override
+		public BatchOutcome next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			BatchOutcome outcome = next;
+			next = null;
+			return outcome;
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package com.qa.client.batch;
+
+import java.util.concurrent.CompletionException;
+
+import com.qa.client.BufferedResponse;
+
+/**
+ * BatchOutcome - Result of one request of a batch: either the response (any
+ * status) or the error that prevented one. Outcomes arrive in completion
+ * order; getId() / getIndex() tie them back to their RequestSpec.
+ */
+public class BatchOutcome {
+
+	private final RequestSpec spec;
+	private final long index;
+	private final BufferedResponse response;
+	private final Throwable error;
+	private final long latencyNanos;
+
+	BatchOutcome(RequestSpec spec, long index, BufferedResponse response, Throwable error, long latencyNanos) {
+		this.spec = spec;
+		this.index = index;
+		this.response = response;
+		this.error = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+		this.latencyNanos = latencyNanos;
+	}
+
+	/**
+	 * Correlation id of the spec, or "#index" if it had none
+	 */
+	public String getId() {
+		return spec.getId() != null ? spec.getId() : "#" + index;
+	}
+
+	/**
+	 * Position of the spec in the batch, from 0
+	 */
+	public long getIndex() {
+		return index;
+	}
+
+	public RequestSpec getSpec() {
+		return spec;
+	}
+
+	/**
+	 * Response, or null if the request failed without one
+	 */
+	public BufferedResponse getResponse() {
+		return response;
+	}
+
+	/**
+	 * Why there is no response, or null
+	 */
+	public Throwable getError() {
+		return error;
+	}
+
+	/**
+	 * Status code, or -1 without a response
+	 */
+	public int getStatusCode() {
+		return response != null ? response.getStatusCode() : -1;
+	}
+
+	/**
+	 * True for a response with a status below 400
+	 */
+	public boolean isSuccess() {
+		return response != null && response.getStatusCode() < 400;
+	}
+
+	/**
+	 * Time from sending to completion (includes retries and limit waits)
+	 */
+	public long getLatencyNanos() {
+		return latencyNanos;
+	}
+
+	@Override
+	public String toString() {
+		return "BatchOutcome{" + getId() + " " + spec.getMethod() + " " + spec.getUrl() + " -> "
+				+ (response != null ? String.valueOf(response.getStatusCode()) : String.valueOf(error)) + "}";
+	}
+}
@@ -0,0 +1,95 @@
+package com.qa.client.batch;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * RequestSpec - One request of a batch: method, URL, optional body and
+ * headers, and a correlation id that comes back on its BatchOutcome.
+ *
+ * Specs are immutable; withHeader() returns a copy.
+ */
+public class RequestSpec {
+
+	private final String id;
+	private final String method;
+	private final String url;
+	private final byte[] body;
+	private final HashMap<String, String> headers;
+
+	/**
+	 * @param id      - Correlation id (null = the position in the batch)
+	 * @param method  - GET, POST, PUT, DELETE, ...
+	 * @param url     - Complete API endpoint URL
+	 * @param body    - Request body (null for none)
+	 * @param headers - HTTP headers (may be null)
+	 */
+	public RequestSpec(String id, String method, String url, byte[] body, Map<String, String> headers) {
+		if (method == null || url == null) {
+			throw new IllegalArgumentException("method and url are required");
+		}
+		this.id = id;
+		this.method = method;
+		this.url = url;
+		this.body = body;
+		this.headers = headers != null ? new HashMap<>(headers) : new HashMap<>();
+	}
+
+	public static RequestSpec get(String id, String url) {
+		return new RequestSpec(id, "GET", url, null, null);
+	}
+
+	public static RequestSpec post(String id, String url, String json) {
+		return new RequestSpec(id, "POST", url, utf8(json), null);
+	}
+
+	public static RequestSpec put(String id, String url, String json) {
+		return new RequestSpec(id, "PUT", url, utf8(json), null);
+	}
+
+	public static RequestSpec delete(String id, String url) {
+		return new RequestSpec(id, "DELETE", url, null, null);
+	}
+
+	/**
+	 * Copy of this spec with one more header
+	 */
+	public RequestSpec withHeader(String name, String value) {
+		HashMap<String, String> copy = new HashMap<>(headers);
+		copy.put(name, value);
+		return new RequestSpec(id, method, url, body, copy);
+	}
+
+	private static byte[] utf8(String json) {
+		return json != null ? json.getBytes(StandardCharsets.UTF_8) : null;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	public byte[] getBody() {
+		return body;
+	}
+
+	/**
+	 * Headers of this request (a copy the caller may change)
+	 */
+	public HashMap<String, String> getHeaders() {
+		return new HashMap<>(headers);
+	}
+
+	@Override
+	public String toString() {
+		return "RequestSpec{" + (id != null ? id + " " : "") + method + " " + url + "}";
+	}
+}
@@ -0,0 +1,136 @@
+package com.qa.client.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * CacheConfig - Settings for the RestClient GET response cache. Values can be
+ * loaded from config.properties using the "cache.*" keys, anything missing
+ * falls back to the defaults below.
+ */
+public class CacheConfig {
+
+	// Property keys (config.properties)
+	public static final String ENABLED = "cache.enabled";
+	public static final String MAX_ENTRIES = "cache.maxEntries";
+	public static final String MAX_BYTES = "cache.maxBytes";
+	public static final String MAX_ENTRY_BYTES = "cache.maxEntryBytes";
+	public static final String VARY_HEADERS = "cache.varyHeaders";
+	public static final String DEFAULT_TTL_MILLIS = "cache.defaultTtlMillis";
+
+	private boolean enabled = false;
+	private int maxEntries = 1000;
+	private long maxBytes = 16 * 1024 * 1024;
+	private int maxEntryBytes = 1024 * 1024;
+	private List<String> varyHeaders = new ArrayList<>(Arrays.asList("Accept", "Authorization"));
+	private long defaultTtlMillis = 0;
+
+	/**
+	 * Build a config from properties, using defaults for missing keys
+	 *
+	 * @param prop - Loaded configuration (may be null)
+	 * @return CacheConfig
+	 */
+	public static CacheConfig fromProperties(Properties prop) {
+		CacheConfig config = new CacheConfig();
+		if (prop == null) {
+			return config;
+		}
+		config.setEnabled(Boolean.parseBoolean(prop.getProperty(ENABLED, String.valueOf(config.enabled)).trim()));
+		config.setMaxEntries(
+				Integer.parseInt(prop.getProperty(MAX_ENTRIES, String.valueOf(config.maxEntries)).trim()));
+		config.setMaxBytes(Long.parseLong(prop.getProperty(MAX_BYTES, String.valueOf(config.maxBytes)).trim()));
+		config.setMaxEntryBytes(
+				Integer.parseInt(prop.getProperty(MAX_ENTRY_BYTES, String.valueOf(config.maxEntryBytes)).trim()));
+		String vary = prop.getProperty(VARY_HEADERS);
+		if (vary != null) {
+			List<String> headers = new ArrayList<>();
+			for (String header : vary.split(",")) {
+				if (!header.trim().isEmpty()) {
+					headers.add(header.trim());
+				}
+			}
+			config.setVaryHeaders(headers);
+		}
+		config.setDefaultTtlMillis(Long
+				.parseLong(prop.getProperty(DEFAULT_TTL_MILLIS, String.valueOf(config.defaultTtlMillis)).trim()));
+		return config;
+	}
+
+	// ============ GETTERS AND SETTERS ============
+
+	/**
+	 * Cache GET responses in RestClient (off by default)
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Most responses kept
+	 */
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Most body bytes kept in total
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Larger (or unknown length) responses are streamed, not cached
+	 */
+	public int getMaxEntryBytes() {
+		return maxEntryBytes;
+	}
+
+	public void setMaxEntryBytes(int maxEntryBytes) {
+		this.maxEntryBytes = maxEntryBytes;
+	}
+
+	/**
+	 * Request headers that select a different cached response
+	 */
+	public List<String> getVaryHeaders() {
+		return varyHeaders;
+	}
+
+	public void setVaryHeaders(List<String> varyHeaders) {
+		this.varyHeaders = varyHeaders;
+	}
+
+	/**
+	 * Freshness of responses without Cache-Control max-age (0 = revalidate them
+	 * every time, if they have a validator)
+	 */
+	public long getDefaultTtlMillis() {
+		return defaultTtlMillis;
+	}
+
+	public void setDefaultTtlMillis(long defaultTtlMillis) {
+		this.defaultTtlMillis = defaultTtlMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheConfig{maxEntries=" + maxEntries + ", maxBytes=" + maxBytes + ", maxEntryBytes="
+				+ maxEntryBytes + ", varyHeaders=" + varyHeaders + ", defaultTtlMillis=" + defaultTtlMillis + "}";
+	}
+}
@@ -0,0 +1,108 @@
+package com.qa.client.cache;
+
+import java.util.Map;
+
+import org.apache.http.HttpRequest;
+
+import com.qa.client.cassette.RecordedResponse;
+
+/**
+ * CachedResponse - A GET response held by ResponseCache with its validators
+ * (ETag, Last-Modified) and freshness deadline.
+ */
+public final class CachedResponse {
+
+	private final String key;
+	private final String resource;
+	private final RecordedResponse response;
+	private final String etag;
+	private final String lastModified;
+	private final long expiresAtNanos;
+
+	CachedResponse(String key, String resource, RecordedResponse response, long ttlMillis) {
+		this.key = key;
+		this.resource = resource;
+		this.response = response;
+		this.etag = header(response, "ETag");
+		this.lastModified = header(response, "Last-Modified");
+		this.expiresAtNanos = System.nanoTime() + ttlMillis * 1_000_000L;
+	}
+
+	static String header(RecordedResponse response, String name) {
+		for (String[] header : response.getHeaders()) {
+			if (header[0].equalsIgnoreCase(name)) {
+				return header[1];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * True until max-age has passed; a stale entry needs revalidation
+	 */
+	public boolean isFresh() {
+		return expiresAtNanos - System.nanoTime() > 0;
+	}
+
+	/**
+	 * True if the server can answer 304 for it
+	 */
+	public boolean hasValidator() {
+		return etag != null || lastModified != null;
+	}
+
+	/**
+	 * Make the request conditional (If-None-Match / If-Modified-Since)
+	 *
+	 * @param request - GET about to be sent
+	 */
+	public void addValidators(HttpRequest request) {
+		if (etag != null) {
+			request.setHeader("If-None-Match", etag);
+		}
+		if (lastModified != null) {
+			request.setHeader("If-Modified-Since", lastModified);
+		}
+	}
+
+	/**
+	 * Same for an async request
+	 *
+	 * @param headerMap - Request headers, updated in place
+	 */
+	public void addValidators(Map<String, String> headerMap) {
+		if (etag != null) {
+			headerMap.put("If-None-Match", etag);
+		}
+		if (lastModified != null) {
+			headerMap.put("If-Modified-Since", lastModified);
+		}
+	}
+
+	public RecordedResponse getResponse() {
+		return response;
+	}
+
+	public String getEtag() {
+		return etag;
+	}
+
+	public String getLastModified() {
+		return lastModified;
+	}
+
+	String getKey() {
+		return key;
+	}
+
+	String getResource() {
+		return resource;
+	}
+
+	/**
+	 * Bytes charged against the cache size
+	 */
+	long size() {
+		return response.getBody().length + key.length();
+	}
+}
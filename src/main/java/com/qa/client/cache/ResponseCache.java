@@ -0,0 +1,440 @@
+package com.qa.client.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.log4j.Logger;
+
+import com.qa.client.cassette.RecordedResponse;
+
+/**
+ * ResponseCache - Bounded LRU cache of GET responses used by RestClient (see
+ * RestClient.setCache).
+ *
+ * Entries are keyed by URL plus the configured vary headers and evicted least
+ * recently used first once either maxEntries or maxBytes is exceeded.
+ * Freshness follows Cache-Control: max-age serves the entry without a request,
+ * no-cache (or an expired max-age) revalidates it with If-None-Match /
+ * If-Modified-Since and a 304 reuses the cached body, no-store is never
+ * cached. Any PUT, POST, PATCH or DELETE sent through the client invalidates
+ * the target resource (all its query variants) and its parent collection.
+ *
+ * A write can overtake a GET that is still in flight. Each resource therefore
+ * has a generation (one of GENERATION_STRIPES counters, shared by hash) that
+ * invalidate() bumps. RestClient reads it before sending the GET, and store()
+ * drops the response if it changed since, so a body read before the write is
+ * never cached after it.
+ *
+ * All map operations run under the cache lock, which is held only for the
+ * lookup or update itself, never during I/O.
+ */
+public class ResponseCache {
+
+	private static final Logger logger = Logger.getLogger(ResponseCache.class);
+
+	// Power of two; a collision only drops a store that was still valid
+	private static final int GENERATION_STRIPES = 256;
+
+	private final CacheConfig config;
+	private final String[] varyHeaders;
+
+	// Guarded by this
+	private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(64, 0.75f, true);
+	private final Map<String, Set<String>> keysByResource = new HashMap<>();
+	private long bytes;
+	private final long[] generations = new long[GENERATION_STRIPES];
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder revalidated = new LongAdder();
+	private final LongAdder stores = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+	private final LongAdder discarded = new LongAdder();
+
+	public ResponseCache(CacheConfig config) {
+		this.config = config;
+		this.varyHeaders = new String[config.getVaryHeaders().size()];
+		for (int i = 0; i < varyHeaders.length; i++) {
+			varyHeaders[i] = config.getVaryHeaders().get(i).toLowerCase(Locale.ROOT);
+		}
+		logger.info("Response cache enabled: " + config);
+	}
+
+	/**
+	 * Cache key of a GET request
+	 *
+	 * @param url       - Complete URL
+	 * @param headerMap - Request headers (may be null)
+	 * @return key
+	 */
+	public String key(String url, Map<String, String> headerMap) {
+		if (headerMap == null || headerMap.isEmpty()) {
+			return url;
+		}
+		StringBuilder key = new StringBuilder(url);
+		for (String vary : varyHeaders) {
+			for (Map.Entry<String, String> header : headerMap.entrySet()) {
+				if (header.getKey().equalsIgnoreCase(vary)) {
+					key.append('\n').append(vary).append('=').append(header.getValue());
+				}
+			}
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Generation of the resource a GET targets. Read it before sending the
+	 * request and pass it to store() or revalidated().
+	 *
+	 * @param url - Request URL
+	 * @return generation
+	 */
+	public synchronized long generation(String url) {
+		return generations[stripe(resource(url))];
+	}
+
+	private static int stripe(String resource) {
+		int hash = resource.hashCode();
+		return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+	}
+
+	/**
+	 * Cached response for a key, fresh or stale. Counts a hit for a fresh entry
+	 * and a miss otherwise.
+	 *
+	 * @param key - See key()
+	 * @return CachedResponse, or null
+	 */
+	public CachedResponse lookup(String key) {
+		CachedResponse entry;
+		synchronized (this) {
+			entry = entries.get(key);
+		}
+		if (entry != null && entry.isFresh()) {
+			hits.increment();
+		} else {
+			misses.increment();
+		}
+		return entry;
+	}
+
+	/**
+	 * True if a response may be stored: 200, not no-store, no Vary outside the
+	 * configured headers, a length within maxEntryBytes (if known), and either a
+	 * freshness lifetime or a validator. A body of unknown length (chunked or
+	 * decompressed) must be checked again once read.
+	 *
+	 * @param response - Response with its body not read yet
+	 */
+	public boolean isCacheable(HttpResponse response) {
+		HttpEntity entity = response.getEntity();
+		return isCacheable(response.getStatusLine().getStatusCode(), value(response, "Cache-Control"),
+				value(response, "Vary"), entity != null ? entity.getContentLength() : 0,
+				response.getFirstHeader("ETag") != null || response.getFirstHeader("Last-Modified") != null);
+	}
+
+	/**
+	 * Same check for a response already read in full
+	 *
+	 * @param response - Buffered response
+	 */
+	public boolean isCacheable(RecordedResponse response) {
+		return isCacheable(response.getStatus(), CachedResponse.header(response, "Cache-Control"),
+				CachedResponse.header(response, "Vary"), response.getBody().length,
+				CachedResponse.header(response, "ETag") != null
+						|| CachedResponse.header(response, "Last-Modified") != null);
+	}
+
+	private boolean isCacheable(int status, String cacheControl, String vary, long length, boolean validator) {
+		if (status != 200) {
+			return false;
+		}
+		long ttl = ttlMillis(cacheControl);
+		if (ttl < 0 || (vary != null && !varies(vary))) {
+			return false;
+		}
+		if (length > config.getMaxEntryBytes()) {
+			return false;
+		}
+		return ttl > 0 || validator;
+	}
+
+	private boolean varies(String vary) {
+		for (String name : vary.split(",")) {
+			String header = name.trim().toLowerCase(Locale.ROOT);
+			if ("*".equals(header)) {
+				return false;
+			}
+			boolean known = false;
+			for (String configured : varyHeaders) {
+				known |= configured.equals(header);
+			}
+			if (!known && !header.isEmpty()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Store a response read in full, unless its resource was invalidated after
+	 * the request was sent
+	 *
+	 * @param key        - See key()
+	 * @param url        - Request URL
+	 * @param response   - Status, headers and body
+	 * @param generation - generation(url) read before the request was sent
+	 * @return the new entry, or null if it was discarded
+	 */
+	public CachedResponse store(String key, String url, RecordedResponse response, long generation) {
+		long ttl = Math.max(0, ttlMillis(CachedResponse.header(response, "Cache-Control")));
+		CachedResponse entry = new CachedResponse(key, resource(url), response, ttl);
+		if (!put(entry, generation)) {
+			return null;
+		}
+		stores.increment();
+		return entry;
+	}
+
+	/**
+	 * Refresh an entry after a 304: same body, freshness and validators from the
+	 * 304 headers when it sent them
+	 *
+	 * @param entry       - Stale entry that was revalidated
+	 * @param notModified - The 304 response
+	 * @param generation  - generation(url) read before the request was sent
+	 * @return the refreshed entry (not stored again if the resource was
+	 *         invalidated meanwhile)
+	 */
+	public CachedResponse revalidated(CachedResponse entry, RecordedResponse notModified, long generation) {
+		revalidated.increment();
+		Map<String, String[]> merged = new LinkedHashMap<>();
+		for (String[] header : entry.getResponse().getHeaders()) {
+			merged.put(header[0].toLowerCase(Locale.ROOT), header);
+		}
+		for (String[] header : notModified.getHeaders()) {
+			if (!"content-type".equalsIgnoreCase(header[0])) {
+				merged.put(header[0].toLowerCase(Locale.ROOT), header);
+			}
+		}
+		RecordedResponse response = new RecordedResponse(entry.getResponse().getStatus(),
+				entry.getResponse().getReason(), new ArrayList<>(merged.values()),
+				entry.getResponse().getBody());
+		long ttl = Math.max(0, ttlMillis(CachedResponse.header(response, "Cache-Control")));
+		CachedResponse refreshed = new CachedResponse(entry.getKey(), entry.getResource(), response, ttl);
+		put(refreshed, generation);
+		return refreshed;
+	}
+
+	private synchronized boolean put(CachedResponse entry, long generation) {
+		if (generations[stripe(entry.getResource())] != generation) {
+			discarded.increment();
+			if (logger.isDebugEnabled()) {
+				logger.debug("Not caching " + entry.getResource() + ": invalidated while the request was in flight");
+			}
+			return false;
+		}
+		CachedResponse previous = entries.put(entry.getKey(), entry);
+		if (previous != null) {
+			bytes -= previous.size();
+		}
+		bytes += entry.size();
+		keysByResource.computeIfAbsent(entry.getResource(), r -> new HashSet<>()).add(entry.getKey());
+
+		Iterator<CachedResponse> eldest = entries.values().iterator();
+		while ((entries.size() > config.getMaxEntries() || bytes > config.getMaxBytes()) && eldest.hasNext()) {
+			CachedResponse evicted = eldest.next();
+			eldest.remove();
+			forget(evicted);
+			evictions.increment();
+		}
+		return true;
+	}
+
+	private void forget(CachedResponse entry) {
+		bytes -= entry.size();
+		Set<String> keys = keysByResource.get(entry.getResource());
+		if (keys != null) {
+			keys.remove(entry.getKey());
+			if (keys.isEmpty()) {
+				keysByResource.remove(entry.getResource());
+			}
+		}
+	}
+
+	/**
+	 * Drop every cached response of a resource (any query string) and of its
+	 * parent collection, e.g. after a PUT or DELETE to it
+	 *
+	 * @param url - URL the modifying request was sent to
+	 * @return number of entries removed
+	 */
+	public int invalidate(String url) {
+		String resource = resource(url);
+		int removed = removeResource(resource);
+		int slash = resource.lastIndexOf('/');
+		if (slash > resource.indexOf("://") + 2) {
+			removed += removeResource(resource.substring(0, slash));
+		}
+		if (removed > 0) {
+			invalidations.add(removed);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Invalidated " + removed + " cached responses for " + resource);
+			}
+		}
+		return removed;
+	}
+
+	private synchronized int removeResource(String resource) {
+		generations[stripe(resource)]++;
+		Set<String> keys = keysByResource.remove(resource);
+		if (keys == null) {
+			return 0;
+		}
+		for (String key : keys) {
+			CachedResponse entry = entries.remove(key);
+			if (entry != null) {
+				bytes -= entry.size();
+			}
+		}
+		return keys.size();
+	}
+
+	/**
+	 * URL without query string, fragment and trailing slash
+	 */
+	static String resource(String url) {
+		int end = url.length();
+		for (int i = 0; i < url.length(); i++) {
+			char c = url.charAt(i);
+			if (c == '?' || c == '#') {
+				end = i;
+				break;
+			}
+		}
+		while (end > 1 && url.charAt(end - 1) == '/') {
+			end--;
+		}
+		return url.substring(0, end);
+	}
+
+	/**
+	 * Freshness lifetime from Cache-Control: -1 = must not be stored, 0 =
+	 * revalidate before every use
+	 */
+	long ttlMillis(String cacheControl) {
+		if (cacheControl == null) {
+			return config.getDefaultTtlMillis();
+		}
+		long ttl = config.getDefaultTtlMillis();
+		for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+			directive = directive.trim();
+			if (directive.equals("no-store")) {
+				return -1;
+			}
+			if (directive.equals("no-cache")) {
+				return 0;
+			}
+			if (directive.startsWith("max-age=")) {
+				try {
+					ttl = Long.parseLong(directive.substring(8).trim()) * 1000;
+				} catch (NumberFormatException e) {
+					ttl = 0;
+				}
+			}
+		}
+		return ttl;
+	}
+
+	private static String value(HttpResponse response, String name) {
+		Header header = response.getFirstHeader(name);
+		return header != null ? header.getValue() : null;
+	}
+
+	/**
+	 * Drop everything
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		keysByResource.clear();
+		bytes = 0;
+	}
+
+	// ============ STATS ============
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Served fresh from the cache, no request sent
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Not cached, or stale (a request was sent)
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Stale entries confirmed by a 304, body not transferred
+	 */
+	public long getRevalidated() {
+		return revalidated.sum();
+	}
+
+	public long getStores() {
+		return stores.sum();
+	}
+
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	public long getInvalidations() {
+		return invalidations.sum();
+	}
+
+	/**
+	 * Responses not stored because a write invalidated their resource while
+	 * the GET was in flight
+	 */
+	public long getDiscarded() {
+		return discarded.sum();
+	}
+
+	/**
+	 * Fraction of lookups served without transferring a body
+	 */
+	public double getHitRatio() {
+		long lookups = getHits() + getMisses();
+		return lookups == 0 ? 0 : (getHits() + getRevalidated()) / (double) lookups;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"ResponseCache{entries=%d, bytes=%d, hits=%d, misses=%d, revalidated=%d, stores=%d, evictions=%d, invalidations=%d, discarded=%d, hitRatio=%.2f}",
+				size(), getBytes(), getHits(), getMisses(), getRevalidated(), getStores(), getEvictions(),
+				getInvalidations(), getDiscarded(), getHitRatio());
+	}
+}
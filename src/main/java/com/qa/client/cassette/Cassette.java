@@ -0,0 +1,117 @@
+package com.qa.client.cassette;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Cassette - Record/replay store used by RestClient (see
+ * RestClient.useCassette).
+ *
+ * In RECORD mode every exchange is appended to the cassette file and the
+ * index is written on close(). In REPLAY mode the file is memory-mapped and
+ * each request is answered from it without opening a socket; lookups are
+ * lock-free, so parallel tests and load runs replay at memory speed.
+ */
+public class Cassette implements Closeable {
+
+	private static final Logger logger = Logger.getLogger(Cassette.class);
+
+	private final CassetteMode mode;
+	private final RequestMatcher matcher;
+	private final CassetteWriter writer;
+	private final CassetteReader reader;
+
+	private Cassette(CassetteMode mode, RequestMatcher matcher, CassetteWriter writer, CassetteReader reader) {
+		this.mode = mode;
+		this.matcher = matcher;
+		this.writer = writer;
+		this.reader = reader;
+	}
+
+	/**
+	 * Open a cassette
+	 *
+	 * @param mode    - RECORD (file is replaced) or REPLAY (file must exist)
+	 * @param file    - Cassette file
+	 * @param matcher - How requests are keyed
+	 * @return Cassette
+	 * @throws IOException if the file cannot be created or read
+	 */
+	public static Cassette open(CassetteMode mode, File file, RequestMatcher matcher) throws IOException {
+		switch (mode) {
+		case RECORD:
+			logger.info("Recording cassette " + file.getPath() + " with " + matcher);
+			return new Cassette(mode, matcher, new CassetteWriter(file), null);
+		case REPLAY:
+			return new Cassette(mode, matcher, null, new CassetteReader(file));
+		default:
+			throw new IllegalArgumentException("No cassette needed for mode " + mode);
+		}
+	}
+
+	/**
+	 * Build the key of a request with this cassette's matcher
+	 */
+	public RequestKey key(String method, String url, Map<String, String> headerMap, byte[] body) {
+		return matcher.key(method, url, headerMap, body);
+	}
+
+	/**
+	 * Recorded response for a request (REPLAY mode)
+	 *
+	 * @param key - Request key
+	 * @return RecordedResponse
+	 * @throws CassetteMissException if the request was not recorded
+	 */
+	public RecordedResponse replay(RequestKey key) throws CassetteMissException {
+		RecordedResponse response = reader.find(key);
+		if (response == null) {
+			throw new CassetteMissException(key);
+		}
+		return response;
+	}
+
+	/**
+	 * Record an exchange (RECORD mode). Later responses for a key already on the
+	 * cassette are ignored.
+	 *
+	 * @param key      - Request key
+	 * @param response - Response to store
+	 * @throws IOException
+	 */
+	public void record(RequestKey key, RecordedResponse response) throws IOException {
+		writer.append(key, response);
+	}
+
+	/**
+	 * Number of exchanges on the cassette
+	 */
+	public int size() {
+		return writer != null ? writer.size() : reader.size();
+	}
+
+	public CassetteMode getMode() {
+		return mode;
+	}
+
+	public RequestMatcher getMatcher() {
+		return matcher;
+	}
+
+	/**
+	 * Finish the recording (writes the index) or release the replay mapping
+	 */
+	@Override
+	public void close() throws IOException {
+		if (writer != null) {
+			writer.close();
+		}
+		if (reader != null) {
+			reader.close();
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package com.qa.client.cassette;
+
+/**
+ * CassetteFormat - On-disk layout shared by CassetteWriter and CassetteReader.
+ *
+ * header (32 bytes): magic, version, record count, index offset, slot count
+ * records: int length (of the rest), long key hash, int key length, key,
+ * int status, string reason, int header count, (string name, string value)*,
+ * int body length, body; strings are int length + UTF-8 bytes
+ * index: slot count x (long key hash, long record offset), open addressing
+ * with linear probing, offset 0 = empty slot
+ *
+ * The index is written when the recording is closed. A cassette without one
+ * (recording interrupted) is still readable: the reader scans the records.
+ */
+final class CassetteFormat {
+
+	static final long MAGIC = 0x5141434153534554L; // "QACASSET"
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 32;
+	static final int SLOT_SIZE = 16;
+
+	// Header field offsets
+	static final int RECORD_COUNT_OFFSET = 12;
+	static final int INDEX_OFFSET_OFFSET = 16;
+	static final int SLOT_COUNT_OFFSET = 24;
+
+	private CassetteFormat() {
+	}
+
+	/**
+	 * Index size for the given number of records: a power of two, at most half
+	 * full so probe sequences stay short
+	 */
+	static int slotCount(int records) {
+		int slots = 16;
+		while (slots < records * 2) {
+			slots <<= 1;
+		}
+		return slots;
+	}
+
+	/**
+	 * First slot for a key hash
+	 */
+	static int slot(long hash, int slotCount) {
+		return (int) (hash ^ (hash >>> 32)) & (slotCount - 1);
+	}
+}
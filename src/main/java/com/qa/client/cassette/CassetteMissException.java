@@ -0,0 +1,16 @@
+package com.qa.client.cassette;
+
+import java.io.IOException;
+
+/**
+ * CassetteMissException - Thrown in replay mode for a request that was never
+ * recorded on the cassette.
+ */
+public class CassetteMissException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	public CassetteMissException(RequestKey key) {
+		super("No recorded response for " + key);
+	}
+}
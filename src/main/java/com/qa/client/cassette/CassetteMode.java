@@ -0,0 +1,23 @@
+package com.qa.client.cassette;
+
+/**
+ * CassetteMode - What RestClient does with its cassette
+ *
+ * PASSTHROUGH - real requests, nothing recorded (default)
+ * RECORD - real requests, every exchange is written to the cassette
+ * REPLAY - no sockets: responses come from the cassette, a request that was
+ * never recorded fails with CassetteMissException
+ */
+public enum CassetteMode {
+	PASSTHROUGH, RECORD, REPLAY;
+
+	/**
+	 * Parse a config value, case-insensitive
+	 *
+	 * @param value - passthrough, record or replay (null = passthrough)
+	 * @return CassetteMode
+	 */
+	public static CassetteMode parse(String value) {
+		return value == null || value.trim().isEmpty() ? PASSTHROUGH : valueOf(value.trim().toUpperCase(java.util.Locale.ROOT));
+	}
+}
@@ -0,0 +1,212 @@
+package com.qa.client.cassette;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+/**
+ * CassetteReader - Serves recorded responses from a memory-mapped cassette
+ * (see CassetteFormat).
+ *
+ * A lookup hashes nothing but the request key, probes the mapped index and
+ * copies out only the matching record, so it needs no locks, no file reads
+ * and no heap beyond the returned response. All reads use absolute offsets
+ * into the shared read-only mapping, so any number of threads can look up
+ * concurrently.
+ */
+public class CassetteReader implements Closeable {
+
+	private static final Logger logger = Logger.getLogger(CassetteReader.class);
+
+	private final File file;
+	private final ByteBuffer data;
+	private final ByteBuffer index;
+	private final int slotCount;
+	private final int records;
+
+	/**
+	 * Map a cassette for replay
+	 *
+	 * @param file - Cassette written by CassetteWriter
+	 * @throws IOException if the file is missing, not a cassette or above 2 GB
+	 */
+	public CassetteReader(File file) throws IOException {
+		this.file = file;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Cassette larger than 2 GB: " + file);
+			}
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			this.data = mapped;
+		}
+		if (data.capacity() < CassetteFormat.HEADER_SIZE || data.getLong(0) != CassetteFormat.MAGIC) {
+			throw new IOException("Not a cassette file: " + file);
+		}
+		if (data.getInt(8) != CassetteFormat.VERSION) {
+			throw new IOException("Unsupported cassette version " + data.getInt(8) + ": " + file);
+		}
+
+		long indexOffset = data.getLong(CassetteFormat.INDEX_OFFSET_OFFSET);
+		if (indexOffset > 0) {
+			records = data.getInt(CassetteFormat.RECORD_COUNT_OFFSET);
+			slotCount = data.getInt(CassetteFormat.SLOT_COUNT_OFFSET);
+			index = slice(data, (int) indexOffset, slotCount * CassetteFormat.SLOT_SIZE);
+		} else {
+			// Recording was not closed: rebuild the index from the records
+			List<long[]> entries = scan();
+			records = entries.size();
+			slotCount = CassetteFormat.slotCount(records);
+			index = ByteBuffer.allocate(slotCount * CassetteFormat.SLOT_SIZE);
+			for (long[] entry : entries) {
+				if (contains(entry[0], entry[1])) {
+					continue;
+				}
+				int slot = CassetteFormat.slot(entry[0], slotCount);
+				while (index.getLong(slot * CassetteFormat.SLOT_SIZE + 8) != 0) {
+					slot = (slot + 1) & (slotCount - 1);
+				}
+				index.putLong(slot * CassetteFormat.SLOT_SIZE, entry[0]);
+				index.putLong(slot * CassetteFormat.SLOT_SIZE + 8, entry[1]);
+			}
+			logger.warn("Cassette " + file + " has no index (recording not closed), scanned " + records + " records");
+		}
+		logger.info("Cassette loaded for replay: " + records + " exchanges from " + file.getPath());
+	}
+
+	private List<long[]> scan() {
+		List<long[]> entries = new ArrayList<>();
+		int position = CassetteFormat.HEADER_SIZE;
+		while (position + 12 <= data.capacity()) {
+			int length = data.getInt(position);
+			if (length <= 0 || position + 4L + length > data.capacity()) {
+				break; // truncated last record
+			}
+			entries.add(new long[] { data.getLong(position + 4), position });
+			position += 4 + length;
+		}
+		return entries;
+	}
+
+	// Scan fallback only: keep the first record of a key, like the writer
+	private boolean contains(long hash, long offset) {
+		for (int slot = CassetteFormat.slot(hash, slotCount);; slot = (slot + 1) & (slotCount - 1)) {
+			long stored = index.getLong(slot * CassetteFormat.SLOT_SIZE + 8);
+			if (stored == 0) {
+				return false;
+			}
+			if (index.getLong(slot * CassetteFormat.SLOT_SIZE) == hash
+					&& sameKey((int) stored, keyBytes((int) offset))) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Find the recorded response for a request
+	 *
+	 * @param key - Request key
+	 * @return RecordedResponse, or null if it was not recorded
+	 */
+	public RecordedResponse find(RequestKey key) {
+		long hash = key.getHash();
+		for (int slot = CassetteFormat.slot(hash, slotCount), probes = 0; probes < slotCount; slot = (slot + 1)
+				& (slotCount - 1), probes++) {
+			int base = slot * CassetteFormat.SLOT_SIZE;
+			long offset = index.getLong(base + 8);
+			if (offset == 0) {
+				return null;
+			}
+			if (index.getLong(base) == hash && sameKey((int) offset, key.getBytes())) {
+				return decode((int) offset);
+			}
+		}
+		return null;
+	}
+
+	private boolean sameKey(int offset, byte[] key) {
+		int keyLength = data.getInt(offset + 12);
+		if (keyLength != key.length) {
+			return false;
+		}
+		int start = offset + 16;
+		for (int i = 0; i < keyLength; i++) {
+			if (data.get(start + i) != key[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private byte[] keyBytes(int offset) {
+		return bytes(offset + 12);
+	}
+
+	private RecordedResponse decode(int offset) {
+		int position = offset + 12;
+		position += 4 + data.getInt(position); // key
+		int status = data.getInt(position);
+		position += 4;
+		String reason = string(position);
+		position += 4 + data.getInt(position);
+		int headerCount = data.getInt(position);
+		position += 4;
+		List<String[]> headers = new ArrayList<>(headerCount);
+		for (int i = 0; i < headerCount; i++) {
+			String name = string(position);
+			position += 4 + data.getInt(position);
+			String value = string(position);
+			position += 4 + data.getInt(position);
+			headers.add(new String[] { name, value });
+		}
+		return new RecordedResponse(status, reason, headers, bytes(position));
+	}
+
+	// Length-prefixed bytes at an absolute offset
+	private byte[] bytes(int position) {
+		int length = data.getInt(position);
+		byte[] bytes = new byte[length];
+		ByteBuffer view = data.duplicate();
+		view.position(position + 4);
+		view.get(bytes);
+		return bytes;
+	}
+
+	private String string(int position) {
+		return new String(bytes(position), StandardCharsets.UTF_8);
+	}
+
+	private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+		ByteBuffer view = buffer.duplicate();
+		view.position(offset);
+		view.limit(offset + length);
+		return view.slice();
+	}
+
+	/**
+	 * Number of exchanges on the cassette
+	 */
+	public int size() {
+		return records;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * The mapping is released by the garbage collector; nothing to close
+	 * explicitly on Java 11
+	 */
+	@Override
+	public void close() {
+	}
+}
@@ -0,0 +1,159 @@
+package com.qa.client.cassette;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+/**
+ * CassetteWriter - Appends recorded exchanges to a cassette file and writes
+ * the hash index on close (see CassetteFormat). Thread-safe.
+ *
+ * Only the first response recorded for a key is kept, so replaying is
+ * deterministic even if the recorded service was not.
+ */
+public class CassetteWriter implements Closeable {
+
+	private static final Logger logger = Logger.getLogger(CassetteWriter.class);
+
+	private final File file;
+	private final FileChannel channel;
+	private final DataOutputStream out;
+	private final Set<RequestKey> recorded = new HashSet<>();
+	private final List<long[]> entries = new ArrayList<>(); // {hash, offset}
+	private long position = CassetteFormat.HEADER_SIZE;
+	private boolean closed;
+
+	/**
+	 * Start a new cassette, replacing the file if it exists
+	 *
+	 * @param file - Cassette file
+	 * @throws IOException
+	 */
+	public CassetteWriter(File file) throws IOException {
+		this.file = file;
+		if (file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+		// Header with no index yet; rewritten on close
+		out.write(header(0, 0, 0).array());
+	}
+
+	/**
+	 * Record an exchange
+	 *
+	 * @param key      - Request key
+	 * @param response - Response to replay for it
+	 * @return true if written, false if the key was already recorded
+	 * @throws IOException
+	 */
+	public synchronized boolean append(RequestKey key, RecordedResponse response) throws IOException {
+		if (closed) {
+			throw new IOException("Cassette already closed: " + file);
+		}
+		if (!recorded.add(key)) {
+			return false;
+		}
+		byte[] keyBytes = key.getBytes();
+		byte[] reason = response.getReason().getBytes(StandardCharsets.UTF_8);
+		List<byte[]> headers = new ArrayList<>();
+		int length = 8 + 4 + keyBytes.length + 4 + 4 + reason.length + 4;
+		for (String[] header : response.getHeaders()) {
+			byte[] name = header[0].getBytes(StandardCharsets.UTF_8);
+			byte[] value = header[1].getBytes(StandardCharsets.UTF_8);
+			headers.add(name);
+			headers.add(value);
+			length += 8 + name.length + value.length;
+		}
+		length += 4 + response.getBody().length;
+
+		entries.add(new long[] { key.getHash(), position });
+		out.writeInt(length);
+		out.writeLong(key.getHash());
+		writeBytes(keyBytes);
+		out.writeInt(response.getStatus());
+		writeBytes(reason);
+		out.writeInt(response.getHeaders().size());
+		for (byte[] part : headers) {
+			writeBytes(part);
+		}
+		writeBytes(response.getBody());
+		position += 4 + length;
+		return true;
+	}
+
+	private void writeBytes(byte[] bytes) throws IOException {
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Number of exchanges recorded
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Write the index and header, then close the file
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			int slotCount = CassetteFormat.slotCount(entries.size());
+			long[] slots = new long[slotCount * 2];
+			for (long[] entry : entries) {
+				int slot = CassetteFormat.slot(entry[0], slotCount);
+				while (slots[slot * 2 + 1] != 0) {
+					slot = (slot + 1) & (slotCount - 1);
+				}
+				slots[slot * 2] = entry[0];
+				slots[slot * 2 + 1] = entry[1];
+			}
+			long indexOffset = position;
+			for (long value : slots) {
+				out.writeLong(value);
+			}
+			out.flush();
+			channel.write(header(entries.size(), indexOffset, slotCount), 0);
+			channel.force(false);
+		} finally {
+			out.close();
+		}
+		logger.info("Cassette recorded: " + entries.size() + " exchanges in " + file.getPath());
+	}
+
+	private static ByteBuffer header(int records, long indexOffset, int slotCount) {
+		ByteBuffer header = ByteBuffer.allocate(CassetteFormat.HEADER_SIZE);
+		header.putLong(CassetteFormat.MAGIC);
+		header.putInt(CassetteFormat.VERSION);
+		header.putInt(records);
+		header.putLong(indexOffset);
+		header.putInt(slotCount);
+		header.rewind();
+		return header;
+	}
+}
@@ -0,0 +1,127 @@
+package com.qa.client.cassette;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicStatusLine;
+
+import com.qa.client.BufferedResponse;
+
+/**
+ * RecordedResponse - Status, headers and body of one exchange on the cassette
+ */
+public final class RecordedResponse {
+
+	// Connection-level headers that describe the original transfer, not the
+	// response; the replayed entity supplies its own length
+	private static final List<String> SKIPPED_HEADERS = List.of("connection", "keep-alive", "transfer-encoding",
+			"content-length");
+
+	private final int status;
+	private final String reason;
+	private final List<String[]> headers;
+	private final byte[] body;
+
+	public RecordedResponse(int status, String reason, List<String[]> headers, byte[] body) {
+		this.status = status;
+		this.reason = reason != null ? reason : "";
+		this.headers = headers;
+		this.body = body != null ? body : new byte[0];
+	}
+
+	/**
+	 * Capture a response whose body has already been read
+	 *
+	 * @param response - Live response
+	 * @param body     - Its body
+	 * @return RecordedResponse
+	 */
+	public static RecordedResponse of(HttpResponse response, byte[] body) {
+		List<String[]> headers = new ArrayList<>();
+		for (Header header : response.getAllHeaders()) {
+			if (!SKIPPED_HEADERS.contains(header.getName().toLowerCase(Locale.ROOT))) {
+				headers.add(new String[] { header.getName(), header.getValue() });
+			}
+		}
+		return new RecordedResponse(response.getStatusLine().getStatusCode(),
+				response.getStatusLine().getReasonPhrase(), headers, body);
+	}
+
+	/**
+	 * Capture an async response
+	 *
+	 * @param response - Buffered response
+	 * @return RecordedResponse
+	 */
+	public static RecordedResponse of(BufferedResponse response) {
+		List<String[]> headers = new ArrayList<>();
+		for (Map.Entry<String, List<String>> entry : response.getHeaders().entrySet()) {
+			if (entry.getKey() == null || SKIPPED_HEADERS.contains(entry.getKey().toLowerCase(Locale.ROOT))) {
+				continue;
+			}
+			for (String value : entry.getValue()) {
+				headers.add(new String[] { entry.getKey(), value });
+			}
+		}
+		return new RecordedResponse(response.getStatusCode(), null, headers, response.getBody());
+	}
+
+	/**
+	 * New closeable response backed by the recorded body
+	 */
+	public ReplayedHttpResponse toHttpResponse() {
+		ReplayedHttpResponse response = new ReplayedHttpResponse(
+				new BasicStatusLine(HttpVersion.HTTP_1_1, status, reason));
+		String contentType = null;
+		for (String[] header : headers) {
+			response.addHeader(header[0], header[1]);
+			if ("content-type".equalsIgnoreCase(header[0])) {
+				contentType = header[1];
+			}
+		}
+		if (body.length > 0 || (status != 204 && status != 304)) {
+			ByteArrayEntity entity = new ByteArrayEntity(body);
+			entity.setContentType(contentType);
+			response.setEntity(entity);
+		}
+		return response;
+	}
+
+	/**
+	 * Same response in the form returned by the *Async methods
+	 */
+	public BufferedResponse toBufferedResponse() {
+		Map<String, List<String>> map = new LinkedHashMap<>();
+		for (String[] header : headers) {
+			map.computeIfAbsent(header[0], name -> new ArrayList<>()).add(header[1]);
+		}
+		return new BufferedResponse(status, Collections.unmodifiableMap(map), body);
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	public String getReason() {
+		return reason;
+	}
+
+	/**
+	 * Headers as {name, value} pairs, in recorded order
+	 */
+	public List<String[]> getHeaders() {
+		return headers;
+	}
+
+	public byte[] getBody() {
+		return body;
+	}
+}
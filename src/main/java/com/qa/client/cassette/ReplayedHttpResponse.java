@@ -0,0 +1,20 @@
+package com.qa.client.cassette;
+
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.message.BasicHttpResponse;
+
+/**
+ * ReplayedHttpResponse - In-memory response served from a cassette. There is
+ * no connection behind it, so close() has nothing to release.
+ */
+public class ReplayedHttpResponse extends BasicHttpResponse implements CloseableHttpResponse {
+
+	public ReplayedHttpResponse(StatusLine statusline) {
+		super(statusline);
+	}
+
+	@Override
+	public void close() {
+	}
+}
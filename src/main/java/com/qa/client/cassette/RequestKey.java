@@ -0,0 +1,63 @@
+package com.qa.client.cassette;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * RequestKey - Normalized identity of a request, as built by RequestMatcher.
+ *
+ * The key text is "METHOD url\nheaders\nbody-hash"; its 64-bit FNV-1a hash
+ * picks the index slot in the cassette and the full text is compared on a hit,
+ * so hash collisions can never replay the wrong response.
+ */
+public final class RequestKey {
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private final byte[] bytes;
+	private final long hash;
+
+	RequestKey(String text) {
+		this.bytes = text.getBytes(StandardCharsets.UTF_8);
+		this.hash = fnv1a64(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * 64-bit FNV-1a hash
+	 */
+	public static long fnv1a64(byte[] data, int offset, int length) {
+		long hash = FNV_OFFSET_BASIS;
+		for (int i = offset; i < offset + length; i++) {
+			hash ^= data[i] & 0xff;
+			hash *= FNV_PRIME;
+		}
+		return hash;
+	}
+
+	public long getHash() {
+		return hash;
+	}
+
+	/**
+	 * Key text as UTF-8 (do not modify)
+	 */
+	byte[] getBytes() {
+		return bytes;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof RequestKey && ((RequestKey) o).hash == hash && Arrays.equals(((RequestKey) o).bytes, bytes);
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(hash);
+	}
+
+	@Override
+	public String toString() {
+		return new String(bytes, StandardCharsets.UTF_8).replace('\n', ' ');
+	}
+}
@@ -0,0 +1,114 @@
+package com.qa.client.cassette;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * RequestMatcher - Decides which parts of a request identify it on the
+ * cassette and builds the normalized RequestKey:
+ *
+ * method - upper case
+ * URL - lower-case scheme and host, default port dropped, query parameters
+ * sorted, fragment dropped; scheme, host and port are left out unless
+ * matchHost is set, so a cassette recorded against one server (or the mock
+ * server on a random port) replays against any other
+ * headers - only the configured names, lower-cased and sorted
+ * body - FNV-1a 64 hash of the bytes
+ */
+public class RequestMatcher {
+
+	/**
+	 * Headers matched by default
+	 */
+	public static final List<String> DEFAULT_HEADERS = Collections
+			.unmodifiableList(Arrays.asList("content-type", "accept"));
+
+	private final Set<String> headers = new TreeSet<>();
+	private final boolean matchHost;
+
+	public RequestMatcher() {
+		this(DEFAULT_HEADERS, false);
+	}
+
+	/**
+	 * @param headers   - Header names that are part of the key
+	 * @param matchHost - Include scheme, host and port in the key
+	 */
+	public RequestMatcher(Collection<String> headers, boolean matchHost) {
+		for (String header : headers) {
+			if (!header.trim().isEmpty()) {
+				this.headers.add(header.trim().toLowerCase(Locale.ROOT));
+			}
+		}
+		this.matchHost = matchHost;
+	}
+
+	/**
+	 * Build the key of a request
+	 *
+	 * @param method    - HTTP method
+	 * @param url       - Complete URL
+	 * @param headerMap - Request headers (may be null)
+	 * @param body      - Request body (may be null)
+	 * @return RequestKey
+	 */
+	public RequestKey key(String method, String url, Map<String, String> headerMap, byte[] body) {
+		StringBuilder key = new StringBuilder(128);
+		key.append(method.toUpperCase(Locale.ROOT)).append(' ');
+		appendUrl(key, URI.create(url));
+		key.append('\n');
+
+		if (headerMap != null && !headers.isEmpty()) {
+			List<String> matched = new ArrayList<>();
+			for (Map.Entry<String, String> entry : headerMap.entrySet()) {
+				String name = entry.getKey().toLowerCase(Locale.ROOT);
+				if (headers.contains(name)) {
+					matched.add(name + ":" + (entry.getValue() != null ? entry.getValue().trim() : ""));
+				}
+			}
+			Collections.sort(matched);
+			key.append(String.join(",", matched));
+		}
+		key.append('\n');
+
+		if (body != null && body.length > 0) {
+			key.append(Long.toHexString(RequestKey.fnv1a64(body, 0, body.length))).append('/').append(body.length);
+		} else {
+			key.append('-');
+		}
+		return new RequestKey(key.toString());
+	}
+
+	private void appendUrl(StringBuilder key, URI uri) {
+		if (matchHost && uri.getHost() != null) {
+			String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "http";
+			key.append(scheme).append("://").append(uri.getHost().toLowerCase(Locale.ROOT));
+			int port = uri.getPort();
+			if (port != -1 && !(port == 80 && "http".equals(scheme)) && !(port == 443 && "https".equals(scheme))) {
+				key.append(':').append(port);
+			}
+		}
+		String path = uri.getRawPath();
+		key.append(path == null || path.isEmpty() ? "/" : path);
+
+		String query = uri.getRawQuery();
+		if (query != null && !query.isEmpty()) {
+			String[] params = query.split("&");
+			Arrays.sort(params);
+			key.append('?').append(String.join("&", params));
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "RequestMatcher{headers=" + headers + ", matchHost=" + matchHost + "}";
+	}
+}
@@ -0,0 +1,113 @@
+package com.qa.client.compress;
+
+import java.util.Properties;
+
+/**
+ * CompressionConfig - Content-encoding settings for RestClient. Values can be
+ * loaded from config.properties using the "http.compression.*" keys, anything
+ * missing falls back to the defaults below.
+ */
+public class CompressionConfig {
+
+	// Property keys (config.properties)
+	public static final String RESPONSES = "http.compression.responses";
+	public static final String BROTLI = "http.compression.brotli";
+	public static final String REQUESTS = "http.compression.requests";
+	public static final String REQUEST_MIN_BYTES = "http.compression.requestMinBytes";
+
+	private boolean responses = true;
+	private boolean brotli = true;
+	private boolean requests = false;
+	private int requestMinBytes = 1024;
+
+	/**
+	 * Build a config from properties, using defaults for missing keys
+	 *
+	 * @param prop - Loaded configuration (may be null)
+	 * @return CompressionConfig
+	 */
+	public static CompressionConfig fromProperties(Properties prop) {
+		CompressionConfig config = new CompressionConfig();
+		if (prop == null) {
+			return config;
+		}
+		config.setResponses(
+				Boolean.parseBoolean(prop.getProperty(RESPONSES, String.valueOf(config.responses)).trim()));
+		config.setBrotli(Boolean.parseBoolean(prop.getProperty(BROTLI, String.valueOf(config.brotli)).trim()));
+		config.setRequests(Boolean.parseBoolean(prop.getProperty(REQUESTS, String.valueOf(config.requests)).trim()));
+		config.setRequestMinBytes(Integer
+				.parseInt(prop.getProperty(REQUEST_MIN_BYTES, String.valueOf(config.requestMinBytes)).trim()));
+		return config;
+	}
+
+	/**
+	 * No Accept-Encoding and no request compression
+	 */
+	public static CompressionConfig disabled() {
+		CompressionConfig config = new CompressionConfig();
+		config.setResponses(false);
+		config.setRequests(false);
+		return config;
+	}
+
+	/**
+	 * Accept-Encoding value to send, or null when responses are not compressed
+	 */
+	public String getAcceptEncoding() {
+		if (!responses) {
+			return null;
+		}
+		return brotli && ContentCodings.isBrotliAvailable() ? ContentCodings.ACCEPT_ENCODING_BROTLI
+				: ContentCodings.ACCEPT_ENCODING;
+	}
+
+	/**
+	 * True if a request body of this length should be sent gzipped
+	 *
+	 * @param contentLength - Body length, -1 if unknown
+	 */
+	public boolean shouldCompress(long contentLength) {
+		return requests && contentLength >= requestMinBytes;
+	}
+
+	// ============ GETTERS AND SETTERS ============
+
+	public boolean isResponses() {
+		return responses;
+	}
+
+	public void setResponses(boolean responses) {
+		this.responses = responses;
+	}
+
+	public boolean isBrotli() {
+		return brotli;
+	}
+
+	public void setBrotli(boolean brotli) {
+		this.brotli = brotli;
+	}
+
+	public boolean isRequests() {
+		return requests;
+	}
+
+	public void setRequests(boolean requests) {
+		this.requests = requests;
+	}
+
+	public int getRequestMinBytes() {
+		return requestMinBytes;
+	}
+
+	public void setRequestMinBytes(int requestMinBytes) {
+		this.requestMinBytes = requestMinBytes;
+	}
+
+	@Override
+	public String toString() {
+		return "CompressionConfig{responses=" + responses + ", brotli=" + brotli + " (available="
+				+ ContentCodings.isBrotliAvailable() + "), requests=" + requests + ", requestMinBytes="
+				+ requestMinBytes + "}";
+	}
+}
@@ -0,0 +1,158 @@
+package com.qa.client.compress;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.client.entity.DeflateInputStream;
+import org.apache.log4j.Logger;
+
+/**
+ * ContentCodings - Decoders for the Content-Encoding values RestClient
+ * advertises: gzip, deflate (zlib or raw) and, when a Brotli decoder is on the
+ * classpath, br.
+ *
+ * Brotli is looked up by reflection (org.brotli:dec, or brotli4j) so the
+ * framework does not depend on it; without one, br is simply not advertised.
+ */
+public final class ContentCodings {
+
+	private static final Logger logger = Logger.getLogger(ContentCodings.class);
+
+	public static final String ACCEPT_ENCODING = "gzip, deflate";
+	public static final String ACCEPT_ENCODING_BROTLI = "gzip, deflate, br";
+
+	static final int BUFFER_SIZE = 8192;
+
+	// Pure Java decoder first, brotli4j needs its native library loaded
+	private static final String[] BROTLI_DECODERS = { "org.brotli.dec.BrotliInputStream",
+			"com.aayushatharva.brotli4j.decoder.BrotliInputStream" };
+
+	private static final Constructor<?> BROTLI = findBrotli();
+
+	private ContentCodings() {
+	}
+
+	private static Constructor<?> findBrotli() {
+		for (String name : BROTLI_DECODERS) {
+			try {
+				Constructor<?> constructor = Class.forName(name).getConstructor(InputStream.class);
+				if (name.startsWith("com.aayushatharva")) {
+					Class.forName("com.aayushatharva.brotli4j.Brotli4jLoader").getMethod("ensureAvailability")
+							.invoke(null);
+				}
+				logger.info("Brotli decoding available through " + name);
+				return constructor;
+			} catch (ReflectiveOperationException | LinkageError e) {
+				logger.debug("Brotli decoder " + name + " not usable: " + e);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * True if "br" responses can be decoded
+	 */
+	public static boolean isBrotliAvailable() {
+		return BROTLI != null;
+	}
+
+	/**
+	 * True if there is nothing to decode
+	 *
+	 * @param coding - Content-Encoding value (may be null)
+	 */
+	public static boolean isIdentity(String coding) {
+		return coding == null || coding.trim().isEmpty() || "identity".equalsIgnoreCase(coding.trim());
+	}
+
+	/**
+	 * Wrap a stream so it yields the decoded body. Decoding happens as the
+	 * returned stream is read; nothing is buffered beyond the decoder window.
+	 *
+	 * @param coding - Content-Encoding value
+	 * @param in     - Encoded body
+	 * @return decoded stream
+	 * @throws IOException if the coding is not supported or the header is corrupt
+	 */
+	public static InputStream decode(String coding, InputStream in) throws IOException {
+		if (isIdentity(coding)) {
+			return in;
+		}
+		String name = coding.trim().toLowerCase(Locale.ROOT);
+		switch (name) {
+		case "gzip":
+		case "x-gzip":
+			return new GZIPInputStream(in, BUFFER_SIZE);
+		case "deflate":
+			// Handles both zlib-wrapped and raw deflate, servers send either
+			return new DeflateInputStream(in);
+		case "br":
+			if (BROTLI != null) {
+				return newBrotli(in);
+			}
+			break;
+		default:
+			break;
+		}
+		throw new IOException("Unsupported Content-Encoding: " + coding);
+	}
+
+	/**
+	 * Decode a body already read in full
+	 *
+	 * @param coding - Content-Encoding value
+	 * @param body   - Encoded bytes
+	 * @return decoded bytes
+	 * @throws IOException if the coding is not supported or the body is corrupt
+	 */
+	public static byte[] decode(String coding, byte[] body) throws IOException {
+		if (isIdentity(coding)) {
+			return body;
+		}
+		try (InputStream in = decode(coding, new ByteArrayInputStream(body))) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(BUFFER_SIZE, body.length * 4));
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int n;
+			while ((n = in.read(buffer)) >= 0) {
+				out.write(buffer, 0, n);
+			}
+			return out.toByteArray();
+		}
+	}
+
+	/**
+	 * Gzip a request body
+	 *
+	 * @param body - Plain bytes
+	 * @return gzipped bytes
+	 */
+	public static byte[] gzip(byte[] body) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE)) {
+			gzip.write(body);
+		} catch (IOException e) {
+			throw new IllegalStateException("In-memory gzip failed", e);
+		}
+		return out.toByteArray();
+	}
+
+	private static InputStream newBrotli(InputStream in) throws IOException {
+		try {
+			return (InputStream) BROTLI.newInstance(in);
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException("Brotli decoder failed: " + e.getCause(), e.getCause());
+		} catch (ReflectiveOperationException e) {
+			throw new IOException("Brotli decoder unavailable: " + e, e);
+		}
+	}
+}
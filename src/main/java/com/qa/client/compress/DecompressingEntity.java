@@ -0,0 +1,161 @@
+package com.qa.client.compress;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+import com.qa.client.metrics.EndpointMetrics;
+
+/**
+ * DecompressingEntity - Response entity wrapper that decodes the body while it
+ * is read, so the compressed body is never buffered.
+ *
+ * When the body has been read to the end or closed, the bytes on the wire, the
+ * decoded bytes and the time spent decoding (read time minus the time spent
+ * waiting on the socket) are recorded on the endpoint.
+ */
+public class DecompressingEntity extends HttpEntityWrapper {
+
+	private final String coding;
+	private final EndpointMetrics endpoint;
+	private InputStream content;
+
+	public DecompressingEntity(HttpEntity wrapped, String coding, EndpointMetrics endpoint) {
+		super(wrapped);
+		this.coding = coding;
+		this.endpoint = endpoint;
+	}
+
+	@Override
+	public InputStream getContent() throws IOException {
+		if (content == null) {
+			WireStream wire = new WireStream(super.getContent());
+			content = new DecodedStream(ContentCodings.decode(coding, wire), wire);
+		}
+		return content;
+	}
+
+	@Override
+	public void writeTo(OutputStream outStream) throws IOException {
+		try (InputStream in = getContent()) {
+			byte[] buffer = new byte[ContentCodings.BUFFER_SIZE];
+			int n;
+			while ((n = in.read(buffer)) >= 0) {
+				outStream.write(buffer, 0, n);
+			}
+		}
+	}
+
+	@Override
+	public long getContentLength() {
+		return -1;
+	}
+
+	@Override
+	public Header getContentEncoding() {
+		return null;
+	}
+
+	@Override
+	public boolean isRepeatable() {
+		return false;
+	}
+
+	/**
+	 * Compressed side: counts bytes and the time spent in the socket read
+	 */
+	private static final class WireStream extends FilterInputStream {
+
+		private long bytes;
+		private long readNanos;
+
+		WireStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			long start = System.nanoTime();
+			int b = in.read();
+			readNanos += System.nanoTime() - start;
+			if (b >= 0) {
+				bytes++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			long start = System.nanoTime();
+			int n = in.read(b, off, len);
+			readNanos += System.nanoTime() - start;
+			if (n > 0) {
+				bytes += n;
+			}
+			return n;
+		}
+	}
+
+	/**
+	 * Decoded side: counts bytes and records the totals once
+	 */
+	private final class DecodedStream extends FilterInputStream {
+
+		private final WireStream wire;
+		private long bytes;
+		private long readNanos;
+		private boolean recorded;
+
+		DecodedStream(InputStream in, WireStream wire) {
+			super(in);
+			this.wire = wire;
+		}
+
+		@Override
+		public int read() throws IOException {
+			long start = System.nanoTime();
+			int b = in.read();
+			readNanos += System.nanoTime() - start;
+			if (b < 0) {
+				finish();
+			} else {
+				bytes++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			long start = System.nanoTime();
+			int n = in.read(b, off, len);
+			readNanos += System.nanoTime() - start;
+			if (n < 0) {
+				finish();
+			} else {
+				bytes += n;
+			}
+			return n;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			} finally {
+				finish();
+			}
+		}
+
+		private void finish() {
+			if (!recorded) {
+				recorded = true;
+				endpoint.recordDecompression(wire.bytes, bytes, Math.max(0, readNanos - wire.readNanos));
+			}
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package com.qa.client.compress;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.message.BasicHeader;
+
+import com.qa.client.metrics.EndpointMetrics;
+
+/**
+ * GzipRequestEntity - Request entity wrapper that gzips the body while it is
+ * written to the connection (sent chunked, the compressed length is not known
+ * up front). Repeatable if the wrapped entity is, so retries still work.
+ *
+ * Each write records the plain and compressed sizes on the endpoint.
+ * getContent() gzips the body into memory instead, for callers that read the
+ * entity rather than send it, and records nothing.
+ */
+public class GzipRequestEntity extends HttpEntityWrapper {
+
+	private static final Header GZIP = new BasicHeader("Content-Encoding", "gzip");
+
+	private final EndpointMetrics endpoint;
+
+	public GzipRequestEntity(HttpEntity wrapped, EndpointMetrics endpoint) {
+		super(wrapped);
+		this.endpoint = endpoint;
+	}
+
+	@Override
+	public Header getContentEncoding() {
+		return GZIP;
+	}
+
+	@Override
+	public long getContentLength() {
+		return -1;
+	}
+
+	@Override
+	public boolean isChunked() {
+		return true;
+	}
+
+	@Override
+	public InputStream getContent() throws IOException {
+		GzipBuffer gzipped = new GzipBuffer();
+		gzip(gzipped);
+		return gzipped.toInputStream();
+	}
+
+	@Override
+	public void writeTo(OutputStream outStream) throws IOException {
+		CountingOutputStream wire = new CountingOutputStream(outStream);
+		long plain = gzip(wire);
+		wire.flush();
+		endpoint.recordRequestCompression(plain, wire.count);
+	}
+
+	/**
+	 * Gzip the wrapped entity into out, which is left open
+	 *
+	 * @return number of uncompressed bytes
+	 */
+	private long gzip(OutputStream out) throws IOException {
+		CountingOutputStream plain;
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out, ContentCodings.BUFFER_SIZE) {
+			@Override
+			public void close() throws IOException {
+				// Write the trailer but leave the connection open
+				finish();
+				def.end();
+			}
+		}) {
+			plain = new CountingOutputStream(gzip);
+			wrappedEntity.writeTo(plain);
+		}
+		return plain.count;
+	}
+
+	/**
+	 * Buffer read back in place, without the copy toByteArray() makes
+	 */
+	private static final class GzipBuffer extends ByteArrayOutputStream {
+
+		InputStream toInputStream() {
+			return new ByteArrayInputStream(buf, 0, count);
+		}
+	}
+
+	private static final class CountingOutputStream extends FilterOutputStream {
+
+		private long count;
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package com.qa.client.entity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+/**
+ * ByteBufferEntity - Request entity backed by the remaining bytes of a
+ * ByteBuffer. Heap buffers are written straight from their backing array,
+ * direct buffers through a small transfer buffer. The caller's buffer position
+ * is never changed, so the entity is repeatable.
+ */
+public class ByteBufferEntity extends AbstractHttpEntity {
+
+	private static final int TRANSFER_BUFFER_SIZE = 8192;
+
+	private final ByteBuffer buffer;
+
+	public ByteBufferEntity(ByteBuffer buffer, ContentType contentType) {
+		this.buffer = buffer.slice();
+		if (contentType != null) {
+			setContentType(contentType.toString());
+		}
+	}
+
+	@Override
+	public boolean isRepeatable() {
+		return true;
+	}
+
+	@Override
+	public long getContentLength() {
+		return buffer.remaining();
+	}
+
+	@Override
+	public InputStream getContent() {
+		ByteBuffer source = buffer.duplicate();
+		return new InputStream() {
+
+			@Override
+			public int read() {
+				return source.hasRemaining() ? source.get() & 0xff : -1;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) {
+				if (!source.hasRemaining()) {
+					return -1;
+				}
+				int count = Math.min(len, source.remaining());
+				source.get(b, off, count);
+				return count;
+			}
+
+			@Override
+			public int available() {
+				return source.remaining();
+			}
+		};
+	}
+
+	@Override
+	public void writeTo(OutputStream out) throws IOException {
+		if (buffer.hasArray()) {
+			out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+		} else {
+			ByteBuffer source = buffer.duplicate();
+			byte[] chunk = new byte[Math.min(TRANSFER_BUFFER_SIZE, source.remaining())];
+			while (source.hasRemaining()) {
+				int count = Math.min(chunk.length, source.remaining());
+				source.get(chunk, 0, count);
+				out.write(chunk, 0, count);
+			}
+		}
+		out.flush();
+	}
+
+	@Override
+	public boolean isStreaming() {
+		return false;
+	}
+}
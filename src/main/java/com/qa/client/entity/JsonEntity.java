@@ -0,0 +1,65 @@
+package com.qa.client.entity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+import com.qa.data.JsonCodecs;
+
+/**
+ * JsonEntity - Request entity that serializes a POJO with the shared JsonCodecs
+ * writer directly into the connection's output stream, so no String or byte[]
+ * copy of the payload is built. The length is not known up front, so the body
+ * is sent with chunked transfer encoding.
+ */
+public class JsonEntity extends AbstractHttpEntity {
+
+	private final Object value;
+
+	public JsonEntity(Object value) {
+		this.value = value;
+		setContentType(ContentType.APPLICATION_JSON.toString());
+		setChunked(true);
+	}
+
+	/**
+	 * The object being sent
+	 */
+	public Object getValue() {
+		return value;
+	}
+
+	@Override
+	public boolean isRepeatable() {
+		return true;
+	}
+
+	@Override
+	public long getContentLength() {
+		return -1;
+	}
+
+	/**
+	 * Only used when something needs to read the body back (e.g. logging
+	 * interceptors); the normal send path is writeTo
+	 */
+	@Override
+	public InputStream getContent() throws IOException {
+		return new ByteArrayInputStream(JsonCodecs.toBytes(value));
+	}
+
+	@Override
+	public void writeTo(OutputStream out) throws IOException {
+		JsonCodecs.write(out, value);
+		out.flush();
+	}
+
+	@Override
+	public boolean isStreaming() {
+		return false;
+	}
+}
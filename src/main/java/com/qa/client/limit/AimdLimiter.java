@@ -0,0 +1,147 @@
+package com.qa.client.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AimdLimiter - Adaptive concurrency limit (additive increase, multiplicative
+ * decrease), like TCP congestion control.
+ *
+ * Every successful response while the limit is in use raises the limit by
+ * 1/limit, i.e. by about one request per round trip. A throttling response
+ * (429/503) or a latency above latencyTolerance times the no-load latency
+ * multiplies it by backoffRatio, at most once per round trip. The limit
+ * settles just below the concurrency at which the server starts queueing or
+ * throttling.
+ */
+public class AimdLimiter {
+
+	private final int minLimit;
+	private final int maxLimit;
+	private final double backoffRatio;
+	private final double latencyTolerance;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition available = lock.newCondition();
+
+	// Guarded by lock
+	private double limit;
+	private int inFlight;
+	private long baselineNanos = Long.MAX_VALUE;
+	private long lastDecrease;
+	private long decreases;
+
+	/**
+	 * @param initialLimit     - Starting concurrency
+	 * @param minLimit         - Never go below
+	 * @param maxLimit         - Never go above
+	 * @param backoffRatio     - Factor applied on overload, e.g. 0.9
+	 * @param latencyTolerance - Latency above baseline x this counts as overload
+	 *                         (0 = only throttling responses do)
+	 */
+	public AimdLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double latencyTolerance) {
+		if (minLimit < 1 || maxLimit < minLimit) {
+			throw new IllegalArgumentException("Invalid limits: min=" + minLimit + ", max=" + maxLimit);
+		}
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.backoffRatio = backoffRatio;
+		this.latencyTolerance = latencyTolerance;
+		this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+		this.lastDecrease = System.nanoTime() - TimeUnit.HOURS.toNanos(1);
+	}
+
+	/**
+	 * Wait until fewer than limit requests are in flight, then count this one
+	 *
+	 * @throws InterruptedException
+	 */
+	public void acquire() throws InterruptedException {
+		lock.lock();
+		try {
+			while (inFlight >= (int) limit) {
+				available.await();
+			}
+			inFlight++;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Complete a request and adjust the limit
+	 *
+	 * @param latencyNanos - Time to response headers (ignored when dropped)
+	 * @param overload     - Server signalled overload (429/503)
+	 * @param dropped      - Request failed without a response (not a signal)
+	 */
+	public void release(long latencyNanos, boolean overload, boolean dropped) {
+		lock.lock();
+		try {
+			boolean saturated = inFlight >= (int) limit / 2;
+			inFlight--;
+			if (!dropped) {
+				long now = System.nanoTime();
+				if (latencyNanos < baselineNanos) {
+					baselineNanos = latencyNanos;
+				} else {
+					// Let the baseline follow slow, lasting shifts in service time
+					baselineNanos += (latencyNanos - baselineNanos) >> 10;
+				}
+				boolean slow = latencyTolerance > 0 && latencyNanos > baselineNanos * latencyTolerance;
+				if (overload || slow) {
+					if (now - lastDecrease >= Math.max(baselineNanos, TimeUnit.MILLISECONDS.toNanos(1))) {
+						limit = Math.max(minLimit, limit * backoffRatio);
+						lastDecrease = now;
+						decreases++;
+					}
+				} else if (saturated) {
+					limit = Math.min(maxLimit, limit + 1 / limit);
+				}
+			}
+			available.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Current concurrency limit
+	 */
+	public int getLimit() {
+		lock.lock();
+		try {
+			return (int) limit;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getInFlight() {
+		lock.lock();
+		try {
+			return inFlight;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Times the limit was lowered
+	 */
+	public long getDecreases() {
+		lock.lock();
+		try {
+			return decreases;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "AimdLimiter{limit=" + getLimit() + ", min=" + minLimit + ", max=" + maxLimit + ", decreases="
+				+ getDecreases() + "}";
+	}
+}
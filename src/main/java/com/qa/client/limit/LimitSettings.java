@@ -0,0 +1,165 @@
+package com.qa.client.limit;
+
+import java.util.Properties;
+
+/**
+ * LimitSettings - Rate and concurrency limits for one scope (the default for
+ * every host, one host, or one endpoint). Read from config.properties under a
+ * prefix such as "limit." or "limit.host.reqres.in."; anything missing falls
+ * back to the enclosing scope.
+ */
+public class LimitSettings {
+
+	// Key suffixes below the scope prefix, longest first for parsing
+	public static final String ADAPTIVE_INITIAL = "adaptive.initial";
+	public static final String ADAPTIVE_MIN = "adaptive.min";
+	public static final String ADAPTIVE_MAX = "adaptive.max";
+	public static final String ADAPTIVE_BACKOFF_RATIO = "adaptive.backoffRatio";
+	public static final String ADAPTIVE_LATENCY_TOLERANCE = "adaptive.latencyTolerance";
+	public static final String ADAPTIVE = "adaptive";
+	public static final String RATE = "rate";
+	public static final String BURST = "burst";
+
+	static final String[] SUFFIXES = { ADAPTIVE_LATENCY_TOLERANCE, ADAPTIVE_BACKOFF_RATIO, ADAPTIVE_INITIAL,
+			ADAPTIVE_MIN, ADAPTIVE_MAX, ADAPTIVE, RATE, BURST };
+
+	private double rate = 0;
+	private int burst = 10;
+	private boolean adaptive = false;
+	private int adaptiveInitial = 10;
+	private int adaptiveMin = 1;
+	private int adaptiveMax = 200;
+	private double adaptiveBackoffRatio = 0.9;
+	private double adaptiveLatencyTolerance = 2.0;
+
+	/**
+	 * Read the settings of a scope
+	 *
+	 * @param prop     - Loaded configuration
+	 * @param prefix   - Scope prefix including the trailing dot
+	 * @param defaults - Values for missing keys (null = built-in defaults)
+	 * @return LimitSettings
+	 */
+	public static LimitSettings fromProperties(Properties prop, String prefix, LimitSettings defaults) {
+		LimitSettings base = defaults != null ? defaults : new LimitSettings();
+		LimitSettings settings = new LimitSettings();
+		settings.setRate(Double.parseDouble(value(prop, prefix + RATE, base.rate)));
+		settings.setBurst(Integer.parseInt(value(prop, prefix + BURST, base.burst)));
+		settings.setAdaptive(Boolean.parseBoolean(value(prop, prefix + ADAPTIVE, base.adaptive)));
+		settings.setAdaptiveInitial(Integer.parseInt(value(prop, prefix + ADAPTIVE_INITIAL, base.adaptiveInitial)));
+		settings.setAdaptiveMin(Integer.parseInt(value(prop, prefix + ADAPTIVE_MIN, base.adaptiveMin)));
+		settings.setAdaptiveMax(Integer.parseInt(value(prop, prefix + ADAPTIVE_MAX, base.adaptiveMax)));
+		settings.setAdaptiveBackoffRatio(
+				Double.parseDouble(value(prop, prefix + ADAPTIVE_BACKOFF_RATIO, base.adaptiveBackoffRatio)));
+		settings.setAdaptiveLatencyTolerance(
+				Double.parseDouble(value(prop, prefix + ADAPTIVE_LATENCY_TOLERANCE, base.adaptiveLatencyTolerance)));
+		return settings;
+	}
+
+	private static String value(Properties prop, String key, Object fallback) {
+		return prop == null ? String.valueOf(fallback) : prop.getProperty(key, String.valueOf(fallback)).trim();
+	}
+
+	/**
+	 * True if this scope limits anything
+	 */
+	public boolean isLimited() {
+		return rate > 0 || adaptive;
+	}
+
+	/**
+	 * New limiters for one host or endpoint with these settings
+	 */
+	Limits newLimits(String name) {
+		return new Limits(name, rate > 0 ? new TokenBucket(rate, burst) : null,
+				adaptive ? new AimdLimiter(adaptiveInitial, adaptiveMin, adaptiveMax, adaptiveBackoffRatio,
+						adaptiveLatencyTolerance) : null);
+	}
+
+	// ============ GETTERS AND SETTERS ============
+
+	/**
+	 * Requests per second, 0 = no rate limit
+	 */
+	public double getRate() {
+		return rate;
+	}
+
+	public void setRate(double rate) {
+		this.rate = rate;
+	}
+
+	/**
+	 * Requests allowed at once above the rate after an idle period
+	 */
+	public int getBurst() {
+		return burst;
+	}
+
+	public void setBurst(int burst) {
+		this.burst = burst;
+	}
+
+	/**
+	 * Enable the AIMD concurrency limiter
+	 */
+	public boolean isAdaptive() {
+		return adaptive;
+	}
+
+	public void setAdaptive(boolean adaptive) {
+		this.adaptive = adaptive;
+	}
+
+	public int getAdaptiveInitial() {
+		return adaptiveInitial;
+	}
+
+	public void setAdaptiveInitial(int adaptiveInitial) {
+		this.adaptiveInitial = adaptiveInitial;
+	}
+
+	public int getAdaptiveMin() {
+		return adaptiveMin;
+	}
+
+	public void setAdaptiveMin(int adaptiveMin) {
+		this.adaptiveMin = adaptiveMin;
+	}
+
+	public int getAdaptiveMax() {
+		return adaptiveMax;
+	}
+
+	public void setAdaptiveMax(int adaptiveMax) {
+		this.adaptiveMax = adaptiveMax;
+	}
+
+	/**
+	 * Factor applied to the concurrency limit on overload
+	 */
+	public double getAdaptiveBackoffRatio() {
+		return adaptiveBackoffRatio;
+	}
+
+	public void setAdaptiveBackoffRatio(double adaptiveBackoffRatio) {
+		this.adaptiveBackoffRatio = adaptiveBackoffRatio;
+	}
+
+	/**
+	 * Latency above the no-load latency times this counts as overload (0 = off)
+	 */
+	public double getAdaptiveLatencyTolerance() {
+		return adaptiveLatencyTolerance;
+	}
+
+	public void setAdaptiveLatencyTolerance(double adaptiveLatencyTolerance) {
+		this.adaptiveLatencyTolerance = adaptiveLatencyTolerance;
+	}
+
+	@Override
+	public String toString() {
+		return "LimitSettings{rate=" + rate + ", burst=" + burst + ", adaptive=" + adaptive + ", adaptiveMax="
+				+ adaptiveMax + "}";
+	}
+}
@@ -0,0 +1,119 @@
+package com.qa.client.limit;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits - The rate and concurrency limiters applied to one host or endpoint.
+ * A request calls acquire() before it is sent and exactly one release method
+ * once its response headers arrived or it failed.
+ */
+public final class Limits {
+
+	private final String name;
+	private final TokenBucket rate;
+	private final AimdLimiter concurrency;
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder waitNanos = new LongAdder();
+	private final LongAdder throttled = new LongAdder();
+
+	Limits(String name, TokenBucket rate, AimdLimiter concurrency) {
+		this.name = name;
+		this.rate = rate;
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * Wait for a concurrency slot, then for a rate permit
+	 *
+	 * @throws InterruptedIOException if interrupted while waiting
+	 */
+	public void acquire() throws InterruptedIOException {
+		long start = System.nanoTime();
+		try {
+			if (concurrency != null) {
+				concurrency.acquire();
+			}
+			if (rate != null) {
+				try {
+					rate.acquire();
+				} catch (InterruptedException e) {
+					if (concurrency != null) {
+						concurrency.release(0, false, true);
+					}
+					throw e;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for " + name + " limit");
+		}
+		requests.increment();
+		waitNanos.add(System.nanoTime() - start);
+	}
+
+	/**
+	 * Release after a response
+	 *
+	 * @param status       - HTTP status
+	 * @param latencyNanos - Time to response headers
+	 */
+	public void release(int status, long latencyNanos) {
+		boolean overload = status == 429 || status == 503;
+		if (overload) {
+			throttled.increment();
+		}
+		if (concurrency != null) {
+			concurrency.release(latencyNanos, overload, false);
+		}
+	}
+
+	/**
+	 * Release after a request that got no response
+	 */
+	public void releaseFailed() {
+		if (concurrency != null) {
+			concurrency.release(0, false, true);
+		}
+	}
+
+	/**
+	 * Host or endpoint these limits apply to
+	 */
+	public String getName() {
+		return name;
+	}
+
+	public TokenBucket getRate() {
+		return rate;
+	}
+
+	public AimdLimiter getConcurrency() {
+		return concurrency;
+	}
+
+	public long getRequests() {
+		return requests.sum();
+	}
+
+	/**
+	 * Total time requests waited for the limiters
+	 */
+	public long getWaitNanos() {
+		return waitNanos.sum();
+	}
+
+	/**
+	 * 429 and 503 responses seen
+	 */
+	public long getThrottled() {
+		return throttled.sum();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%-40s requests=%d waitMs=%.1f throttled=%d%s%s", name, getRequests(),
+				getWaitNanos() / 1e6, getThrottled(), rate != null ? " rate=" + rate.getPermitsPerSecond() + "/s" : "",
+				concurrency != null ? " concurrency=" + concurrency.getLimit() : "");
+	}
+}
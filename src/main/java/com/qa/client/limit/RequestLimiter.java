@@ -0,0 +1,174 @@
+package com.qa.client.limit;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.Logger;
+
+/**
+ * RequestLimiter - Client-side rate and concurrency limits for RestClient,
+ * configured in config.properties:
+ *
+ * limit.* - defaults, applied to each host separately
+ * limit.host.&lt;host[:port]&gt;.* - one host
+ * limit.endpoint.&lt;template&gt;.* - one endpoint template such as
+ * /api/users/{id}, across hosts; takes precedence over the host
+ *
+ * where * is any LimitSettings key (rate, burst, adaptive, adaptive.max, ...).
+ * Requests wait before they are sent, so their latency samples never include
+ * the client-side queueing.
+ */
+public class RequestLimiter {
+
+	private static final Logger logger = Logger.getLogger(RequestLimiter.class);
+
+	public static final String PREFIX = "limit.";
+	public static final String HOST_PREFIX = "limit.host.";
+	public static final String ENDPOINT_PREFIX = "limit.endpoint.";
+
+	// Cached for hosts without any limit
+	private static final Limits UNLIMITED = new Limits("unlimited", null, null);
+
+	private final LimitSettings defaults;
+	private final Map<String, LimitSettings> hosts;
+	private final Map<String, LimitSettings> endpoints;
+	private final Map<String, Limits> limits = new ConcurrentHashMap<>();
+
+	/**
+	 * @param defaults  - Settings for every host without its own
+	 * @param hosts     - Per host[:port] settings
+	 * @param endpoints - Per endpoint template settings
+	 */
+	public RequestLimiter(LimitSettings defaults, Map<String, LimitSettings> hosts,
+			Map<String, LimitSettings> endpoints) {
+		this.defaults = defaults;
+		this.hosts = new HashMap<>(hosts);
+		this.endpoints = new HashMap<>(endpoints);
+	}
+
+	/**
+	 * Build the limiter from the limit.* keys
+	 *
+	 * @param prop - Loaded configuration (may be null)
+	 * @return RequestLimiter, or null if nothing is limited
+	 */
+	public static RequestLimiter fromProperties(Properties prop) {
+		LimitSettings defaults = LimitSettings.fromProperties(prop, PREFIX, null);
+		Map<String, LimitSettings> hosts = scopes(prop, HOST_PREFIX, defaults);
+		Map<String, LimitSettings> endpoints = scopes(prop, ENDPOINT_PREFIX, defaults);
+		RequestLimiter limiter = new RequestLimiter(defaults, hosts, endpoints);
+		if (!limiter.isEnabled()) {
+			return null;
+		}
+		logger.info("Request limits: default " + defaults + ", hosts " + hosts + ", endpoints " + endpoints);
+		return limiter;
+	}
+
+	private static Map<String, LimitSettings> scopes(Properties prop, String prefix, LimitSettings defaults) {
+		Set<String> names = new HashSet<>();
+		if (prop != null) {
+			for (String key : prop.stringPropertyNames()) {
+				if (!key.startsWith(prefix)) {
+					continue;
+				}
+				String rest = key.substring(prefix.length());
+				for (String suffix : LimitSettings.SUFFIXES) {
+					if (rest.endsWith("." + suffix)) {
+						names.add(rest.substring(0, rest.length() - suffix.length() - 1));
+						break;
+					}
+				}
+			}
+		}
+		Map<String, LimitSettings> scopes = new HashMap<>();
+		for (String name : names) {
+			scopes.put(name, LimitSettings.fromProperties(prop, prefix + name + ".", defaults));
+		}
+		return scopes;
+	}
+
+	/**
+	 * True if any scope limits anything
+	 */
+	public boolean isEnabled() {
+		if (defaults.isLimited()) {
+			return true;
+		}
+		for (LimitSettings settings : hosts.values()) {
+			if (settings.isLimited()) {
+				return true;
+			}
+		}
+		for (LimitSettings settings : endpoints.values()) {
+			if (settings.isLimited()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Limits that apply to a request
+	 *
+	 * @param url      - Request URL
+	 * @param endpoint - Endpoint template (see RequestMetrics.endpointTemplate)
+	 * @return Limits, or null if the request is not limited
+	 */
+	public Limits forRequest(String url, String endpoint) {
+		LimitSettings endpointSettings = endpoints.get(endpoint);
+		String key = endpointSettings != null ? endpoint : host(url);
+		Limits found = limits.get(key);
+		if (found == null) {
+			LimitSettings settings = endpointSettings != null ? endpointSettings : hosts.getOrDefault(key, defaults);
+			found = limits.computeIfAbsent(key, k -> settings.isLimited() ? settings.newLimits(k) : UNLIMITED);
+		}
+		return found == UNLIMITED ? null : found;
+	}
+
+	/**
+	 * host[:port] of a URL, without parsing it fully
+	 */
+	static String host(String url) {
+		int start = url.indexOf("://");
+		start = start < 0 ? 0 : start + 3;
+		int end = start;
+		while (end < url.length() && url.charAt(end) != '/' && url.charAt(end) != '?' && url.charAt(end) != '#') {
+			end++;
+		}
+		int at = url.lastIndexOf('@', end - 1);
+		return url.substring(Math.max(start, at + 1), end).toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Limits created so far (one per host or endpoint seen)
+	 */
+	public List<Limits> getLimits() {
+		List<Limits> all = new ArrayList<>();
+		for (Limits each : limits.values()) {
+			if (each != UNLIMITED) {
+				all.add(each);
+			}
+		}
+		all.sort(Comparator.comparing(Limits::getName));
+		return all;
+	}
+
+	/**
+	 * One line per limited host or endpoint
+	 */
+	public String report() {
+		StringBuilder sb = new StringBuilder();
+		for (Limits each : getLimits()) {
+			sb.append(each).append(System.lineSeparator());
+		}
+		return sb.toString();
+	}
+}
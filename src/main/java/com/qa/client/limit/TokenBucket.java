@@ -0,0 +1,89 @@
+package com.qa.client.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TokenBucket - Rate limiter allowing permitsPerSecond on average with bursts
+ * of up to burst permits.
+ *
+ * Implemented as a generic cell rate algorithm: the bucket is a single
+ * "theoretical arrival time" updated with compare-and-set, so taking a permit
+ * is lock-free and a waiting thread only sleeps for exactly its own slot.
+ */
+public class TokenBucket {
+
+	private final double permitsPerSecond;
+	private final int burst;
+	private final long intervalNanos;
+	private final long toleranceNanos;
+	private final AtomicLong arrival = new AtomicLong(System.nanoTime());
+
+	/**
+	 * @param permitsPerSecond - Sustained rate (> 0)
+	 * @param burst            - Permits that can be taken at once after idling
+	 */
+	public TokenBucket(double permitsPerSecond, int burst) {
+		if (permitsPerSecond <= 0) {
+			throw new IllegalArgumentException("permitsPerSecond must be > 0: " + permitsPerSecond);
+		}
+		this.permitsPerSecond = permitsPerSecond;
+		this.burst = Math.max(1, burst);
+		this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+		this.toleranceNanos = (this.burst - 1) * intervalNanos;
+	}
+
+	/**
+	 * Take a permit, sleeping until it is available
+	 *
+	 * @return nanoseconds waited
+	 * @throws InterruptedException
+	 */
+	public long acquire() throws InterruptedException {
+		long wait = reserve(true);
+		if (wait > 0) {
+			TimeUnit.NANOSECONDS.sleep(wait);
+		}
+		return wait;
+	}
+
+	/**
+	 * Take a permit only if one is available now
+	 *
+	 * @return true if taken
+	 */
+	public boolean tryAcquire() {
+		return reserve(false) == 0;
+	}
+
+	/**
+	 * Claim the next slot; returns how long until it starts, or -1 if waiting
+	 * is not allowed and it is not free yet
+	 */
+	private long reserve(boolean mayWait) {
+		while (true) {
+			long now = System.nanoTime();
+			long current = arrival.get();
+			long wait = Math.max(0, current - toleranceNanos - now);
+			if (wait > 0 && !mayWait) {
+				return -1;
+			}
+			if (arrival.compareAndSet(current, Math.max(current, now) + intervalNanos)) {
+				return wait;
+			}
+		}
+	}
+
+	public double getPermitsPerSecond() {
+		return permitsPerSecond;
+	}
+
+	public int getBurst() {
+		return burst;
+	}
+
+	@Override
+	public String toString() {
+		return "TokenBucket{permitsPerSecond=" + permitsPerSecond + ", burst=" + burst + "}";
+	}
+}
@@ -0,0 +1,221 @@
+package com.qa.client.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * EndpointMetrics - Latency histograms for one HTTP method + endpoint template,
+ * one per Phase.
+ * 
+ * Recording goes into an HdrHistogram Recorder, which is wait-free and does not
+ * allocate, so it is safe to call from any number of request threads.
+ * 
+ * Every attempt of a retried request is timed on its own; retries, their
+ * reasons and the time spent backing off are counted separately, so flaky
+ * endpoints can be told apart from slow ones.
+ * 
+ * Compressed responses and requests count their wire and decoded sizes, so the
+ * report shows what compression saves and what decoding costs.
+ */
+public class EndpointMetrics {
+
+	// 1 ns .. 10 min at 2 significant digits (1% value precision, ~35 KB per histogram)
+	static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+	static final int SIGNIFICANT_DIGITS = 2;
+
+	private final String method;
+	private final String endpoint;
+	private final Recorder[] recorders = new Recorder[Phase.values().length];
+	private final Histogram[] totals = new Histogram[Phase.values().length];
+
+	private final LongAdder retries = new LongAdder();
+	private final LongAdder retriesExhausted = new LongAdder();
+	private final LongAdder retriesDenied = new LongAdder();
+	private final LongAdder backoffNanos = new LongAdder();
+	private final Map<String, LongAdder> retryReasons = new ConcurrentHashMap<>();
+
+	private final LongAdder decompressed = new LongAdder();
+	private final LongAdder responseWireBytes = new LongAdder();
+	private final LongAdder responseDecodedBytes = new LongAdder();
+	private final LongAdder decodeNanos = new LongAdder();
+	private final LongAdder compressedRequests = new LongAdder();
+	private final LongAdder requestPlainBytes = new LongAdder();
+	private final LongAdder requestWireBytes = new LongAdder();
+
+	EndpointMetrics(String method, String endpoint) {
+		this.method = method;
+		this.endpoint = endpoint;
+		for (int i = 0; i < recorders.length; i++) {
+			recorders[i] = new Recorder(1, HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+			totals[i] = new Histogram(1, HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+		}
+	}
+
+	/**
+	 * Record one latency sample
+	 * 
+	 * @param phase - Request phase
+	 * @param nanos - Elapsed time in nanoseconds
+	 */
+	public void record(Phase phase, long nanos) {
+		recorders[phase.ordinal()].recordValue(Math.max(1, Math.min(nanos, HIGHEST_TRACKABLE_NANOS)));
+	}
+
+	/**
+	 * Cumulative histogram of a phase since the client was created. Drains the
+	 * recorder, so only call this from reporting code.
+	 * 
+	 * @param phase - Request phase
+	 * @return copy of the cumulative histogram
+	 */
+	public synchronized Histogram snapshot(Phase phase) {
+		int i = phase.ordinal();
+		totals[i].add(recorders[i].getIntervalHistogram());
+		return totals[i].copy();
+	}
+
+	// ============ RETRIES ============
+
+	/**
+	 * Record a retry about to be made
+	 * 
+	 * @param reason       - Why, e.g. "503" or "SocketTimeoutException"
+	 * @param backoffNanos - Wait before the retry
+	 */
+	public void recordRetry(String reason, long backoffNanos) {
+		retries.increment();
+		this.backoffNanos.add(backoffNanos);
+		LongAdder count = retryReasons.get(reason);
+		if (count == null) {
+			count = retryReasons.computeIfAbsent(reason, r -> new LongAdder());
+		}
+		count.increment();
+	}
+
+	/**
+	 * Record a request that failed after its last attempt
+	 */
+	public void recordRetriesExhausted() {
+		retriesExhausted.increment();
+	}
+
+	/**
+	 * Record a retry refused by the retry budget
+	 */
+	public void recordRetryDenied() {
+		retriesDenied.increment();
+	}
+
+	public long getRetries() {
+		return retries.sum();
+	}
+
+	public long getRetriesExhausted() {
+		return retriesExhausted.sum();
+	}
+
+	public long getRetriesDenied() {
+		return retriesDenied.sum();
+	}
+
+	public long getBackoffNanos() {
+		return backoffNanos.sum();
+	}
+
+	/**
+	 * Retries per reason, sorted by reason
+	 */
+	public Map<String, Long> getRetryReasons() {
+		Map<String, Long> reasons = new TreeMap<>();
+		for (Map.Entry<String, LongAdder> entry : retryReasons.entrySet()) {
+			reasons.put(entry.getKey(), entry.getValue().sum());
+		}
+		return reasons;
+	}
+
+	// ============ COMPRESSION ============
+
+	/**
+	 * Record a decoded response body
+	 * 
+	 * @param wireBytes    - Compressed bytes received
+	 * @param decodedBytes - Bytes after decoding
+	 * @param nanos        - Time spent decoding, excluding socket reads
+	 */
+	public void recordDecompression(long wireBytes, long decodedBytes, long nanos) {
+		decompressed.increment();
+		responseWireBytes.add(wireBytes);
+		responseDecodedBytes.add(decodedBytes);
+		decodeNanos.add(nanos);
+	}
+
+	/**
+	 * Record a request body sent compressed
+	 * 
+	 * @param plainBytes - Body size before compression
+	 * @param wireBytes  - Bytes sent
+	 */
+	public void recordRequestCompression(long plainBytes, long wireBytes) {
+		compressedRequests.increment();
+		requestPlainBytes.add(plainBytes);
+		requestWireBytes.add(wireBytes);
+	}
+
+	public long getDecompressed() {
+		return decompressed.sum();
+	}
+
+	public long getResponseWireBytes() {
+		return responseWireBytes.sum();
+	}
+
+	public long getResponseDecodedBytes() {
+		return responseDecodedBytes.sum();
+	}
+
+	public long getDecodeNanos() {
+		return decodeNanos.sum();
+	}
+
+	/**
+	 * Decoded / wire bytes of compressed responses, 0 if there were none
+	 */
+	public double getResponseCompressionRatio() {
+		long wire = getResponseWireBytes();
+		return wire > 0 ? (double) getResponseDecodedBytes() / wire : 0;
+	}
+
+	public long getCompressedRequests() {
+		return compressedRequests.sum();
+	}
+
+	public long getRequestPlainBytes() {
+		return requestPlainBytes.sum();
+	}
+
+	public long getRequestWireBytes() {
+		return requestWireBytes.sum();
+	}
+
+	/**
+	 * Plain / wire bytes of compressed requests, 0 if there were none
+	 */
+	public double getRequestCompressionRatio() {
+		long wire = getRequestWireBytes();
+		return wire > 0 ? (double) getRequestPlainBytes() / wire : 0;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	public String getEndpoint() {
+		return endpoint;
+	}
+}
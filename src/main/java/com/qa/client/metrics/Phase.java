@@ -0,0 +1,17 @@
+package com.qa.client.metrics;
+
+/**
+ * Phase - Part of a request that is timed separately. All phases are measured
+ * from the moment RestClient starts executing the request.
+ */
+public enum Phase {
+
+	/** TCP connect plus TLS handshake (only recorded when a new connection is opened) */
+	CONNECT,
+
+	/** Response status line and headers received */
+	FIRST_BYTE,
+
+	/** Response body fully read (or closed) */
+	TOTAL
+}
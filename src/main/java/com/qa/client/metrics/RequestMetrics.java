@@ -0,0 +1,257 @@
+package com.qa.client.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * RequestMetrics - Latency histograms per HTTP method and endpoint template
+ * (e.g. "GET /api/users/{id}"), split by Phase.
+ *
+ * The hot path (forRequest + EndpointMetrics.record) only does map lookups and
+ * a wait-free histogram update once an endpoint has been seen.
+ */
+public class RequestMetrics {
+
+	private static final String[] METHODS = { "GET", "POST", "PUT", "DELETE", "PATCH", "HEAD", "OPTIONS" };
+	private static final int OTHER_METHOD = METHODS.length;
+
+	// Stop caching URL -> template once this many distinct URLs were seen
+	private static final int MAX_CACHED_URLS = 10000;
+
+	private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+	private final Map<String, String> templates = new ConcurrentHashMap<>();
+	private final Map<String, AtomicReferenceArray<EndpointMetrics>> endpoints = new ConcurrentHashMap<>();
+
+	/**
+	 * Get (or create) the metrics for a request
+	 *
+	 * @param method - HTTP method
+	 * @param url    - Request URL
+	 * @return EndpointMetrics
+	 */
+	public EndpointMetrics forRequest(String method, String url) {
+		String template = templates.get(url);
+		if (template == null) {
+			template = endpointTemplate(url);
+			if (templates.size() < MAX_CACHED_URLS) {
+				templates.put(url, template);
+			}
+		}
+
+		AtomicReferenceArray<EndpointMetrics> byMethod = endpoints.get(template);
+		if (byMethod == null) {
+			byMethod = endpoints.computeIfAbsent(template, t -> new AtomicReferenceArray<>(METHODS.length + 1));
+		}
+
+		int index = methodIndex(method);
+		EndpointMetrics metrics = byMethod.get(index);
+		if (metrics == null) {
+			byMethod.compareAndSet(index, null, new EndpointMetrics(method, template));
+			metrics = byMethod.get(index);
+		}
+		return metrics;
+	}
+
+	/**
+	 * Record a single sample
+	 */
+	public void record(String method, String url, Phase phase, long nanos) {
+		forRequest(method, url).record(phase, nanos);
+	}
+
+	/**
+	 * Reduce a URL to its endpoint template: query string dropped, numeric and
+	 * id-like path segments replaced with {id}
+	 *
+	 * @param url - Request URL
+	 * @return template such as "/api/users/{id}"
+	 */
+	public static String endpointTemplate(String url) {
+		int start = url.indexOf("://");
+		start = start < 0 ? 0 : url.indexOf('/', start + 3);
+		if (start < 0) {
+			return "/";
+		}
+		int end = url.length();
+		for (int i = start; i < url.length(); i++) {
+			char c = url.charAt(i);
+			if (c == '?' || c == '#') {
+				end = i;
+				break;
+			}
+		}
+
+		StringBuilder sb = new StringBuilder(end - start);
+		int segmentStart = start + 1;
+		sb.append('/');
+		for (int i = segmentStart; i <= end; i++) {
+			if (i == end || url.charAt(i) == '/') {
+				if (i > segmentStart) {
+					if (isIdSegment(url, segmentStart, i)) {
+						sb.append("{id}");
+					} else {
+						sb.append(url, segmentStart, i);
+					}
+				}
+				if (i < end) {
+					sb.append('/');
+				}
+				segmentStart = i + 1;
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Numbers, UUIDs and long hex strings are treated as ids
+	 */
+	private static boolean isIdSegment(String url, int from, int to) {
+		boolean allDigits = true;
+		boolean allHex = true;
+		for (int i = from; i < to; i++) {
+			char c = url.charAt(i);
+			boolean digit = c >= '0' && c <= '9';
+			boolean hex = digit || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F') || c == '-';
+			allDigits &= digit;
+			allHex &= hex;
+		}
+		return allDigits || (allHex && to - from >= 16);
+	}
+
+	private static int methodIndex(String method) {
+		for (int i = 0; i < METHODS.length; i++) {
+			if (METHODS[i].equals(method)) {
+				return i;
+			}
+		}
+		return OTHER_METHOD;
+	}
+
+	/**
+	 * All endpoints recorded so far, sorted by endpoint then method
+	 */
+	public List<EndpointMetrics> getEndpoints() {
+		List<EndpointMetrics> all = new ArrayList<>();
+		for (AtomicReferenceArray<EndpointMetrics> byMethod : endpoints.values()) {
+			for (int i = 0; i < byMethod.length(); i++) {
+				if (byMethod.get(i) != null) {
+					all.add(byMethod.get(i));
+				}
+			}
+		}
+		all.sort(Comparator.comparing(EndpointMetrics::getEndpoint).thenComparing(EndpointMetrics::getMethod));
+		return all;
+	}
+
+	/**
+	 * Human readable percentile table (milliseconds)
+	 *
+	 * @return report text
+	 */
+	public String report() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%-7s %-40s %-10s %8s %10s %10s %10s %10s %10s%n", "METHOD", "ENDPOINT", "PHASE",
+				"COUNT", "P50", "P90", "P99", "P99.9", "MAX"));
+		for (EndpointMetrics endpoint : getEndpoints()) {
+			for (Phase phase : Phase.values()) {
+				Histogram histogram = endpoint.snapshot(phase);
+				if (histogram.getTotalCount() == 0) {
+					continue;
+				}
+				sb.append(String.format("%-7s %-40s %-10s %8d", endpoint.getMethod(), endpoint.getEndpoint(), phase,
+						histogram.getTotalCount()));
+				for (double percentile : PERCENTILES) {
+					sb.append(String.format(" %10.3f", histogram.getValueAtPercentile(percentile) / 1e6));
+				}
+				sb.append(String.format(" %10.3f%n", histogram.getMaxValue() / 1e6));
+			}
+		}
+		appendRetries(sb);
+		appendCompression(sb);
+		return sb.toString();
+	}
+
+	/**
+	 * Retry table, only for endpoints that retried or gave up
+	 */
+	private void appendRetries(StringBuilder sb) {
+		boolean header = false;
+		for (EndpointMetrics endpoint : getEndpoints()) {
+			if (endpoint.getRetries() == 0 && endpoint.getRetriesDenied() == 0
+					&& endpoint.getRetriesExhausted() == 0) {
+				continue;
+			}
+			if (!header) {
+				sb.append(String.format("%n%-7s %-40s %8s %10s %8s %12s  %s%n", "METHOD", "ENDPOINT", "RETRIES",
+						"EXHAUSTED", "DENIED", "BACKOFF_MS", "REASONS"));
+				header = true;
+			}
+			sb.append(String.format("%-7s %-40s %8d %10d %8d %12.1f  %s%n", endpoint.getMethod(),
+					endpoint.getEndpoint(), endpoint.getRetries(), endpoint.getRetriesExhausted(),
+					endpoint.getRetriesDenied(), endpoint.getBackoffNanos() / 1e6, endpoint.getRetryReasons()));
+		}
+	}
+
+	/**
+	 * Compression table, only for endpoints that sent or received compressed
+	 * bodies. RATIO is plain / wire bytes.
+	 */
+	private void appendCompression(StringBuilder sb) {
+		boolean header = false;
+		for (EndpointMetrics endpoint : getEndpoints()) {
+			if (endpoint.getDecompressed() == 0 && endpoint.getCompressedRequests() == 0) {
+				continue;
+			}
+			if (!header) {
+				sb.append(String.format("%n%-7s %-40s %9s %10s %10s %6s %10s %9s %6s%n", "METHOD", "ENDPOINT",
+						"RESPONSES", "WIRE_KB", "DECODED_KB", "RATIO", "DECODE_MS", "REQUESTS", "RATIO"));
+				header = true;
+			}
+			sb.append(String.format("%-7s %-40s %9d %10.1f %10.1f %6.1f %10.3f %9d %6.1f%n", endpoint.getMethod(),
+					endpoint.getEndpoint(), endpoint.getDecompressed(), endpoint.getResponseWireBytes() / 1024.0,
+					endpoint.getResponseDecodedBytes() / 1024.0, endpoint.getResponseCompressionRatio(),
+					endpoint.getDecodeNanos() / 1e6, endpoint.getCompressedRequests(),
+					endpoint.getRequestCompressionRatio()));
+		}
+	}
+
+	/**
+	 * Export percentiles (nanoseconds) as CSV, one row per endpoint and phase
+	 *
+	 * @param file - Target file
+	 * @throws IOException
+	 */
+	public void writeCsv(File file) throws IOException {
+		if (file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+		try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+			out.println("method,endpoint,phase,count,p50_ns,p90_ns,p99_ns,p99_9_ns,max_ns");
+			for (EndpointMetrics endpoint : getEndpoints()) {
+				for (Phase phase : Phase.values()) {
+					Histogram histogram = endpoint.snapshot(phase);
+					if (histogram.getTotalCount() == 0) {
+						continue;
+					}
+					out.print(endpoint.getMethod() + "," + endpoint.getEndpoint() + "," + phase + ","
+							+ histogram.getTotalCount());
+					for (double percentile : PERCENTILES) {
+						out.print("," + histogram.getValueAtPercentile(percentile));
+					}
+					out.println("," + histogram.getMaxValue());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package com.qa.client.metrics;
+
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * RequestTimer - Per-request timestamps collected while Apache HttpClient
+ * executes a request. Stored in the HttpContext so the socket factory and
+ * request executor (or a non-Apache transport) can reach it.
+ */
+public class RequestTimer {
+
+	public static final String CONTEXT_ATTRIBUTE = "com.qa.client.metrics.RequestTimer";
+
+	private final long startNanos = System.nanoTime();
+	private volatile long connectNanos = -1;
+	private volatile long firstByteNanos = -1;
+
+	/**
+	 * Get the timer of the request being executed, or null if not instrumented
+	 */
+	public static RequestTimer from(HttpContext context) {
+		if (context == null) {
+			return null;
+		}
+		Object timer = context.getAttribute(CONTEXT_ATTRIBUTE);
+		return timer instanceof RequestTimer ? (RequestTimer) timer : null;
+	}
+
+	/**
+	 * Register this timer on the request context
+	 */
+	public void attach(HttpContext context) {
+		context.setAttribute(CONTEXT_ATTRIBUTE, this);
+	}
+
+	void connected() {
+		connectNanos = System.nanoTime() - startNanos;
+	}
+
+	/**
+	 * Mark the response head as received
+	 */
+	public void firstByte() {
+		firstByteNanos = System.nanoTime() - startNanos;
+	}
+
+	public long getStartNanos() {
+		return startNanos;
+	}
+
+	/**
+	 * Time until the connection was established, or -1 if a pooled one was reused
+	 */
+	public long getConnectNanos() {
+		return connectNanos;
+	}
+
+	/**
+	 * Time until the response head was received, or -1 if not reached
+	 */
+	public long getFirstByteNanos() {
+		return firstByteNanos;
+	}
+
+	public long elapsedNanos() {
+		return System.nanoTime() - startNanos;
+	}
+}
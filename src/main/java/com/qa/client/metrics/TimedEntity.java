@@ -0,0 +1,79 @@
+package com.qa.client.metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+/**
+ * TimedEntity - Response entity wrapper that records the TOTAL phase when the
+ * body has been read to the end or closed, whichever happens first.
+ */
+public class TimedEntity extends HttpEntityWrapper {
+
+	private final EndpointMetrics endpoint;
+	private final RequestTimer timer;
+	private boolean recorded;
+
+	public TimedEntity(HttpEntity wrapped, EndpointMetrics endpoint, RequestTimer timer) {
+		super(wrapped);
+		this.endpoint = endpoint;
+		this.timer = timer;
+	}
+
+	@Override
+	public InputStream getContent() throws IOException {
+		return new FilterInputStream(super.getContent()) {
+
+			@Override
+			public int read() throws IOException {
+				int b = super.read();
+				if (b < 0) {
+					finish();
+				}
+				return b;
+			}
+
+			@Override
+			public int read(byte[] buffer, int offset, int length) throws IOException {
+				int n = super.read(buffer, offset, length);
+				if (n < 0) {
+					finish();
+				}
+				return n;
+			}
+
+			@Override
+			public void close() throws IOException {
+				try {
+					super.close();
+				} finally {
+					finish();
+				}
+			}
+		};
+	}
+
+	@Override
+	public void writeTo(OutputStream outStream) throws IOException {
+		try {
+			super.writeTo(outStream);
+		} finally {
+			finish();
+		}
+	}
+
+	/**
+	 * Record TOTAL now unless it was already recorded, e.g. when the body is
+	 * discarded without being read
+	 */
+	public void finish() {
+		if (!recorded) {
+			recorded = true;
+			endpoint.record(Phase.TOTAL, timer.elapsedNanos());
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package com.qa.client.metrics;
+
+import java.io.IOException;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+/**
+ * TimingRequestExecutor - Stamps the request's RequestTimer as soon as the
+ * final response head has been read from the connection.
+ */
+public class TimingRequestExecutor extends HttpRequestExecutor {
+
+	@Override
+	protected HttpResponse doReceiveResponse(HttpRequest request, HttpClientConnection conn, HttpContext context)
+			throws HttpException, IOException {
+		HttpResponse response = super.doReceiveResponse(request, conn, context);
+		RequestTimer timer = RequestTimer.from(context);
+		if (timer != null) {
+			timer.firstByte();
+		}
+		return response;
+	}
+}
@@ -0,0 +1,60 @@
+package com.qa.client.metrics;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * TimingSocketFactory - Wraps a ConnectionSocketFactory and stamps the request's
+ * RequestTimer once the connection is established. For TLS the delegate's
+ * connectSocket includes the handshake, so CONNECT covers TCP + TLS.
+ */
+public class TimingSocketFactory implements ConnectionSocketFactory {
+
+	private final ConnectionSocketFactory delegate;
+
+	public TimingSocketFactory(ConnectionSocketFactory delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public Socket createSocket(HttpContext context) throws IOException {
+		return delegate.createSocket(context);
+	}
+
+	@Override
+	public Socket connectSocket(int connectTimeout, Socket sock, HttpHost host, InetSocketAddress remoteAddress,
+			InetSocketAddress localAddress, HttpContext context) throws IOException {
+		Socket socket = delegate.connectSocket(connectTimeout, sock, host, remoteAddress, localAddress, context);
+		RequestTimer timer = RequestTimer.from(context);
+		if (timer != null) {
+			timer.connected();
+		}
+		return socket;
+	}
+
+	/**
+	 * Variant for TLS factories, which must also support layering over a proxy
+	 * tunnel
+	 */
+	public static class Layered extends TimingSocketFactory implements LayeredConnectionSocketFactory {
+
+		private final LayeredConnectionSocketFactory layeredDelegate;
+
+		public Layered(LayeredConnectionSocketFactory delegate) {
+			super(delegate);
+			this.layeredDelegate = delegate;
+		}
+
+		@Override
+		public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context)
+				throws IOException {
+			return layeredDelegate.createLayeredSocket(socket, target, port, context);
+		}
+	}
+}
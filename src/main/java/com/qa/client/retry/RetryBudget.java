@@ -0,0 +1,104 @@
+package com.qa.client.retry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RetryBudget - Caps retries across all threads of a client, so a failing
+ * service gets a bounded amount of extra load instead of a retry storm.
+ *
+ * Each request deposits ratio tokens and each retry withdraws one; on top of
+ * that minPerSecond tokens are added per second so a quiet run can still
+ * retry. The balance is capped at maxTokens. Tokens are counted in thousandths
+ * in a single AtomicLong, so deposits and withdrawals are lock-free.
+ */
+public class RetryBudget {
+
+	private static final long SCALE = 1000;
+
+	// Time-based refill at most this often, keeps the CAS off the hot path
+	private static final long REFILL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private final long depositPerRequest;
+	private final long refillPerSecond;
+	private final long maxBalance;
+	private final AtomicLong balance;
+	private final AtomicLong lastRefill = new AtomicLong(System.nanoTime());
+	private final LongAdder denied = new LongAdder();
+
+	/**
+	 * @param ratio        - Retries earned per request (0.1 = 10%)
+	 * @param minPerSecond - Retries allowed per second regardless of traffic
+	 * @param maxTokens    - Largest balance that can be saved up
+	 */
+	public RetryBudget(double ratio, int minPerSecond, int maxTokens) {
+		this.depositPerRequest = Math.round(ratio * SCALE);
+		this.refillPerSecond = minPerSecond * SCALE;
+		this.maxBalance = maxTokens * SCALE;
+		this.balance = new AtomicLong(Math.min(maxBalance, refillPerSecond));
+	}
+
+	/**
+	 * Count a request that may later need retries
+	 */
+	public void onRequest() {
+		deposit(depositPerRequest);
+	}
+
+	/**
+	 * Take one retry from the budget
+	 *
+	 * @return true if the retry may go ahead
+	 */
+	public boolean tryAcquire() {
+		refill();
+		long current;
+		do {
+			current = balance.get();
+			if (current < SCALE) {
+				denied.increment();
+				return false;
+			}
+		} while (!balance.compareAndSet(current, current - SCALE));
+		return true;
+	}
+
+	private void refill() {
+		if (refillPerSecond == 0) {
+			return;
+		}
+		long now = System.nanoTime();
+		long last = lastRefill.get();
+		long elapsed = now - last;
+		if (elapsed >= REFILL_INTERVAL_NANOS && lastRefill.compareAndSet(last, now)) {
+			deposit(Math.min(maxBalance, elapsed * refillPerSecond / TimeUnit.SECONDS.toNanos(1)));
+		}
+	}
+
+	private void deposit(long amount) {
+		if (amount > 0) {
+			balance.accumulateAndGet(amount, (current, added) -> Math.min(maxBalance, current + added));
+		}
+	}
+
+	/**
+	 * Retries currently available
+	 */
+	public double getAvailable() {
+		refill();
+		return balance.get() / (double) SCALE;
+	}
+
+	/**
+	 * Retries refused because the budget was empty
+	 */
+	public long getDenied() {
+		return denied.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "RetryBudget{available=" + getAvailable() + ", denied=" + getDenied() + "}";
+	}
+}
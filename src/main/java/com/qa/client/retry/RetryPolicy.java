@@ -0,0 +1,276 @@
+package com.qa.client.retry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+/**
+ * RetryPolicy - When and how RestClient retries a failed request. Values can be
+ * loaded from config.properties using the "retry.*" keys, anything missing
+ * falls back to the defaults below.
+ *
+ * A request is retried when it got one of the retryable status codes or
+ * failed with one of the retryable IOException types, its method is
+ * idempotent (unless nonIdempotent is set), attempts are left and the shared
+ * RetryBudget allows it. The wait before retry n is "full jitter": a random
+ * time between 0 and min(maxDelay, baseDelay * 2^(n-1)), so clients that
+ * failed together do not retry together. A Retry-After header in seconds is
+ * honoured up to maxDelay.
+ */
+public class RetryPolicy {
+
+	private static final Logger logger = Logger.getLogger(RetryPolicy.class);
+
+	// Property keys (config.properties)
+	public static final String MAX_ATTEMPTS = "retry.maxAttempts";
+	public static final String BASE_DELAY_MILLIS = "retry.baseDelayMillis";
+	public static final String MAX_DELAY_MILLIS = "retry.maxDelayMillis";
+	public static final String STATUS_CODES = "retry.statusCodes";
+	public static final String EXCEPTIONS = "retry.exceptions";
+	public static final String NON_IDEMPOTENT = "retry.nonIdempotent";
+	public static final String BUDGET_RATIO = "retry.budget.ratio";
+	public static final String BUDGET_MIN_PER_SECOND = "retry.budget.minPerSecond";
+	public static final String BUDGET_MAX_TOKENS = "retry.budget.maxTokens";
+
+
+	private static final Set<String> IDEMPOTENT_METHODS = Collections
+			.unmodifiableSet(new HashSet<>(Arrays.asList("GET", "HEAD", "OPTIONS", "PUT", "DELETE", "TRACE")));
+
+	private int maxAttempts = 3;
+	private long baseDelayMillis = 100;
+	private long maxDelayMillis = 2000;
+	private Set<Integer> statusCodes = new HashSet<>(Arrays.asList(429, 502, 503, 504));
+	private List<Class<? extends IOException>> exceptions = new ArrayList<>(Arrays.asList(
+			java.net.SocketException.class, java.net.SocketTimeoutException.class,
+			org.apache.http.NoHttpResponseException.class, java.net.http.HttpTimeoutException.class));
+	private boolean nonIdempotent = false;
+	private double budgetRatio = 0.1;
+	private int budgetMinPerSecond = 10;
+	private int budgetMaxTokens = 100;
+
+	/**
+	 * Build a policy from properties, using defaults for missing keys
+	 *
+	 * @param prop - Loaded configuration (may be null)
+	 * @return RetryPolicy
+	 */
+	public static RetryPolicy fromProperties(Properties prop) {
+		RetryPolicy policy = new RetryPolicy();
+		if (prop == null) {
+			return policy;
+		}
+		policy.setMaxAttempts(
+				Integer.parseInt(prop.getProperty(MAX_ATTEMPTS, String.valueOf(policy.maxAttempts)).trim()));
+		policy.setBaseDelayMillis(
+				Long.parseLong(prop.getProperty(BASE_DELAY_MILLIS, String.valueOf(policy.baseDelayMillis)).trim()));
+		policy.setMaxDelayMillis(
+				Long.parseLong(prop.getProperty(MAX_DELAY_MILLIS, String.valueOf(policy.maxDelayMillis)).trim()));
+		String codes = prop.getProperty(STATUS_CODES);
+		if (codes != null) {
+			Set<Integer> parsed = new HashSet<>();
+			for (String code : codes.split(",")) {
+				if (!code.trim().isEmpty()) {
+					parsed.add(Integer.parseInt(code.trim()));
+				}
+			}
+			policy.setStatusCodes(parsed);
+		}
+		String exceptions = prop.getProperty(EXCEPTIONS);
+		if (exceptions != null) {
+			List<Class<? extends IOException>> parsed = new ArrayList<>();
+			for (String name : exceptions.split(",")) {
+				if (!name.trim().isEmpty()) {
+					parsed.add(exceptionClass(name.trim()));
+				}
+			}
+			policy.setExceptions(parsed);
+		}
+		policy.setNonIdempotent(
+				Boolean.parseBoolean(prop.getProperty(NON_IDEMPOTENT, String.valueOf(policy.nonIdempotent)).trim()));
+		policy.setBudgetRatio(
+				Double.parseDouble(prop.getProperty(BUDGET_RATIO, String.valueOf(policy.budgetRatio)).trim()));
+		policy.setBudgetMinPerSecond(Integer.parseInt(
+				prop.getProperty(BUDGET_MIN_PER_SECOND, String.valueOf(policy.budgetMinPerSecond)).trim()));
+		policy.setBudgetMaxTokens(Integer
+				.parseInt(prop.getProperty(BUDGET_MAX_TOKENS, String.valueOf(policy.budgetMaxTokens)).trim()));
+		return policy;
+	}
+
+	private static Class<? extends IOException> exceptionClass(String name) {
+		try {
+			return Class.forName(name).asSubclass(IOException.class);
+		} catch (ClassNotFoundException | ClassCastException e) {
+			throw new IllegalArgumentException(EXCEPTIONS + ": not an IOException class: " + name, e);
+		}
+	}
+
+	/**
+	 * Policy that never retries (RestClient default)
+	 */
+	public static RetryPolicy disabled() {
+		RetryPolicy policy = new RetryPolicy();
+		policy.setMaxAttempts(1);
+		return policy;
+	}
+
+	// ============ DECISIONS ============
+
+	/**
+	 * True if requests with this method may be retried at all
+	 */
+	public boolean isRetryableMethod(String method) {
+		return maxAttempts > 1 && (nonIdempotent || IDEMPOTENT_METHODS.contains(method.toUpperCase(Locale.ROOT)));
+	}
+
+	public boolean isRetryableStatus(int status) {
+		return statusCodes.contains(status);
+	}
+
+	public boolean isRetryableException(Throwable error) {
+		for (Class<? extends IOException> type : exceptions) {
+			if (type.isInstance(error)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Wait before the next attempt
+	 *
+	 * @param retry      - 1 for the first retry, 2 for the second, ...
+	 * @param retryAfter - Retry-After header value (may be null)
+	 * @return delay in nanoseconds
+	 */
+	public long delayNanos(int retry, String retryAfter) {
+		long cap = Math.min(maxDelayMillis, baseDelayMillis << Math.min(retry - 1, 30));
+		long delayMillis = cap > 0 ? ThreadLocalRandom.current().nextLong(cap + 1) : 0;
+		if (retryAfter != null) {
+			try {
+				long seconds = Long.parseLong(retryAfter.trim());
+				delayMillis = Math.max(delayMillis, Math.min(maxDelayMillis, TimeUnit.SECONDS.toMillis(seconds)));
+			} catch (NumberFormatException e) {
+				// HTTP-date form: fall back to the jittered delay
+				logger.debug("Ignoring Retry-After: " + retryAfter);
+			}
+		}
+		return TimeUnit.MILLISECONDS.toNanos(delayMillis);
+	}
+
+	/**
+	 * New budget with this policy's settings, to be shared by all threads of one
+	 * client
+	 */
+	public RetryBudget newBudget() {
+		return new RetryBudget(budgetRatio, budgetMinPerSecond, budgetMaxTokens);
+	}
+
+	// ============ GETTERS AND SETTERS ============
+
+	/**
+	 * Total attempts including the first one; 1 disables retries
+	 */
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	public void setMaxAttempts(int maxAttempts) {
+		if (maxAttempts < 1) {
+			throw new IllegalArgumentException(MAX_ATTEMPTS + " must be >= 1: " + maxAttempts);
+		}
+		this.maxAttempts = maxAttempts;
+	}
+
+	public long getBaseDelayMillis() {
+		return baseDelayMillis;
+	}
+
+	public void setBaseDelayMillis(long baseDelayMillis) {
+		this.baseDelayMillis = baseDelayMillis;
+	}
+
+	public long getMaxDelayMillis() {
+		return maxDelayMillis;
+	}
+
+	public void setMaxDelayMillis(long maxDelayMillis) {
+		this.maxDelayMillis = maxDelayMillis;
+	}
+
+	public Set<Integer> getStatusCodes() {
+		return statusCodes;
+	}
+
+	public void setStatusCodes(Set<Integer> statusCodes) {
+		this.statusCodes = statusCodes;
+	}
+
+	public List<Class<? extends IOException>> getExceptions() {
+		return exceptions;
+	}
+
+	public void setExceptions(List<Class<? extends IOException>> exceptions) {
+		this.exceptions = exceptions;
+	}
+
+	/**
+	 * Also retry POST and PATCH (only safe if the API deduplicates them)
+	 */
+	public boolean isNonIdempotent() {
+		return nonIdempotent;
+	}
+
+	public void setNonIdempotent(boolean nonIdempotent) {
+		this.nonIdempotent = nonIdempotent;
+	}
+
+	/**
+	 * Retries earned per request, e.g. 0.1 = retries may add 10% load
+	 */
+	public double getBudgetRatio() {
+		return budgetRatio;
+	}
+
+	public void setBudgetRatio(double budgetRatio) {
+		this.budgetRatio = budgetRatio;
+	}
+
+	/**
+	 * Retries always allowed per second, so low-traffic runs can still retry
+	 */
+	public int getBudgetMinPerSecond() {
+		return budgetMinPerSecond;
+	}
+
+	public void setBudgetMinPerSecond(int budgetMinPerSecond) {
+		this.budgetMinPerSecond = budgetMinPerSecond;
+	}
+
+	/**
+	 * Most retries that can be saved up for a burst of failures
+	 */
+	public int getBudgetMaxTokens() {
+		return budgetMaxTokens;
+	}
+
+	public void setBudgetMaxTokens(int budgetMaxTokens) {
+		this.budgetMaxTokens = budgetMaxTokens;
+	}
+
+	@Override
+	public String toString() {
+		return "RetryPolicy{maxAttempts=" + maxAttempts + ", baseDelayMillis=" + baseDelayMillis
+				+ ", maxDelayMillis=" + maxDelayMillis + ", statusCodes=" + statusCodes + ", nonIdempotent="
+				+ nonIdempotent + ", budgetRatio=" + budgetRatio + ", budgetMinPerSecond=" + budgetMinPerSecond + "}";
+	}
+}
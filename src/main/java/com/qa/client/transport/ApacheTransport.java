@@ -0,0 +1,111 @@
+package com.qa.client.transport;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.log4j.Logger;
+
+import com.qa.client.ConnectionPoolConfig;
+import com.qa.client.metrics.TimingRequestExecutor;
+import com.qa.client.metrics.TimingSocketFactory;
+
+/**
+ * ApacheTransport - HTTP/1.1 transport on one long-lived Apache HttpClient
+ * backed by a PoolingHttpClientConnectionManager, so connections (and TLS
+ * sessions) are reused across calls. Each request in flight holds its own
+ * connection.
+ */
+public class ApacheTransport implements Transport {
+
+	private static final Logger logger = Logger.getLogger(ApacheTransport.class);
+
+	private final PoolingHttpClientConnectionManager connectionManager;
+	private final CloseableHttpClient httpClient;
+
+	public ApacheTransport(ConnectionPoolConfig poolConfig) {
+		// Socket factories stamp the connect time of new connections
+		Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+				.register("http", new TimingSocketFactory(PlainConnectionSocketFactory.getSocketFactory()))
+				.register("https", new TimingSocketFactory.Layered(SSLConnectionSocketFactory.getSocketFactory()))
+				.build();
+
+		connectionManager = new PoolingHttpClientConnectionManager(socketFactories);
+		connectionManager.setMaxTotal(poolConfig.getMaxTotal());
+		connectionManager.setDefaultMaxPerRoute(poolConfig.getMaxPerRoute());
+		connectionManager.setValidateAfterInactivity(poolConfig.getValidateAfterInactivityMillis());
+
+		// Honour the server's Keep-Alive header, otherwise use the configured value
+		ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+			long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+			return serverKeepAlive > 0 ? serverKeepAlive : poolConfig.getKeepAliveMillis();
+		};
+
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectTimeout(poolConfig.getConnectTimeoutMillis())
+				.setConnectionRequestTimeout(poolConfig.getConnectTimeoutMillis())
+				.setSocketTimeout(poolConfig.getSocketTimeoutMillis())
+				.build();
+
+		httpClient = HttpClients.custom()
+				.setConnectionManager(connectionManager)
+				.setKeepAliveStrategy(keepAliveStrategy)
+				.setDefaultRequestConfig(requestConfig)
+				.setRequestExecutor(new TimingRequestExecutor())
+				// Content-Encoding is handled by RestClient, so it can be measured
+				.disableContentCompression()
+				// RestClient retries through its RetryPolicy, budget and backoff only
+				.disableAutomaticRetries()
+				.evictExpiredConnections()
+				.evictIdleConnections(poolConfig.getIdleEvictionSeconds(), TimeUnit.SECONDS)
+				.build();
+	}
+
+	@Override
+	public CloseableHttpResponse execute(HttpRequestBase request, HttpClientContext context) throws IOException {
+		return httpClient.execute(request, context);
+	}
+
+	@Override
+	public synchronized void ensureCapacity(int concurrentRequests) {
+		if (connectionManager.getDefaultMaxPerRoute() < concurrentRequests) {
+			connectionManager.setDefaultMaxPerRoute(concurrentRequests);
+		}
+		if (connectionManager.getMaxTotal() < concurrentRequests) {
+			connectionManager.setMaxTotal(concurrentRequests);
+			logger.info("Connection pool raised to " + concurrentRequests + " connections");
+		}
+	}
+
+	@Override
+	public PoolStats getPoolStats() {
+		return connectionManager.getTotalStats();
+	}
+
+	@Override
+	public String getName() {
+		return ConnectionPoolConfig.TRANSPORT_HTTP1;
+	}
+
+	/**
+	 * Close the client, its eviction thread and every pooled connection
+	 */
+	@Override
+	public void close() throws IOException {
+		httpClient.close();
+	}
+}
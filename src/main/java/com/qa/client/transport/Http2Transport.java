@@ -0,0 +1,348 @@
+package com.qa.client.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpVersion;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
+import org.apache.http.message.BasicStatusLine;
+import org.apache.http.pool.PoolStats;
+import org.apache.log4j.Logger;
+
+import com.qa.client.ConnectionPoolConfig;
+import com.qa.client.metrics.RequestTimer;
+
+/**
+ * Http2Transport - Multiplexed transport on the JDK java.net.http.HttpClient.
+ *
+ * Over TLS the protocol is negotiated with ALPN (h2, else HTTP/1.1); over
+ * cleartext the first request to a server offers an h2c upgrade and falls back
+ * to HTTP/1.1 if it is refused. With HTTP/2 all concurrent requests to a host
+ * share one connection as separate streams, so the pool limits do not apply;
+ * after a fallback the JDK client opens one connection per request in flight.
+ *
+ * The response body is streamed: closing the response before the end cancels
+ * the stream (HTTP/2) or drops the connection (HTTP/1.1).
+ */
+public class Http2Transport implements Transport {
+
+	private static final Logger logger = Logger.getLogger(Http2Transport.class);
+
+	private static final ProtocolVersion HTTP_2 = new ProtocolVersion("HTTP", 2, 0);
+
+	// Headers the JDK client manages itself and refuses to accept
+	private static final Set<String> RESTRICTED_HEADERS = new HashSet<>(
+			Arrays.asList("connection", "content-length", "expect", "host", "upgrade"));
+
+	private final HttpClient httpClient;
+	private final ExecutorService executor;
+	private final Duration requestTimeout;
+	private final int maxTotal;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicLong http2Responses = new AtomicLong();
+	private final AtomicLong http1Responses = new AtomicLong();
+
+	public Http2Transport(ConnectionPoolConfig poolConfig) {
+		AtomicInteger threadCount = new AtomicInteger();
+		executor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "rest-h2-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		requestTimeout = Duration.ofMillis(poolConfig.getSocketTimeoutMillis());
+		maxTotal = poolConfig.getMaxTotal();
+		httpClient = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_2)
+				.connectTimeout(Duration.ofMillis(poolConfig.getConnectTimeoutMillis()))
+				.executor(executor)
+				.build();
+	}
+
+	@Override
+	public CloseableHttpResponse execute(HttpRequestBase request, HttpClientContext context) throws IOException {
+		HttpEntity entity = request instanceof HttpEntityEnclosingRequest
+				? ((HttpEntityEnclosingRequest) request).getEntity()
+				: null;
+		EntityPipes body = entity != null && entity.getContentLength() != 0 ? new EntityPipes(entity, executor) : null;
+		HttpRequest jdkRequest = toJdkRequest(request, entity, body);
+		RequestTimer timer = RequestTimer.from(context);
+
+		inFlight.incrementAndGet();
+		HttpResponse<InputStream> response;
+		try {
+			response = httpClient.send(jdkRequest, HttpResponse.BodyHandlers.ofInputStream());
+		} catch (InterruptedException e) {
+			inFlight.decrementAndGet();
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while sending " + request.getMethod() + " " + request.getURI());
+		} catch (IOException | RuntimeException e) {
+			inFlight.decrementAndGet();
+			throw e;
+		} finally {
+			// Stops a writer the client no longer reads from, e.g. after an early response
+			if (body != null) {
+				body.close();
+			}
+		}
+		if (timer != null) {
+			timer.firstByte();
+		}
+		if (response.version() == HttpClient.Version.HTTP_2) {
+			http2Responses.incrementAndGet();
+		} else {
+			http1Responses.incrementAndGet();
+		}
+		return toResponse(request, response);
+	}
+
+	private HttpRequest toJdkRequest(HttpRequestBase request, HttpEntity entity, EntityPipes body) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.getURI().toString()))
+				.timeout(requestTimeout);
+		for (Header header : request.getAllHeaders()) {
+			if (RESTRICTED_HEADERS.contains(header.getName().toLowerCase(Locale.ROOT))) {
+				logger.debug("Skipping restricted header: " + header.getName());
+				continue;
+			}
+			builder.header(header.getName(), header.getValue());
+		}
+
+		if (entity == null) {
+			return builder.method(request.getMethod(), HttpRequest.BodyPublishers.noBody()).build();
+		}
+		// Entity metadata that Apache's RequestContent interceptor would add
+		if (entity.getContentType() != null && !request.containsHeader("Content-Type")) {
+			builder.header("Content-Type", entity.getContentType().getValue());
+		}
+		if (entity.getContentEncoding() != null && !request.containsHeader("Content-Encoding")) {
+			builder.header("Content-Encoding", entity.getContentEncoding().getValue());
+		}
+		// Streamed through writeTo() so wrapping entities (gzip, JSON) work unchanged
+		long length = entity.getContentLength();
+		HttpRequest.BodyPublisher publisher;
+		if (body == null) {
+			publisher = HttpRequest.BodyPublishers.noBody();
+		} else if (length > 0) {
+			// Keeps Content-Length; the JDK client fails the request if the entity writes more or less
+			publisher = HttpRequest.BodyPublishers.fromPublisher(HttpRequest.BodyPublishers.ofInputStream(body),
+					length);
+		} else {
+			publisher = HttpRequest.BodyPublishers.ofInputStream(body);
+		}
+		return builder.method(request.getMethod(), publisher).build();
+	}
+
+	private CloseableHttpResponse toResponse(HttpRequestBase request, HttpResponse<InputStream> response)
+			throws IOException {
+		int status = response.statusCode();
+		ProtocolVersion version = response.version() == HttpClient.Version.HTTP_2 ? HTTP_2 : HttpVersion.HTTP_1_1;
+		String reason = EnglishReasonPhraseCatalog.INSTANCE.getReason(status, Locale.ENGLISH);
+		StreamedHttpResponse result = new StreamedHttpResponse(new BasicStatusLine(version, status, reason),
+				response.body(), inFlight::decrementAndGet);
+
+		HttpHeaders headers = response.headers();
+		for (Map.Entry<String, List<String>> entry : headers.map().entrySet()) {
+			// HTTP/2 pseudo headers (":status") are not headers in HTTP/1.1 terms
+			if (entry.getKey().startsWith(":")) {
+				continue;
+			}
+			for (String value : entry.getValue()) {
+				result.addHeader(entry.getKey(), value);
+			}
+		}
+
+		boolean bodyless = "HEAD".equals(request.getMethod()) || status == 204 || status == 304
+				|| (status >= 100 && status < 200);
+		if (bodyless) {
+			response.body().close();
+			return result;
+		}
+		BasicHttpEntity entity = new BasicHttpEntity();
+		entity.setContent(response.body());
+		entity.setContentLength(headers.firstValueAsLong("Content-Length").orElse(-1));
+		headers.firstValue("Content-Type").ifPresent(entity::setContentType);
+		headers.firstValue("Content-Encoding").ifPresent(entity::setContentEncoding);
+		result.setEntity(entity);
+		return result;
+	}
+
+	/**
+	 * EntityPipes - Request body source for BodyPublishers.ofInputStream. Each
+	 * subscription gets a pipe that entity.writeTo() fills on the transport
+	 * executor, so the body is never held in memory as a whole. A failure while
+	 * writing is rethrown to the JDK client at the end of the pipe instead of
+	 * ending the body early. A non-repeatable entity is only written once.
+	 */
+	private static class EntityPipes implements Supplier<InputStream>, Closeable {
+
+		private static final int PIPE_SIZE = 16 * 1024;
+
+		private final HttpEntity entity;
+		private final ExecutorService executor;
+		private final AtomicInteger subscriptions = new AtomicInteger();
+		private final List<EntityPipe> pipes = new CopyOnWriteArrayList<>();
+
+		EntityPipes(HttpEntity entity, ExecutorService executor) {
+			this.entity = entity;
+			this.executor = executor;
+		}
+
+		@Override
+		public InputStream get() {
+			EntityPipe pipe = new EntityPipe();
+			pipes.add(pipe);
+			PipedOutputStream out;
+			try {
+				out = new PipedOutputStream(pipe);
+			} catch (IOException e) {
+				throw new IllegalStateException("Could not connect the request body pipe", e);
+			}
+			if (subscriptions.incrementAndGet() > 1 && !entity.isRepeatable()) {
+				pipe.failure = new IOException("Non-repeatable request entity cannot be sent again");
+				closeQuietly(out);
+				return pipe;
+			}
+			executor.execute(() -> {
+				try {
+					entity.writeTo(out);
+				} catch (IOException e) {
+					pipe.failure = e;
+				} catch (RuntimeException e) {
+					pipe.failure = new IOException("Request entity failed while writing", e);
+				} finally {
+					// Also ends the writer if the client stopped reading and closed the pipe
+					closeQuietly(out);
+				}
+			});
+			return pipe;
+		}
+
+		/**
+		 * Close the read end of every pipe; a writer still blocked on one fails
+		 * with "Pipe closed" and returns its thread
+		 */
+		@Override
+		public void close() {
+			for (EntityPipe pipe : pipes) {
+				closeQuietly(pipe);
+			}
+		}
+
+		private static void closeQuietly(Closeable pipe) {
+			try {
+				pipe.close();
+			} catch (IOException e) {
+				logger.debug("Closing request body pipe: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * EntityPipe - Read end of a request body pipe; rethrows the writer's
+	 * failure once the written bytes have been read
+	 */
+	private static class EntityPipe extends PipedInputStream {
+
+		volatile IOException failure;
+
+		EntityPipe() {
+			super(EntityPipes.PIPE_SIZE);
+		}
+
+		@Override
+		public synchronized int read() throws IOException {
+			int b = super.read();
+			if (b < 0) {
+				throwFailure();
+			}
+			return b;
+		}
+
+		@Override
+		public synchronized int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n < 0) {
+				throwFailure();
+			}
+			return n;
+		}
+
+		private void throwFailure() throws IOException {
+			if (failure != null) {
+				throw failure;
+			}
+		}
+	}
+
+	/**
+	 * No connection pool to grow: HTTP/2 streams share a connection
+	 */
+	@Override
+	public void ensureCapacity(int concurrentRequests) {
+	}
+
+	/**
+	 * Streams in flight are reported as leased; the JDK client does not expose
+	 * its connections
+	 */
+	@Override
+	public PoolStats getPoolStats() {
+		return new PoolStats(inFlight.get(), 0, 0, maxTotal);
+	}
+
+	/**
+	 * Responses received over HTTP/2 so far
+	 */
+	public long getHttp2Responses() {
+		return http2Responses.get();
+	}
+
+	/**
+	 * Responses received after falling back to HTTP/1.1
+	 */
+	public long getHttp1Responses() {
+		return http1Responses.get();
+	}
+
+	@Override
+	public String getName() {
+		return ConnectionPoolConfig.TRANSPORT_HTTP2;
+	}
+
+	@Override
+	public void close() {
+		logger.info("Closing HTTP/2 transport: " + http2Responses.get() + " HTTP/2 and " + http1Responses.get()
+				+ " HTTP/1.1 responses");
+		executor.shutdown();
+	}
+}
@@ -0,0 +1,39 @@
+package com.qa.client.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.message.BasicHttpResponse;
+
+/**
+ * StreamedHttpResponse - Response whose body is a stream owned by another
+ * client. close() closes the stream (cancelling it if unread) and runs the
+ * release callback once.
+ */
+class StreamedHttpResponse extends BasicHttpResponse implements CloseableHttpResponse {
+
+	private final InputStream body;
+	private final Runnable onClose;
+	private boolean closed;
+
+	StreamedHttpResponse(StatusLine statusline, InputStream body, Runnable onClose) {
+		super(statusline);
+		this.body = body;
+		this.onClose = onClose;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			body.close();
+		} finally {
+			onClose.run();
+		}
+	}
+}
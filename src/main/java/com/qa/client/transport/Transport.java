@@ -0,0 +1,51 @@
+package com.qa.client.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.pool.PoolStats;
+
+/**
+ * Transport - Sends the blocking RestClient requests.
+ *
+ * Requests and responses use the HttpClient 4 types whatever the wire
+ * protocol, so RestClient's methods, metrics, retries, cache and cassettes
+ * work the same on every transport. Implementations must be thread-safe and
+ * stream the response body: it is only read when the caller reads it.
+ *
+ * @see ApacheTransport
+ * @see Http2Transport
+ */
+public interface Transport extends Closeable {
+
+	/**
+	 * Send a request and return once the response head has arrived
+	 *
+	 * @param request - Request with an absolute URI, headers and entity
+	 * @param context - Carries the RequestTimer; first byte must be marked on it
+	 * @return response; closing it releases the connection or stream
+	 * @throws IOException on connect, I/O or timeout failures
+	 */
+	CloseableHttpResponse execute(HttpRequestBase request, HttpClientContext context) throws IOException;
+
+	/**
+	 * Make room for the given number of concurrent requests (never lowers
+	 * limits)
+	 *
+	 * @param concurrentRequests - Expected number of requests in flight
+	 */
+	void ensureCapacity(int concurrentRequests);
+
+	/**
+	 * Connections (HTTP/1.1) or streams (HTTP/2) in use, pending and available
+	 */
+	PoolStats getPoolStats();
+
+	/**
+	 * Short name for logs, e.g. "http1"
+	 */
+	String getName();
+}
@@ -0,0 +1,106 @@
+package com.qa.config;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import com.qa.util.VirtualThreads;
+
+/**
+ * Watches configuration files and runs a reload when one of them is written,
+ * created or replaced. Editors often save in several steps, so events are
+ * collected for a short quiet period before reloading once.
+ */
+class ConfigWatcher implements AutoCloseable {
+
+	private static final Logger logger = Logger.getLogger(ConfigWatcher.class);
+
+	// Quiet period after the last event before reloading
+	static final long SETTLE_MILLIS = 200;
+
+	private final Set<Path> files = new HashSet<>();
+	private final Runnable reload;
+	private final WatchService service;
+	private final Thread thread;
+
+	/**
+	 * @param files  - Files to watch (their directories are registered)
+	 * @param reload - Called after a change
+	 * @throws IOException if the file system cannot be watched
+	 */
+	ConfigWatcher(List<Path> files, Runnable reload) throws IOException {
+		this.reload = reload;
+		this.service = FileSystems.getDefault().newWatchService();
+		Set<Path> directories = new HashSet<>();
+		for (Path file : files) {
+			Path absolute = file.toAbsolutePath().normalize();
+			this.files.add(absolute);
+			directories.add(absolute.getParent());
+		}
+		for (Path directory : directories) {
+			directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+		}
+		this.thread = VirtualThreads.platformThreadFactory("config-watcher-").newThread(this::watchLoop);
+	}
+
+	void start() {
+		thread.start();
+	}
+
+	private void watchLoop() {
+		try {
+			while (true) {
+				WatchKey key = service.take();
+				boolean changed = collect(key);
+				// Let the writer finish, taking any further events with it
+				WatchKey more;
+				while ((more = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+					changed |= collect(more);
+				}
+				if (changed) {
+					reload.run();
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			logger.debug("Configuration watcher stopped");
+		}
+	}
+
+	/**
+	 * @return true if an event concerned a watched file
+	 */
+	private boolean collect(WatchKey key) {
+		boolean changed = false;
+		Path directory = (Path) key.watchable();
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				changed = true;
+			} else if (files.contains(directory.resolve((Path) event.context()).toAbsolutePath().normalize())) {
+				changed = true;
+			}
+		}
+		key.reset();
+		return changed;
+	}
+
+	@Override
+	public void close() {
+		try {
+			service.close();
+		} catch (IOException e) {
+			logger.warn("Could not close configuration watcher: " + e.getMessage());
+		}
+		thread.interrupt();
+	}
+}
@@ -0,0 +1,332 @@
+package com.qa.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+import org.apache.log4j.Logger;
+
+/**
+ * LayeredConfig - Resolves the configuration from its layers into one
+ * immutable TestConfig snapshot. Later layers win:
+ *
+ * 1. Defaults: com/qa/config/config.properties on the classpath
+ *
+ * 2. Environment profile: com/qa/config/config-<environment>.properties on the
+ * classpath (optional), then the files listed in config.file (comma
+ * separated, relative to user.dir)
+ *
+ * 3. System properties, for keys defined by the layers above
+ *
+ * 4. TestNG suite parameters
+ *
+ * Values set at runtime with override() (e.g. the mock server's baseURL) stay
+ * on top of all layers.
+ *
+ * Readers call current() and keep using the snapshot they got; nothing in it
+ * ever changes. reload() resolves the layers again and swaps the snapshot
+ * atomically, then tells the listeners what changed. startWatching() reloads
+ * whenever one of the files changes on disk, for soak runs that are tuned
+ * without restarting.
+ */
+public class LayeredConfig implements AutoCloseable {
+
+	private static final Logger logger = Logger.getLogger(LayeredConfig.class);
+
+	public static final String DEFAULTS_RESOURCE = "com/qa/config/config.properties";
+	public static final String PROFILE_RESOURCE = "com/qa/config/config-%s.properties";
+
+	// Keys that select the layers
+	public static final String ENVIRONMENT = "environment";
+	public static final String CONFIG_FILE = "config.file";
+	public static final String WATCH = "config.watch";
+
+	private final ClassLoader classLoader;
+	private final Map<String, String> parameters;
+	private final Map<String, String> overrides = new ConcurrentHashMap<>();
+	private final AtomicReference<TestConfig> current = new AtomicReference<>();
+	private final List<BiConsumer<TestConfig, TestConfig>> listeners = new CopyOnWriteArrayList<>();
+
+	private volatile List<String> sources = Collections.emptyList();
+	private volatile List<Path> files = Collections.emptyList();
+	private ConfigWatcher watcher;
+
+	/**
+	 * Resolve the layers
+	 *
+	 * @param parameters - TestNG suite parameters (may be null)
+	 * @throws IOException if the defaults or a listed file cannot be read
+	 */
+	public LayeredConfig(Map<String, String> parameters) throws IOException {
+		this(LayeredConfig.class.getClassLoader(), parameters);
+	}
+
+	/**
+	 * @param classLoader - Where the defaults and profiles are looked up
+	 * @param parameters  - TestNG suite parameters (may be null)
+	 * @throws IOException if the defaults or a listed file cannot be read
+	 */
+	public LayeredConfig(ClassLoader classLoader, Map<String, String> parameters) throws IOException {
+		this.classLoader = classLoader;
+		this.parameters = parameters != null ? new HashMap<>(parameters) : Collections.emptyMap();
+		current.set(resolve());
+	}
+
+	/**
+	 * The snapshot in use; safe to keep and read from any thread
+	 */
+	public TestConfig current() {
+		return current.get();
+	}
+
+	/**
+	 * Set a value above all layers; it survives reloads
+	 *
+	 * @param key   - Property key
+	 * @param value - New value
+	 * @return the new snapshot
+	 */
+	public synchronized TestConfig override(String key, String value) {
+		overrides.put(key, value);
+		TestConfig previous = current.get();
+		TestConfig next = previous.with(key, value);
+		current.set(next);
+		notifyListeners(previous, next);
+		return next;
+	}
+
+	/**
+	 * Resolve the layers again and swap the snapshot if anything changed. On a
+	 * read error the current snapshot stays in use.
+	 *
+	 * @return true if the snapshot was replaced
+	 */
+	public synchronized boolean reload() {
+		TestConfig next;
+		try {
+			next = resolve();
+		} catch (IOException | RuntimeException e) {
+			logger.error("Configuration reload failed, keeping the current values: " + e.getMessage(), e);
+			return false;
+		}
+		TestConfig previous = current.get();
+		if (previous.asMap().equals(next.asMap())) {
+			return false;
+		}
+		current.set(next);
+		logger.info("Configuration reloaded, changed keys: " + changedKeys(previous, next));
+		notifyListeners(previous, next);
+		return true;
+	}
+
+	/**
+	 * Called with (previous, current) after every swap, on the thread that
+	 * swapped
+	 *
+	 * @param listener - Change handler
+	 */
+	public void addListener(BiConsumer<TestConfig, TestConfig> listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(BiConsumer<TestConfig, TestConfig> listener) {
+		listeners.remove(listener);
+	}
+
+	private void notifyListeners(TestConfig previous, TestConfig next) {
+		for (BiConsumer<TestConfig, TestConfig> listener : listeners) {
+			try {
+				listener.accept(previous, next);
+			} catch (RuntimeException e) {
+				logger.error("Configuration listener failed: " + e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * Reload whenever one of the configuration files on disk changes. Classpath
+	 * entries inside a jar cannot be watched; config.file can.
+	 *
+	 * @throws IOException if the file system cannot be watched
+	 */
+	public synchronized void startWatching() throws IOException {
+		if (watcher != null) {
+			return;
+		}
+		if (files.isEmpty()) {
+			logger.warn("No configuration files on disk to watch");
+			return;
+		}
+		watcher = new ConfigWatcher(files, this::reload);
+		watcher.start();
+		logger.info("Watching configuration files: " + files);
+	}
+
+	/**
+	 * Stop watching the files
+	 */
+	@Override
+	public synchronized void close() {
+		if (watcher != null) {
+			watcher.close();
+			watcher = null;
+		}
+	}
+
+	/**
+	 * Layers used for the current snapshot, lowest first
+	 */
+	public List<String> getSources() {
+		return sources;
+	}
+
+	/**
+	 * Keys whose values differ between two snapshots
+	 */
+	public static List<String> changedKeys(TestConfig previous, TestConfig next) {
+		List<String> changed = new ArrayList<>();
+		for (Map.Entry<String, String> entry : next.asMap().entrySet()) {
+			if (!Objects.equals(entry.getValue(), previous.get(entry.getKey()))) {
+				changed.add(entry.getKey());
+			}
+		}
+		for (String key : previous.asMap().keySet()) {
+			if (next.get(key) == null) {
+				changed.add(key);
+			}
+		}
+		Collections.sort(changed);
+		return changed;
+	}
+
+	// ============ LAYERS ============
+
+	private TestConfig resolve() throws IOException {
+		Map<String, String> values = new HashMap<>();
+		List<String> usedSources = new ArrayList<>();
+		List<Path> usedFiles = new ArrayList<>();
+
+		// 1. Defaults
+		URL defaults = classLoader.getResource(DEFAULTS_RESOURCE);
+		if (defaults == null) {
+			throw new IOException(DEFAULTS_RESOURCE + " not found on the classpath");
+		}
+		loadInto(values, defaults, usedSources, usedFiles);
+
+		// 2. Environment profile, then config.file
+		String environment = firstValue(ENVIRONMENT, values);
+		if (environment != null) {
+			URL profile = classLoader.getResource(String.format(PROFILE_RESOURCE, environment.toLowerCase()));
+			if (profile != null) {
+				loadInto(values, profile, usedSources, usedFiles);
+			}
+		}
+		String configFiles = firstValue(CONFIG_FILE, values);
+		if (configFiles != null) {
+			for (String path : configFiles.split(",")) {
+				if (path.trim().isEmpty()) {
+					continue;
+				}
+				File file = new File(path.trim());
+				if (!file.isAbsolute()) {
+					file = new File(System.getProperty("user.dir"), path.trim());
+				}
+				if (!file.isFile()) {
+					throw new IOException(CONFIG_FILE + " not found: " + file);
+				}
+				loadInto(values, file.toURI().toURL(), usedSources, usedFiles);
+			}
+		}
+
+		// 3. System properties override known keys
+		int overridden = 0;
+		for (String key : new ArrayList<>(values.keySet())) {
+			String value = systemProperty(key);
+			if (value != null) {
+				values.put(key, value);
+				overridden++;
+			}
+		}
+		if (overridden > 0) {
+			usedSources.add("system properties (" + overridden + ")");
+		}
+
+		// 4. TestNG parameters
+		if (!parameters.isEmpty()) {
+			values.putAll(parameters);
+			usedSources.add("TestNG parameters (" + parameters.size() + ")");
+		}
+
+		values.putAll(overrides);
+		sources = Collections.unmodifiableList(usedSources);
+		files = Collections.unmodifiableList(usedFiles);
+		return TestConfig.of(values);
+	}
+
+	/**
+	 * A selector key (environment, config.file) as the layers above the files
+	 * would resolve it: TestNG parameter, then system property, then the files
+	 */
+	private String firstValue(String key, Map<String, String> fileValues) {
+		String value = parameters.get(key);
+		if (isBlank(value)) {
+			value = systemProperty(key);
+		}
+		if (isBlank(value)) {
+			value = fileValues.get(key);
+		}
+		return isBlank(value) ? null : value.trim();
+	}
+
+	/**
+	 * System property, ignoring blank values and unresolved Maven placeholders
+	 * like ${environment}
+	 */
+	private static String systemProperty(String key) {
+		String value = System.getProperty(key);
+		return isBlank(value) || value.startsWith("${") ? null : value;
+	}
+
+	private static boolean isBlank(String value) {
+		return value == null || value.trim().isEmpty();
+	}
+
+	private static void loadInto(Map<String, String> values, URL url, List<String> usedSources, List<Path> usedFiles)
+			throws IOException {
+		Properties properties = new Properties();
+		try (InputStream in = url.openStream()) {
+			properties.load(in);
+		}
+		for (String key : properties.stringPropertyNames()) {
+			values.put(key, properties.getProperty(key));
+		}
+		usedSources.add(url.toString());
+		if ("file".equals(url.getProtocol())) {
+			try {
+				usedFiles.add(Paths.get(url.toURI()));
+			} catch (URISyntaxException e) {
+				logger.debug("Cannot watch " + url + ": " + e.getMessage());
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "LayeredConfig" + sources;
+	}
+}
@@ -0,0 +1,101 @@
+package com.qa.config;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * TestConfig - Immutable snapshot of config.properties shared by every test
+ * instance and thread. It is resolved once per suite (see LayeredConfig);
+ * nothing can change it afterwards, so it is safe to read from parallel test
+ * methods without locking. A reload produces a new snapshot instead.
+ */
+public final class TestConfig {
+
+	private final Map<String, String> values;
+
+	private TestConfig(Map<String, String> values) {
+		this.values = Collections.unmodifiableMap(values);
+	}
+
+	/**
+	 * Snapshot of the given properties
+	 *
+	 * @param properties - Source properties (copied)
+	 * @return TestConfig
+	 */
+	public static TestConfig fromProperties(Properties properties) {
+		Map<String, String> values = new HashMap<>();
+		for (String key : properties.stringPropertyNames()) {
+			values.put(key, properties.getProperty(key));
+		}
+		return new TestConfig(values);
+	}
+
+	/**
+	 * Snapshot of the given values
+	 *
+	 * @param values - Resolved values (copied)
+	 * @return TestConfig
+	 */
+	static TestConfig of(Map<String, String> values) {
+		return new TestConfig(new HashMap<>(values));
+	}
+
+	/**
+	 * Get property value
+	 *
+	 * @param key - Property key
+	 * @return value, or null if missing
+	 */
+	public String get(String key) {
+		return values.get(key);
+	}
+
+	/**
+	 * Get property with default value
+	 *
+	 * @param key          - Property key
+	 * @param defaultValue - Returned when the key is missing
+	 * @return value
+	 */
+	public String get(String key, String defaultValue) {
+		String value = values.get(key);
+		return value != null ? value : defaultValue;
+	}
+
+	/**
+	 * Copy of this config with one value replaced or added
+	 *
+	 * @param key   - Property key
+	 * @param value - New value
+	 * @return new TestConfig, this one is unchanged
+	 */
+	public TestConfig with(String key, String value) {
+		Map<String, String> copy = new HashMap<>(values);
+		copy.put(key, value);
+		return new TestConfig(copy);
+	}
+
+	/**
+	 * All values (read-only)
+	 */
+	public Map<String, String> asMap() {
+		return values;
+	}
+
+	/**
+	 * Mutable copy, for APIs that take Properties
+	 */
+	public Properties toProperties() {
+		Properties properties = new Properties();
+		properties.putAll(values);
+		return properties;
+	}
+
+	@Override
+	public String toString() {
+		return "TestConfig" + values.keySet();
+	}
+}
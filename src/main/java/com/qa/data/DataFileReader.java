@@ -0,0 +1,316 @@
+package com.qa.data;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.log4j.Logger;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+/**
+ * DataFileReader - Streams POJOs (e.g. Users) from an NDJSON or CSV file, one
+ * record at a time, for data-driven tests over large files.
+ *
+ * The file is memory-mapped window by window and fed to a Jackson
+ * MappingIterator, so heap use does not grow with the file: only the record
+ * being returned and Jackson's read buffer are live. A DataShard restricts the
+ * reader to a contiguous slice of the records, so forks or threads can split a
+ * file between them without reading each other's lines.
+ *
+ * The reader closes itself after the last record; close() it when stopping
+ * early. Not thread-safe: use one reader per thread (and per shard).
+ */
+public class DataFileReader<T> implements Iterator<T>, Closeable {
+
+	private static final Logger logger = Logger.getLogger(DataFileReader.class);
+
+	// Size of each mapping; large files are mapped window by window
+	public static final int DEFAULT_WINDOW_BYTES = 64 * 1024 * 1024;
+
+	// Longest CSV header accepted
+	private static final int MAX_HEADER_BYTES = 64 * 1024;
+
+	// Streams belong to the reader, like JsonCodecs' mapper
+	private static final CsvMapper CSV_MAPPER = (CsvMapper) new CsvMapper()
+			.enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+			.enable(CsvParser.Feature.TRIM_SPACES)
+			.configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+
+	private final File file;
+	private final DataShard shard;
+	private final FileChannel channel;
+	private final MappingIterator<T> records;
+
+	private long count;
+	private boolean closed;
+
+	private DataFileReader(File file, DataShard shard, FileChannel channel, MappingIterator<T> records) {
+		this.file = file;
+		this.shard = shard;
+		this.channel = channel;
+		this.records = records;
+	}
+
+	/**
+	 * Data file shipped on the classpath, e.g. the sample users. Files can only
+	 * be mapped from disk, so a resource inside a jar is copied to a temporary
+	 * file first.
+	 *
+	 * @param name - Resource name, e.g. "com/qa/data/users.ndjson"
+	 * @return file to open
+	 * @throws FileNotFoundException if there is no such resource
+	 * @throws IOException
+	 */
+	public static File resourceFile(String name) throws IOException {
+		URL url = DataFileReader.class.getClassLoader().getResource(name);
+		if (url == null) {
+			throw new FileNotFoundException("Data file not found on the classpath: " + name);
+		}
+		if ("file".equals(url.getProtocol())) {
+			try {
+				return new File(url.toURI());
+			} catch (URISyntaxException e) {
+				throw new IOException("Bad resource URL: " + url, e);
+			}
+		}
+		String fileName = name.substring(name.lastIndexOf('/') + 1);
+		File copy = File.createTempFile("data-", "-" + fileName);
+		copy.deleteOnExit();
+		try (InputStream in = url.openStream()) {
+			Files.copy(in, copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		logger.debug("Copied " + url + " to " + copy);
+		return copy;
+	}
+
+	/**
+	 * Open the whole file
+	 *
+	 * @param file - NDJSON or CSV file (see DataFormat)
+	 * @param type - Record class
+	 * @return reader positioned before the first record
+	 * @throws IOException
+	 */
+	public static <T> DataFileReader<T> open(File file, Class<T> type) throws IOException {
+		return open(file, type, DataShard.ALL);
+	}
+
+	/**
+	 * Open one shard of the file
+	 *
+	 * @param file  - NDJSON or CSV file (see DataFormat)
+	 * @param type  - Record class
+	 * @param shard - Slice of the records to read
+	 * @return reader positioned before the first record of the shard
+	 * @throws IOException
+	 */
+	public static <T> DataFileReader<T> open(File file, Class<T> type, DataShard shard) throws IOException {
+		return open(file, type, shard, DEFAULT_WINDOW_BYTES);
+	}
+
+	/**
+	 * Open one shard of the file with a given mapping window
+	 *
+	 * @param file        - NDJSON or CSV file (see DataFormat)
+	 * @param type        - Record class
+	 * @param shard       - Slice of the records to read
+	 * @param windowBytes - Bytes mapped at a time
+	 * @return reader positioned before the first record of the shard
+	 * @throws IOException
+	 */
+	public static <T> DataFileReader<T> open(File file, Class<T> type, DataShard shard, int windowBytes)
+			throws IOException {
+		if (windowBytes <= 0) {
+			throw new IllegalArgumentException("windowBytes must be > 0: " + windowBytes);
+		}
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			long from = 0;
+			ObjectReader reader;
+			if (DataFormat.of(file) == DataFormat.CSV) {
+				from = lineStart(channel, 1, size);
+				reader = CSV_MAPPER.readerFor(type).with(readHeader(channel, from));
+			} else {
+				reader = JsonCodecs.reader(type);
+			}
+
+			long start = shard.isFirst() ? from : lineStart(channel, shard.startOffset(from, size), size);
+			long end = shard.isLast() ? size : lineStart(channel, shard.endOffset(from, size), size);
+			end = Math.max(start, end);
+			logger.debug("Reading " + file + " shard " + shard + ": bytes " + start + "-" + end + " of " + size);
+
+			MappingIterator<T> records = reader
+					.readValues(new MappedRegionInputStream(channel, start, end, windowBytes));
+			return new DataFileReader<>(file, shard, channel, records);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Offset of the first line that starts at or after position: position
+	 * itself if a line ends just before it, else the byte after the next '\n'
+	 */
+	private static long lineStart(FileChannel channel, long position, long size) throws IOException {
+		if (position <= 0) {
+			return 0;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(8192);
+		long offset = position - 1;
+		while (offset < size) {
+			buffer.clear();
+			int n = channel.read(buffer, offset);
+			if (n <= 0) {
+				break;
+			}
+			for (int i = 0; i < n; i++) {
+				if (buffer.get(i) == '\n') {
+					return offset + i + 1;
+				}
+			}
+			offset += n;
+		}
+		return size;
+	}
+
+	/**
+	 * Column names from the first line of a CSV file
+	 */
+	private static CsvSchema readHeader(FileChannel channel, long headerEnd) throws IOException {
+		if (headerEnd > MAX_HEADER_BYTES) {
+			throw new IOException("CSV header longer than " + MAX_HEADER_BYTES + " bytes");
+		}
+		ByteBuffer header = ByteBuffer.allocate((int) headerEnd);
+		while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+			// read the whole header line
+		}
+		try (MappingIterator<Map<String, String>> it = CSV_MAPPER.readerFor(Map.class)
+				.with(CsvSchema.emptySchema().withHeader()).readValues(header.array())) {
+			it.hasNextValue();
+			CsvSchema schema = (CsvSchema) it.getParserSchema();
+			if (schema == null || schema.size() == 0) {
+				throw new IOException("CSV file has no header line");
+			}
+			return schema.withoutHeader();
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (closed) {
+			return false;
+		}
+		try {
+			if (records.hasNextValue()) {
+				return true;
+			}
+		} catch (IOException e) {
+			close();
+			throw new UncheckedIOException("Bad record in " + file + " (shard " + shard + ") after " + count
+					+ " records: " + e.getMessage(), e);
+		}
+		close();
+		return false;
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		try {
+			T record = records.nextValue();
+			count++;
+			return record;
+		} catch (IOException e) {
+			close();
+			throw new UncheckedIOException("Bad record in " + file + " (shard " + shard + ") after " + count
+					+ " records: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Records as a sequential stream; closing the stream closes the reader
+	 */
+	public Stream<T> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL),
+				false).onClose(this::close);
+	}
+
+	/**
+	 * Records wrapped as TestNG data provider rows (one parameter each)
+	 */
+	public Iterator<Object[]> asParameters() {
+		return new Iterator<Object[]>() {
+			@Override
+			public boolean hasNext() {
+				return DataFileReader.this.hasNext();
+			}
+
+			@Override
+			public Object[] next() {
+				return new Object[] { DataFileReader.this.next() };
+			}
+		};
+	}
+
+	/**
+	 * Records returned so far
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	public DataShard getShard() {
+		return shard;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			records.close();
+			channel.close();
+		} catch (IOException e) {
+			logger.warn("Could not close " + file + ": " + e.getMessage());
+		}
+		logger.debug("Read " + count + " records from " + file + " shard " + shard);
+	}
+
+	@Override
+	public String toString() {
+		return "DataFileReader{" + file + ", shard=" + shard + ", count=" + count + "}";
+	}
+}
@@ -0,0 +1,25 @@
+package com.qa.data;
+
+import java.io.File;
+
+/**
+ * DataFormat - Layouts of test data files read by DataFileReader
+ */
+public enum DataFormat {
+
+	// One JSON object per line (.ndjson, .jsonl, .json)
+	NDJSON,
+
+	// Header line with the property names, then one record per line (.csv)
+	CSV;
+
+	/**
+	 * Format from the file extension; anything but .csv is read as NDJSON
+	 *
+	 * @param file - Data file
+	 * @return DataFormat
+	 */
+	public static DataFormat of(File file) {
+		return file.getName().toLowerCase().endsWith(".csv") ? CSV : NDJSON;
+	}
+}
@@ -0,0 +1,122 @@
+package com.qa.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DataShard - One of count contiguous slices of a data file, written "index/count"
+ * (e.g. "2/4" is the third of four slices, "0/1" the whole file).
+ *
+ * Slices are cut at byte offsets and moved to the next line start, so every
+ * record line belongs to exactly one shard and no shard has to count the lines
+ * before it. Forked JVMs each take one shard (-Ddata.shard=i/n); threads of one
+ * JVM open one DataFileReader per shard of all(n).
+ */
+public final class DataShard {
+
+	// Property key (config.properties / system property)
+	public static final String PROPERTY = "data.shard";
+
+	public static final DataShard ALL = new DataShard(0, 1);
+
+	private final int index;
+	private final int count;
+
+	/**
+	 * @param index - Slice number, from 0
+	 * @param count - Number of slices
+	 */
+	public DataShard(int index, int count) {
+		if (count <= 0 || index < 0 || index >= count) {
+			throw new IllegalArgumentException("Invalid shard " + index + "/" + count);
+		}
+		this.index = index;
+		this.count = count;
+	}
+
+	/**
+	 * Parse "index/count"; null or blank means the whole file
+	 *
+	 * @param spec - e.g. "1/4"
+	 * @return DataShard
+	 */
+	public static DataShard parse(String spec) {
+		if (spec == null || spec.trim().isEmpty()) {
+			return ALL;
+		}
+		String[] parts = spec.trim().split("/");
+		if (parts.length != 2) {
+			throw new IllegalArgumentException("Shard must be index/count: " + spec);
+		}
+		try {
+			return new DataShard(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Shard must be index/count: " + spec, e);
+		}
+	}
+
+	/**
+	 * Every shard of a split, e.g. one per worker thread
+	 *
+	 * @param count - Number of slices
+	 * @return shards 0/count .. count-1/count
+	 */
+	public static List<DataShard> all(int count) {
+		List<DataShard> shards = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			shards.add(new DataShard(i, count));
+		}
+		return shards;
+	}
+
+	/**
+	 * Nominal byte offset where this shard starts within [from, to); the reader
+	 * moves it to the next line start
+	 */
+	long startOffset(long from, long to) {
+		return from + (long) ((double) (to - from) * index / count);
+	}
+
+	/**
+	 * Nominal byte offset where this shard ends within [from, to)
+	 */
+	long endOffset(long from, long to) {
+		return isLast() ? to : from + (long) ((double) (to - from) * (index + 1) / count);
+	}
+
+	public boolean isFirst() {
+		return index == 0;
+	}
+
+	public boolean isLast() {
+		return index == count - 1;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof DataShard))
+			return false;
+		DataShard other = (DataShard) obj;
+		return index == other.index && count == other.count;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * index + count;
+	}
+
+	@Override
+	public String toString() {
+		return index + "/" + count;
+	}
+}
@@ -0,0 +1,150 @@
+package com.qa.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * JsonCodecs - Shared Jackson configuration for request and response POJOs
+ *
+ * Building an ObjectMapper is expensive and every new mapper starts with empty
+ * serializer caches, so the framework keeps exactly one. Per type it hands out
+ * an ObjectReader / ObjectWriter; both are immutable and thread-safe, and their
+ * root (de)serializers are resolved when they are created, so the first request
+ * of a test does not pay for introspection. Known POJOs are registered up front.
+ */
+public final class JsonCodecs {
+
+	// Streams belong to the caller (e.g. an HTTP entity), so never close them
+	private static final ObjectMapper MAPPER = new ObjectMapper()
+			.configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false)
+			.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+
+	private static final Map<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+	private static final Map<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+
+	static {
+		register(Users.class);
+	}
+
+	private JsonCodecs() {
+	}
+
+	/**
+	 * Create and cache the reader and writer for a type
+	 *
+	 * @param type - POJO class
+	 */
+	public static void register(Class<?> type) {
+		reader(type);
+		writer(type);
+	}
+
+	/**
+	 * Reader bound to a type
+	 *
+	 * @param type - POJO class
+	 * @return cached ObjectReader
+	 */
+	public static ObjectReader reader(Class<?> type) {
+		ObjectReader reader = READERS.get(type);
+		if (reader == null) {
+			reader = READERS.computeIfAbsent(type, MAPPER::readerFor);
+		}
+		return reader;
+	}
+
+	/**
+	 * Writer bound to a type
+	 *
+	 * @param type - POJO class
+	 * @return cached ObjectWriter
+	 */
+	public static ObjectWriter writer(Class<?> type) {
+		ObjectWriter writer = WRITERS.get(type);
+		if (writer == null) {
+			writer = WRITERS.computeIfAbsent(type, MAPPER::writerFor);
+		}
+		return writer;
+	}
+
+	// ============ CONVENIENCE METHODS ============
+
+	/**
+	 * Serialize to UTF-8 JSON bytes
+	 *
+	 * @param value - POJO
+	 * @return JSON bytes
+	 * @throws JsonProcessingException
+	 */
+	public static byte[] toBytes(Object value) throws JsonProcessingException {
+		return writer(value.getClass()).writeValueAsBytes(value);
+	}
+
+	/**
+	 * Serialize to a JSON string (for logging and assertions)
+	 *
+	 * @param value - POJO
+	 * @return JSON string
+	 * @throws JsonProcessingException
+	 */
+	public static String toJson(Object value) throws JsonProcessingException {
+		return writer(value.getClass()).writeValueAsString(value);
+	}
+
+	/**
+	 * Serialize straight to a stream. The stream is not closed.
+	 *
+	 * @param out   - Target stream
+	 * @param value - POJO
+	 * @throws IOException
+	 */
+	public static void write(OutputStream out, Object value) throws IOException {
+		writer(value.getClass()).writeValue(out, value);
+	}
+
+	/**
+	 * Serialize to a file
+	 *
+	 * @param file  - Target file
+	 * @param value - POJO
+	 * @throws IOException
+	 */
+	public static void write(File file, Object value) throws IOException {
+		writer(value.getClass()).writeValue(file, value);
+	}
+
+	/**
+	 * Deserialize from a stream. The stream is not closed.
+	 *
+	 * @param in   - JSON input
+	 * @param type - Target class
+	 * @return deserialized object
+	 * @throws IOException
+	 */
+	public static <T> T read(InputStream in, Class<T> type) throws IOException {
+		return reader(type).readValue(in);
+	}
+
+	/**
+	 * Deserialize from a JSON string
+	 *
+	 * @param json - JSON text
+	 * @param type - Target class
+	 * @return deserialized object
+	 * @throws IOException
+	 */
+	public static <T> T read(String json, Class<T> type) throws IOException {
+		return reader(type).readValue(json);
+	}
+}
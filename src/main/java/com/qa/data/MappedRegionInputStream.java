@@ -0,0 +1,80 @@
+package com.qa.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a byte range of a file through memory-mapped windows. Only one window
+ * is mapped at a time, so files larger than 2 GB work and the mapped pages can
+ * be dropped by the OS once read; nothing is copied onto the heap beyond the
+ * caller's buffer. The channel belongs to the caller and is not closed.
+ */
+class MappedRegionInputStream extends InputStream {
+
+	private final FileChannel channel;
+	private final long end;
+	private final int windowBytes;
+
+	private long position;
+	private MappedByteBuffer window;
+
+	/**
+	 * @param channel     - Open file channel
+	 * @param start       - First byte of the range
+	 * @param end         - End of the range (exclusive)
+	 * @param windowBytes - Size of each mapping
+	 */
+	MappedRegionInputStream(FileChannel channel, long start, long end, int windowBytes) {
+		this.channel = channel;
+		this.position = start;
+		this.end = end;
+		this.windowBytes = windowBytes;
+	}
+
+	/**
+	 * @return false once the whole range has been read
+	 */
+	private boolean fill() throws IOException {
+		if (window != null && window.hasRemaining()) {
+			return true;
+		}
+		if (position >= end) {
+			return false;
+		}
+		long size = Math.min(windowBytes, end - position);
+		window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+		position += size;
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException {
+		return fill() ? window.get() & 0xFF : -1;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!fill()) {
+			return -1;
+		}
+		int n = Math.min(len, window.remaining());
+		window.get(b, off, n);
+		return n;
+	}
+
+	@Override
+	public int available() {
+		long remaining = (window != null ? window.remaining() : 0) + (end - position);
+		return (int) Math.min(Integer.MAX_VALUE, remaining);
+	}
+
+	@Override
+	public void close() {
+		window = null;
+	}
+}
@@ -1,5 +1,6 @@
 package com.qa.data;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -210,6 +211,7 @@ public class Users {
 	 * 
 	 * @return true if valid, false otherwise
 	 */
+	@JsonIgnore // not a field: APIs that echo the body would send it back
 	public boolean isValid() {
 		return name != null && !name.trim().isEmpty() && job != null && !job.trim().isEmpty();
 	}
@@ -0,0 +1,170 @@
+package com.qa.load;
+
+import com.qa.config.TestConfig;
+
+/**
+ * LoadProfile - Describes how a scenario is driven in load mode.
+ * 
+ * Two models are supported:
+ * 
+ * - Closed model: a fixed number of virtual users (load.users), each running
+ * the scenario in a loop.
+ * 
+ * - Open model: a target arrival rate (load.rps), independent of how fast the
+ * server answers.
+ * 
+ * Both ramp up linearly, hold for the steady-state period, then ramp down.
+ * Values come from the load.* keys of the configuration, with the precedence
+ * of its layers (see LayeredConfig).
+ */
+public class LoadProfile {
+
+	// Property / parameter keys
+	public static final String ENABLED = "load.enabled";
+	public static final String USERS = "load.users";
+	public static final String RPS = "load.rps";
+	public static final String RAMP_UP_SECONDS = "load.rampUpSeconds";
+	public static final String STEADY_SECONDS = "load.steadySeconds";
+	public static final String RAMP_DOWN_SECONDS = "load.rampDownSeconds";
+	public static final String THINK_TIME_MILLIS = "load.thinkTimeMillis";
+	public static final String MAX_THREADS = "load.maxThreads";
+	public static final String MAX_ERROR_RATE = "load.maxErrorRate";
+
+	private boolean enabled;
+	private int users = 10;
+	private volatile double rps; // can change while a run is going (config reload)
+	private long rampUpSeconds = 10;
+	private long steadySeconds = 60;
+	private long rampDownSeconds = 10;
+	private long thinkTimeMillis;
+	private int maxThreads = 200;
+	private double maxErrorRate = 0.01;
+
+	/**
+	 * Resolve the profile from a configuration snapshot
+	 * 
+	 * @param config - Current configuration (BaseTest.config())
+	 * @return LoadProfile
+	 */
+	public static LoadProfile resolve(TestConfig config) {
+		LoadProfile profile = new LoadProfile();
+		profile.setEnabled(Boolean.parseBoolean(value(config, ENABLED, "false")));
+		profile.setUsers(Integer.parseInt(value(config, USERS, String.valueOf(profile.users))));
+		profile.setRps(Double.parseDouble(value(config, RPS, "0")));
+		profile.setRampUpSeconds(Long.parseLong(value(config, RAMP_UP_SECONDS, String.valueOf(profile.rampUpSeconds))));
+		profile.setSteadySeconds(Long.parseLong(value(config, STEADY_SECONDS, String.valueOf(profile.steadySeconds))));
+		profile.setRampDownSeconds(
+				Long.parseLong(value(config, RAMP_DOWN_SECONDS, String.valueOf(profile.rampDownSeconds))));
+		profile.setThinkTimeMillis(Long.parseLong(value(config, THINK_TIME_MILLIS, "0")));
+		profile.setMaxThreads(Integer.parseInt(value(config, MAX_THREADS, String.valueOf(profile.maxThreads))));
+		profile.setMaxErrorRate(
+				Double.parseDouble(value(config, MAX_ERROR_RATE, String.valueOf(profile.maxErrorRate))));
+		return profile;
+	}
+
+	private static String value(TestConfig config, String key, String defaultValue) {
+		String value = config.get(key);
+		return value != null && !value.trim().isEmpty() ? value.trim() : defaultValue;
+	}
+
+	/**
+	 * True when a target rate is set (open model), false for virtual users
+	 */
+	public boolean isRateBased() {
+		return rps > 0;
+	}
+
+	/**
+	 * Total run time in seconds (ramp-up + steady + ramp-down)
+	 */
+	public long getTotalSeconds() {
+		return rampUpSeconds + steadySeconds + rampDownSeconds;
+	}
+
+	// ============ GETTERS AND SETTERS ============
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getUsers() {
+		return users;
+	}
+
+	public void setUsers(int users) {
+		this.users = users;
+	}
+
+	public double getRps() {
+		return rps;
+	}
+
+	public void setRps(double rps) {
+		this.rps = rps;
+	}
+
+	public long getRampUpSeconds() {
+		return rampUpSeconds;
+	}
+
+	public void setRampUpSeconds(long rampUpSeconds) {
+		this.rampUpSeconds = rampUpSeconds;
+	}
+
+	public long getSteadySeconds() {
+		return steadySeconds;
+	}
+
+	public void setSteadySeconds(long steadySeconds) {
+		this.steadySeconds = steadySeconds;
+	}
+
+	public long getRampDownSeconds() {
+		return rampDownSeconds;
+	}
+
+	public void setRampDownSeconds(long rampDownSeconds) {
+		this.rampDownSeconds = rampDownSeconds;
+	}
+
+	public long getThinkTimeMillis() {
+		return thinkTimeMillis;
+	}
+
+	public void setThinkTimeMillis(long thinkTimeMillis) {
+		this.thinkTimeMillis = thinkTimeMillis;
+	}
+
+	/**
+	 * Upper bound on worker threads in rate mode
+	 */
+	public int getMaxThreads() {
+		return maxThreads;
+	}
+
+	public void setMaxThreads(int maxThreads) {
+		this.maxThreads = maxThreads;
+	}
+
+	/**
+	 * Error rate (0..1) above which the load run is reported as failed
+	 */
+	public double getMaxErrorRate() {
+		return maxErrorRate;
+	}
+
+	public void setMaxErrorRate(double maxErrorRate) {
+		this.maxErrorRate = maxErrorRate;
+	}
+
+	@Override
+	public String toString() {
+		String shape = isRateBased() ? "rps=" + rps : "users=" + users;
+		return "LoadProfile{" + shape + ", rampUp=" + rampUpSeconds + "s, steady=" + steadySeconds + "s, rampDown="
+				+ rampDownSeconds + "s}";
+	}
+}
@@ -0,0 +1,130 @@
+package com.qa.load;
+
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * LoadReport - Outcome of one load run: throughput, error rate and latency
+ * percentiles.
+ */
+public class LoadReport {
+
+	static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+	private final String name;
+	private final LoadProfile profile;
+	private final long requests;
+	private final long errors;
+	private final long missed;
+	private final long steadyRequests;
+	private final long durationNanos;
+	private final Histogram latencies;
+	private final String firstError;
+
+	LoadReport(String name, LoadProfile profile, long requests, long errors, long missed, long steadyRequests,
+			long durationNanos, Histogram latencies, String firstError) {
+		this.name = name;
+		this.profile = profile;
+		this.requests = requests;
+		this.errors = errors;
+		this.missed = missed;
+		this.steadyRequests = steadyRequests;
+		this.durationNanos = durationNanos;
+		this.latencies = latencies;
+		this.firstError = firstError;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public LoadProfile getProfile() {
+		return profile;
+	}
+
+	/**
+	 * Completed scenario iterations (successful and failed)
+	 */
+	public long getRequests() {
+		return requests;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	/**
+	 * Iterations the rate scheduler could not start because every worker was busy
+	 */
+	public long getMissed() {
+		return missed;
+	}
+
+	public double getErrorRate() {
+		return requests == 0 ? 0 : (double) errors / requests;
+	}
+
+	/**
+	 * True when the error rate is above the profile's load.maxErrorRate, i.e.
+	 * the load run failed
+	 */
+	public boolean isErrorRateExceeded() {
+		return getErrorRate() > profile.getMaxErrorRate();
+	}
+
+	/**
+	 * Iterations per second over the whole run
+	 */
+	public double getThroughput() {
+		return durationNanos == 0 ? 0 : requests / (durationNanos / 1e9);
+	}
+
+	/**
+	 * Iterations per second during the steady-state phase only
+	 */
+	public double getSteadyThroughput() {
+		long steadySeconds = profile.getSteadySeconds();
+		return steadySeconds == 0 ? getThroughput() : (double) steadyRequests / steadySeconds;
+	}
+
+	/**
+	 * Latency percentile in milliseconds
+	 * 
+	 * @param percentile - 0..100
+	 * @return latency in ms
+	 */
+	public double getPercentileMillis(double percentile) {
+		return latencies.getValueAtPercentile(percentile) / 1e6;
+	}
+
+	/**
+	 * Full latency distribution (nanoseconds)
+	 */
+	public Histogram getLatencies() {
+		return latencies;
+	}
+
+	public String getFirstError() {
+		return firstError;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Load report: ").append(name).append('\n');
+		sb.append("  profile        : ").append(profile).append('\n');
+		sb.append(String.format("  duration       : %.1f s%n", durationNanos / 1e9));
+		sb.append("  requests       : ").append(requests).append(" (missed ").append(missed).append(")\n");
+		sb.append(String.format("  throughput     : %.1f req/s (steady %.1f req/s)%n", getThroughput(),
+				getSteadyThroughput()));
+		sb.append(String.format("  error rate     : %.3f%% (%d errors)%n", getErrorRate() * 100, errors));
+		sb.append(String.format("  latency ms     : p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f",
+				getPercentileMillis(50), getPercentileMillis(90), getPercentileMillis(99), getPercentileMillis(99.9),
+				getPercentileMillis(100)));
+		if (firstError != null) {
+			sb.append("\n  first error    : ").append(firstError);
+		}
+		return sb.toString();
+	}
+}
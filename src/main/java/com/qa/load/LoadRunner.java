@@ -0,0 +1,221 @@
+package com.qa.load;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Recorder;
+import org.apache.log4j.Logger;
+
+import com.qa.util.VirtualThreads;
+
+/**
+ * LoadRunner - Drives a Scenario according to a LoadProfile and collects a
+ * LoadReport.
+ *
+ * In rate mode latency is measured from the intended start time of each
+ * iteration, so a slow server shows up as higher latency instead of silently
+ * lowering the request rate (coordinated omission).
+ */
+public class LoadRunner {
+
+	private static final Logger logger = Logger.getLogger(LoadRunner.class);
+
+	private final String name;
+	private final LoadProfile profile;
+	private final ScenarioFactory factory;
+
+	// Run state
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder missed = new LongAdder();
+	private final LongAdder steadyRequests = new LongAdder();
+	private final AtomicReference<String> firstError = new AtomicReference<>();
+	private final Recorder latencies = new Recorder(1, LoadReport.HIGHEST_TRACKABLE_NANOS, 2);
+
+	private long startNanos;
+	private long steadyStartNanos;
+	private long steadyEndNanos;
+	private long endNanos;
+
+	public LoadRunner(String name, LoadProfile profile, ScenarioFactory factory) {
+		this.name = name;
+		this.profile = profile;
+		this.factory = factory;
+	}
+
+	/**
+	 * Run the full ramp-up / steady / ramp-down cycle and block until done
+	 *
+	 * @return LoadReport
+	 * @throws InterruptedException
+	 */
+	public LoadReport run() throws InterruptedException {
+		logger.info("Starting load run '" + name + "' with " + profile);
+
+		startNanos = System.nanoTime();
+		steadyStartNanos = startNanos + TimeUnit.SECONDS.toNanos(profile.getRampUpSeconds());
+		steadyEndNanos = steadyStartNanos + TimeUnit.SECONDS.toNanos(profile.getSteadySeconds());
+		endNanos = steadyEndNanos + TimeUnit.SECONDS.toNanos(profile.getRampDownSeconds());
+
+		if (profile.isRateBased()) {
+			runOpenModel();
+		} else {
+			runClosedModel();
+		}
+
+		long duration = System.nanoTime() - startNanos;
+		LoadReport report = new LoadReport(name, profile, requests.sum(), errors.sum(), missed.sum(),
+				steadyRequests.sum(), duration, latencies.getIntervalHistogram(), firstError.get());
+		logger.info(report.toString());
+		return report;
+	}
+
+	/**
+	 * Fixed number of virtual users, started and stopped linearly across the
+	 * ramp phases
+	 */
+	private void runClosedModel() throws InterruptedException {
+		int users = Math.max(1, profile.getUsers());
+		long rampUp = steadyStartNanos - startNanos;
+		long rampDown = endNanos - steadyEndNanos;
+
+		ExecutorService pool = Executors.newFixedThreadPool(users, threadFactory("load-vu-"));
+		for (int i = 0; i < users; i++) {
+			long startAt = startNanos + rampUp * i / users;
+			long stopAt = steadyEndNanos + rampDown * (users - i) / users;
+			pool.execute(() -> virtualUser(startAt, stopAt));
+		}
+		pool.shutdown();
+		awaitEnd(pool);
+	}
+
+	private void virtualUser(long startAt, long stopAt) {
+		Scenario scenario;
+		try {
+			scenario = factory.create();
+		} catch (Throwable t) {
+			recordError(t);
+			return;
+		}
+
+		parkUntil(startAt);
+		while (System.nanoTime() < stopAt && !Thread.currentThread().isInterrupted()) {
+			long begin = System.nanoTime();
+			iterate(scenario, begin);
+			if (profile.getThinkTimeMillis() > 0) {
+				parkUntil(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(profile.getThinkTimeMillis()));
+			}
+		}
+	}
+
+	/**
+	 * Iterations are started at the target rate (ramped linearly) regardless of
+	 * how many are still in flight, up to maxThreads concurrent workers
+	 */
+	private void runOpenModel() throws InterruptedException {
+		ThreadLocal<Scenario> scenarios = new ThreadLocal<>();
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(0, Math.max(1, profile.getMaxThreads()), 30,
+				TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), threadFactory("load-worker-"));
+
+		long next = startNanos;
+		while (next < endNanos && !Thread.currentThread().isInterrupted()) {
+			parkUntil(next);
+			final long intendedStart = next;
+			try {
+				pool.execute(() -> {
+					Scenario scenario = scenarios.get();
+					if (scenario == null) {
+						try {
+							scenario = factory.create();
+						} catch (Throwable t) {
+							recordError(t);
+							return;
+						}
+						scenarios.set(scenario);
+					}
+					iterate(scenario, intendedStart);
+				});
+			} catch (RejectedExecutionException e) {
+				missed.increment();
+			}
+			next += (long) (1e9 / rateAt(next));
+		}
+		pool.shutdown();
+		awaitEnd(pool);
+	}
+
+	/**
+	 * Target rate at a point in time, following the ramp shape
+	 */
+	private double rateAt(long now) {
+		double target = profile.getRps();
+		double floor = Math.min(target, 1.0);
+		double rate;
+		if (now < steadyStartNanos) {
+			rate = target * (now - startNanos) / (double) (steadyStartNanos - startNanos);
+		} else if (now < steadyEndNanos) {
+			rate = target;
+		} else {
+			rate = target * (endNanos - now) / (double) (endNanos - steadyEndNanos);
+		}
+		return Math.max(floor, rate);
+	}
+
+	private void iterate(Scenario scenario, long startedAt) {
+		try {
+			scenario.execute();
+		} catch (Throwable t) {
+			recordError(t);
+		}
+		long end = System.nanoTime();
+		latencies.recordValue(Math.min(end - startedAt, LoadReport.HIGHEST_TRACKABLE_NANOS));
+		requests.increment();
+		if (end >= steadyStartNanos && end < steadyEndNanos) {
+			steadyRequests.increment();
+		}
+	}
+
+	private void recordError(Throwable t) {
+		errors.increment();
+		Throwable cause = t.getCause() != null ? t.getCause() : t;
+		if (firstError.compareAndSet(null, cause.toString())) {
+			logger.warn("First error in load run '" + name + "': " + cause, cause);
+		}
+	}
+
+	private void awaitEnd(ExecutorService pool) throws InterruptedException {
+		long remaining = endNanos - System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+		if (!pool.awaitTermination(Math.max(0, remaining), TimeUnit.NANOSECONDS)) {
+			logger.warn("Load run '" + name + "' did not finish in time, interrupting workers");
+			pool.shutdownNow();
+		}
+	}
+
+	private static void parkUntil(long deadline) {
+		long remaining;
+		while ((remaining = deadline - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(remaining);
+			if (Thread.currentThread().isInterrupted()) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Virtual threads when enabled (-Dthreads.virtual=true on JDK 21+), so
+	 * thousands of users or in-flight iterations cost no more than their
+	 * sockets; daemon platform threads otherwise
+	 */
+	private static ThreadFactory threadFactory(String prefix) {
+		return VirtualThreads.isEnabled() ? VirtualThreads.threadFactory(prefix)
+				: VirtualThreads.platformThreadFactory(prefix);
+	}
+}
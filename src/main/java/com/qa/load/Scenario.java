@@ -0,0 +1,10 @@
+package com.qa.load;
+
+/**
+ * Scenario - One iteration of a business flow driven by the LoadRunner. An
+ * iteration counts as an error if it throws (including AssertionError).
+ */
+public interface Scenario {
+
+	void execute() throws Throwable;
+}
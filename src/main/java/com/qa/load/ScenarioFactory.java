@@ -0,0 +1,10 @@
+package com.qa.load;
+
+/**
+ * ScenarioFactory - Creates one Scenario per virtual user / worker thread, so
+ * scenarios holding state in fields are never shared between threads.
+ */
+public interface ScenarioFactory {
+
+	Scenario create() throws Exception;
+}
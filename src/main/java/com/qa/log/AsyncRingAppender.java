@@ -0,0 +1,326 @@
+package com.qa.log;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Appender;
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.helpers.AppenderAttachableImpl;
+import org.apache.log4j.helpers.LogLog;
+import org.apache.log4j.spi.AppenderAttachable;
+import org.apache.log4j.spi.Filter;
+import org.apache.log4j.spi.LoggingEvent;
+
+import com.qa.util.VirtualThreads;
+
+/**
+ * AsyncRingAppender - Hands log events to the real appenders (console, rolling
+ * file, ...) on a background thread, through a bounded ring buffer.
+ *
+ * The logging thread only renders the message and puts the event in the
+ * buffer, so request threads never wait on console or disk I/O. What happens
+ * when the buffer is full depends on the drop policy:
+ *
+ * DROP - the event is dropped (logging never blocks)
+ * DROP_BELOW_WARN - INFO/DEBUG are dropped, WARN and above wait for space
+ * (default, so failures are never lost in a burst)
+ * BLOCK - every event waits for space (nothing is lost)
+ *
+ * Dropped events are counted and reported by a WARN line once the buffer has
+ * room again. Location info (%L, %M, %F) is not captured; it would require a
+ * stack trace per event.
+ *
+ * log4j 1.2 properties files cannot nest appenders, so use wrap() to move the
+ * configured appenders of a logger behind an AsyncRingAppender (see
+ * BaseTest.configureLogging). In log4j.xml it takes appender-ref elements.
+ */
+public class AsyncRingAppender extends AppenderSkeleton implements AppenderAttachable {
+
+	public enum DropPolicy {
+		DROP, DROP_BELOW_WARN, BLOCK
+	}
+
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+	// Wrapped appenders not closed yet, closed by one shutdown hook at exit
+	private static final Set<AsyncRingAppender> OPEN = ConcurrentHashMap.newKeySet();
+	private static boolean shutdownHookAdded;
+
+	private final AppenderAttachableImpl appenders = new AppenderAttachableImpl();
+	private final AtomicLong dropped = new AtomicLong();
+
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
+	private DropPolicy dropPolicy = DropPolicy.DROP_BELOW_WARN;
+	private volatile BlockingQueue<LoggingEvent> buffer;
+	private Thread dispatcher;
+
+	/**
+	 * Move all appenders of the logger behind a new AsyncRingAppender. Unless
+	 * it is closed before, it is closed (flushing the buffer) when the JVM
+	 * exits.
+	 *
+	 * @param logger     - Logger whose appenders are wrapped (usually root)
+	 * @param bufferSize - Events buffered before the drop policy applies
+	 * @param dropPolicy - DROP, DROP_BELOW_WARN or BLOCK
+	 * @return the attached AsyncRingAppender
+	 */
+	public static AsyncRingAppender wrap(Logger logger, int bufferSize, DropPolicy dropPolicy) {
+		AsyncRingAppender async = new AsyncRingAppender();
+		async.setName("async");
+		async.setBufferSize(bufferSize);
+		async.setDropPolicy(dropPolicy.name());
+		async.activateOptions();
+
+		List<Appender> existing = new ArrayList<>();
+		for (Enumeration<?> e = logger.getAllAppenders(); e.hasMoreElements();) {
+			existing.add((Appender) e.nextElement());
+		}
+		for (Appender appender : existing) {
+			logger.removeAppender(appender);
+			async.addAppender(appender);
+		}
+		logger.addAppender(async);
+		closeOnExit(async);
+		return async;
+	}
+
+	/**
+	 * The dispatcher is a daemon thread: deliver what is still buffered at exit.
+	 * One hook for all wrapped appenders; close() takes an appender off the list.
+	 */
+	private static synchronized void closeOnExit(AsyncRingAppender async) {
+		OPEN.add(async);
+		if (!shutdownHookAdded) {
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				for (AsyncRingAppender open : OPEN.toArray(new AsyncRingAppender[0])) {
+					open.close();
+				}
+			}, "log4j-async-shutdown"));
+			shutdownHookAdded = true;
+		}
+	}
+
+	// ============ OPTIONS ============
+
+	public void setBufferSize(int bufferSize) {
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("BufferSize must be > 0: " + bufferSize);
+		}
+		this.bufferSize = bufferSize;
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	public void setDropPolicy(String dropPolicy) {
+		this.dropPolicy = DropPolicy.valueOf(dropPolicy.trim().toUpperCase());
+	}
+
+	public String getDropPolicy() {
+		return dropPolicy.name();
+	}
+
+	/**
+	 * (Re)create the buffer and dispatcher thread with the current options.
+	 * Called by the configurators, or on the first event otherwise.
+	 */
+	@Override
+	public synchronized void activateOptions() {
+		if (buffer != null && buffer.remainingCapacity() + buffer.size() == bufferSize) {
+			return;
+		}
+		stopDispatcher();
+		BlockingQueue<LoggingEvent> queue = new ArrayBlockingQueue<>(bufferSize);
+		dispatcher = VirtualThreads.platformThreadFactory("log4j-async-").newThread(() -> dispatch(queue));
+		dispatcher.start();
+		buffer = queue;
+	}
+
+	// ============ LOGGING ============
+
+	// AppenderSkeleton.doAppend is synchronized; this override keeps the
+	// threshold and filter checks without serializing the logging threads
+	@Override
+	public void doAppend(LoggingEvent event) {
+		if (closed || !isAsSevereAsThreshold(event.getLevel())) {
+			return;
+		}
+		if (getFilter() != null && !accepts(event)) {
+			return;
+		}
+		append(event);
+	}
+
+	private boolean accepts(LoggingEvent event) {
+		for (Filter f = getFilter(); f != null; f = f.getNext()) {
+			switch (f.decide(event)) {
+			case Filter.DENY:
+				return false;
+			case Filter.ACCEPT:
+				return true;
+			default:
+			}
+		}
+		return true;
+	}
+
+	@Override
+	protected void append(LoggingEvent event) {
+		// Capture everything that depends on the calling thread before handing off
+		event.getNDC();
+		event.getThreadName();
+		event.getMDCCopy();
+		event.getRenderedMessage();
+		event.getThrowableStrRep();
+
+		BlockingQueue<LoggingEvent> queue = buffer;
+		if (queue == null) {
+			activateOptions();
+			queue = buffer;
+		}
+		if (queue.offer(event)) {
+			return;
+		}
+		boolean wait = dropPolicy == DropPolicy.BLOCK
+				|| (dropPolicy == DropPolicy.DROP_BELOW_WARN && event.getLevel().isGreaterOrEqual(Level.WARN));
+		if (wait) {
+			try {
+				queue.put(event);
+				return;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		dropped.incrementAndGet();
+	}
+
+	private void dispatch(BlockingQueue<LoggingEvent> queue) {
+		List<LoggingEvent> batch = new ArrayList<>(256);
+		while (true) {
+			try {
+				LoggingEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					if (closed) {
+						break;
+					}
+					continue;
+				}
+				batch.add(first);
+				queue.drainTo(batch, 255);
+			} catch (InterruptedException e) {
+				queue.drainTo(batch);
+				deliver(batch);
+				break;
+			}
+			deliver(batch);
+			batch.clear();
+		}
+	}
+
+	private void deliver(List<LoggingEvent> batch) {
+		for (LoggingEvent event : batch) {
+			appenders.appendLoopOnAppenders(event);
+		}
+		long lost = dropped.getAndSet(0);
+		if (lost > 0) {
+			appenders.appendLoopOnAppenders(new LoggingEvent(AsyncRingAppender.class.getName(),
+					Logger.getLogger(AsyncRingAppender.class), Level.WARN,
+					"Log buffer full, dropped " + lost + " events", null));
+		}
+	}
+
+	/**
+	 * Events dropped since the last drop report
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	// ============ LIFECYCLE ============
+
+	private void stopDispatcher() {
+		Thread thread = dispatcher;
+		if (thread == null) {
+			return;
+		}
+		thread.interrupt();
+		try {
+			thread.join(5000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		dispatcher = null;
+	}
+
+	/**
+	 * Deliver the buffered events, then close the wrapped appenders
+	 */
+	@Override
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		OPEN.remove(this);
+		stopDispatcher();
+		for (Enumeration<?> e = appenders.getAllAppenders(); e != null && e.hasMoreElements();) {
+			((Appender) e.nextElement()).close();
+		}
+	}
+
+	@Override
+	public boolean requiresLayout() {
+		return false;
+	}
+
+	// ============ AppenderAttachable ============
+
+	@Override
+	public void addAppender(Appender newAppender) {
+		if (newAppender == this) {
+			LogLog.warn("AsyncRingAppender cannot be attached to itself");
+			return;
+		}
+		appenders.addAppender(newAppender);
+	}
+
+	@Override
+	public Enumeration<?> getAllAppenders() {
+		return appenders.getAllAppenders();
+	}
+
+	@Override
+	public Appender getAppender(String name) {
+		return appenders.getAppender(name);
+	}
+
+	@Override
+	public boolean isAttached(Appender appender) {
+		return appenders.isAttached(appender);
+	}
+
+	@Override
+	public void removeAllAppenders() {
+		appenders.removeAllAppenders();
+	}
+
+	@Override
+	public void removeAppender(Appender appender) {
+		appenders.removeAppender(appender);
+	}
+
+	@Override
+	public void removeAppender(String name) {
+		appenders.removeAppender(name);
+	}
+}
@@ -0,0 +1,62 @@
+package com.qa.log;
+
+/**
+ * LogPayload - Keeps request and response bodies in log lines short.
+ *
+ * Bodies are cut to log.payload.maxChars characters (system property or
+ * log4j.properties, default 1024) with a marker giving the full length. Only
+ * call it inside a level guard, so nothing is copied when the level is off:
+ *
+ * if (logger.isDebugEnabled()) {
+ *     logger.debug("Request body: " + LogPayload.truncate(body));
+ * }
+ */
+public final class LogPayload {
+
+	public static final String MAX_CHARS_PROPERTY = "log.payload.maxChars";
+
+	public static final int DEFAULT_MAX_CHARS = 1024;
+
+	private static volatile int maxChars = Integer.getInteger(MAX_CHARS_PROPERTY, DEFAULT_MAX_CHARS);
+
+	private LogPayload() {
+	}
+
+	/**
+	 * Cut text to the configured limit
+	 *
+	 * @param text - Payload (may be null)
+	 * @return text, or its first maxChars characters and a length marker
+	 */
+	public static String truncate(CharSequence text) {
+		return truncate(text, maxChars);
+	}
+
+	/**
+	 * Cut text to the given limit
+	 *
+	 * @param text - Payload (may be null)
+	 * @param max  - Max characters kept
+	 * @return text, or its first max characters and a length marker
+	 */
+	public static String truncate(CharSequence text, int max) {
+		if (text == null) {
+			return "null";
+		}
+		if (text.length() <= max) {
+			return text.toString();
+		}
+		return text.subSequence(0, max) + "...[truncated, " + text.length() + " chars]";
+	}
+
+	public static int getMaxChars() {
+		return maxChars;
+	}
+
+	public static void setMaxChars(int max) {
+		if (max < 0) {
+			throw new IllegalArgumentException(MAX_CHARS_PROPERTY + " must be >= 0: " + max);
+		}
+		maxChars = max;
+	}
+}
@@ -0,0 +1,161 @@
+package com.qa.mock;
+
+import java.util.Properties;
+
+/**
+ * MockServerConfig - Settings for the embedded MockUserServer. Values can be
+ * loaded from config.properties using the "mock.*" keys, anything missing falls
+ * back to the defaults below.
+ */
+public class MockServerConfig {
+
+	// Property keys (config.properties)
+	public static final String ENABLED = "mock.server";
+	public static final String PORT = "mock.port";
+	public static final String THREADS = "mock.threads";
+	public static final String LATENCY_MILLIS = "mock.latencyMillis";
+	public static final String LATENCY_JITTER_MILLIS = "mock.latencyJitterMillis";
+	public static final String ERROR_RATE = "mock.errorRate";
+	public static final String ERROR_STATUS = "mock.errorStatus";
+	public static final String CACHE_MAX_AGE_SECONDS = "mock.cacheMaxAgeSeconds";
+	public static final String COMPRESS_MIN_BYTES = "mock.compressMinBytes";
+
+	private int port = 0;
+	private int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+	private long latencyMillis = 0;
+	private long latencyJitterMillis = 0;
+	private double errorRate = 0;
+	private int errorStatus = 500;
+	private int cacheMaxAgeSeconds = 60;
+	private int compressMinBytes = 512;
+
+	/**
+	 * Build a config from properties, using defaults for missing keys
+	 *
+	 * @param prop - Loaded configuration (may be null)
+	 * @return MockServerConfig
+	 */
+	public static MockServerConfig fromProperties(Properties prop) {
+		MockServerConfig config = new MockServerConfig();
+		if (prop == null) {
+			return config;
+		}
+		config.setPort(Integer.parseInt(prop.getProperty(PORT, String.valueOf(config.port)).trim()));
+		config.setThreads(Integer.parseInt(prop.getProperty(THREADS, String.valueOf(config.threads)).trim()));
+		config.setLatencyMillis(
+				Long.parseLong(prop.getProperty(LATENCY_MILLIS, String.valueOf(config.latencyMillis)).trim()));
+		config.setLatencyJitterMillis(Long.parseLong(
+				prop.getProperty(LATENCY_JITTER_MILLIS, String.valueOf(config.latencyJitterMillis)).trim()));
+		config.setErrorRate(Double.parseDouble(prop.getProperty(ERROR_RATE, String.valueOf(config.errorRate)).trim()));
+		config.setErrorStatus(
+				Integer.parseInt(prop.getProperty(ERROR_STATUS, String.valueOf(config.errorStatus)).trim()));
+		config.setCacheMaxAgeSeconds(Integer.parseInt(
+				prop.getProperty(CACHE_MAX_AGE_SECONDS, String.valueOf(config.cacheMaxAgeSeconds)).trim()));
+		config.setCompressMinBytes(Integer
+				.parseInt(prop.getProperty(COMPRESS_MIN_BYTES, String.valueOf(config.compressMinBytes)).trim()));
+		return config;
+	}
+
+	// ============ GETTERS AND SETTERS ============
+
+	/**
+	 * Listen port on 127.0.0.1, 0 = any free port
+	 */
+	public int getPort() {
+		return port;
+	}
+
+	public void setPort(int port) {
+		this.port = port;
+	}
+
+	/**
+	 * Request handler threads
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	public void setThreads(int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException(THREADS + " must be > 0: " + threads);
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * Fixed delay added to every response
+	 */
+	public long getLatencyMillis() {
+		return latencyMillis;
+	}
+
+	public void setLatencyMillis(long latencyMillis) {
+		this.latencyMillis = latencyMillis;
+	}
+
+	/**
+	 * Random extra delay, uniform in [0, jitter]
+	 */
+	public long getLatencyJitterMillis() {
+		return latencyJitterMillis;
+	}
+
+	public void setLatencyJitterMillis(long latencyJitterMillis) {
+		this.latencyJitterMillis = latencyJitterMillis;
+	}
+
+	/**
+	 * Fraction of requests (0.0 - 1.0) answered with errorStatus
+	 */
+	public double getErrorRate() {
+		return errorRate;
+	}
+
+	public void setErrorRate(double errorRate) {
+		if (errorRate < 0 || errorRate > 1) {
+			throw new IllegalArgumentException(ERROR_RATE + " must be between 0 and 1: " + errorRate);
+		}
+		this.errorRate = errorRate;
+	}
+
+	public int getErrorStatus() {
+		return errorStatus;
+	}
+
+	public void setErrorStatus(int errorStatus) {
+		this.errorStatus = errorStatus;
+	}
+
+	/**
+	 * Cache-Control max-age sent with GET responses (0 = no-cache, revalidate
+	 * every time)
+	 */
+	public int getCacheMaxAgeSeconds() {
+		return cacheMaxAgeSeconds;
+	}
+
+	public void setCacheMaxAgeSeconds(int cacheMaxAgeSeconds) {
+		this.cacheMaxAgeSeconds = cacheMaxAgeSeconds;
+	}
+
+	/**
+	 * Responses at least this large are gzipped for clients that accept it (-1 =
+	 * never)
+	 */
+	public int getCompressMinBytes() {
+		return compressMinBytes;
+	}
+
+	public void setCompressMinBytes(int compressMinBytes) {
+		this.compressMinBytes = compressMinBytes;
+	}
+
+	@Override
+	public String toString() {
+		return "MockServerConfig{port=" + port + ", threads=" + threads + ", latencyMillis=" + latencyMillis
+				+ ", latencyJitterMillis=" + latencyJitterMillis + ", errorRate=" + errorRate + ", errorStatus="
+				+ errorStatus + ", cacheMaxAgeSeconds=" + cacheMaxAgeSeconds + ", compressMinBytes="
+				+ compressMinBytes + "}";
+	}
+}
@@ -0,0 +1,542 @@
+package com.qa.mock;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.log4j.Logger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.qa.data.JsonCodecs;
+import com.qa.util.VirtualThreads;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * MockUserServer - Embedded stub of the reqres.in users API, so suites run
+ * without network access and timings measure our client, not the internet.
+ *
+ * GET    /api/users?page=1&per_page=6 - page of users
+ * GET    /api/users/{id}              - {"data":{...}} or 404 {}
+ * POST   /api/users                   - 201, echoes the body with id and createdAt
+ * PUT    /api/users/{id}              - 200, echoes the body with updatedAt
+ * DELETE /api/users/{id}              - 204
+ *
+ * Like reqres.in, the 12 seeded users are read-only: PUT and DELETE on them
+ * answer normally but change nothing, so parallel tests on the same id stay
+ * independent. Users created by POST are stored and can be read, updated and
+ * deleted (the latest MAX_CREATED_USERS of them). POST and PUT without a
+ * name are rejected with 400.
+ *
+ * GET responses carry an ETag and Cache-Control: max-age (mock.cacheMaxAgeSeconds)
+ * like reqres.in; a matching If-None-Match is answered with 304.
+ *
+ * Bodies of mock.compressMinBytes or more are gzipped when the client sends
+ * Accept-Encoding: gzip, and gzipped request bodies (Content-Encoding: gzip)
+ * are accepted.
+ *
+ * Fault injection: every response can be delayed (mock.latencyMillis plus up
+ * to mock.latencyJitterMillis) and a fraction replaced by an error
+ * (mock.errorRate, mock.errorStatus). A single request can force them with
+ * the X-Mock-Latency-Millis and X-Mock-Status headers. Delays are scheduled,
+ * not slept, so slow responses do not hold handler threads.
+ *
+ * Run the JVM with -Dsun.net.httpserver.nodelay=true (set for Surefire in the
+ * pom), otherwise Nagle + delayed ACK adds ~40 ms to small responses. It is a
+ * JVM-wide HttpServer setting, so the server does not set it itself.
+ */
+public class MockUserServer implements AutoCloseable {
+
+	private static final Logger logger = Logger.getLogger(MockUserServer.class);
+
+	public static final String DEFAULT_RESOURCE_PATH = "/api/users";
+
+	/**
+	 * Request header that forces the response status (error injection)
+	 */
+	public static final String STATUS_HEADER = "X-Mock-Status";
+
+	/**
+	 * Request header that delays the response by the given milliseconds
+	 */
+	public static final String LATENCY_HEADER = "X-Mock-Latency-Millis";
+
+	public static final int DEFAULT_PER_PAGE = 6;
+
+	/**
+	 * Created users kept; older ones are forgotten so long runs stay bounded
+	 */
+	public static final int MAX_CREATED_USERS = 10000;
+
+	private static final String[][] SEED_USERS = { { "George", "Bluth" }, { "Janet", "Weaver" },
+			{ "Emma", "Wong" }, { "Eve", "Holt" }, { "Charles", "Morris" }, { "Tracey", "Ramos" },
+			{ "Michael", "Lawson" }, { "Lindsay", "Ferguson" }, { "Tobias", "Funke" }, { "Byron", "Fields" },
+			{ "George", "Edwards" }, { "Rachel", "Howell" } };
+
+	private static final byte[] EMPTY_OBJECT = { '{', '}' };
+
+	private final MockServerConfig config;
+	private final String resourcePath;
+
+	// Seeded users and their GET responses, rendered once
+	private final List<Map<String, Object>> seedUsers = new ArrayList<>();
+	private final Map<Integer, byte[]> seedResponses = new ConcurrentHashMap<>();
+	private final Map<String, byte[]> pageResponses = new ConcurrentHashMap<>();
+
+	// Users created by POST
+	private final Map<Integer, Map<String, Object>> createdUsers = new ConcurrentHashMap<>();
+	private final AtomicInteger nextId = new AtomicInteger(SEED_USERS.length + 1);
+
+	private final AtomicLong requestCount = new AtomicLong();
+
+	// Requests received and not yet answered, and the most seen at once
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger peakInFlight = new AtomicInteger();
+
+	private HttpServer server;
+	private ExecutorService handlers;
+	private ScheduledExecutorService delays;
+
+	public MockUserServer() {
+		this(new MockServerConfig(), DEFAULT_RESOURCE_PATH);
+	}
+
+	/**
+	 * @param config       - Port, threads, latency and error injection
+	 * @param resourcePath - Path of the users resource, e.g. /api/users
+	 */
+	public MockUserServer(MockServerConfig config, String resourcePath) {
+		this.config = config;
+		this.resourcePath = resourcePath.endsWith("/") ? resourcePath.substring(0, resourcePath.length() - 1)
+				: resourcePath;
+		for (int i = 0; i < SEED_USERS.length; i++) {
+			int id = i + 1;
+			String first = SEED_USERS[i][0];
+			String last = SEED_USERS[i][1];
+			Map<String, Object> user = new LinkedHashMap<>();
+			user.put("id", id);
+			user.put("email", first.toLowerCase() + "." + last.toLowerCase() + "@reqres.in");
+			user.put("first_name", first);
+			user.put("last_name", last);
+			user.put("avatar", "https://reqres.in/img/faces/" + id + "-image.jpg");
+			seedUsers.add(Collections.unmodifiableMap(user));
+			seedResponses.put(id, json(single(user)));
+		}
+	}
+
+	// ============ LIFECYCLE ============
+
+	/**
+	 * Start listening on 127.0.0.1
+	 *
+	 * @return this server
+	 * @throws IOException if the port cannot be bound
+	 */
+	public synchronized MockUserServer start() throws IOException {
+		if (server != null) {
+			return this;
+		}
+		handlers = VirtualThreads.isEnabled() ? VirtualThreads.newThreadPerTaskExecutor("mock-http-")
+				: Executors.newFixedThreadPool(config.getThreads(), VirtualThreads.platformThreadFactory("mock-http-"));
+		delays = Executors.newScheduledThreadPool(2, VirtualThreads.platformThreadFactory("mock-delay-"));
+
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), config.getPort()), 1024);
+		server.setExecutor(handlers);
+		server.createContext(resourcePath, this::handle);
+		server.start();
+		logger.info("Mock user server started at " + getResourceUrl() + " with " + config);
+		return this;
+	}
+
+	/**
+	 * Stop the server and its threads
+	 */
+	public synchronized void stop() {
+		if (server == null) {
+			return;
+		}
+		server.stop(0);
+		delays.shutdownNow();
+		handlers.shutdownNow();
+		server = null;
+		logger.info("Mock user server stopped after " + requestCount.get() + " requests");
+	}
+
+	@Override
+	public void close() {
+		stop();
+	}
+
+	/**
+	 * Service URL to use as baseURL, e.g. http://127.0.0.1:54321
+	 */
+	public String getBaseUrl() {
+		return "http://127.0.0.1:" + getPort();
+	}
+
+	/**
+	 * Full users resource URL, e.g. http://127.0.0.1:54321/api/users
+	 */
+	public String getResourceUrl() {
+		return getBaseUrl() + resourcePath;
+	}
+
+	public int getPort() {
+		if (server == null) {
+			throw new IllegalStateException("Mock server not started");
+		}
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Requests received since start
+	 */
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	/**
+	 * Most requests received and not yet answered at the same time, since start
+	 * or the last resetPeakInFlight()
+	 */
+	public int getPeakInFlight() {
+		return peakInFlight.get();
+	}
+
+	/**
+	 * Start measuring the peak from the requests in flight now
+	 */
+	public void resetPeakInFlight() {
+		peakInFlight.set(inFlight.get());
+	}
+
+	// ============ REQUEST HANDLING ============
+
+	private void handle(HttpExchange exchange) throws IOException {
+		requestCount.incrementAndGet();
+		peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+		byte[] body;
+		try (InputStream in = "gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))
+				? new GZIPInputStream(exchange.getRequestBody())
+				: exchange.getRequestBody()) {
+			body = in.readAllBytes();
+		} catch (IOException e) {
+			send(exchange, error(400, "Unreadable request body: " + e.getMessage()), false);
+			return;
+		}
+
+		MockResponse response;
+		try {
+			response = injectedError(exchange);
+			if (response == null) {
+				response = route(exchange.getRequestMethod(), exchange.getRequestURI(), body);
+				if ("GET".equals(exchange.getRequestMethod()) && response.status == 200) {
+					response = cacheable(exchange, response);
+				}
+			}
+		} catch (RuntimeException e) {
+			logger.error("Mock server failed on " + exchange.getRequestURI() + ": " + e.getMessage(), e);
+			response = error(500, "Internal mock error");
+		}
+
+		boolean gzip = response.body != null && config.getCompressMinBytes() >= 0
+				&& response.body.length >= config.getCompressMinBytes() && acceptsGzip(exchange);
+		long delay = delayMillis(exchange);
+		if (delay > 0) {
+			MockResponse delayed = response;
+			delays.schedule(() -> send(exchange, delayed, gzip), delay, TimeUnit.MILLISECONDS);
+		} else {
+			send(exchange, response, gzip);
+		}
+	}
+
+	/**
+	 * Add the validator, or answer 304 if the client already has this body
+	 */
+	private MockResponse cacheable(HttpExchange exchange, MockResponse response) {
+		CRC32 crc = new CRC32();
+		crc.update(response.body);
+		String etag = "\"" + Long.toHexString(crc.getValue()) + "-" + response.body.length + "\"";
+		String cacheControl = config.getCacheMaxAgeSeconds() > 0 ? "max-age=" + config.getCacheMaxAgeSeconds()
+				: "no-cache";
+		String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+		if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+			return new MockResponse(304, null, etag, cacheControl);
+		}
+		return new MockResponse(200, response.body, etag, cacheControl);
+	}
+
+	private static boolean acceptsGzip(HttpExchange exchange) {
+		String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+		if (accept == null) {
+			return false;
+		}
+		for (String coding : accept.split(",")) {
+			String name = coding.trim();
+			int params = name.indexOf(';');
+			if (params >= 0) {
+				if (name.substring(params).replace(" ", "").equals(";q=0")) {
+					continue;
+				}
+				name = name.substring(0, params).trim();
+			}
+			if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private MockResponse injectedError(HttpExchange exchange) {
+		String forced = exchange.getRequestHeaders().getFirst(STATUS_HEADER);
+		if (forced != null) {
+			int status = Integer.parseInt(forced.trim());
+			return status >= 400 ? error(status, "Injected status " + status) : null;
+		}
+		if (config.getErrorRate() > 0 && ThreadLocalRandom.current().nextDouble() < config.getErrorRate()) {
+			return error(config.getErrorStatus(), "Injected failure");
+		}
+		return null;
+	}
+
+	private long delayMillis(HttpExchange exchange) {
+		String forced = exchange.getRequestHeaders().getFirst(LATENCY_HEADER);
+		if (forced != null) {
+			return Long.parseLong(forced.trim());
+		}
+		long delay = config.getLatencyMillis();
+		if (config.getLatencyJitterMillis() > 0) {
+			delay += ThreadLocalRandom.current().nextLong(config.getLatencyJitterMillis() + 1);
+		}
+		return delay;
+	}
+
+	private MockResponse route(String method, URI uri, byte[] body) {
+		String rest = uri.getPath().substring(resourcePath.length());
+		if (rest.isEmpty() || "/".equals(rest)) {
+			switch (method) {
+			case "GET":
+				return list(uri.getQuery());
+			case "POST":
+				return create(body);
+			default:
+				return error(405, "Method not allowed");
+			}
+		}
+
+		int id;
+		try {
+			id = Integer.parseInt(rest.substring(1));
+		} catch (NumberFormatException e) {
+			return new MockResponse(404, EMPTY_OBJECT);
+		}
+		switch (method) {
+		case "GET":
+			return find(id);
+		case "PUT":
+		case "PATCH":
+			return update(id, body);
+		case "DELETE":
+			return delete(id);
+		default:
+			return error(405, "Method not allowed");
+		}
+	}
+
+	private MockResponse list(String query) {
+		int page = Math.max(1, queryInt(query, "page", 1));
+		int perPage = Math.max(1, queryInt(query, "per_page", DEFAULT_PER_PAGE));
+		byte[] body = pageResponses.computeIfAbsent(page + ":" + perPage, key -> {
+			int from = Math.min((page - 1) * perPage, seedUsers.size());
+			int to = Math.min(from + perPage, seedUsers.size());
+			Map<String, Object> response = new LinkedHashMap<>();
+			response.put("page", page);
+			response.put("per_page", perPage);
+			response.put("total", seedUsers.size());
+			response.put("total_pages", (seedUsers.size() + perPage - 1) / perPage);
+			response.put("data", seedUsers.subList(from, to));
+			return json(response);
+		});
+		return new MockResponse(200, body);
+	}
+
+	private MockResponse find(int id) {
+		byte[] seeded = seedResponses.get(id);
+		if (seeded != null) {
+			return new MockResponse(200, seeded);
+		}
+		Map<String, Object> created = createdUsers.get(id);
+		return created != null ? new MockResponse(200, json(single(created))) : new MockResponse(404, EMPTY_OBJECT);
+	}
+
+	private MockResponse create(byte[] body) {
+		Map<String, Object> fields = parseUser(body);
+		if (fields == null) {
+			return error(400, "Missing name");
+		}
+		int id = nextId.getAndIncrement();
+		fields.put("id", String.valueOf(id));
+		fields.put("createdAt", now());
+		createdUsers.put(id, fields);
+		createdUsers.remove(id - MAX_CREATED_USERS);
+		return new MockResponse(201, json(fields));
+	}
+
+	private MockResponse update(int id, byte[] body) {
+		boolean seeded = seedResponses.containsKey(id);
+		if (!seeded && !createdUsers.containsKey(id)) {
+			return new MockResponse(404, EMPTY_OBJECT);
+		}
+		Map<String, Object> fields = parseUser(body);
+		if (fields == null) {
+			return error(400, "Missing name");
+		}
+		fields.put("updatedAt", now());
+		if (!seeded) {
+			Map<String, Object> stored = new LinkedHashMap<>(fields);
+			stored.put("id", String.valueOf(id));
+			createdUsers.put(id, stored);
+		}
+		return new MockResponse(200, json(fields));
+	}
+
+	private MockResponse delete(int id) {
+		if (createdUsers.remove(id) != null || seedResponses.containsKey(id)) {
+			return new MockResponse(204, null);
+		}
+		return new MockResponse(404, EMPTY_OBJECT);
+	}
+
+	/**
+	 * Request body as a mutable map, or null if it is not JSON or has no name
+	 */
+	private static Map<String, Object> parseUser(byte[] body) {
+		Map<String, Object> fields;
+		try {
+			fields = JsonCodecs.reader(LinkedHashMap.class).readValue(body);
+		} catch (IOException e) {
+			return null;
+		}
+		Object name = fields != null ? fields.get("name") : null;
+		return name instanceof String && !((String) name).trim().isEmpty() ? fields : null;
+	}
+
+	private void send(HttpExchange exchange, MockResponse response, boolean gzip) {
+		// Answered from here on: the client may send its next request as soon
+		// as the response is written
+		inFlight.decrementAndGet();
+		try {
+			exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+			if (response.etag != null) {
+				exchange.getResponseHeaders().set("ETag", response.etag);
+				exchange.getResponseHeaders().set("Cache-Control", response.cacheControl);
+			}
+			if (response.body == null) {
+				exchange.sendResponseHeaders(response.status, -1);
+			} else {
+				byte[] body = response.body;
+				if (gzip) {
+					body = gzip(body);
+					exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+				}
+				exchange.sendResponseHeaders(response.status, body.length);
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(body);
+				}
+			}
+		} catch (IOException e) {
+			logger.debug("Client went away before the response was sent: " + e.getMessage());
+		} finally {
+			exchange.close();
+		}
+	}
+
+	// ============ HELPERS ============
+
+	private static Map<String, Object> single(Map<String, Object> user) {
+		Map<String, Object> response = new LinkedHashMap<>();
+		response.put("data", user);
+		return response;
+	}
+
+	private static MockResponse error(int status, String message) {
+		return new MockResponse(status, json(Collections.singletonMap("error", message)));
+	}
+
+	private static byte[] json(Object value) {
+		try {
+			return JsonCodecs.toBytes(value);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Cannot serialize mock response", e);
+		}
+	}
+
+	private static byte[] gzip(byte[] body) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 32);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(body);
+		}
+		return out.toByteArray();
+	}
+
+	private static String now() {
+		return Instant.now().truncatedTo(ChronoUnit.MILLIS).toString();
+	}
+
+	private static int queryInt(String query, String name, int defaultValue) {
+		if (query == null) {
+			return defaultValue;
+		}
+		for (String pair : query.split("&")) {
+			int eq = pair.indexOf('=');
+			if (eq > 0 && pair.substring(0, eq).equals(name)) {
+				try {
+					return Integer.parseInt(pair.substring(eq + 1));
+				} catch (NumberFormatException e) {
+					return defaultValue;
+				}
+			}
+		}
+		return defaultValue;
+	}
+
+	private static final class MockResponse {
+		private final int status;
+		private final byte[] body; // null = no body
+		private final String etag;
+		private final String cacheControl;
+
+		private MockResponse(int status, byte[] body) {
+			this(status, body, null, null);
+		}
+
+		private MockResponse(int status, byte[] body, String etag, String cacheControl) {
+			this.status = status;
+			this.body = body;
+			this.etag = etag;
+			this.cacheControl = cacheControl;
+		}
+	}
+}
@@ -0,0 +1,213 @@
+package com.qa.report;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.Logger;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.qa.util.VirtualThreads;
+
+/**
+ * AsyncReportWriter - Writes report events to a JSON-lines journal on a
+ * background thread.
+ *
+ * Test threads only add the event to a lock-free queue; the writer thread
+ * drains it in batches and appends them to the file, so a report line never
+ * waits on disk I/O or on other test threads. Events are on disk shortly after
+ * they are logged and nothing is kept in memory, however long the run. The HTML
+ * report is rendered from the journal at the end (see ReportRenderer).
+ *
+ * The queue is bounded: when the writer falls behind by more than capacity
+ * events, logging threads wait for it instead of growing the heap.
+ */
+public class AsyncReportWriter implements AutoCloseable {
+
+	private static final Logger logger = Logger.getLogger(AsyncReportWriter.class);
+
+	private static final JsonFactory FACTORY = new JsonFactory();
+
+	public static final int DEFAULT_CAPACITY = 10000;
+
+	// Events written between flushes while the queue stays busy
+	private static final int BATCH_SIZE = 256;
+
+	// How long the writer sleeps when idle; also the max delay before a flush
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+	private static final long BACKPRESSURE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+	private final File file;
+	private final int capacity;
+	private final Queue<ReportEvent> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pending = new AtomicInteger();
+	private final AtomicLong nextTestId = new AtomicLong();
+	private final JsonGenerator generator;
+	private final Thread writer;
+
+	private volatile boolean closed;
+	private volatile long written;
+	private volatile boolean failed;
+
+	public AsyncReportWriter(File file) throws IOException {
+		this(file, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Open the journal and start the writer thread
+	 *
+	 * @param file     - JSON-lines file, replaced if it exists
+	 * @param capacity - Max events queued before logging threads wait
+	 * @throws IOException if the file cannot be created
+	 */
+	public AsyncReportWriter(File file, int capacity) throws IOException {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be > 0: " + capacity);
+		}
+		this.file = file;
+		this.capacity = capacity;
+		if (file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 64 * 1024);
+		this.generator = FACTORY.createGenerator(out, JsonEncoding.UTF8);
+		// One event per line: '\n' is written explicitly, no separator between root values
+		generator.setRootValueSeparator(null);
+		this.writer = VirtualThreads.platformThreadFactory("report-writer-").newThread(this::drainLoop);
+		writer.start();
+	}
+
+	/**
+	 * New unique id for a test entry
+	 */
+	public long newTestId() {
+		return nextTestId.incrementAndGet();
+	}
+
+	/**
+	 * Queue an event. Never blocks on I/O; only waits when capacity events are
+	 * already queued.
+	 *
+	 * @param event - Event to write
+	 */
+	public void append(ReportEvent event) {
+		if (closed) {
+			logger.debug("Report writer closed, dropping " + event);
+			return;
+		}
+		int queued = pending.incrementAndGet();
+		queue.offer(event);
+		if (queued >= BATCH_SIZE) {
+			LockSupport.unpark(writer);
+		}
+		while (queued > capacity && !closed) {
+			LockSupport.parkNanos(this, BACKPRESSURE_PARK_NANOS);
+			queued = pending.get();
+		}
+	}
+
+	private void drainLoop() {
+		int batch = 0;
+		while (true) {
+			ReportEvent event = queue.poll();
+			if (event == null) {
+				if (batch > 0) {
+					flush();
+					batch = 0;
+				}
+				if (closed && queue.isEmpty()) {
+					break;
+				}
+				LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+				continue;
+			}
+			pending.decrementAndGet();
+			write(event);
+			if (++batch >= BATCH_SIZE) {
+				flush();
+				batch = 0;
+			}
+		}
+	}
+
+	private void write(ReportEvent event) {
+		if (failed) {
+			return;
+		}
+		try {
+			generator.writeStartObject();
+			generator.writeNumberField("t", event.getTimestamp());
+			generator.writeNumberField("id", event.getTestId());
+			generator.writeStringField("e", event.getType().name());
+			if (event.getStatus() != null) {
+				generator.writeStringField("s", event.getStatus());
+			}
+			if (event.getDetails() != null) {
+				generator.writeStringField("d", event.getDetails());
+			}
+			generator.writeEndObject();
+			generator.writeRaw('\n');
+			written++;
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	private void flush() {
+		if (failed) {
+			return;
+		}
+		try {
+			generator.flush();
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	// Keep draining after a write error so logging threads never get stuck
+	private void fail(IOException e) {
+		failed = true;
+		logger.error("Failed to write report journal " + file + ": " + e.getMessage(), e);
+	}
+
+	/**
+	 * Events written to the file so far
+	 */
+	public long getEventsWritten() {
+		return written;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Write all queued events and close the file. Events appended afterwards are
+	 * dropped.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		LockSupport.unpark(writer);
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		generator.close();
+		logger.info("Report journal closed: " + written + " events in " + file.getPath());
+	}
+}
@@ -0,0 +1,57 @@
+package com.qa.report;
+
+/**
+ * ReportEvent - One line of the JSON-lines report journal. A test is a START
+ * event, any number of LOG events and an END event, all sharing the test id.
+ *
+ * On disk: {"t":millis,"id":n,"e":"START|LOG|END","s":"PASS","d":"details"}
+ * where "d" is the test name for START and the (HTML) log details for LOG.
+ */
+public final class ReportEvent {
+
+	public enum Type {
+		START, LOG, END
+	}
+
+	private final long timestamp;
+	private final long testId;
+	private final Type type;
+	private final String status;
+	private final String details;
+
+	public ReportEvent(long timestamp, long testId, Type type, String status, String details) {
+		this.timestamp = timestamp;
+		this.testId = testId;
+		this.type = type;
+		this.status = status;
+		this.details = details;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public long getTestId() {
+		return testId;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Extent Status name, only set for LOG events
+	 */
+	public String getStatus() {
+		return status;
+	}
+
+	public String getDetails() {
+		return details;
+	}
+
+	@Override
+	public String toString() {
+		return "ReportEvent [testId=" + testId + ", type=" + type + ", status=" + status + "]";
+	}
+}
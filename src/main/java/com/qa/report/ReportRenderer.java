@@ -0,0 +1,194 @@
+package com.qa.report;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import com.aventstack.extentreports.model.Log;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * ReportRenderer - Replays a JSON-lines journal written by AsyncReportWriter
+ * into ExtentReports, keeping the original timestamps.
+ *
+ * The journal is streamed, so only the tests still open are tracked while
+ * reading. At most maxTests tests get a full entry in the HTML report; the
+ * rest are only counted by status and listed in a final "Report Summary"
+ * entry, which keeps the report (and the memory needed to render it) bounded
+ * on long load runs.
+ */
+public class ReportRenderer {
+
+	private static final Logger logger = Logger.getLogger(ReportRenderer.class);
+
+	private static final JsonFactory FACTORY = new JsonFactory();
+
+	public static final int DEFAULT_MAX_TESTS = 5000;
+
+	private final ExtentReports extent;
+	private final int maxTests;
+
+	// Tests started but not ended yet; null value = test over the limit
+	private final Map<Long, ExtentTest> open = new HashMap<>();
+	private final Map<Long, Status> openSummarized = new HashMap<>();
+	private final Map<Status, Integer> summarized = new EnumMap<>(Status.class);
+	private int rendered;
+
+	public ReportRenderer(ExtentReports extent) {
+		this(extent, DEFAULT_MAX_TESTS);
+	}
+
+	/**
+	 * @param extent   - Report to add the tests to (flushed by the caller)
+	 * @param maxTests - Tests rendered in full before switching to counting
+	 */
+	public ReportRenderer(ExtentReports extent, int maxTests) {
+		this.extent = extent;
+		this.maxTests = maxTests;
+	}
+
+	/**
+	 * Add every test of the journal to the report
+	 *
+	 * @param journal - JSON-lines file
+	 * @throws IOException on read or JSON syntax errors
+	 */
+	public void render(File journal) throws IOException {
+		try (InputStream in = new BufferedInputStream(new FileInputStream(journal), 64 * 1024);
+				JsonParser parser = FACTORY.createParser(in)) {
+			while (parser.nextToken() == JsonToken.START_OBJECT) {
+				apply(readEvent(parser));
+			}
+		}
+		// Tests that never ended (e.g. aborted run) count with their last status
+		for (Long id : open.keySet().toArray(new Long[0])) {
+			end(id);
+		}
+		for (Long id : openSummarized.keySet().toArray(new Long[0])) {
+			end(id);
+		}
+		if (!summarized.isEmpty()) {
+			addSummary();
+		}
+		logger.info("Rendered " + rendered + " tests from " + journal.getPath()
+				+ (summarized.isEmpty() ? "" : ", summarized " + getTestsSummarized()));
+	}
+
+	private static ReportEvent readEvent(JsonParser parser) throws IOException {
+		long timestamp = 0;
+		long testId = 0;
+		ReportEvent.Type type = null;
+		String status = null;
+		String details = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			parser.nextToken();
+			switch (field) {
+			case "t":
+				timestamp = parser.getLongValue();
+				break;
+			case "id":
+				testId = parser.getLongValue();
+				break;
+			case "e":
+				type = ReportEvent.Type.valueOf(parser.getText());
+				break;
+			case "s":
+				status = parser.getText();
+				break;
+			case "d":
+				details = parser.getText();
+				break;
+			default:
+				parser.skipChildren();
+			}
+		}
+		return new ReportEvent(timestamp, testId, type, status, details);
+	}
+
+	private void apply(ReportEvent event) {
+		long id = event.getTestId();
+		switch (event.getType()) {
+		case START:
+			if (rendered < maxTests) {
+				ExtentTest test = extent.createTest(event.getDetails());
+				test.getModel().setStartTime(new Date(event.getTimestamp()));
+				open.put(id, test);
+				rendered++;
+			} else {
+				openSummarized.put(id, Status.PASS);
+			}
+			break;
+		case LOG:
+			Status status = Status.valueOf(event.getStatus());
+			ExtentTest test = open.get(id);
+			if (test != null) {
+				test.log(status, event.getDetails());
+				List<Log> logs = test.getModel().getLogs();
+				Date timestamp = new Date(event.getTimestamp());
+				logs.get(logs.size() - 1).setTimestamp(timestamp);
+				test.getModel().setEndTime(timestamp);
+			} else if (openSummarized.containsKey(id)) {
+				openSummarized.put(id, Status.max(openSummarized.get(id), status));
+			}
+			break;
+		case END:
+			end(id);
+			break;
+		}
+	}
+
+	private void end(long id) {
+		open.remove(id);
+		Status status = openSummarized.remove(id);
+		if (status != null) {
+			summarized.merge(status, 1, Integer::sum);
+		}
+	}
+
+	private void addSummary() {
+		String[][] rows = new String[summarized.size() + 1][];
+		rows[0] = new String[] { "Status", "Tests" };
+		int i = 1;
+		for (Map.Entry<Status, Integer> entry : summarized.entrySet()) {
+			rows[i++] = new String[] { entry.getKey().toString(), String.valueOf(entry.getValue()) };
+		}
+		ExtentTest summary = extent.createTest("Report Summary");
+		summary.log(Status.INFO, "Only the first " + maxTests + " tests are shown in full. " + getTestsSummarized()
+				+ " further tests were counted by status:");
+		summary.log(Status.INFO, MarkupHelper.createTable(rows));
+	}
+
+	/**
+	 * Tests added to the report with all their logs
+	 */
+	public int getTestsRendered() {
+		return rendered;
+	}
+
+	/**
+	 * Tests over the limit, only counted in the summary
+	 */
+	public int getTestsSummarized() {
+		int total = 0;
+		for (int count : summarized.values()) {
+			total += count;
+		}
+		return total;
+	}
+}
@@ -0,0 +1,100 @@
+package com.qa.report;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.markuputils.Markup;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+
+/**
+ * ReportTest - Handle to one test entry in the report that is safe to use from
+ * parallel test methods.
+ *
+ * Calls do not touch ExtentReports: each one becomes a ReportEvent queued on
+ * the shared AsyncReportWriter, which appends it to the JSON-lines journal in
+ * the background. The HTML report is rendered from the journal when the suite
+ * ends (see ReportRenderer). A handle without a writer (report not set up, or
+ * load-mode iterations) ignores all calls, so tests never need null checks.
+ */
+public class ReportTest {
+
+	/**
+	 * Handle that drops everything
+	 */
+	public static final ReportTest NONE = new ReportTest(null, 0);
+
+	private final AsyncReportWriter writer;
+	private final long id;
+
+	private ReportTest(AsyncReportWriter writer, long id) {
+		this.writer = writer;
+		this.id = id;
+	}
+
+	/**
+	 * Create a new test entry in the report
+	 *
+	 * @param writer - Shared report journal (may be null)
+	 * @param name   - Test name shown in the report
+	 * @return ReportTest
+	 */
+	public static ReportTest create(AsyncReportWriter writer, String name) {
+		if (writer == null) {
+			return NONE;
+		}
+		ReportTest test = new ReportTest(writer, writer.newTestId());
+		test.append(ReportEvent.Type.START, null, name);
+		return test;
+	}
+
+	public ReportTest log(Status status, String details) {
+		append(ReportEvent.Type.LOG, status, details);
+		return this;
+	}
+
+	public ReportTest log(Status status, Markup markup) {
+		if (writer != null) {
+			append(ReportEvent.Type.LOG, status, markup.getMarkup());
+		}
+		return this;
+	}
+
+	public ReportTest fail(String details) {
+		return log(Status.FAIL, details);
+	}
+
+	public ReportTest fail(Throwable t) {
+		if (writer != null) {
+			StringWriter trace = new StringWriter();
+			t.printStackTrace(new PrintWriter(trace));
+			log(Status.FAIL, MarkupHelper.createCodeBlock(trace.toString()));
+		}
+		return this;
+	}
+
+	public ReportTest skip(String details) {
+		return log(Status.SKIP, details);
+	}
+
+	/**
+	 * Mark the entry as complete; later calls are ignored by the renderer
+	 */
+	public void end() {
+		append(ReportEvent.Type.END, null, null);
+	}
+
+	/**
+	 * True if calls are recorded in a report
+	 */
+	public boolean isActive() {
+		return writer != null;
+	}
+
+	private void append(ReportEvent.Type type, Status status, String details) {
+		if (writer != null) {
+			writer.append(new ReportEvent(System.currentTimeMillis(), id, type,
+					status != null ? status.name() : null, details));
+		}
+	}
+}
@@ -0,0 +1,166 @@
+package com.qa.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Compiled form of a simplified JPath string such as "data[0]/id".
+ * 
+ * The path is parsed once into an immutable array of steps (a key plus an
+ * optional array index). Evaluating a compiled path does no parsing and no
+ * allocation apart from the returned value, so hot paths should hold on to the
+ * JPath or use {@link #of(String)}, which caches compiled paths by string.
+ */
+public final class JPath {
+
+	// Upper bound on cached expressions; beyond it paths are compiled per call
+	private static final int MAX_CACHED_PATHS = 1024;
+	private static final Map<String, JPath> CACHE = new ConcurrentHashMap<>();
+
+	private static final int NO_INDEX = -1;
+
+	private final String expression;
+	private final String[] keys;
+	private final int[] indexes;
+
+	private JPath(String expression, String[] keys, int[] indexes) {
+		this.expression = expression;
+		this.keys = keys;
+		this.indexes = indexes;
+	}
+
+	/**
+	 * Parse a JPath string
+	 * 
+	 * @param jpath The "path" string in format "foo/bar[0]/baz".
+	 * @return compiled JPath
+	 * @throws NumberFormatException if an array index is not a number
+	 */
+	public static JPath compile(String jpath) throws NumberFormatException {
+		int count = 0;
+		for (int start = 0; start <= jpath.length();) {
+			int end = nextSlash(jpath, start);
+			if (end > start) {
+				count++;
+			}
+			start = end + 1;
+		}
+
+		String[] keys = new String[count];
+		int[] indexes = new int[count];
+		int step = 0;
+		for (int start = 0; start <= jpath.length();) {
+			int end = nextSlash(jpath, start);
+			if (end > start) {
+				int open = jpath.indexOf('[', start);
+				int close = jpath.indexOf(']', start);
+				if ((open < 0 || open >= end) && (close < 0 || close >= end)) {
+					keys[step] = jpath.substring(start, end);
+					indexes[step] = NO_INDEX;
+				} else {
+					// Array notation, e.g. "data[0]"
+					if (open < 0 || open >= end) {
+						throw new NumberFormatException("Invalid array step in JPath: " + jpath);
+					}
+					int indexEnd = close > open && close < end ? close : end;
+					keys[step] = jpath.substring(start, open);
+					indexes[step] = Integer.parseInt(jpath.substring(open + 1, indexEnd));
+				}
+				step++;
+			}
+			start = end + 1;
+		}
+		return new JPath(jpath, keys, indexes);
+	}
+
+	private static int nextSlash(String jpath, int from) {
+		int slash = jpath.indexOf('/', from);
+		return slash < 0 ? jpath.length() : slash;
+	}
+
+	/**
+	 * Get a compiled JPath from the cache, compiling it on first use
+	 * 
+	 * @param jpath The "path" string in format "foo/bar[0]/baz".
+	 * @return compiled JPath
+	 */
+	public static JPath of(String jpath) throws NumberFormatException {
+		JPath compiled = CACHE.get(jpath);
+		if (compiled == null) {
+			compiled = compile(jpath);
+			if (CACHE.size() < MAX_CACHED_PATHS) {
+				CACHE.putIfAbsent(jpath, compiled);
+			}
+		}
+		return compiled;
+	}
+
+	/**
+	 * Walk the JSON tree along this path
+	 * 
+	 * @param json The JSON object from which to extract the value.
+	 * @return the raw value (JSONObject, JSONArray, String, Number, ...)
+	 * @throws JSONException if a key is missing or a step has the wrong type
+	 */
+	public Object evaluate(JSONObject json) throws JSONException {
+		Object obj = json;
+		for (int i = 0; i < keys.length; i++) {
+			obj = ((JSONObject) obj).get(keys[i]);
+			if (indexes[i] != NO_INDEX) {
+				obj = ((JSONArray) obj).get(indexes[i]);
+			}
+		}
+		return obj;
+	}
+
+	/**
+	 * Walk the JSON tree along this path and return the value as a string
+	 * 
+	 * @param json The JSON object from which to extract the value.
+	 * @return The value as a string.
+	 * @throws JSONException
+	 */
+	public String getValue(JSONObject json) throws JSONException {
+		return evaluate(json).toString();
+	}
+
+	/**
+	 * Number of steps ("data[0]/id" has two)
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * Object key of a step
+	 */
+	public String getKey(int step) {
+		return keys[step];
+	}
+
+	/**
+	 * Array index of a step, or -1 if the step is a plain key
+	 */
+	public int getIndex(int step) {
+		return indexes[step];
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof JPath && ((JPath) obj).expression.equals(expression);
+	}
+
+	@Override
+	public int hashCode() {
+		return expression.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return expression;
+	}
+}
@@ -0,0 +1,178 @@
+package com.qa.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Extracts JPath values straight from a JSON stream with Jackson's JsonParser,
+ * without building a String or a document tree.
+ *
+ * Only the requested values are materialised: subtrees that cannot contain a
+ * requested path are skipped, and parsing stops as soon as every path has been
+ * found. Memory use therefore depends on the size of the extracted values, not
+ * on the size of the response.
+ *
+ * Values are returned as strings like TestUtilities.getValueByJPath: scalars as
+ * their text, objects and arrays as compact JSON. Paths that are not present
+ * are missing from the result map.
+ */
+public class JsonStreamExtractor {
+
+	private static final JsonFactory FACTORY = new JsonFactory()
+			.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+	private final JPath[] paths;
+	private final Object[][] tokens; // per path: String key or Integer index per location level
+	private final int[] matchedDepth; // per path: deepest level whose prefix matches the current location
+	private final Object[] location = new Object[64];
+	private final Map<JPath, String> results = new LinkedHashMap<>();
+
+	private JsonStreamExtractor(Collection<JPath> paths) {
+		this.paths = paths.toArray(new JPath[0]);
+		this.tokens = new Object[this.paths.length][];
+		this.matchedDepth = new int[this.paths.length];
+		for (int i = 0; i < this.paths.length; i++) {
+			tokens[i] = flatten(this.paths[i]);
+		}
+	}
+
+	/**
+	 * Extract the given paths from a JSON document. The stream is not closed.
+	 *
+	 * @param in    - JSON input (e.g. the response entity content)
+	 * @param paths - Compiled paths to extract
+	 * @return found values keyed by path, in the order requested
+	 * @throws IOException on read or JSON syntax errors
+	 */
+	public static Map<JPath, String> extract(InputStream in, Collection<JPath> paths) throws IOException {
+		JsonStreamExtractor extractor = new JsonStreamExtractor(paths);
+		try (JsonParser parser = FACTORY.createParser(in)) {
+			if (parser.nextToken() != null && !paths.isEmpty()) {
+				extractor.readValue(parser, 0);
+			}
+		}
+		return extractor.results;
+	}
+
+	/**
+	 * Convenience variant keyed by the path strings
+	 *
+	 * @param in    - JSON input
+	 * @param paths - JPath strings, e.g. "data[0]/id"
+	 * @return found values keyed by path string
+	 * @throws IOException
+	 */
+	public static Map<String, String> extract(InputStream in, String... paths) throws IOException {
+		List<JPath> compiled = new ArrayList<>(paths.length);
+		for (String path : paths) {
+			compiled.add(JPath.of(path));
+		}
+		Map<String, String> values = new LinkedHashMap<>();
+		for (Map.Entry<JPath, String> entry : extract(in, compiled).entrySet()) {
+			values.put(entry.getKey().toString(), entry.getValue());
+		}
+		return values;
+	}
+
+	/**
+	 * Steps "data[0]/id" become the location tokens ["data", 0, "id"]
+	 */
+	private static Object[] flatten(JPath path) {
+		List<Object> flat = new ArrayList<>();
+		for (int step = 0; step < path.size(); step++) {
+			flat.add(path.getKey(step));
+			if (path.getIndex(step) >= 0) {
+				flat.add(path.getIndex(step));
+			}
+		}
+		return flat.toArray();
+	}
+
+	/**
+	 * Handle the value whose first token is current, located at the given depth
+	 *
+	 * @return true once every path has been resolved
+	 */
+	private boolean readValue(JsonParser parser, int depth) throws IOException {
+		boolean descend = false;
+		for (int i = 0; i < paths.length; i++) {
+			if (results.containsKey(paths[i]) || matchedDepth[i] < depth - 1) {
+				continue;
+			}
+			Object[] pathTokens = tokens[i];
+			if (depth > 0 && (depth > pathTokens.length || !pathTokens[depth - 1].equals(location[depth - 1]))) {
+				matchedDepth[i] = depth - 1;
+				continue;
+			}
+			matchedDepth[i] = depth;
+			if (pathTokens.length == depth) {
+				results.put(paths[i], valueAsString(parser));
+				if (results.size() == paths.length) {
+					return true;
+				}
+			} else {
+				descend = true;
+			}
+		}
+
+		JsonToken token = parser.currentToken();
+		if (!token.isStructStart()) {
+			return false;
+		}
+		if (!descend || depth >= location.length) {
+			parser.skipChildren();
+			return false;
+		}
+
+		if (token == JsonToken.START_OBJECT) {
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				location[depth] = parser.getCurrentName();
+				parser.nextToken();
+				if (readValue(parser, depth + 1)) {
+					return true;
+				}
+			}
+		} else {
+			int index = 0;
+			while (parser.nextToken() != JsonToken.END_ARRAY) {
+				location[depth] = index++;
+				if (readValue(parser, depth + 1)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Read the current value; containers are copied as compact JSON
+	 */
+	private static String valueAsString(JsonParser parser) throws IOException {
+		JsonToken token = parser.currentToken();
+		if (token.isStructStart()) {
+			StringWriter writer = new StringWriter();
+			try (JsonGenerator generator = FACTORY.createGenerator(writer)) {
+				generator.copyCurrentStructure(parser);
+			}
+			return writer.toString();
+		}
+		return token == JsonToken.VALUE_NULL ? "null" : parser.getText();
+	}
+
+	@Override
+	public String toString() {
+		return "JsonStreamExtractor" + Arrays.toString(paths);
+	}
+}
@@ -0,0 +1,125 @@
+package com.qa.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+/**
+ * VirtualThreads - Access to JDK 21 virtual threads from code compiled for
+ * Java 11. Everything goes through reflection, looked up once; on older JDKs
+ * (or JDK 19/20 without --enable-preview) the same methods fall back to daemon
+ * platform threads.
+ */
+public final class VirtualThreads {
+
+	private static final Logger logger = Logger.getLogger(VirtualThreads.class);
+
+	/**
+	 * System property that turns on virtual threads for test methods and load
+	 * runs: -Dthreads.virtual=true
+	 */
+	public static final String ENABLED_PROPERTY = "threads.virtual";
+
+	// Thread.ofVirtual(), OfVirtual.name(String, long), Builder.factory()
+	private static final Method OF_VIRTUAL;
+	private static final Method NAME;
+	private static final Method FACTORY;
+	private static final boolean SUPPORTED;
+
+	static {
+		Method ofVirtual = null;
+		Method name = null;
+		Method factory = null;
+		boolean supported = false;
+		try {
+			ofVirtual = Thread.class.getMethod("ofVirtual");
+			Class<?> ofVirtualType = Class.forName("java.lang.Thread$Builder$OfVirtual");
+			name = ofVirtualType.getMethod("name", String.class, long.class);
+			factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+			// Fails on JDK 19/20 unless preview features are enabled
+			factory.invoke(ofVirtual.invoke(null));
+			supported = true;
+		} catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+			logger.debug("Virtual threads not available, using platform threads: " + e);
+		}
+		OF_VIRTUAL = ofVirtual;
+		NAME = name;
+		FACTORY = factory;
+		SUPPORTED = supported;
+	}
+
+	private VirtualThreads() {
+	}
+
+	/**
+	 * True when running on a JDK with virtual threads
+	 */
+	public static boolean isSupported() {
+		return SUPPORTED;
+	}
+
+	/**
+	 * True when virtual threads were requested (-Dthreads.virtual=true) and are
+	 * supported by the running JDK
+	 */
+	public static boolean isEnabled() {
+		return SUPPORTED && Boolean.getBoolean(ENABLED_PROPERTY);
+	}
+
+	/**
+	 * Factory for threads named prefix0, prefix1, ...: virtual threads if
+	 * supported, daemon platform threads otherwise
+	 *
+	 * @param prefix - Thread name prefix
+	 * @return ThreadFactory
+	 */
+	public static ThreadFactory threadFactory(String prefix) {
+		if (SUPPORTED) {
+			try {
+				return (ThreadFactory) FACTORY.invoke(NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 0L));
+			} catch (ReflectiveOperationException e) {
+				logger.warn("Could not create virtual thread factory, using platform threads: " + e);
+			}
+		}
+		return platformThreadFactory(prefix);
+	}
+
+	/**
+	 * Factory for daemon platform threads named prefix0, prefix1, ...
+	 *
+	 * @param prefix - Thread name prefix
+	 * @return ThreadFactory
+	 */
+	public static ThreadFactory platformThreadFactory(String prefix) {
+		AtomicInteger count = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, prefix + count.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * Executor that starts a new thread per task: virtual threads if supported,
+	 * otherwise an unbounded cached pool of platform threads
+	 *
+	 * @param prefix - Thread name prefix
+	 * @return ExecutorService
+	 */
+	public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+		ThreadFactory factory = threadFactory(prefix);
+		if (SUPPORTED) {
+			try {
+				Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+				return (ExecutorService) perTask.invoke(null, factory);
+			} catch (ReflectiveOperationException e) {
+				logger.warn("newThreadPerTaskExecutor not available: " + e);
+			}
+		}
+		return Executors.newCachedThreadPool(factory);
+	}
+}
@@ -0,0 +1,105 @@
+package com.qa.tests;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qa.client.BufferedResponse;
+import com.qa.client.ConnectionPoolConfig;
+import com.qa.client.RestClient;
+import com.qa.mock.MockServerConfig;
+import com.qa.mock.MockUserServer;
+
+/**
+ * Async API Test Class Checks the RestClient *Async methods: concurrent
+ * requests, the in-flight cap and failed futures
+ */
+public class AsyncClientTest {
+
+	private static MockUserServer startServer() throws Exception {
+		return new MockUserServer(new MockServerConfig(), MockUserServer.DEFAULT_RESOURCE_PATH).start();
+	}
+
+	@Test(description = "Concurrent async requests all complete with their own responses")
+	public void concurrentRequestsTest() throws Exception {
+		try (MockUserServer server = startServer(); RestClient client = new RestClient()) {
+			HashMap<String, String> headerMap = new HashMap<String, String>();
+			headerMap.put("Content-Type", "application/json");
+			headerMap.put(MockUserServer.LATENCY_HEADER, "50");
+
+			List<CompletableFuture<BufferedResponse>> futures = new ArrayList<>();
+			for (int i = 0; i < 20; i++) {
+				futures.add(client.postAsync(server.getResourceUrl(), "{\"name\":\"user " + i + "\",\"job\":\"async\"}",
+						headerMap));
+			}
+			futures.add(client.getAsync(server.getResourceUrl() + "/2", headerMap));
+			futures.add(client.putAsync(server.getResourceUrl() + "/2", "{\"name\":\"morpheus\"}", headerMap));
+			futures.add(client.deleteAsync(server.getResourceUrl() + "/2", headerMap));
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+
+			Set<String> names = new HashSet<>();
+			for (int i = 0; i < 20; i++) {
+				BufferedResponse response = futures.get(i).get();
+				Assert.assertEquals(response.getStatusCode(), 201);
+				names.add(new JSONObject(response.getBodyAsString()).getString("name"));
+			}
+			Assert.assertEquals(names.size(), 20);
+			Assert.assertEquals(futures.get(20).get().getStatusCode(), 200);
+			Assert.assertEquals(futures.get(21).get().getStatusCode(), 200);
+			Assert.assertEquals(futures.get(22).get().getStatusCode(), 204);
+			Assert.assertTrue(server.getPeakInFlight() > 1, "requests did not overlap");
+		}
+	}
+
+	@Test(description = "No more than http.async.maxInFlight requests are outstanding")
+	public void inFlightCapTest() throws Exception {
+		ConnectionPoolConfig poolConfig = new ConnectionPoolConfig();
+		poolConfig.setAsyncMaxInFlight(4);
+		try (MockUserServer server = startServer(); RestClient client = new RestClient(poolConfig)) {
+			HashMap<String, String> headerMap = new HashMap<String, String>();
+			headerMap.put(MockUserServer.LATENCY_HEADER, "50");
+
+			List<CompletableFuture<BufferedResponse>> futures = new ArrayList<>();
+			for (int i = 0; i < 24; i++) {
+				futures.add(client.getAsync(server.getResourceUrl() + "/" + (i % 12 + 1), headerMap));
+			}
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+
+			for (CompletableFuture<BufferedResponse> future : futures) {
+				Assert.assertEquals(future.get().getStatusCode(), 200);
+			}
+			Assert.assertEquals(server.getRequestCount(), 24);
+			Assert.assertTrue(server.getPeakInFlight() > 1, "requests did not overlap");
+			Assert.assertTrue(server.getPeakInFlight() <= 4, server.getPeakInFlight() + " requests in flight");
+		}
+	}
+
+	@Test(description = "A request that cannot be sent completes its future exceptionally")
+	public void failureTest() throws Exception {
+		int closedPort;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			closedPort = socket.getLocalPort();
+		}
+		try (RestClient client = new RestClient()) {
+			CompletableFuture<BufferedResponse> future = client
+					.getAsync("http://127.0.0.1:" + closedPort + "/api/users/1", null);
+			try {
+				future.get(30, TimeUnit.SECONDS);
+				Assert.fail("Expected the request to fail");
+			} catch (ExecutionException e) {
+				Assert.assertTrue(future.isCompletedExceptionally());
+				Assert.assertNotNull(e.getCause());
+			}
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package com.qa.tests;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qa.log.AsyncRingAppender;
+import com.qa.log.LogPayload;
+
+/**
+ * Async logging Test Class Checks the ring buffer appender and payload
+ * truncation
+ */
+public class AsyncLoggingTest {
+
+	@Test(description = "Long payloads are cut with a length marker")
+	public void truncateTest() {
+		Assert.assertEquals(LogPayload.truncate("short", 10), "short");
+		Assert.assertEquals(LogPayload.truncate("0123456789abc", 10), "0123456789...[truncated, 13 chars]");
+		Assert.assertEquals(LogPayload.truncate(null, 10), "null");
+	}
+
+	@Test(description = "Events reach the wrapped appender on the dispatcher thread")
+	public void deliveryTest() {
+		Logger logger = isolatedLogger("async.delivery");
+		CapturingAppender target = new CapturingAppender(null);
+		logger.addAppender(target);
+
+		AsyncRingAppender async = AsyncRingAppender.wrap(logger, 64, AsyncRingAppender.DropPolicy.DROP);
+		for (int i = 0; i < 10; i++) {
+			logger.info("event " + i);
+		}
+		async.close();
+
+		Assert.assertEquals(target.events.size(), 10);
+		Assert.assertEquals(target.events.get(0).getRenderedMessage(), "event 0");
+		Assert.assertEquals(target.events.get(0).getThreadName(), Thread.currentThread().getName());
+		Assert.assertTrue(target.wasClosed);
+	}
+
+	@Test(description = "A full buffer drops events instead of blocking and reports the count")
+	public void dropWhenFullTest() throws InterruptedException {
+		Logger logger = isolatedLogger("async.drop");
+		CountDownLatch release = new CountDownLatch(1);
+		CapturingAppender target = new CapturingAppender(release);
+		logger.addAppender(target);
+
+		AsyncRingAppender async = AsyncRingAppender.wrap(logger, 4, AsyncRingAppender.DropPolicy.DROP);
+		long start = System.nanoTime();
+		for (int i = 0; i < 100; i++) {
+			logger.info("event " + i);
+		}
+		Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), "logging blocked");
+		Assert.assertTrue(async.getDroppedCount() > 0);
+
+		release.countDown();
+		async.close();
+		// Events still buffered at close may be delivered after the drop report
+		boolean reported = false;
+		for (LoggingEvent event : target.events) {
+			reported |= event.getLevel() == Level.WARN
+					&& event.getRenderedMessage().startsWith("Log buffer full, dropped ");
+		}
+		Assert.assertTrue(reported, "dropped events were not reported");
+		Assert.assertTrue(target.events.size() < 100);
+	}
+
+	@Test(description = "DROP_BELOW_WARN drops INFO when full but waits with WARN and above")
+	public void keepWarningsTest() throws InterruptedException {
+		Logger logger = isolatedLogger("async.warn");
+		CountDownLatch release = new CountDownLatch(1);
+		CapturingAppender target = new CapturingAppender(release);
+		logger.addAppender(target);
+
+		AsyncRingAppender async = AsyncRingAppender.wrap(logger, 4, AsyncRingAppender.DropPolicy.DROP_BELOW_WARN);
+		Thread burst = new Thread(() -> {
+			for (int i = 0; i < 50; i++) {
+				logger.info("event " + i);
+			}
+			for (int i = 0; i < 5; i++) {
+				logger.error("failure " + i);
+			}
+		});
+		burst.start();
+		burst.join(500);
+		Assert.assertTrue(burst.isAlive(), "ERROR lines did not wait for space");
+		Assert.assertTrue(async.getDroppedCount() > 0);
+
+		release.countDown();
+		burst.join(5000);
+		async.close();
+		int failures = 0;
+		for (LoggingEvent event : target.events) {
+			if (event.getLevel() == Level.ERROR) {
+				failures++;
+			}
+		}
+		Assert.assertEquals(failures, 5);
+	}
+
+	private static Logger isolatedLogger(String name) {
+		Logger logger = Logger.getLogger(name);
+		logger.setAdditivity(false);
+		logger.setLevel(Level.INFO);
+		logger.removeAllAppenders();
+		return logger;
+	}
+
+	private static class CapturingAppender extends AppenderSkeleton {
+
+		private final List<LoggingEvent> events = new CopyOnWriteArrayList<>();
+		private final CountDownLatch release;
+		private volatile boolean wasClosed;
+
+		CapturingAppender(CountDownLatch release) {
+			this.release = release;
+		}
+
+		@Override
+		protected void append(LoggingEvent event) {
+			if (release != null) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			events.add(event);
+		}
+
+		@Override
+		public void close() {
+			wasClosed = true;
+		}
+
+		@Override
+		public boolean requiresLayout() {
+			return false;
+		}
+	}
+}
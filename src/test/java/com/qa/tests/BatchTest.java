@@ -0,0 +1,176 @@
+package com.qa.tests;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.json.JSONObject;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qa.client.RestClient;
+import com.qa.client.batch.BatchConfig;
+import com.qa.client.batch.BatchExecution;
+import com.qa.client.batch.BatchOutcome;
+import com.qa.client.batch.RequestSpec;
+import com.qa.mock.MockServerConfig;
+import com.qa.mock.MockUserServer;
+
+/**
+ * Batch Test Class Checks RestClient.batch: windowed sending, outcomes in
+ * completion order with their correlation ids, partial failures and fail-fast
+ */
+public class BatchTest {
+
+	@Test(description = "Bulk creates overlap instead of waiting one round trip each")
+	public void bulkCreateTest() throws Exception {
+		try (MockUserServer server = new MockUserServer(new MockServerConfig(), MockUserServer.DEFAULT_RESOURCE_PATH)
+				.start(); RestClient client = new RestClient()) {
+			BatchConfig config = new BatchConfig();
+			config.setMaxInFlight(16);
+			Stream<RequestSpec> specs = IntStream.range(0, 100)
+					.mapToObj(i -> RequestSpec.post("user-" + i, server.getResourceUrl(),
+							"{\"name\":\"user " + i + "\",\"job\":\"seed\"}")
+							.withHeader(MockUserServer.LATENCY_HEADER, "100"));
+
+			Set<String> ids = new HashSet<>();
+			Set<Object> userIds = new HashSet<>();
+			try (BatchExecution batch = client.batch(specs, config)) {
+				for (BatchOutcome outcome : batch) {
+					Assert.assertEquals(outcome.getStatusCode(), 201, outcome.toString());
+					JSONObject created = new JSONObject(outcome.getResponse().getBodyAsString());
+					Assert.assertEquals(created.getString("name"), "user " + outcome.getIndex());
+					ids.add(outcome.getId());
+					userIds.add(created.get("id"));
+				}
+				Assert.assertEquals(batch.getSucceeded(), 100);
+			}
+			Assert.assertEquals(ids.size(), 100);
+			Assert.assertEquals(userIds.size(), 100);
+			Assert.assertTrue(server.getPeakInFlight() > 1, "requests did not overlap");
+			Assert.assertTrue(server.getPeakInFlight() <= 16, server.getPeakInFlight() + " requests in flight");
+		}
+	}
+
+	@Test(description = "Failed requests become outcomes; the rest of the batch carries on")
+	public void partialFailureTest() throws Exception {
+		int closedPort;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			closedPort = socket.getLocalPort();
+		}
+		try (MockUserServer server = new MockUserServer(new MockServerConfig(), MockUserServer.DEFAULT_RESOURCE_PATH)
+				.start(); RestClient client = new RestClient()) {
+			List<RequestSpec> specs = new ArrayList<>();
+			for (int i = 1; i <= 10; i++) {
+				specs.add(RequestSpec.get(null, server.getResourceUrl() + "/" + i));
+			}
+			specs.add(RequestSpec.get("missing", server.getResourceUrl() + "/999"));
+			specs.add(RequestSpec.delete("broken", server.getResourceUrl() + "/1")
+					.withHeader(MockUserServer.STATUS_HEADER, "500"));
+			specs.add(RequestSpec.get("unreachable", "http://127.0.0.1:" + closedPort + "/api/users/1"));
+
+			BatchExecution batch = client.batch(specs, new BatchConfig());
+			List<BatchOutcome> outcomes = batch.awaitAll();
+			Assert.assertEquals(outcomes.size(), 13);
+			Assert.assertEquals(batch.getSucceeded(), 10);
+			Assert.assertEquals(batch.getFailed(), 3);
+			for (BatchOutcome outcome : outcomes) {
+				switch (outcome.getId()) {
+				case "missing":
+					Assert.assertEquals(outcome.getStatusCode(), 404);
+					break;
+				case "broken":
+					Assert.assertEquals(outcome.getStatusCode(), 500);
+					break;
+				case "unreachable":
+					Assert.assertNull(outcome.getResponse());
+					Assert.assertNotNull(outcome.getError());
+					Assert.assertEquals(outcome.getStatusCode(), -1);
+					break;
+				default:
+					Assert.assertEquals(outcome.getId(), "#" + outcome.getIndex());
+					Assert.assertTrue(outcome.isSuccess(), outcome.toString());
+				}
+			}
+		}
+	}
+
+	@Test(description = "failFast stops sending after the first failure and counts the rest as cancelled")
+	public void failFastTest() throws Exception {
+		try (MockUserServer server = new MockUserServer(new MockServerConfig(), MockUserServer.DEFAULT_RESOURCE_PATH)
+				.start(); RestClient client = new RestClient()) {
+			BatchConfig config = new BatchConfig();
+			config.setMaxInFlight(1);
+			config.setFailFast(true);
+			List<RequestSpec> specs = new ArrayList<>();
+			specs.add(RequestSpec.get("ok", server.getResourceUrl() + "/1"));
+			specs.add(RequestSpec.get("fails", server.getResourceUrl() + "/999"));
+			for (int i = 0; i < 8; i++) {
+				specs.add(RequestSpec.get("never-" + i, server.getResourceUrl() + "/2"));
+			}
+
+			BatchExecution batch = client.batch(specs, config);
+			List<BatchOutcome> outcomes = batch.awaitAll();
+			Assert.assertEquals(outcomes.size(), 2);
+			Assert.assertTrue(batch.isAborted());
+			Assert.assertEquals(batch.getSubmitted(), 2);
+			Assert.assertEquals(batch.getCancelled(), 8);
+			Assert.assertEquals(server.getRequestCount(), 2);
+		}
+	}
+
+	@Test(description = "Closing a batch stops reading an unbounded source")
+	public void closeUnboundedTest() throws Exception {
+		try (MockUserServer server = new MockUserServer(new MockServerConfig(), MockUserServer.DEFAULT_RESOURCE_PATH)
+				.start(); RestClient client = new RestClient()) {
+			BatchConfig config = new BatchConfig();
+			config.setMaxInFlight(4);
+			AtomicInteger pulled = new AtomicInteger();
+			Stream<RequestSpec> specs = Stream.iterate(0, i -> i + 1).map(i -> {
+				pulled.incrementAndGet();
+				return RequestSpec.get(null, server.getResourceUrl() + "/" + (i % 12 + 1))
+						.withHeader(MockUserServer.LATENCY_HEADER, "20");
+			});
+
+			BatchExecution batch = client.batch(specs, config);
+			Iterator<BatchOutcome> outcomes = batch.iterator();
+			for (int i = 0; i < 3; i++) {
+				Assert.assertEquals(outcomes.next().getStatusCode(), 200);
+			}
+			batch.close();
+			Assert.assertTrue(batch.isAborted());
+			// 3 consumed + a full window, plus the spec pulled while waiting for a slot
+			Assert.assertTrue(pulled.get() <= 3 + 4 + 1, pulled.get() + " specs pulled");
+			Assert.assertEquals(batch.getSubmitted(), server.getRequestCount());
+			Assert.assertEquals(batch.getCancelled(), -1, "size of the source is unknown");
+		}
+	}
+
+	@Test(description = "Unconsumed outcomes count against the window")
+	public void windowTest() throws Exception {
+		try (MockUserServer server = new MockUserServer(new MockServerConfig(), MockUserServer.DEFAULT_RESOURCE_PATH)
+				.start(); RestClient client = new RestClient()) {
+			BatchConfig config = new BatchConfig();
+			config.setMaxInFlight(4);
+			Stream<RequestSpec> specs = IntStream.range(0, 40)
+					.mapToObj(i -> RequestSpec.get(null, server.getResourceUrl() + "/" + (i % 12 + 1)));
+
+			BatchExecution batch = client.batch(specs, config);
+			int consumed = 0;
+			for (BatchOutcome outcome : batch) {
+				consumed++;
+				Thread.sleep(2);
+				Assert.assertTrue(batch.getSubmitted() <= consumed + 4,
+						batch.getSubmitted() + " sent after " + consumed + " consumed");
+				Assert.assertEquals(outcome.getStatusCode(), 200);
+			}
+			Assert.assertEquals(consumed, 40);
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package com.qa.tests;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.qa.client.BufferedResponse;
+import com.qa.client.RestClient;
+import com.qa.client.RestResponse;
+import com.qa.client.cassette.Cassette;
+import com.qa.client.cassette.CassetteMissException;
+import com.qa.client.cassette.CassetteMode;
+import com.qa.client.cassette.RecordedResponse;
+import com.qa.client.cassette.RequestKey;
+import com.qa.client.cassette.RequestMatcher;
+import com.qa.client.metrics.Phase;
+import com.qa.client.retry.RetryPolicy;
+import com.qa.mock.MockServerConfig;
+import com.qa.mock.MockUserServer;
+
+/**
+ * Cassette Test Class Records traffic against the mock server, then replays it
+ * with the server stopped
+ */
+public class CassetteTest {
+
+	private static final String BODY = "{\"name\":\"morpheus\",\"job\":\"leader\"}";
+
+	private File file;
+
+	@BeforeClass
+	public void createFile() throws IOException {
+		file = Files.createTempFile("api", ".cassette").toFile();
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void deleteFile() {
+		file.delete();
+	}
+
+	@Test(description = "Exchanges recorded against the server replay without it")
+	public void recordAndReplayTest() throws Exception {
+		HashMap<String, String> headers = new HashMap<>();
+		headers.put("Content-Type", "application/json");
+		String recordedBody;
+
+		MockUserServer server = new MockUserServer(new MockServerConfig(), MockUserServer.DEFAULT_RESOURCE_PATH)
+				.start();
+		String url = server.getResourceUrl();
+		try (RestClient client = new RestClient()) {
+			client.useCassette(Cassette.open(CassetteMode.RECORD, file, new RequestMatcher()));
+			try (RestResponse response = client.get(url + "?page=2&per_page=3", headers)) {
+				Assert.assertEquals(response.getStatusCode(), 200);
+				recordedBody = response.readBodyAsString();
+			}
+			client.post(url, BODY, headers).close();
+			client.deleteAsync(url + "/2", headers).get();
+			Assert.assertEquals(client.getCassette().size(), 3);
+		} finally {
+			server.stop();
+		}
+		long requests = server.getRequestCount();
+
+		// Different host and port, query in another order: still the same request
+		String otherUrl = "http://localhost:1" + MockUserServer.DEFAULT_RESOURCE_PATH;
+		try (RestClient client = new RestClient()) {
+			client.useCassette(Cassette.open(CassetteMode.REPLAY, file, new RequestMatcher()));
+			Assert.assertEquals(client.getCassette().size(), 3);
+			try (RestResponse response = client.get(otherUrl + "?per_page=3&page=2", headers)) {
+				Assert.assertEquals(response.getStatusCode(), 200);
+				Assert.assertEquals(response.readBodyAsString(), recordedBody);
+				Assert.assertTrue(response.getFirstHeader("Content-Type").getValue().startsWith("application/json"));
+			}
+			try (RestResponse response = client.post(otherUrl, BODY, headers)) {
+				Assert.assertEquals(response.getStatusCode(), 201);
+				Assert.assertTrue(response.readBodyAsString().contains("morpheus"));
+			}
+			BufferedResponse deleted = client.deleteAsync(otherUrl + "/2", headers).get();
+			Assert.assertEquals(deleted.getStatusCode(), 204);
+
+			// Another body is another request
+			try {
+				client.post(otherUrl, "{\"name\":\"neo\"}", headers);
+				Assert.fail("Unrecorded request was replayed");
+			} catch (CassetteMissException expected) {
+			}
+		}
+		Assert.assertEquals(server.getRequestCount(), requests, "Replay reached the server");
+	}
+
+	@Test(description = "Recording goes through retries, metrics and response decoding like passthrough")
+	public void recordPipelineTest() throws Exception {
+		File pipelineFile = Files.createTempFile("pipeline", ".cassette").toFile();
+		pipelineFile.deleteOnExit();
+		RetryPolicy policy = new RetryPolicy();
+		policy.setMaxAttempts(3);
+		policy.setBaseDelayMillis(1);
+		policy.setMaxDelayMillis(5);
+		HashMap<String, String> unavailable = new HashMap<>();
+		unavailable.put(MockUserServer.STATUS_HEADER, "503");
+
+		try (MockUserServer server = new MockUserServer(new MockServerConfig(), MockUserServer.DEFAULT_RESOURCE_PATH)
+				.start(); RestClient client = new RestClient()) {
+			String url = server.getResourceUrl();
+			client.setRetryPolicy(policy);
+			client.useCassette(Cassette.open(CassetteMode.RECORD, pipelineFile, new RequestMatcher()));
+
+			// All 12 users: large enough for the mock to gzip it
+			try (RestResponse response = client.get(url + "?per_page=12", null)) {
+				Assert.assertNull(response.getFirstHeader("Content-Encoding"));
+				Assert.assertTrue(response.readBodyAsString().contains("Rachel"));
+			}
+			try (RestResponse response = client.get(url + "/3", unavailable)) {
+				Assert.assertEquals(response.getStatusCode(), 503);
+			}
+			Assert.assertEquals(client.getAsync(url + "/4", unavailable).get().getStatusCode(), 503);
+			Assert.assertEquals(server.getRequestCount(), 7, "retries were not applied while recording");
+			Assert.assertEquals(client.getMetrics().forRequest("GET", url + "/3").getRetries(), 4);
+			Assert.assertEquals(
+					client.getMetrics().forRequest("GET", url).snapshot(Phase.TOTAL).getTotalCount(), 1);
+		}
+
+		Cassette replay = Cassette.open(CassetteMode.REPLAY, pipelineFile, new RequestMatcher());
+		RecordedResponse recorded = replay.replay(replay.key("GET", "http://localhost/api/users?per_page=12", null,
+				null));
+		for (String[] header : recorded.getHeaders()) {
+			Assert.assertNotEquals(header[0].toLowerCase(), "content-encoding", "recorded the encoded body");
+		}
+		Assert.assertTrue(new String(recorded.getBody(), StandardCharsets.UTF_8).contains("Rachel"));
+		replay.close();
+	}
+
+	@Test(description = "Keys ignore host, header case and query order, but not matched header values")
+	public void keyNormalizationTest() {
+		RequestMatcher matcher = new RequestMatcher(Arrays.asList("Accept"), false);
+		HashMap<String, String> json = new HashMap<>();
+		json.put("accept", "application/json");
+		json.put("X-Request-Id", "1");
+		HashMap<String, String> jsonOtherId = new HashMap<>();
+		jsonOtherId.put("ACCEPT", "application/json");
+		jsonOtherId.put("X-Request-Id", "2");
+		HashMap<String, String> xml = new HashMap<>();
+		xml.put("Accept", "application/xml");
+
+		RequestKey key = matcher.key("get", "https://reqres.in/api/users?b=2&a=1", json, null);
+		Assert.assertEquals(matcher.key("GET", "http://127.0.0.1:8080/api/users?a=1&b=2", jsonOtherId, null), key);
+		Assert.assertNotEquals(matcher.key("GET", "https://reqres.in/api/users?a=1&b=2", xml, null), key);
+		Assert.assertNotEquals(matcher.key("GET", "https://reqres.in/api/users?a=1", json, null), key);
+
+		RequestMatcher withHost = new RequestMatcher(RequestMatcher.DEFAULT_HEADERS, true);
+		Assert.assertEquals(withHost.key("GET", "HTTPS://ReqRes.in:443/api/users", null, null),
+				withHost.key("GET", "https://reqres.in/api/users", null, null));
+		Assert.assertNotEquals(withHost.key("GET", "http://localhost/api/users", null, null),
+				withHost.key("GET", "https://reqres.in/api/users", null, null));
+	}
+}
@@ -0,0 +1,149 @@
+package com.qa.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.DeflaterOutputStream;
+
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.json.JSONObject;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qa.client.BufferedResponse;
+import com.qa.client.RestClient;
+import com.qa.client.RestResponse;
+import com.qa.client.compress.CompressionConfig;
+import com.qa.client.compress.ContentCodings;
+import com.qa.client.compress.GzipRequestEntity;
+import com.qa.client.metrics.EndpointMetrics;
+import com.qa.client.metrics.RequestMetrics;
+import com.qa.mock.MockServerConfig;
+import com.qa.mock.MockUserServer;
+
+/**
+ * Compression Test Class Checks gzip response decoding, gzip request bodies
+ * and the compression metrics, sync and async, against the mock server
+ */
+public class CompressionTest {
+
+	@Test(description = "Gzipped responses are decoded while read and counted in the metrics")
+	public void responseDecodingTest() throws Exception {
+		MockServerConfig config = new MockServerConfig();
+		config.setCompressMinBytes(0);
+		try (MockUserServer server = new MockUserServer(config, MockUserServer.DEFAULT_RESOURCE_PATH).start();
+				RestClient client = new RestClient()) {
+			String url = server.getResourceUrl() + "?page=1&per_page=12";
+			String body;
+			try (RestResponse response = client.get(url, null)) {
+				Assert.assertEquals(response.getStatusCode(), 200);
+				Assert.assertNull(response.getFirstHeader("Content-Encoding"), "decoded body, header removed");
+				body = response.readBodyAsString();
+			}
+			Assert.assertEquals(new JSONObject(body).getJSONArray("data").length(), 12);
+
+			BufferedResponse async = client.getAsync(url, null).get();
+			Assert.assertEquals(async.getBodyAsString(), body);
+			Assert.assertNull(async.getHeader("Content-Encoding"));
+
+			EndpointMetrics endpoint = client.getMetrics().forRequest("GET", url);
+			Assert.assertEquals(endpoint.getDecompressed(), 2);
+			Assert.assertEquals(endpoint.getResponseDecodedBytes(),
+					2L * body.getBytes(StandardCharsets.UTF_8).length);
+			Assert.assertTrue(endpoint.getResponseCompressionRatio() > 1,
+					"ratio " + endpoint.getResponseCompressionRatio());
+			Assert.assertTrue(client.getMetrics().report().contains("DECODE_MS"));
+		}
+	}
+
+	@Test(description = "Without Accept-Encoding the server sends plain bodies")
+	public void disabledTest() throws Exception {
+		MockServerConfig config = new MockServerConfig();
+		config.setCompressMinBytes(0);
+		try (MockUserServer server = new MockUserServer(config, MockUserServer.DEFAULT_RESOURCE_PATH).start();
+				RestClient client = new RestClient()) {
+			client.setCompression(CompressionConfig.disabled());
+			String url = server.getResourceUrl() + "/2";
+			try (RestResponse response = client.get(url, null)) {
+				JSONObject user = new JSONObject(response.readBodyAsString()).getJSONObject("data");
+				Assert.assertEquals(user.getInt("id"), 2);
+			}
+			Assert.assertEquals(client.getAsync(url, null).get().getStatusCode(), 200);
+			Assert.assertEquals(client.getMetrics().forRequest("GET", url).getDecompressed(), 0);
+		}
+	}
+
+	@Test(description = "Request bodies above the threshold are sent gzipped")
+	public void requestCompressionTest() throws Exception {
+		try (MockUserServer server = new MockUserServer(new MockServerConfig(), MockUserServer.DEFAULT_RESOURCE_PATH)
+				.start(); RestClient client = new RestClient()) {
+			CompressionConfig compression = new CompressionConfig();
+			compression.setRequests(true);
+			compression.setRequestMinBytes(256);
+			client.setCompression(compression);
+
+			char[] filler = new char[2000];
+			Arrays.fill(filler, 'x');
+			String large = new JSONObject().put("name", "morpheus").put("job", new String(filler)).toString();
+			String small = new JSONObject().put("name", "neo").put("job", "the one").toString();
+
+			try (RestResponse response = client.post(server.getResourceUrl(), large, null)) {
+				Assert.assertEquals(response.getStatusCode(), 201);
+				Assert.assertEquals(new JSONObject(response.readBodyAsString()).getString("job"), new String(filler));
+			}
+			try (RestResponse response = client.post(server.getResourceUrl(), small, null)) {
+				Assert.assertEquals(response.getStatusCode(), 201);
+			}
+			BufferedResponse async = client.postAsync(server.getResourceUrl(), large, null).get();
+			Assert.assertEquals(async.getStatusCode(), 201);
+			Assert.assertEquals(new JSONObject(async.getBodyAsString()).getString("name"), "morpheus");
+
+			EndpointMetrics endpoint = client.getMetrics().forRequest("POST", server.getResourceUrl());
+			Assert.assertEquals(endpoint.getCompressedRequests(), 2, "small body sent as is");
+			Assert.assertTrue(endpoint.getRequestCompressionRatio() > 10,
+					"ratio " + endpoint.getRequestCompressionRatio());
+		}
+	}
+
+	@Test(description = "A gzip request entity can be read back as well as written")
+	public void requestEntityContentTest() throws IOException {
+		byte[] plain = new JSONObject().put("name", String.join("", Collections.nCopies(200, "morpheus")))
+				.toString().getBytes(StandardCharsets.UTF_8);
+		EndpointMetrics endpoint = new RequestMetrics().forRequest("POST", "http://host/api/users");
+		GzipRequestEntity entity = new GzipRequestEntity(new ByteArrayEntity(plain, ContentType.APPLICATION_JSON),
+				endpoint);
+
+		for (int i = 0; i < 2; i++) {
+			byte[] gzipped;
+			try (InputStream content = entity.getContent()) {
+				gzipped = content.readAllBytes();
+			}
+			Assert.assertTrue(gzipped.length < plain.length, "not compressed");
+			Assert.assertEquals(ContentCodings.decode("gzip", gzipped), plain, "read " + (i + 1));
+		}
+		Assert.assertEquals(endpoint.getCompressedRequests(), 0, "reading sends nothing");
+
+		ByteArrayOutputStream written = new ByteArrayOutputStream();
+		entity.writeTo(written);
+		Assert.assertEquals(ContentCodings.decode("gzip", written.toByteArray()), plain);
+		Assert.assertEquals(endpoint.getCompressedRequests(), 1);
+	}
+
+	@Test(description = "Deflate and gzip bodies round trip; unknown codings are rejected")
+	public void codingsTest() throws IOException {
+		byte[] plain = "{\"data\":[1,2,3,4,5,6,7,8,9,10]}".getBytes(StandardCharsets.UTF_8);
+		ByteArrayOutputStream zlib = new ByteArrayOutputStream();
+		try (DeflaterOutputStream out = new DeflaterOutputStream(zlib)) {
+			out.write(plain);
+		}
+		Assert.assertEquals(ContentCodings.decode("deflate", zlib.toByteArray()), plain);
+		Assert.assertEquals(ContentCodings.decode("GZIP", ContentCodings.gzip(plain)), plain);
+		Assert.assertSame(ContentCodings.decode("identity", plain), plain);
+		Assert.expectThrows(IOException.class, () -> ContentCodings.decode("compress", plain));
+		Assert.assertTrue(new CompressionConfig().getAcceptEncoding().startsWith("gzip, deflate"));
+	}
+}
@@ -0,0 +1,174 @@
+package com.qa.tests;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qa.data.DataFileReader;
+import com.qa.data.DataShard;
+import com.qa.data.Users;
+
+/**
+ * DataFile Test Class Checks DataFileReader: NDJSON and CSV records streamed
+ * through small mapping windows, and shards that cover every record once
+ */
+public class DataFileTest {
+
+	private static File ndjson(int records) throws IOException {
+		File file = File.createTempFile("users", ".ndjson");
+		file.deleteOnExit();
+		try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+			for (int i = 0; i < records; i++) {
+				writer.write("{\"name\":\"user " + i + "\",\"job\":\"job " + (i % 7) + "\"}\n");
+			}
+		}
+		return file;
+	}
+
+	private static Set<String> readNames(File file, DataShard shard) throws IOException {
+		Set<String> names = new HashSet<>();
+		try (DataFileReader<Users> reader = DataFileReader.open(file, Users.class, shard, 4096)) {
+			while (reader.hasNext()) {
+				Assert.assertTrue(names.add(reader.next().getName()), "duplicate record in shard " + shard);
+			}
+		}
+		return names;
+	}
+
+	@Test(description = "NDJSON records stream in order across mapping windows")
+	public void ndjsonTest() throws IOException {
+		File file = ndjson(20000);
+		try (DataFileReader<Users> reader = DataFileReader.open(file, Users.class, DataShard.ALL, 1000)) {
+			int i = 0;
+			for (Iterator<Users> it = reader; it.hasNext(); i++) {
+				Users user = it.next();
+				Assert.assertEquals(user.getName(), "user " + i);
+				Assert.assertEquals(user.getJob(), "job " + (i % 7));
+			}
+			Assert.assertEquals(i, 20000);
+			Assert.assertEquals(reader.getCount(), 20000);
+			Assert.assertFalse(reader.hasNext());
+		}
+	}
+
+	@Test(description = "CSV columns come from the header line, also for later shards")
+	public void csvTest() throws IOException {
+		File file = File.createTempFile("users", ".csv");
+		file.deleteOnExit();
+		Files.write(file.toPath(), ("name,job\r\n" + "morpheus,leader\r\n" + "\"smith, agent\",\"program\"\r\n"
+				+ "neo,the one\r\n" + "trinity,operator\r\n").getBytes(StandardCharsets.UTF_8));
+
+		List<Users> all = new ArrayList<>();
+		DataFileReader.open(file, Users.class).forEachRemaining(all::add);
+		Assert.assertEquals(all.size(), 4);
+		Assert.assertEquals(all.get(0), new Users("morpheus", "leader"));
+		Assert.assertEquals(all.get(1), new Users("smith, agent", "program"));
+
+		List<Users> sharded = new ArrayList<>();
+		for (DataShard shard : DataShard.all(3)) {
+			DataFileReader.open(file, Users.class, shard).forEachRemaining(sharded::add);
+		}
+		Assert.assertEquals(sharded, all);
+	}
+
+	@Test(description = "Shards split the records without gaps or overlaps")
+	public void shardTest() throws IOException {
+		File file = ndjson(5000);
+		for (int count : new int[] { 1, 2, 3, 7, 64 }) {
+			Set<String> names = new HashSet<>();
+			for (DataShard shard : DataShard.all(count)) {
+				for (String name : readNames(file, shard)) {
+					Assert.assertTrue(names.add(name), name + " read twice with " + count + " shards");
+				}
+			}
+			Assert.assertEquals(names.size(), 5000, count + " shards");
+		}
+
+		// More shards than records: the extra shards are empty
+		File tiny = ndjson(2);
+		int total = 0;
+		for (DataShard shard : DataShard.all(5)) {
+			total += readNames(tiny, shard).size();
+		}
+		Assert.assertEquals(total, 2);
+	}
+
+	@Test(description = "Threads read one shard each")
+	public void parallelShardsTest() throws Exception {
+		File file = ndjson(40000);
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Set<String>>> parts = new ArrayList<>();
+			for (DataShard shard : DataShard.all(4)) {
+				parts.add(pool.submit(() -> readNames(file, shard)));
+			}
+			Set<String> names = new HashSet<>();
+			for (Future<Set<String>> part : parts) {
+				Set<String> shardNames = part.get();
+				Assert.assertTrue(shardNames.size() > 0);
+				names.addAll(shardNames);
+			}
+			Assert.assertEquals(names.size(), 40000);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test(description = "A malformed line fails with the file and record position")
+	public void badRecordTest() throws IOException {
+		File file = File.createTempFile("users", ".ndjson");
+		file.deleteOnExit();
+		Files.write(file.toPath(),
+				"{\"name\":\"a\",\"job\":\"b\"}\n{\"name\":\n".getBytes(StandardCharsets.UTF_8));
+		DataFileReader<Users> reader = DataFileReader.open(file, Users.class);
+		Assert.assertEquals(reader.next().getName(), "a");
+		try {
+			reader.next();
+			Assert.fail("Expected a parse error");
+		} catch (UncheckedIOException e) {
+			Assert.assertTrue(e.getMessage().contains(file.getName()), e.getMessage());
+			Assert.assertTrue(e.getMessage().contains("after 1 records"), e.getMessage());
+		}
+		Assert.assertFalse(reader.hasNext());
+	}
+
+	@Test(description = "The sample users ship on the classpath")
+	public void sampleResourceTest() throws IOException {
+		List<Users> users = new ArrayList<>();
+		DataFileReader.open(DataFileReader.resourceFile("com/qa/data/users.ndjson"), Users.class)
+				.forEachRemaining(users::add);
+		Assert.assertEquals(users.size(), 5);
+		Assert.assertEquals(users.get(0).getName(), "morpheus");
+		Assert.expectThrows(FileNotFoundException.class, () -> DataFileReader.resourceFile("com/qa/data/none.csv"));
+	}
+
+	@Test(description = "Shard specs parse as index/count")
+	public void shardSpecTest() {
+		Assert.assertEquals(DataShard.parse("2/4"), new DataShard(2, 4));
+		Assert.assertEquals(DataShard.parse(" "), DataShard.ALL);
+		Assert.assertEquals(DataShard.parse(null), DataShard.ALL);
+		for (String bad : new String[] { "4/4", "-1/2", "1", "a/b" }) {
+			try {
+				DataShard.parse(bad);
+				Assert.fail("Accepted " + bad);
+			} catch (IllegalArgumentException expected) {
+				// rejected
+			}
+		}
+	}
+}
@@ -2,21 +2,20 @@ package com.qa.tests;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.Map;
 
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.util.EntityUtils;
 import org.apache.log4j.Logger;
-import org.json.JSONArray;
 import org.json.JSONObject;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Parameters;
 import org.testng.annotations.Test;
 
-import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.Status;
 import com.qa.base.BaseTest;
-import com.qa.client.RestClient;
+import com.qa.client.RestResponse;
+import com.qa.log.LogPayload;
+import com.qa.util.JsonStreamExtractor;
 
 /**
  * GET API Test Class Tests GET endpoints to retrieve user data
@@ -27,24 +26,19 @@ public class GetAPITest extends BaseTest {
 
 	String serviceURL;
 	String apiURL;
-	RestClient restClient;
 	String url;
-	CloseableHttpResponse closeableHttpResponse;
 
 	@BeforeMethod
 	public void setUp() {
 		try {
 			logger.info("========== Starting GET API Test Setup ==========");
 
-			serviceURL = prop.getProperty("baseURL");
-			apiURL = prop.getProperty("resourcePath");
+			serviceURL = getProperty("baseURL");
+			apiURL = getProperty("resourcePath");
 			url = serviceURL + apiURL;
 
 			logger.info("API URL: " + url);
 
-			restClient = new RestClient();
-			logger.info("RestClient initialized");
-
 			logger.info("========== GET API Test Setup Completed ==========");
 		} catch (Exception e) {
 			logger.error("Setup failed: " + e.getMessage(), e);
@@ -57,38 +51,41 @@ public class GetAPITest extends BaseTest {
 	 */
 	@Test(priority = 1, description = "Get user by ID")
 	public void getUserByIdTest() {
+		RestResponse closeableHttpResponse = null;
 		try {
 			logger.info("========== Starting Get User By ID Test ==========");
 
-			extentTest = extent.createTest("GET API Test - Get User By ID");
-			extentTest.log(Status.INFO, "Test started: Get user with ID 2");
+			startTest("GET API Test - Get User By ID");
+			test().log(Status.INFO, "Test started: Get user with ID 2");
 
 			// Prepare headers
 			HashMap<String, String> headerMap = new HashMap<>();
 			headerMap.put("Content-Type", "application/json");
 			logger.info("Headers prepared");
-			extentTest.log(Status.INFO, "Headers configured");
+			test().log(Status.INFO, "Headers configured");
 
 			// Send GET request
 			String getUserUrl = url + "/2"; // Get user with ID 2
 			logger.info("Sending GET request to: " + getUserUrl);
-			extentTest.log(Status.INFO, "GET request URL: " + getUserUrl);
+			test().log(Status.INFO, "GET request URL: " + getUserUrl);
 
 			closeableHttpResponse = restClient.get(getUserUrl, headerMap);
 
 			// Validate status code
 			int statusCode = closeableHttpResponse.getStatusLine().getStatusCode();
 			logger.info("Response status code: " + statusCode);
-			extentTest.log(Status.INFO, "Response status: " + statusCode);
+			test().log(Status.INFO, "Response status: " + statusCode);
 
 			Assert.assertEquals(statusCode, BaseTest.RESPONSE_STATUS_CODE_200, "Expected status 200 for GET request");
 			logger.info("✓ Status code validation passed");
-			extentTest.log(Status.PASS, "Status validation passed");
+			test().log(Status.PASS, "Status validation passed");
 
 			// Extract and parse response
-			String responseString = EntityUtils.toString(closeableHttpResponse.getEntity(), "UTF-8");
-			logger.info("Response: " + responseString);
-			extentTest.log(Status.INFO, "Response received");
+			String responseString = closeableHttpResponse.readBodyAsString();
+			if (logger.isDebugEnabled()) {
+				logger.debug("Response: " + LogPayload.truncate(responseString));
+			}
+			test().log(Status.INFO, "Response received");
 
 			// Parse JSON response
 			JSONObject responseJson = new JSONObject(responseString);
@@ -102,17 +99,17 @@ public class GetAPITest extends BaseTest {
 
 			logger.info("✓ All validations passed");
 			logger.info("User details: " + dataObject.toString());
-			extentTest.log(Status.PASS, "All validations passed");
+			test().log(Status.PASS, "All validations passed");
 
 			logger.info("========== Get User By ID Test Completed ==========");
 
 		} catch (AssertionError e) {
 			logger.error("Assertion failed: " + e.getMessage(), e);
-			extentTest.log(Status.FAIL, "Test failed: " + e.getMessage());
+			test().log(Status.FAIL, "Test failed: " + e.getMessage());
 			throw e;
 		} catch (Exception e) {
 			logger.error("Exception: " + e.getMessage(), e);
-			extentTest.log(Status.FAIL, "Exception: " + e.getMessage());
+			test().log(Status.FAIL, "Exception: " + e.getMessage());
 			throw new RuntimeException("Test failed: " + e.getMessage(), e);
 		} finally {
 			try {
@@ -130,17 +127,18 @@ public class GetAPITest extends BaseTest {
 	 */
 	@Test(priority = 2, description = "Get all users")
 	public void getAllUsersTest() {
+		RestResponse closeableHttpResponse = null;
 		try {
 			logger.info("========== Starting Get All Users Test ==========");
 
-			extentTest = extent.createTest("GET API Test - Get All Users");
-			extentTest.log(Status.INFO, "Test started: Get all users");
+			startTest("GET API Test - Get All Users");
+			test().log(Status.INFO, "Test started: Get all users");
 
 			HashMap<String, String> headerMap = new HashMap<>();
 			headerMap.put("Content-Type", "application/json");
 
 			logger.info("Sending GET request to: " + url);
-			extentTest.log(Status.INFO, "GET request URL: " + url);
+			test().log(Status.INFO, "GET request URL: " + url);
 
 			closeableHttpResponse = restClient.get(url, headerMap);
 
@@ -148,23 +146,22 @@ public class GetAPITest extends BaseTest {
 			logger.info("Response status code: " + statusCode);
 
 			Assert.assertEquals(statusCode, 200);
-			extentTest.log(Status.PASS, "Status code validation passed");
+			test().log(Status.PASS, "Status code validation passed");
 
-			String responseString = EntityUtils.toString(closeableHttpResponse.getEntity(), "UTF-8");
+			// Stream only the fields we need instead of parsing the whole list
+			Map<String, String> values = JsonStreamExtractor.extract(closeableHttpResponse.getEntity().getContent(),
+					"total", "data[0]/id");
 			logger.info("Response received");
 
-			JSONObject responseJson = new JSONObject(responseString);
-			JSONArray dataArray = responseJson.getJSONArray("data");
-
-			Assert.assertTrue(dataArray.length() > 0, "Users list should not be empty");
-			logger.info("Total users found: " + dataArray.length());
-			extentTest.log(Status.PASS, "Found " + dataArray.length() + " users");
+			Assert.assertNotNull(values.get("data[0]/id"), "Users list should not be empty");
+			logger.info("Total users found: " + values.get("total"));
+			test().log(Status.PASS, "Found " + values.get("total") + " users");
 
 			logger.info("========== Get All Users Test Completed ==========");
 
 		} catch (Exception e) {
 			logger.error("Exception: " + e.getMessage(), e);
-			extentTest.log(Status.FAIL, "Exception: " + e.getMessage());
+			test().log(Status.FAIL, "Exception: " + e.getMessage());
 			throw new RuntimeException("Test failed: " + e.getMessage(), e);
 		} finally {
 			try {
@@ -182,33 +179,35 @@ public class GetAPITest extends BaseTest {
 	 */
 	@Test(priority = 3, description = "Get non-existent user - Negative Test")
 	public void getNonExistentUserTest() {
+		RestResponse closeableHttpResponse = null;
 		try {
 			logger.info("========== Starting Non-Existent User Test ==========");
 
-			extentTest = extent.createTest("GET API Test - Non-Existent User (Negative)");
-			extentTest.log(Status.INFO, "Test started: Get non-existent user");
+			startTest("GET API Test - Non-Existent User (Negative)");
+			test().log(Status.INFO, "Test started: Get non-existent user");
 
 			HashMap<String, String> headerMap = new HashMap<>();
 			headerMap.put("Content-Type", "application/json");
 
 			String nonExistentUrl = url + "/999";
 			logger.info("Requesting non-existent user: " + nonExistentUrl);
-			extentTest.log(Status.INFO, "GET request to non-existent ID: 999");
+			test().log(Status.INFO, "GET request to non-existent ID: 999");
 
 			closeableHttpResponse = restClient.get(nonExistentUrl, headerMap);
 
 			int statusCode = closeableHttpResponse.getStatusLine().getStatusCode();
+			closeableHttpResponse.discard(); // status-only check, body is not read
 			logger.info("Response status code: " + statusCode);
 
 			Assert.assertEquals(statusCode, 404, "Should return 404 for non-existent user");
 			logger.info("✓ Correctly returned 404");
-			extentTest.log(Status.PASS, "API correctly returned 404");
+			test().log(Status.PASS, "API correctly returned 404");
 
 			logger.info("========== Non-Existent User Test Completed ==========");
 
 		} catch (Exception e) {
 			logger.error("Exception: " + e.getMessage(), e);
-			extentTest.log(Status.FAIL, "Exception: " + e.getMessage());
+			test().log(Status.FAIL, "Exception: " + e.getMessage());
 			throw new RuntimeException("Test failed: " + e.getMessage(), e);
 		} finally {
 			try {
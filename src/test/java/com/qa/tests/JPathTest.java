@@ -0,0 +1,54 @@
+package com.qa.tests;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qa.util.JPath;
+import com.qa.util.TestUtilities;
+
+/**
+ * JPath Test Class Checks compiled JPath expressions against the values the
+ * tests extract from reqres-style responses
+ */
+public class JPathTest {
+
+	private static final JSONObject RESPONSE = new JSONObject("{\"page\":2,\"data\":[{\"id\":7,\"first_name\":\"Michael\"},"
+			+ "{\"id\":8,\"first_name\":\"Lindsay\"}],\"support\":{\"url\":\"https://reqres.in/#support-heading\"}}");
+
+	@Test(description = "Compile splits keys and array indexes")
+	public void compileTest() {
+		JPath path = JPath.compile("/data[1]/first_name");
+
+		Assert.assertEquals(path.size(), 2);
+		Assert.assertEquals(path.getKey(0), "data");
+		Assert.assertEquals(path.getIndex(0), 1);
+		Assert.assertEquals(path.getKey(1), "first_name");
+		Assert.assertEquals(path.getIndex(1), -1);
+	}
+
+	@Test(description = "Compiled paths return the same values as getValueByJPath")
+	public void evaluateTest() {
+		Assert.assertEquals(JPath.compile("page").getValue(RESPONSE), "2");
+		Assert.assertEquals(JPath.compile("data[0]/id").getValue(RESPONSE), "7");
+		Assert.assertEquals(JPath.compile("data[1]/first_name").getValue(RESPONSE), "Lindsay");
+		Assert.assertEquals(JPath.compile("support/url").getValue(RESPONSE), "https://reqres.in/#support-heading");
+		Assert.assertEquals(TestUtilities.getValueByJPath(RESPONSE, "data[1]/id"), "8");
+	}
+
+	@Test(description = "Cached lookups return the same compiled instance")
+	public void cacheTest() {
+		Assert.assertSame(JPath.of("data[0]/first_name"), JPath.of("data[0]/first_name"));
+	}
+
+	@Test(description = "Invalid paths fail like the original implementation", expectedExceptions = NumberFormatException.class)
+	public void invalidIndexTest() {
+		JPath.compile("data[x]/id");
+	}
+
+	@Test(description = "Missing keys raise JSONException", expectedExceptions = JSONException.class)
+	public void missingKeyTest() {
+		JPath.compile("data[0]/email").getValue(RESPONSE);
+	}
+}
@@ -0,0 +1,38 @@
+package com.qa.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qa.data.JsonCodecs;
+import com.qa.data.Users;
+
+/**
+ * JsonCodecs Test Class Checks the shared readers and writers used for request
+ * and response POJOs
+ */
+public class JsonCodecsTest {
+
+	@Test(description = "Readers and writers are cached per type")
+	public void cacheTest() {
+		Assert.assertSame(JsonCodecs.reader(Users.class), JsonCodecs.reader(Users.class));
+		Assert.assertSame(JsonCodecs.writer(Users.class), JsonCodecs.writer(Users.class));
+	}
+
+	@Test(description = "Null fields are left out and responses map back to Users")
+	public void roundTripTest() throws IOException {
+		Users users = new Users("morpheus", "leader");
+		String json = JsonCodecs.toJson(users);
+		Assert.assertTrue(json.startsWith("{\"name\":\"morpheus\",\"job\":\"leader\""), json);
+		Assert.assertFalse(json.contains("\"id\""), json);
+
+		Users response = JsonCodecs.read(new ByteArrayInputStream(
+				"{\"name\":\"morpheus\",\"job\":\"leader\",\"id\":\"42\",\"createdAt\":\"2024-01-01\"}".getBytes("UTF-8")),
+				Users.class);
+		Assert.assertEquals(response, users);
+		Assert.assertEquals(response.getId(), "42");
+		Assert.assertEquals(response.getCreatedAt(), "2024-01-01");
+	}
+}
@@ -0,0 +1,55 @@
+package com.qa.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qa.util.JsonStreamExtractor;
+
+/**
+ * JsonStreamExtractor Test Class Checks streamed values against what
+ * getValueByJPath returns for the same document
+ */
+public class JsonStreamExtractorTest {
+
+	private static final String RESPONSE = "{\"page\":2,\"data\":[{\"id\":7,\"first_name\":\"Michael\",\"avatar\":null},"
+			+ "{\"id\":8,\"first_name\":\"Lindsay\",\"tags\":[\"a\",\"b\"]}],\"support\":{\"url\":\"https://reqres.in\"}}";
+
+	@Test(description = "Scalars, nulls and containers are extracted as strings")
+	public void extractTest() throws IOException {
+		Map<String, String> values = JsonStreamExtractor.extract(stream(RESPONSE), "page", "data[1]/first_name",
+				"data[0]/avatar", "data[1]/tags", "support");
+
+		Assert.assertEquals(values.get("page"), "2");
+		Assert.assertEquals(values.get("data[1]/first_name"), "Lindsay");
+		Assert.assertEquals(values.get("data[0]/avatar"), "null");
+		Assert.assertEquals(values.get("data[1]/tags"), "[\"a\",\"b\"]");
+		Assert.assertEquals(values.get("support"), "{\"url\":\"https://reqres.in\"}");
+	}
+
+	@Test(description = "Missing paths are left out of the result")
+	public void missingPathTest() throws IOException {
+		Map<String, String> values = JsonStreamExtractor.extract(stream(RESPONSE), "data[5]/id", "total", "page");
+
+		Assert.assertEquals(values.size(), 1);
+		Assert.assertEquals(values.get("page"), "2");
+	}
+
+	@Test(description = "Parsing stops once every path is resolved")
+	public void stopsEarlyTest() throws IOException {
+		// Everything after the first element is invalid JSON and must never be read
+		String truncated = "{\"data\":[{\"id\":7}, this is not json";
+		Map<String, String> values = JsonStreamExtractor.extract(stream(truncated), "data[0]/id");
+
+		Assert.assertEquals(values.get("data[0]/id"), "7");
+	}
+
+	private static InputStream stream(String json) {
+		return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,160 @@
+package com.qa.tests;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qa.config.LayeredConfig;
+import com.qa.config.TestConfig;
+import com.qa.load.LoadProfile;
+
+/**
+ * LayeredConfig Test Class Checks the layer precedence, runtime overrides,
+ * failed reloads, the file watcher swapping the snapshot and load.* settings
+ * read through the layers
+ */
+public class LayeredConfigTest {
+
+	/**
+	 * Class path root holding com/qa/config/config.properties (and optional
+	 * profiles), isolated from the real one
+	 */
+	private static ClassLoader classpath(String defaults, String profile, String profileName) throws IOException {
+		Path root = Files.createTempDirectory("config");
+		Path dir = Files.createDirectories(root.resolve("com/qa/config"));
+		Files.write(dir.resolve("config.properties"), defaults.getBytes(StandardCharsets.UTF_8));
+		if (profile != null) {
+			Files.write(dir.resolve("config-" + profileName + ".properties"), profile.getBytes(StandardCharsets.UTF_8));
+		}
+		root.toFile().deleteOnExit();
+		return new URLClassLoader(new URL[] { root.toUri().toURL() }, null);
+	}
+
+	private static File propertiesFile(String content) throws IOException {
+		File file = File.createTempFile("layer", ".properties");
+		file.deleteOnExit();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	/**
+	 * config.file as a suite parameter, so -Dconfig.file of the run cannot
+	 * replace it
+	 */
+	private static Map<String, String> configFile(File file) {
+		Map<String, String> parameters = new HashMap<>();
+		parameters.put(LayeredConfig.CONFIG_FILE, file.getAbsolutePath());
+		return parameters;
+	}
+
+	@Test(description = "Defaults < profile < config.file < system properties < TestNG parameters")
+	public void precedenceTest() throws IOException {
+		File extra = propertiesFile("b=file\nc=file\nd=file\ne=file\n");
+		ClassLoader loader = classpath(
+				"a=defaults\nb=defaults\nc=defaults\nd=defaults\ne=defaults\nlayered.test.sysprop=defaults\n",
+				"a=profile\nb=profile\n", "staging");
+
+		Map<String, String> parameters = new HashMap<>();
+		parameters.put("environment", "Staging");
+		parameters.put(LayeredConfig.CONFIG_FILE, extra.getAbsolutePath());
+		parameters.put("e", "testng");
+		System.setProperty("layered.test.sysprop", "system");
+		System.setProperty("layered.test.unknown", "system");
+		try (LayeredConfig layers = new LayeredConfig(loader, parameters)) {
+			TestConfig config = layers.current();
+			Assert.assertEquals(config.get("a"), "profile");
+			Assert.assertEquals(config.get("b"), "file");
+			Assert.assertEquals(config.get("e"), "testng");
+			Assert.assertEquals(config.get("layered.test.sysprop"), "system");
+			Assert.assertNull(config.get("layered.test.unknown"), "only keys defined by the files are overridden");
+			Assert.assertEquals(layers.getSources().size(), 5, layers.getSources().toString());
+		} finally {
+			System.clearProperty("layered.test.sysprop");
+			System.clearProperty("layered.test.unknown");
+		}
+	}
+
+	@Test(description = "Overrides stay on top across reloads; a failed reload keeps the snapshot")
+	public void overrideAndReloadTest() throws IOException {
+		File extra = propertiesFile("rate=10\n");
+		ClassLoader loader = classpath("baseURL=https://example.com\n", null, null);
+		try (LayeredConfig layers = new LayeredConfig(loader, configFile(extra))) {
+			TestConfig original = layers.current();
+			layers.override("baseURL", "http://localhost:1234");
+			Assert.assertFalse(layers.reload(), "nothing changed on disk");
+
+			Files.write(extra.toPath(), "rate=20\n".getBytes(StandardCharsets.UTF_8));
+			Assert.assertTrue(layers.reload());
+			Assert.assertEquals(layers.current().get("rate"), "20");
+			Assert.assertEquals(layers.current().get("baseURL"), "http://localhost:1234");
+			Assert.assertEquals(original.get("rate"), "10", "old snapshots never change");
+
+			Assert.assertTrue(extra.delete());
+			TestConfig before = layers.current();
+			Assert.assertFalse(layers.reload());
+			Assert.assertSame(layers.current(), before);
+		}
+	}
+
+	@Test(description = "LoadProfile reads load.* through the layers and follows reloads")
+	public void loadProfileTest() throws IOException {
+		File extra = propertiesFile("load.enabled=true\nload.rps=10\n");
+		Map<String, String> parameters = configFile(extra);
+		parameters.put(LoadProfile.STEADY_SECONDS, "5");
+		ClassLoader loader = classpath("load.enabled=false\nload.users=7\nload.rps=0\nload.steadySeconds=60\n", null,
+				null);
+		try (LayeredConfig layers = new LayeredConfig(loader, parameters)) {
+			LoadProfile profile = LoadProfile.resolve(layers.current());
+			Assert.assertTrue(profile.isEnabled());
+			Assert.assertEquals(profile.getUsers(), 7);
+			Assert.assertEquals(profile.getRps(), 10.0);
+			Assert.assertEquals(profile.getSteadySeconds(), 5);
+			Assert.assertEquals(profile.getMaxThreads(), 200, "built-in default for a missing key");
+
+			Files.write(extra.toPath(), "load.enabled=true\nload.rps=40\n".getBytes(StandardCharsets.UTF_8));
+			Assert.assertTrue(layers.reload());
+			Assert.assertEquals(LoadProfile.resolve(layers.current()).getRps(), 40.0);
+		}
+	}
+
+	@Test(description = "Missing defaults fail fast")
+	public void missingDefaultsTest() {
+		try {
+			new LayeredConfig(new URLClassLoader(new URL[0], null), null);
+			Assert.fail("Expected missing defaults to fail");
+		} catch (IOException e) {
+			Assert.assertTrue(e.getMessage().contains(LayeredConfig.DEFAULTS_RESOURCE), e.getMessage());
+		}
+	}
+
+	@Test(description = "The watcher swaps the snapshot when a config file is edited")
+	public void watchTest() throws Exception {
+		File extra = propertiesFile("load.rps=10\n");
+		try (LayeredConfig layers = new LayeredConfig(classpath("", null, null), configFile(extra))) {
+			CountDownLatch reloaded = new CountDownLatch(1);
+			AtomicReference<TestConfig> previous = new AtomicReference<>();
+			layers.addListener((before, after) -> {
+				previous.set(before);
+				reloaded.countDown();
+			});
+			layers.startWatching();
+
+			Files.write(extra.toPath(), "load.rps=50\n".getBytes(StandardCharsets.UTF_8));
+			Assert.assertTrue(reloaded.await(10, TimeUnit.SECONDS), "no reload after the file changed");
+			Assert.assertEquals(layers.current().get("load.rps"), "50");
+			Assert.assertEquals(previous.get().get("load.rps"), "10");
+		}
+	}
+}
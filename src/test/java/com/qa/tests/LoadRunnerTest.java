@@ -0,0 +1,124 @@
+package com.qa.tests;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qa.client.RestClient;
+import com.qa.client.RestResponse;
+import com.qa.load.LoadProfile;
+import com.qa.load.LoadReport;
+import com.qa.load.LoadRunner;
+import com.qa.load.Scenario;
+import com.qa.mock.MockServerConfig;
+import com.qa.mock.MockUserServer;
+
+/**
+ * LoadRunner Test Class Drives short load profiles against the mock server and
+ * checks the achieved rate, the virtual users, the error rate and the
+ * latency percentiles of the report
+ */
+public class LoadRunnerTest {
+
+	/**
+	 * Own server per test, so the peak in-flight count only sees that test
+	 */
+	private static MockUserServer startServer() throws IOException {
+		return new MockUserServer(new MockServerConfig(), MockUserServer.DEFAULT_RESOURCE_PATH).start();
+	}
+
+	/**
+	 * GET one user, answered after latencyMillis; every failEvery-th iteration
+	 * gets a 500 (0 = never)
+	 */
+	private static Scenario getUser(MockUserServer server, RestClient restClient, long latencyMillis, int failEvery,
+			AtomicInteger iterations) {
+		return () -> {
+			HashMap<String, String> headerMap = new HashMap<String, String>();
+			headerMap.put(MockUserServer.LATENCY_HEADER, String.valueOf(latencyMillis));
+			if (failEvery > 0 && iterations.incrementAndGet() % failEvery == 0) {
+				headerMap.put(MockUserServer.STATUS_HEADER, "500");
+			}
+			try (RestResponse response = restClient.get(server.getResourceUrl() + "/2", headerMap)) {
+				Assert.assertEquals(response.getStatusCode(), 200);
+			}
+		};
+	}
+
+	private static LoadProfile profile(long rampUpSeconds, long steadySeconds, long rampDownSeconds) {
+		LoadProfile profile = new LoadProfile();
+		profile.setEnabled(true);
+		profile.setRampUpSeconds(rampUpSeconds);
+		profile.setSteadySeconds(steadySeconds);
+		profile.setRampDownSeconds(rampDownSeconds);
+		return profile;
+	}
+
+	@Test(description = "Open model holds the target rate and ramps linearly")
+	public void openModelTest() throws Exception {
+		LoadProfile profile = profile(1, 2, 1);
+		profile.setRps(50);
+		AtomicInteger iterations = new AtomicInteger();
+		LoadReport report;
+		try (MockUserServer server = startServer(); RestClient restClient = new RestClient()) {
+			report = new LoadRunner("open", profile, () -> getUser(server, restClient, 20, 0, iterations)).run();
+		}
+
+		Assert.assertEquals(report.getErrors(), 0, String.valueOf(report.getFirstError()));
+		Assert.assertEquals(report.getMissed(), 0);
+		Assert.assertEquals(report.getSteadyThroughput(), 50, 10, report.toString());
+		// 25 requests per ramp (half the rate on average) + 100 steady
+		Assert.assertTrue(report.getRequests() >= 120 && report.getRequests() <= 180, report.toString());
+
+		// Latency is measured from the intended start, so it includes the 20 ms
+		Assert.assertTrue(report.getPercentileMillis(50) >= 20, report.toString());
+		Assert.assertTrue(report.getPercentileMillis(50) <= report.getPercentileMillis(99), report.toString());
+		Assert.assertTrue(report.getPercentileMillis(99) < 1000, report.toString());
+		Assert.assertEquals(report.getLatencies().getTotalCount(), report.getRequests());
+		Assert.assertFalse(report.isErrorRateExceeded());
+	}
+
+	@Test(description = "Closed model runs exactly load.users virtual users")
+	public void closedModelTest() throws Exception {
+		LoadProfile profile = profile(0, 2, 0);
+		profile.setUsers(4);
+		AtomicInteger iterations = new AtomicInteger();
+		LoadReport report;
+		int peakInFlight;
+		try (MockUserServer server = startServer(); RestClient restClient = new RestClient()) {
+			report = new LoadRunner("closed", profile, () -> getUser(server, restClient, 50, 0, iterations)).run();
+			peakInFlight = server.getPeakInFlight();
+		}
+
+		Assert.assertEquals(report.getErrors(), 0, String.valueOf(report.getFirstError()));
+		Assert.assertTrue(peakInFlight > 1, "virtual users did not overlap");
+		Assert.assertTrue(peakInFlight <= 4, peakInFlight + " requests in flight");
+		// 4 users x one request per 50+ ms each
+		Assert.assertTrue(report.getSteadyThroughput() > 20 && report.getSteadyThroughput() <= 85,
+				report.toString());
+		Assert.assertTrue(report.getPercentileMillis(50) >= 50, report.toString());
+		Assert.assertTrue(report.getPercentileMillis(100) < 2000, report.toString());
+	}
+
+	@Test(description = "Failed iterations count as errors against load.maxErrorRate")
+	public void errorRateTest() throws Exception {
+		LoadProfile profile = profile(0, 1, 0);
+		profile.setUsers(2);
+		profile.setMaxErrorRate(0.01);
+		AtomicInteger iterations = new AtomicInteger();
+		LoadReport report;
+		try (MockUserServer server = startServer(); RestClient restClient = new RestClient()) {
+			report = new LoadRunner("errors", profile, () -> getUser(server, restClient, 10, 4, iterations)).run();
+		}
+
+		Assert.assertTrue(report.getRequests() > 8, report.toString());
+		Assert.assertEquals(report.getErrorRate(), 0.25, 0.05, report.toString());
+		Assert.assertNotNull(report.getFirstError());
+		Assert.assertTrue(report.isErrorRateExceeded());
+		profile.setMaxErrorRate(0.5);
+		Assert.assertFalse(report.isErrorRateExceeded());
+	}
+}
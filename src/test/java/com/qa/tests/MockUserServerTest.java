@@ -0,0 +1,101 @@
+package com.qa.tests;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.qa.client.RestClient;
+import com.qa.client.RestResponse;
+import com.qa.data.Users;
+import com.qa.mock.MockServerConfig;
+import com.qa.mock.MockUserServer;
+import com.qa.util.JsonStreamExtractor;
+
+/**
+ * MockUserServer Test Class Checks the reqres-style routes and fault injection
+ * of the embedded users API
+ */
+public class MockUserServerTest {
+
+	private MockUserServer server;
+	private RestClient restClient;
+	private String url;
+
+	@BeforeClass
+	public void startServer() throws IOException {
+		server = new MockUserServer(new MockServerConfig(), MockUserServer.DEFAULT_RESOURCE_PATH).start();
+		restClient = new RestClient();
+		url = server.getResourceUrl();
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopServer() throws IOException {
+		restClient.close();
+		server.stop();
+	}
+
+	@Test(description = "GET by id and list return reqres shapes")
+	public void readTest() throws IOException {
+		try (RestResponse response = restClient.get(url + "/2", null)) {
+			Assert.assertEquals(response.getStatusCode(), 200);
+			Map<String, String> values = JsonStreamExtractor.extract(response.openStream(), "data/id",
+					"data/first_name");
+			Assert.assertEquals(values.get("data/id"), "2");
+			Assert.assertEquals(values.get("data/first_name"), "Janet");
+		}
+		try (RestResponse response = restClient.get(url + "?page=2", null)) {
+			Map<String, String> values = JsonStreamExtractor.extract(response.openStream(), "total", "page",
+					"data[0]/id");
+			Assert.assertEquals(values.get("total"), "12");
+			Assert.assertEquals(values.get("page"), "2");
+			Assert.assertEquals(values.get("data[0]/id"), "7");
+		}
+		try (RestResponse response = restClient.get(url + "/999", null)) {
+			Assert.assertEquals(response.getStatusCode(), 404);
+			Assert.assertEquals(response.readBodyAsString(), "{}");
+		}
+	}
+
+	@Test(description = "Created users can be read, updated and deleted")
+	public void crudTest() throws IOException {
+		Users created;
+		try (RestResponse response = restClient.postJson(url, new Users("neo", "the one"), null)) {
+			Assert.assertEquals(response.getStatusCode(), 201);
+			created = restClient.readEntity(response, Users.class);
+		}
+		Assert.assertEquals(created.getName(), "neo");
+		Assert.assertNotNull(created.getCreatedAt());
+
+		String userUrl = url + "/" + created.getId();
+		try (RestResponse response = restClient.putJson(userUrl, new Users("neo", "pilot"), null)) {
+			Assert.assertEquals(response.getStatusCode(), 200);
+			Assert.assertNotNull(restClient.readEntity(response, Users.class).getUpdatedAt());
+		}
+		try (RestResponse response = restClient.delete(userUrl, null)) {
+			Assert.assertEquals(response.getStatusCode(), 204);
+		}
+		try (RestResponse response = restClient.get(userUrl, null)) {
+			Assert.assertEquals(response.getStatusCode(), 404);
+		}
+		try (RestResponse response = restClient.postJson(url, new Users("", "nobody"), null)) {
+			Assert.assertEquals(response.getStatusCode(), 400);
+		}
+	}
+
+	@Test(description = "Headers force an error status and a delay")
+	public void faultInjectionTest() throws IOException {
+		HashMap<String, String> headers = new HashMap<>();
+		headers.put(MockUserServer.STATUS_HEADER, "503");
+		headers.put(MockUserServer.LATENCY_HEADER, "100");
+		long start = System.nanoTime();
+		try (RestResponse response = restClient.get(url + "/2", headers)) {
+			Assert.assertEquals(response.getStatusCode(), 503);
+		}
+		Assert.assertTrue(System.nanoTime() - start >= 100_000_000L, "response was not delayed");
+	}
+}
@@ -0,0 +1,166 @@
+package com.qa.tests;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import org.json.JSONObject;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qa.capture.CaptureConfig;
+import com.qa.capture.PayloadCapture;
+import com.qa.data.Users;
+
+/**
+ * PayloadCapture Test Class Checks the compressed NDJSON artifact: concurrent
+ * captures, payload truncation, the byte cap and sampling
+ */
+public class PayloadCaptureTest {
+
+	private static File tempFile() throws IOException {
+		File file = File.createTempFile("capture", ".ndjson.gz");
+		file.deleteOnExit();
+		return file;
+	}
+
+	private static List<JSONObject> readLines(File file) throws IOException {
+		List<JSONObject> lines = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines.add(new JSONObject(line));
+			}
+		}
+		return lines;
+	}
+
+	@Test(description = "Payloads captured from many threads all arrive as JSON lines")
+	public void concurrentCaptureTest() throws Exception {
+		File file = tempFile();
+		PayloadCapture capture = new PayloadCapture(file, new CaptureConfig());
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			int thread = t;
+			threads.add(new Thread(() -> {
+				for (int i = 0; i < 500; i++) {
+					capture.capture("T" + thread, "request", new Users("user " + thread + "-" + i, "job"));
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		capture.close();
+
+		Assert.assertEquals(capture.getWritten(), 2000);
+		Assert.assertEquals(capture.getDropped(), 0);
+		List<JSONObject> lines = readLines(file);
+		Assert.assertEquals(lines.size(), 2000);
+		Set<String> names = new HashSet<>();
+		for (JSONObject line : lines) {
+			Assert.assertEquals(line.getString("name"), "request");
+			Assert.assertEquals(line.getJSONObject("payload").getString("job"), "job");
+			names.add(line.getJSONObject("payload").getString("name"));
+		}
+		Assert.assertEquals(names.size(), 2000);
+	}
+
+	@Test(description = "Large payloads are cut, and the byte cap stops the capture")
+	public void sizeCapsTest() throws IOException {
+		CaptureConfig config = new CaptureConfig();
+		config.setMaxPayloadBytes(100);
+		config.setMaxBytes(2000);
+		File file = tempFile();
+		PayloadCapture capture = new PayloadCapture(file, config);
+		StringBuilder big = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			big.append('x');
+		}
+		capture.capture("SizeTest", "response", big.toString());
+		for (int i = 0; i < 100; i++) {
+			capture.capture("SizeTest", "request", new Users("user " + i, "job"));
+		}
+		capture.close();
+
+		List<JSONObject> lines = readLines(file);
+		JSONObject first = lines.get(0);
+		Assert.assertTrue(first.getBoolean("truncated"));
+		Assert.assertEquals(first.getInt("bytes"), 1002); // quoted JSON string
+		Assert.assertEquals(first.getString("payload").length(), 100);
+		Assert.assertEquals(capture.getTruncated(), 1);
+
+		Assert.assertTrue(lines.size() < 101, lines.size() + " lines");
+		Assert.assertEquals(capture.getWritten(), lines.size());
+		Assert.assertEquals(capture.getWritten() + capture.getDropped(), 101);
+	}
+
+	@Test(description = "Cut payloads end on a whole UTF-8 character")
+	public void multibyteTruncationTest() throws IOException {
+		CaptureConfig config = new CaptureConfig();
+		config.setMaxPayloadBytes(100);
+		File file = tempFile();
+		PayloadCapture capture = new PayloadCapture(file, config);
+		StringBuilder big = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			big.append('\u00e9'); // 2 bytes in UTF-8
+		}
+		// Opening quote + 49 characters = 99 bytes, the 50th would end at byte 101
+		capture.capture("Utf8Test", "response", big.toString());
+		capture.close();
+
+		JSONObject line = readLines(file).get(0);
+		Assert.assertTrue(line.getBoolean("truncated"));
+		String payload = line.getString("payload");
+		Assert.assertEquals(payload.length(), 50); // quote + 49 characters
+		Assert.assertEquals(payload.substring(1), big.substring(0, 49));
+	}
+
+	@Test(description = "Captures racing with close are written or counted as dropped, never lost")
+	public void closeRaceTest() throws Exception {
+		for (int round = 0; round < 20; round++) {
+			File file = tempFile();
+			PayloadCapture capture = new PayloadCapture(file, new CaptureConfig());
+			Thread producer = new Thread(() -> {
+				for (int i = 0; i < 2000; i++) {
+					capture.capture("RaceTest", "request", "payload " + i);
+				}
+			});
+			producer.start();
+			capture.close();
+			producer.join();
+
+			Assert.assertEquals(capture.getWritten() + capture.getDropped(), 2000);
+			Assert.assertEquals(capture.getCaptured(), capture.getWritten());
+			Assert.assertEquals(readLines(file).size(), capture.getWritten());
+		}
+	}
+
+	@Test(description = "sampleRate decides per invocation; captures after close are dropped")
+	public void samplingTest() throws IOException {
+		CaptureConfig never = new CaptureConfig();
+		never.setSampleRate(0.0);
+		PayloadCapture none = new PayloadCapture(tempFile(), never);
+		PayloadCapture all = new PayloadCapture(tempFile(), new CaptureConfig());
+		for (int i = 0; i < 100; i++) {
+			Assert.assertFalse(none.sample());
+			Assert.assertTrue(all.sample());
+		}
+		none.close();
+		all.close();
+
+		all.capture("Closed", "request", "late");
+		Assert.assertEquals(all.getDropped(), 1);
+		Assert.assertEquals(readLines(all.getFile()).size(), 0);
+	}
+}
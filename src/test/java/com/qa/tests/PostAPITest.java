@@ -1,21 +1,19 @@
 package com.qa.tests;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
 
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.util.EntityUtils;
 import org.apache.log4j.Logger;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import com.aventstack.extentreports.Status;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.qa.base.BaseTest;
-import com.qa.client.RestClient;
+import com.qa.client.RestResponse;
+import com.qa.data.JsonCodecs;
 import com.qa.data.Users;
+import com.qa.log.LogPayload;
 
 /**
  * POST API Test Class - FIXED VERSION
@@ -26,24 +24,19 @@ public class PostAPITest extends BaseTest {
 
     String serviceURL;
     String apiURL;
-    RestClient restClient;
     String url;
-    CloseableHttpResponse closeableHttpResponse;
 
     @BeforeMethod
     public void setUp() {
         try {
             logger.info("========== Starting POST API Test Setup ==========");
 
-            serviceURL = prop.getProperty("baseURL");
-            apiURL = prop.getProperty("resourcePath");
+            serviceURL = getProperty("baseURL");
+            apiURL = getProperty("resourcePath");
             url = serviceURL + apiURL;
 
             logger.info("Complete URL: " + url);
 
-            restClient = new RestClient();
-            logger.info("RestClient initialized successfully");
-
             logger.info("========== POST API Test Setup Completed ==========");
 
         } catch (Exception e) {
@@ -54,61 +47,45 @@ public class PostAPITest extends BaseTest {
 
     @Test(priority = 1, description = "Create new user via POST request")
     public void createUserTest() {
+        RestResponse closeableHttpResponse = null;
         try {
             logger.info("========== Starting Create User Test ==========");
 
-            // FIXED: Create test directly using instance variable
-            extentTest = extent.createTest("POST API Test - Create User");
-            extentTest.log(Status.INFO, "Test started: Create new user");
+            startTest("POST API Test - Create User");
+            test().log(Status.INFO, "Test started: Create new user");
 
             HashMap<String, String> headerMap = new HashMap<String, String>();
             headerMap.put("Content-Type", "application/json");
             logger.info("Headers prepared: " + headerMap);
-            extentTest.log(Status.INFO, "Headers configured: Content-Type = application/json");
-
-            ObjectMapper mapper = new ObjectMapper();
-            logger.info("ObjectMapper initialized");
+            test().log(Status.INFO, "Headers configured: Content-Type = application/json");
 
             Users users = new Users("morpheus", "leader");
             logger.info("User object created: " + users);
-            extentTest.log(Status.INFO, "Test data: " + users.toString());
+            test().log(Status.INFO, "Test data: " + users.toString());
 
-            try {
-                String jsonFilePath = System.getProperty("user.dir") +
-                        "/src/main/java/com/qa/data/users.json";
-                mapper.writeValue(new File(jsonFilePath), users);
-                logger.info("JSON file created at: " + jsonFilePath);
-                extentTest.log(Status.INFO, "JSON saved to file");
-            } catch (IOException e) {
-                logger.warn("Could not save JSON to file: " + e.getMessage());
-            }
+            capture("request", users);
 
-            String usersJsonString = mapper.writeValueAsString(users);
-            logger.info("JSON payload: " + usersJsonString);
-            extentTest.log(Status.INFO, "Request payload: " + usersJsonString);
+            test().log(Status.INFO, "Request payload: " + users);
 
             logger.info("Sending POST request to: " + url);
-            extentTest.log(Status.INFO, "Sending POST request to: " + url);
+            test().log(Status.INFO, "Sending POST request to: " + url);
 
-            closeableHttpResponse = restClient.post(url, usersJsonString, headerMap);
+            closeableHttpResponse = restClient.postJson(url, users, headerMap);
             logger.info("POST request sent successfully");
 
             int statusCode = closeableHttpResponse.getStatusLine().getStatusCode();
             logger.info("Response status code: " + statusCode);
-            extentTest.log(Status.INFO, "Response status code: " + statusCode);
+            test().log(Status.INFO, "Response status code: " + statusCode);
 
             Assert.assertEquals(statusCode, BaseTest.RESPONSE_STATUS_CODE_201,
                     "Expected status code 201 for successful POST");
             logger.info("✓ Status code validation passed: 201");
-            extentTest.log(Status.PASS, "Status code validation passed");
+            test().log(Status.PASS, "Status code validation passed");
 
-            String responseString = EntityUtils.toString(
-                    closeableHttpResponse.getEntity(), "UTF-8");
-            logger.info("Response body: " + responseString);
-            extentTest.log(Status.INFO, "Response received: " + responseString);
-
-            Users usersResObj = mapper.readValue(responseString, Users.class);
+            Users usersResObj = restClient.readEntity(closeableHttpResponse, Users.class);
+            capture("response", usersResObj);
             logger.info("Response deserialized to object: " + usersResObj);
+            test().log(Status.INFO, "Response received: " + usersResObj);
 
             Assert.assertEquals(usersResObj.getName(), users.getName(),
                     "Response name should match request name");
@@ -122,20 +99,20 @@ public class PostAPITest extends BaseTest {
             logger.info("✓ All validations passed");
             logger.info("Created user ID: " + usersResObj.getId());
 
-            extentTest.log(Status.PASS, "User created successfully");
-            extentTest.log(Status.PASS, "All validations passed");
-            extentTest.log(Status.INFO, "Created User ID: " + usersResObj.getId());
+            test().log(Status.PASS, "User created successfully");
+            test().log(Status.PASS, "All validations passed");
+            test().log(Status.INFO, "Created User ID: " + usersResObj.getId());
 
             logger.info("========== Create User Test Completed Successfully ==========");
 
         } catch (AssertionError e) {
             logger.error("❌ Assertion failed: " + e.getMessage(), e);
-            extentTest.log(Status.FAIL, "Test failed: " + e.getMessage());
+            test().log(Status.FAIL, "Test failed: " + e.getMessage());
             throw e;
 
         } catch (Exception e) {
             logger.error("❌ Exception occurred: " + e.getMessage(), e);
-            extentTest.log(Status.FAIL, "Exception: " + e.getMessage());
+            test().log(Status.FAIL, "Exception: " + e.getMessage());
             throw new RuntimeException("Test execution failed: " + e.getMessage(), e);
 
         } finally {
@@ -152,39 +129,42 @@ public class PostAPITest extends BaseTest {
 
     @Test(priority = 2, description = "Create user with invalid data - Negative Test")
     public void createUserWithInvalidDataTest() {
+        RestResponse closeableHttpResponse = null;
         try {
             logger.info("========== Starting Negative Test - Invalid Data ==========");
 
-            extentTest = extent.createTest("POST API Test - Invalid Data (Negative)");
-            extentTest.log(Status.INFO, "Test started: Create user with invalid data");
+            startTest("POST API Test - Invalid Data (Negative)");
+            test().log(Status.INFO, "Test started: Create user with invalid data");
 
             HashMap<String, String> headerMap = new HashMap<String, String>();
             headerMap.put("Content-Type", "application/json");
 
             Users invalidUser = new Users("", "leader");
             logger.info("Invalid user created: " + invalidUser);
-            extentTest.log(Status.INFO, "Testing with invalid data: " + invalidUser.toString());
+            test().log(Status.INFO, "Testing with invalid data: " + invalidUser.toString());
 
-            ObjectMapper mapper = new ObjectMapper();
-            String invalidJsonString = mapper.writeValueAsString(invalidUser);
-            logger.info("Invalid JSON payload: " + invalidJsonString);
-            extentTest.log(Status.INFO, "Payload: " + invalidJsonString);
+            String invalidJsonString = JsonCodecs.toJson(invalidUser);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Invalid JSON payload: " + LogPayload.truncate(invalidJsonString));
+            }
+            test().log(Status.INFO, "Payload: " + invalidJsonString);
 
             logger.info("Sending POST request with invalid data");
-            extentTest.log(Status.INFO, "Sending POST request");
+            test().log(Status.INFO, "Sending POST request");
 
-            closeableHttpResponse = restClient.post(url, invalidJsonString, headerMap);
+            closeableHttpResponse = restClient.postJson(url, invalidUser, headerMap);
 
             int statusCode = closeableHttpResponse.getStatusLine().getStatusCode();
+            closeableHttpResponse.discard(); // status-only check, body is not read
             logger.info("Response status code: " + statusCode);
-            extentTest.log(Status.INFO, "Response status: " + statusCode);
+            test().log(Status.INFO, "Response status: " + statusCode);
 
             if (statusCode == BaseTest.RESPONSE_STATUS_CODE_400) {
                 logger.info("✓ API correctly rejected invalid data with 400");
-                extentTest.log(Status.PASS, "API validation working correctly");
+                test().log(Status.PASS, "API validation working correctly");
             } else {
                 logger.warn("⚠ API accepted invalid data (status: " + statusCode + ")");
-                extentTest.log(Status.WARNING,
+                test().log(Status.WARNING,
                         "Note: Mock API doesn't validate data (status: " + statusCode + ")");
             }
 
@@ -192,7 +172,7 @@ public class PostAPITest extends BaseTest {
 
         } catch (Exception e) {
             logger.error("Exception in negative test: " + e.getMessage(), e);
-            extentTest.log(Status.FAIL, "Exception: " + e.getMessage());
+            test().log(Status.FAIL, "Exception: " + e.getMessage());
             throw new RuntimeException("Negative test failed: " + e.getMessage(), e);
 
         } finally {
@@ -205,4 +185,34 @@ public class PostAPITest extends BaseTest {
             }
         }
     }
+
+    @Test(priority = 3, dataProvider = USERS_DATA_PROVIDER, description = "Create users streamed from the data file")
+    public void createUsersFromFileTest(Users users) {
+        startTest("POST API Test - Create User from file: " + users.getName());
+        test().log(Status.INFO, "Test data: " + users);
+
+        HashMap<String, String> headerMap = new HashMap<String, String>();
+        headerMap.put("Content-Type", "application/json");
+        capture("request", users);
+        try (RestResponse response = restClient.postJson(url, users, headerMap)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            Assert.assertEquals(statusCode, BaseTest.RESPONSE_STATUS_CODE_201,
+                    "Expected status code 201 for " + users);
+
+            Users usersResObj = restClient.readEntity(response, Users.class);
+            capture("response", usersResObj);
+            Assert.assertEquals(usersResObj.getName(), users.getName(), "Response name should match request name");
+            Assert.assertEquals(usersResObj.getJob(), users.getJob(), "Response job should match request job");
+            Assert.assertNotNull(usersResObj.getId(), "Response should contain user ID");
+
+            test().log(Status.PASS, "Created user ID: " + usersResObj.getId());
+        } catch (AssertionError e) {
+            test().log(Status.FAIL, "Test failed: " + e.getMessage());
+            throw e;
+        } catch (IOException e) {
+            logger.error("❌ Exception occurred: " + e.getMessage(), e);
+            test().log(Status.FAIL, "Exception: " + e.getMessage());
+            throw new RuntimeException("Test execution failed: " + e.getMessage(), e);
+        }
+    }
 }
\ No newline at end of file
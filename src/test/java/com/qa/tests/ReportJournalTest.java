@@ -0,0 +1,74 @@
+package com.qa.tests;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.Status;
+import com.qa.report.AsyncReportWriter;
+import com.qa.report.ReportRenderer;
+import com.qa.report.ReportTest;
+
+/**
+ * Report journal Test Class Checks that events logged from parallel threads
+ * are journaled and rendered back into ExtentReports
+ */
+public class ReportJournalTest {
+
+	@Test(description = "Parallel report calls are all written and rendered")
+	public void writeAndRenderTest() throws Exception {
+		File journal = File.createTempFile("report", ".jsonl");
+		journal.deleteOnExit();
+
+		// Small capacity so logging threads hit the back-pressure path
+		AsyncReportWriter writer = new AsyncReportWriter(journal, 16);
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			int thread = t;
+			threads.add(new Thread(() -> {
+				for (int i = 0; i < 25; i++) {
+					ReportTest test = ReportTest.create(writer, "test-" + thread + "-" + i);
+					test.log(Status.INFO, "step \"" + i + "\"\nline two");
+					if (i % 5 == 0) {
+						test.fail(new IllegalStateException("boom"));
+					} else {
+						test.log(Status.PASS, "ok");
+					}
+					test.end();
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		writer.close();
+
+		Assert.assertEquals(writer.getEventsWritten(), 400);
+		Assert.assertEquals(Files.readAllLines(journal.toPath()).size(), 400);
+
+		ExtentReports extent = new ExtentReports();
+		ReportRenderer renderer = new ReportRenderer(extent, 60);
+		renderer.render(journal);
+		Assert.assertEquals(renderer.getTestsRendered(), 60);
+		Assert.assertEquals(renderer.getTestsSummarized(), 40);
+		// 60 full entries plus the summary entry
+		Assert.assertEquals(extent.getReport().getTestList().size(), 61);
+	}
+
+	@Test(description = "Handles without a writer ignore all calls")
+	public void noneTest() throws IOException {
+		ReportTest test = ReportTest.create(null, "ignored");
+		Assert.assertSame(test, ReportTest.NONE);
+		Assert.assertFalse(test.log(Status.INFO, "x").fail(new RuntimeException()).isActive());
+		test.end();
+	}
+}
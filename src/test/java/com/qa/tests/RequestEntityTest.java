@@ -0,0 +1,59 @@
+package com.qa.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.EntityUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qa.client.entity.ByteBufferEntity;
+import com.qa.client.entity.JsonEntity;
+import com.qa.data.JsonCodecs;
+import com.qa.data.Users;
+
+/**
+ * Request Entity Test Class Checks the byte[]/ByteBuffer/POJO request bodies
+ * used by RestClient without sending anything
+ */
+public class RequestEntityTest {
+
+	private static final byte[] PAYLOAD = "{\"name\":\"morpheus\",\"job\":\"leader\"}".getBytes(StandardCharsets.UTF_8);
+
+	@Test(description = "Heap and direct buffers are written without moving their position")
+	public void byteBufferEntityTest() throws IOException {
+		ByteBuffer direct = ByteBuffer.allocateDirect(PAYLOAD.length);
+		direct.put(PAYLOAD).flip();
+
+		for (ByteBuffer buffer : new ByteBuffer[] { ByteBuffer.wrap(PAYLOAD), direct }) {
+			ByteBufferEntity entity = new ByteBufferEntity(buffer, ContentType.APPLICATION_JSON);
+			Assert.assertEquals(entity.getContentLength(), PAYLOAD.length);
+			Assert.assertEquals(entity.getContentType().getValue(), "application/json; charset=UTF-8");
+
+			// Written twice to check the entity is repeatable
+			for (int i = 0; i < 2; i++) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				entity.writeTo(out);
+				Assert.assertEquals(out.toByteArray(), PAYLOAD);
+			}
+			Assert.assertEquals(EntityUtils.toByteArray(entity), PAYLOAD);
+			Assert.assertEquals(buffer.position(), 0);
+		}
+	}
+
+	@Test(description = "POJO entities stream the same JSON the codecs produce")
+	public void jsonEntityTest() throws IOException {
+		Users users = new Users("morpheus", "leader");
+		JsonEntity entity = new JsonEntity(users);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		entity.writeTo(out);
+
+		Assert.assertEquals(out.toByteArray(), JsonCodecs.toBytes(users));
+		Assert.assertTrue(entity.isChunked());
+		Assert.assertEquals(entity.getContentType().getValue(), "application/json; charset=UTF-8");
+	}
+}
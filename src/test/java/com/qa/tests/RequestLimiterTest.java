@@ -0,0 +1,126 @@
+package com.qa.tests;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qa.client.RestClient;
+import com.qa.client.limit.AimdLimiter;
+import com.qa.client.limit.Limits;
+import com.qa.client.limit.RequestLimiter;
+import com.qa.client.limit.TokenBucket;
+import com.qa.mock.MockServerConfig;
+import com.qa.mock.MockUserServer;
+
+/**
+ * RequestLimiter Test Class Checks the token bucket, the AIMD concurrency
+ * limit and how RestClient applies them per host and endpoint
+ */
+public class RequestLimiterTest {
+
+	@Test(description = "Token bucket allows the burst at once, then the configured rate")
+	public void tokenBucketTest() throws InterruptedException {
+		TokenBucket bucket = new TokenBucket(100, 5);
+		for (int i = 0; i < 5; i++) {
+			Assert.assertTrue(bucket.tryAcquire(), "burst permit " + i);
+		}
+		Assert.assertFalse(bucket.tryAcquire());
+
+		long start = System.nanoTime();
+		for (int i = 0; i < 10; i++) {
+			bucket.acquire();
+		}
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		Assert.assertTrue(elapsedMillis >= 90, "10 permits at 100/s took " + elapsedMillis + " ms");
+	}
+
+	@Test(description = "AIMD limit halves on overload and grows again on success")
+	public void aimdTest() throws InterruptedException {
+		AimdLimiter limiter = new AimdLimiter(10, 1, 20, 0.5, 0);
+		limiter.acquire();
+		limiter.release(1000, true, false);
+		Assert.assertEquals(limiter.getLimit(), 5);
+		Assert.assertEquals(limiter.getDecreases(), 1);
+
+		// Failures without a response say nothing about the server
+		limiter.acquire();
+		limiter.release(0, false, true);
+		Assert.assertEquals(limiter.getLimit(), 5);
+
+		// Additive increase while the limit is in use: ~1 per limit completions
+		for (int round = 0; round < 20; round++) {
+			int inUse = limiter.getLimit();
+			for (int i = 0; i < inUse; i++) {
+				limiter.acquire();
+			}
+			for (int i = 0; i < inUse; i++) {
+				limiter.release(1000, false, false);
+			}
+		}
+		Assert.assertTrue(limiter.getLimit() > 15, "limit " + limiter.getLimit());
+		Assert.assertEquals(limiter.getInFlight(), 0);
+	}
+
+	@Test(description = "Endpoint settings win over host settings, which win over defaults")
+	public void scopeTest() {
+		Properties props = new Properties();
+		Assert.assertNull(RequestLimiter.fromProperties(props), "nothing configured");
+
+		props.setProperty("limit.burst", "3");
+		props.setProperty("limit.host.reqres.in.rate", "20");
+		props.setProperty("limit.endpoint./api/users/{id}.adaptive", "true");
+		props.setProperty("limit.endpoint./api/users/{id}.adaptive.max", "4");
+		RequestLimiter limiter = RequestLimiter.fromProperties(props);
+
+		Limits host = limiter.forRequest("https://reqres.in/api/users?page=2", "/api/users");
+		Assert.assertEquals(host.getName(), "reqres.in");
+		Assert.assertEquals(host.getRate().getPermitsPerSecond(), 20.0);
+		Assert.assertEquals(host.getRate().getBurst(), 3);
+		Assert.assertNull(host.getConcurrency());
+		Assert.assertSame(limiter.forRequest("https://REQRES.in/api/users", "/api/users"), host);
+
+		Limits endpoint = limiter.forRequest("https://reqres.in/api/users/2", "/api/users/{id}");
+		Assert.assertEquals(endpoint.getName(), "/api/users/{id}");
+		Assert.assertNotNull(endpoint.getConcurrency());
+		Assert.assertNull(endpoint.getRate());
+
+		Assert.assertNull(limiter.forRequest("http://127.0.0.1:8080/api/users", "/api/users"), "unlimited host");
+	}
+
+	@Test(description = "RestClient lowers its concurrency on 429 and keeps to the rate")
+	public void restClientTest() throws IOException {
+		MockUserServer server = new MockUserServer(new MockServerConfig(), MockUserServer.DEFAULT_RESOURCE_PATH)
+				.start();
+		String host = "127.0.0.1:" + server.getPort();
+		Properties props = new Properties();
+		props.setProperty("limit.host." + host + ".adaptive", "true");
+		props.setProperty("limit.host." + host + ".adaptive.initial", "16");
+		props.setProperty("limit.host." + host + ".rate", "200");
+		props.setProperty("limit.host." + host + ".burst", "1");
+		try (RestClient client = new RestClient()) {
+			client.setLimiter(RequestLimiter.fromProperties(props));
+			HashMap<String, String> throttle = new HashMap<>();
+			throttle.put(MockUserServer.STATUS_HEADER, "429");
+
+			long start = System.nanoTime();
+			for (int i = 0; i < 20; i++) {
+				client.get(server.getResourceUrl() + "/2", i % 2 == 0 ? throttle : null).close();
+			}
+			long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+			Limits limits = client.getLimiter().getLimits().get(0);
+			Assert.assertEquals(limits.getName(), host);
+			Assert.assertEquals(limits.getRequests(), 20);
+			Assert.assertEquals(limits.getThrottled(), 10);
+			Assert.assertTrue(limits.getConcurrency().getLimit() < 16, limits.toString());
+			Assert.assertTrue(elapsedMillis >= 90, "20 requests at 200/s took " + elapsedMillis + " ms");
+			Assert.assertTrue(client.getLimiter().report().contains(host));
+		} finally {
+			server.stop();
+		}
+	}
+}
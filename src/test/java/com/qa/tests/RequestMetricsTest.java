@@ -0,0 +1,86 @@
+package com.qa.tests;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qa.client.RestClient;
+import com.qa.client.RestResponse;
+import com.qa.client.metrics.EndpointMetrics;
+import com.qa.client.metrics.Phase;
+import com.qa.client.metrics.RequestMetrics;
+import com.qa.data.Users;
+import com.qa.mock.MockServerConfig;
+import com.qa.mock.MockUserServer;
+
+/**
+ * RequestMetrics Test Class Checks endpoint template grouping and the
+ * per-phase latency histograms RestClient records
+ */
+public class RequestMetricsTest {
+
+	private static final long LATENCY_MILLIS = 50;
+
+	@Test(description = "Ids, UUIDs and query strings collapse into one endpoint template")
+	public void endpointTemplateTest() {
+		Assert.assertEquals(RequestMetrics.endpointTemplate("https://reqres.in/api/users/2"), "/api/users/{id}");
+		Assert.assertEquals(RequestMetrics.endpointTemplate("https://reqres.in/api/users?page=2"), "/api/users");
+		String uuid = "3f2b8c4e-1d2a-4b5c-9e8f-0a1b2c3d4e5f";
+		Assert.assertEquals(RequestMetrics.endpointTemplate("http://127.0.0.1:8080/api/orders/" + uuid + "/items"),
+				"/api/orders/{id}/items");
+		Assert.assertEquals(RequestMetrics.endpointTemplate("http://127.0.0.1:8080/api/users/me"), "/api/users/me");
+		Assert.assertEquals(RequestMetrics.endpointTemplate("http://127.0.0.1:8080"), "/");
+	}
+
+	@Test(description = "FIRST_BYTE and TOTAL histograms per method and template, with the injected latency")
+	public void histogramTest() throws Exception {
+		try (MockUserServer server = new MockUserServer(new MockServerConfig(), MockUserServer.DEFAULT_RESOURCE_PATH)
+				.start(); RestClient client = new RestClient()) {
+			HashMap<String, String> headerMap = new HashMap<String, String>();
+			headerMap.put(MockUserServer.LATENCY_HEADER, String.valueOf(LATENCY_MILLIS));
+			for (int id = 1; id <= 5; id++) {
+				try (RestResponse response = client.get(server.getResourceUrl() + "/" + id, headerMap)) {
+					Assert.assertEquals(response.getStatusCode(), 200);
+					response.readBodyAsString();
+				}
+			}
+			try (RestResponse response = client.get(server.getResourceUrl() + "?page=2", headerMap)) {
+				response.readBodyAsString();
+			}
+			try (RestResponse response = client.postJson(server.getResourceUrl(), new Users("neo", "the one"),
+					headerMap)) {
+				Assert.assertEquals(response.getStatusCode(), 201);
+			}
+
+			RequestMetrics metrics = client.getMetrics();
+			Assert.assertEquals(metrics.getEndpoints().size(), 3, metrics.report());
+			EndpointMetrics byId = metrics.forRequest("GET", server.getResourceUrl() + "/7");
+			Assert.assertEquals(byId.getEndpoint(), "/api/users/{id}");
+			Assert.assertEquals(byId.getMethod(), "GET");
+
+			long latency = TimeUnit.MILLISECONDS.toNanos(LATENCY_MILLIS);
+			Histogram firstByte = byId.snapshot(Phase.FIRST_BYTE);
+			Histogram total = byId.snapshot(Phase.TOTAL);
+			Assert.assertEquals(firstByte.getTotalCount(), 5);
+			Assert.assertEquals(total.getTotalCount(), 5);
+			// 2 significant digits: values may read up to 1% low
+			Assert.assertTrue(firstByte.getValueAtPercentile(50) >= latency * 0.99, metrics.report());
+			Assert.assertTrue(firstByte.getMaxValue() < TimeUnit.SECONDS.toNanos(2), metrics.report());
+			Assert.assertTrue(total.getValueAtPercentile(50) >= firstByte.getValueAtPercentile(50) * 0.99,
+					metrics.report());
+			Assert.assertTrue(total.getValueAtPercentile(99) < TimeUnit.SECONDS.toNanos(2), metrics.report());
+
+			// CONNECT is only recorded when a request opens a new connection
+			long connects = byId.snapshot(Phase.CONNECT).getTotalCount();
+			Assert.assertTrue(connects >= 1 && connects < 5, connects + " connects");
+
+			EndpointMetrics list = metrics.forRequest("GET", server.getResourceUrl());
+			EndpointMetrics create = metrics.forRequest("POST", server.getResourceUrl());
+			Assert.assertEquals(list.snapshot(Phase.TOTAL).getTotalCount(), 1);
+			Assert.assertEquals(create.snapshot(Phase.TOTAL).getTotalCount(), 1);
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package com.qa.tests;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qa.client.BufferedResponse;
+import com.qa.client.RestClient;
+import com.qa.client.RestResponse;
+import com.qa.client.cache.CacheConfig;
+import com.qa.client.cache.ResponseCache;
+import com.qa.client.cassette.RecordedResponse;
+import com.qa.mock.MockServerConfig;
+import com.qa.mock.MockUserServer;
+
+/**
+ * ResponseCache Test Class Checks GET caching in RestClient against the mock
+ * server: fresh hits, ETag revalidation, invalidation by writes and eviction
+ */
+@Test(singleThreaded = true)
+public class ResponseCacheTest {
+
+	@Test(description = "Fresh GET responses are served from the cache without a request")
+	public void freshHitTest() throws Exception {
+		try (MockUserServer server = new MockUserServer(new MockServerConfig(), MockUserServer.DEFAULT_RESOURCE_PATH)
+				.start(); RestClient client = new RestClient()) {
+			ResponseCache cache = new ResponseCache(new CacheConfig());
+			client.setCache(cache);
+			String url = server.getResourceUrl() + "/2";
+
+			String first = read(client.get(url, null));
+			long requests = server.getRequestCount();
+			Assert.assertEquals(read(client.get(url, null)), first);
+			Assert.assertEquals(client.getAsync(url, null).get().getBodyAsString(), first);
+			Assert.assertEquals(server.getRequestCount(), requests, "hits must not reach the server");
+			Assert.assertEquals(cache.getHits(), 2);
+			Assert.assertEquals(cache.getMisses(), 1);
+
+			// A different Accept header selects a different entry
+			HashMap<String, String> accept = new HashMap<>();
+			accept.put("Accept", "application/json");
+			client.get(url, accept).close();
+			Assert.assertEquals(server.getRequestCount(), requests + 1);
+			Assert.assertEquals(cache.size(), 2);
+		}
+	}
+
+	@Test(description = "Stale entries are revalidated with If-None-Match and reused on 304")
+	public void revalidationTest() throws Exception {
+		MockServerConfig config = new MockServerConfig();
+		config.setCacheMaxAgeSeconds(0);
+		try (MockUserServer server = new MockUserServer(config, MockUserServer.DEFAULT_RESOURCE_PATH).start();
+				RestClient client = new RestClient()) {
+			ResponseCache cache = new ResponseCache(new CacheConfig());
+			client.setCache(cache);
+			String url = server.getResourceUrl() + "/3";
+
+			String first = read(client.get(url, null));
+			RestResponse second = client.get(url, null);
+			Assert.assertEquals(second.getStatusCode(), 200, "304 is answered with the cached 200");
+			Assert.assertEquals(read(second), first);
+			BufferedResponse third = client.getAsync(url, null).get();
+			Assert.assertEquals(third.getStatusCode(), 200);
+			Assert.assertEquals(third.getBodyAsString(), first);
+
+			Assert.assertEquals(server.getRequestCount(), 3, "no-cache still sends every request");
+			Assert.assertEquals(cache.getRevalidated(), 2);
+			Assert.assertEquals(cache.getStores(), 1);
+		}
+	}
+
+	@Test(description = "PUT and DELETE invalidate the resource and its collection")
+	public void invalidationTest() throws Exception {
+		try (MockUserServer server = new MockUserServer(new MockServerConfig(), MockUserServer.DEFAULT_RESOURCE_PATH)
+				.start(); RestClient client = new RestClient()) {
+			ResponseCache cache = new ResponseCache(new CacheConfig());
+			client.setCache(cache);
+			String collection = server.getResourceUrl() + "?page=2";
+			String user = server.getResourceUrl() + "/2";
+			String other = server.getResourceUrl() + "/4";
+
+			client.get(collection, null).close();
+			client.get(user, null).close();
+			client.get(other, null).close();
+			Assert.assertEquals(cache.size(), 3);
+
+			client.put(user, "{\"name\":\"morpheus\",\"job\":\"zion resident\"}", null).close();
+			Assert.assertEquals(cache.size(), 1, "user and its collection dropped");
+			long requests = server.getRequestCount();
+			client.get(other, null).close();
+			Assert.assertEquals(server.getRequestCount(), requests, "unrelated user still cached");
+
+			client.deleteAsync(other, null).get();
+			Assert.assertEquals(cache.size(), 0);
+			Assert.assertEquals(cache.getInvalidations(), 3);
+		}
+	}
+
+	@Test(description = "A GET that a PUT overtakes is returned but not cached")
+	public void inFlightInvalidationTest() throws Exception {
+		try (MockUserServer server = new MockUserServer(new MockServerConfig(), MockUserServer.DEFAULT_RESOURCE_PATH)
+				.start(); RestClient client = new RestClient()) {
+			ResponseCache cache = new ResponseCache(new CacheConfig());
+			client.setCache(cache);
+			String user;
+			String body = "{\"name\":\"morpheus\",\"job\":\"leader\"}";
+			try (RestResponse created = client.post(server.getResourceUrl(), body, null)) {
+				user = server.getResourceUrl() + "/" + new JSONObject(created.readBodyAsString()).get("id");
+			}
+
+			// The mock reads the user, then holds both answers back while the PUT completes
+			HashMap<String, String> delayed = new HashMap<>();
+			delayed.put(MockUserServer.LATENCY_HEADER, "500");
+			long before = server.getRequestCount();
+			ExecutorService thread = Executors.newSingleThreadExecutor();
+			try {
+				Future<String> blocking = thread.submit(() -> read(client.get(user, delayed)));
+				CompletableFuture<BufferedResponse> async = client.getAsync(user, delayed);
+				while (server.getRequestCount() < before + 2) {
+					Thread.sleep(5);
+				}
+				Thread.sleep(50);
+				client.put(user, "{\"name\":\"morpheus\",\"job\":\"zion resident\"}", null).close();
+
+				Assert.assertTrue(blocking.get(10, TimeUnit.SECONDS).contains("leader"));
+				Assert.assertTrue(async.get(10, TimeUnit.SECONDS).getBodyAsString().contains("leader"));
+			} finally {
+				thread.shutdown();
+			}
+			Assert.assertEquals(cache.size(), 0, "stale GET bodies were cached after the PUT");
+			Assert.assertEquals(cache.getDiscarded(), 2);
+			Assert.assertTrue(read(client.get(user, null)).contains("zion resident"));
+			Assert.assertEquals(cache.size(), 1);
+		}
+	}
+
+	@Test(description = "LRU eviction keeps both the entry count and the total bytes bounded")
+	public void evictionTest() {
+		CacheConfig config = new CacheConfig();
+		config.setMaxEntries(3);
+		config.setMaxBytes(2500);
+		config.setMaxEntryBytes(1000);
+		ResponseCache cache = new ResponseCache(config);
+
+		for (int i = 1; i <= 3; i++) {
+			store(cache, "http://host/api/users/" + i, 100);
+		}
+		// Touch 1 so 2 is the least recently used
+		Assert.assertNotNull(cache.lookup(cache.key("http://host/api/users/1", null)));
+		store(cache, "http://host/api/users/4", 100);
+		Assert.assertEquals(cache.size(), 3);
+		Assert.assertNull(cache.lookup(cache.key("http://host/api/users/2", null)), "count limit");
+
+		store(cache, "http://host/api/users/5", 900);
+		store(cache, "http://host/api/users/6", 900);
+		Assert.assertTrue(cache.getBytes() <= 2500, "bytes " + cache.getBytes());
+		Assert.assertNotNull(cache.lookup(cache.key("http://host/api/users/6", null)));
+		Assert.assertTrue(cache.getEvictions() >= 2, cache.toString());
+
+		Assert.assertFalse(cache.isCacheable(response(1001)), "larger than maxEntryBytes");
+	}
+
+	@Test(description = "no-store and uncacheable statuses are never stored")
+	public void noStoreTest() {
+		ResponseCache cache = new ResponseCache(new CacheConfig());
+		Assert.assertTrue(cache.isCacheable(response(10)));
+		Assert.assertFalse(cache.isCacheable(response(200, "no-store", "\"a\"")));
+		Assert.assertFalse(cache.isCacheable(response(200, "no-cache", null)), "nothing to revalidate with");
+		Assert.assertTrue(cache.isCacheable(response(200, "no-cache", "\"a\"")));
+		Assert.assertFalse(cache.isCacheable(new RecordedResponse(404, "Not Found", headers("max-age=60", null),
+				new byte[0])));
+	}
+
+	private static void store(ResponseCache cache, String url, int size) {
+		cache.store(cache.key(url, null), url, response(size), cache.generation(url));
+	}
+
+	private static String read(RestResponse response) throws IOException {
+		try {
+			return response.readBodyAsString();
+		} finally {
+			response.close();
+		}
+	}
+
+	private static RecordedResponse response(int size) {
+		return new RecordedResponse(200, "OK", headers("max-age=60", "\"" + size + "\""), new byte[size]);
+	}
+
+	private static RecordedResponse response(int size, String cacheControl, String etag) {
+		return new RecordedResponse(200, "OK", headers(cacheControl, etag), new byte[size]);
+	}
+
+	private static ArrayList<String[]> headers(String cacheControl, String etag) {
+		ArrayList<String[]> headers = new ArrayList<>();
+		headers.add(new String[] { "Cache-Control", cacheControl });
+		if (etag != null) {
+			headers.add(new String[] { "ETag", etag });
+		}
+		return headers;
+	}
+}
@@ -0,0 +1,119 @@
+package com.qa.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qa.client.ResponseTooLargeException;
+import com.qa.client.RestClient;
+import com.qa.client.RestResponse;
+import com.qa.mock.MockServerConfig;
+import com.qa.mock.MockUserServer;
+
+/**
+ * RestResponse Test Class Checks the body helpers on an in-memory response
+ */
+public class RestResponseTest {
+
+	private static final String BODY = "{\"data\":{\"id\":2,\"email\":\"janet.weaver@reqres.in\"}}";
+
+	@Test(description = "Bounded read returns the body and counts the bytes")
+	public void readBodyTest() throws IOException {
+		try (RestResponse response = response(new StringEntity(BODY, ContentType.APPLICATION_JSON), null)) {
+			Assert.assertEquals(response.getStatusCode(), 200);
+			Assert.assertEquals(response.readBodyAsString(1024), BODY);
+			Assert.assertEquals(response.getBytesRead(), BODY.length());
+		}
+	}
+
+	@Test(description = "Content-Length above the limit fails before reading", expectedExceptions = ResponseTooLargeException.class)
+	public void contentLengthLimitTest() throws IOException {
+		try (RestResponse response = response(new StringEntity(BODY, ContentType.APPLICATION_JSON), null)) {
+			response.readBody(10);
+		}
+	}
+
+	@Test(description = "Bodies of unknown length stop at the limit")
+	public void streamingLimitTest() throws IOException {
+		byte[] large = new byte[64 * 1024];
+		try (RestResponse response = response(
+				new InputStreamEntity(new ByteArrayInputStream(large), -1, ContentType.APPLICATION_JSON), null)) {
+			try {
+				response.readBody(16 * 1024);
+				Assert.fail("Expected ResponseTooLargeException");
+			} catch (ResponseTooLargeException e) {
+				Assert.assertTrue(response.getBytesRead() < large.length, "Should stop reading early");
+			}
+		}
+	}
+
+	@Test(description = "Discard and close release the underlying response exactly once")
+	public void discardTest() throws IOException {
+		AtomicBoolean closed = new AtomicBoolean();
+		RestResponse response = response(new StringEntity(BODY, StandardCharsets.UTF_8), closed);
+		response.discard();
+		Assert.assertTrue(closed.get());
+
+		closed.set(false);
+		response.close();
+		Assert.assertFalse(closed.get(), "Second close should be a no-op");
+	}
+
+	@Test(description = "Short bodies of unknown length are drained on discard, long ones are not")
+	public void discardUnknownLengthTest() throws IOException {
+		ByteArrayInputStream small = new ByteArrayInputStream(BODY.getBytes(StandardCharsets.UTF_8));
+		response(new InputStreamEntity(small, -1, ContentType.APPLICATION_JSON), null).discard();
+		Assert.assertEquals(small.available(), 0, "Short body should be drained");
+
+		ByteArrayInputStream large = new ByteArrayInputStream(new byte[(int) RestResponse.DISCARD_DRAIN_LIMIT * 4]);
+		response(new InputStreamEntity(large, -1, ContentType.APPLICATION_JSON), null).discard();
+		Assert.assertTrue(large.available() > 0, "Long body should not be downloaded");
+		Assert.assertTrue(large.available() >= RestResponse.DISCARD_DRAIN_LIMIT * 2, "Read past the drain limit");
+	}
+
+	@Test(description = "Discarding a decompressed body keeps the pooled connection")
+	public void discardCompressedTest() throws Exception {
+		try (MockUserServer server = new MockUserServer(new MockServerConfig(), MockUserServer.DEFAULT_RESOURCE_PATH)
+				.start(); RestClient client = new RestClient()) {
+			for (int i = 0; i < 3; i++) {
+				// All 12 users: large enough for the mock to gzip it
+				RestResponse response = client.get(server.getResourceUrl() + "?per_page=12", null);
+				Assert.assertEquals(response.getEntity().getContentLength(), -1);
+				response.discard();
+				Assert.assertEquals(client.getPoolStats().getAvailable(), 1, "Connection was closed");
+			}
+		}
+	}
+
+	/**
+	 * Wrap a BasicHttpResponse the way HttpClient would hand it out
+	 */
+	private static RestResponse response(HttpEntity entity, AtomicBoolean closed) {
+		BasicHttpResponse basic = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+		basic.setEntity(entity);
+		CloseableHttpResponse closeable = (CloseableHttpResponse) Proxy.newProxyInstance(
+				RestResponseTest.class.getClassLoader(), new Class<?>[] { CloseableHttpResponse.class },
+				(proxy, method, args) -> {
+					if (method.getName().equals("close")) {
+						if (closed != null) {
+							closed.set(true);
+						}
+						return null;
+					}
+					return method.invoke(basic, args);
+				});
+		return new RestResponse(closeable, "http://localhost/api/users/2");
+	}
+}
@@ -0,0 +1,258 @@
+package com.qa.tests;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.qa.client.BufferedResponse;
+import com.qa.client.ConnectionPoolConfig;
+import com.qa.client.RestClient;
+import com.qa.client.RestResponse;
+import com.qa.client.metrics.EndpointMetrics;
+import com.qa.client.retry.RetryBudget;
+import com.qa.client.retry.RetryPolicy;
+import com.qa.mock.MockServerConfig;
+import com.qa.mock.MockUserServer;
+
+/**
+ * Retry Test Class Checks RestClient retries against injected mock server
+ * failures, the retry budget and the backoff bounds. Single-threaded: the
+ * tests count the requests reaching the shared server.
+ */
+@Test(singleThreaded = true)
+public class RetryTest {
+
+	private MockUserServer server;
+	private String url;
+
+	@BeforeClass
+	public void startServer() throws IOException {
+		server = new MockUserServer(new MockServerConfig(), MockUserServer.DEFAULT_RESOURCE_PATH).start();
+		url = server.getResourceUrl();
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void stopServer() {
+		server.stop();
+	}
+
+	private static RetryPolicy fastPolicy(int maxAttempts) {
+		RetryPolicy policy = new RetryPolicy();
+		policy.setMaxAttempts(maxAttempts);
+		policy.setBaseDelayMillis(1);
+		policy.setMaxDelayMillis(5);
+		return policy;
+	}
+
+	private static HashMap<String, String> forcedStatus(int status) {
+		HashMap<String, String> headers = new HashMap<>();
+		headers.put(MockUserServer.STATUS_HEADER, String.valueOf(status));
+		return headers;
+	}
+
+	@Test(description = "Retryable status is retried up to maxAttempts, then returned")
+	public void retryableStatusTest() throws IOException {
+		try (RestClient client = new RestClient()) {
+			client.setRetryPolicy(fastPolicy(3));
+			long before = server.getRequestCount();
+			try (RestResponse response = client.get(url + "/2", forcedStatus(503))) {
+				Assert.assertEquals(response.getStatusCode(), 503);
+			}
+			Assert.assertEquals(server.getRequestCount() - before, 3);
+
+			EndpointMetrics endpoint = client.getMetrics().forRequest("GET", url + "/2");
+			Assert.assertEquals(endpoint.getRetries(), 2);
+			Assert.assertEquals(endpoint.getRetriesExhausted(), 1);
+			Assert.assertEquals(endpoint.getRetryReasons().get("503"), Long.valueOf(2));
+			Assert.assertTrue(client.getMetrics().report().contains("RETRIES"));
+
+			// Not in the retryable list
+			before = server.getRequestCount();
+			client.get(url + "/2", forcedStatus(500)).close();
+			Assert.assertEquals(server.getRequestCount() - before, 1);
+		}
+	}
+
+	@Test(description = "POST is not retried unless nonIdempotent is set")
+	public void nonIdempotentTest() throws IOException {
+		String body = "{\"name\":\"morpheus\",\"job\":\"leader\"}";
+		try (RestClient client = new RestClient()) {
+			client.setRetryPolicy(fastPolicy(3));
+			long before = server.getRequestCount();
+			client.post(url, body, forcedStatus(503)).close();
+			Assert.assertEquals(server.getRequestCount() - before, 1);
+
+			RetryPolicy policy = fastPolicy(3);
+			policy.setNonIdempotent(true);
+			client.setRetryPolicy(policy);
+			before = server.getRequestCount();
+			client.post(url, body, forcedStatus(503)).close();
+			Assert.assertEquals(server.getRequestCount() - before, 3);
+		}
+	}
+
+	@Test(description = "Flaky endpoint recovers through retries, blocking and async")
+	public void flakyEndpointTest() throws Exception {
+		MockServerConfig config = new MockServerConfig();
+		config.setErrorRate(0.5);
+		config.setErrorStatus(503);
+		MockUserServer flaky = new MockUserServer(config, MockUserServer.DEFAULT_RESOURCE_PATH).start();
+		try (RestClient client = new RestClient()) {
+			RetryPolicy policy = fastPolicy(40);
+			// Half the requests fail here, far above what the default budget allows
+			policy.setBudgetMaxTokens(1000);
+			policy.setBudgetMinPerSecond(1000);
+			client.setRetryPolicy(policy);
+			for (int i = 0; i < 20; i++) {
+				try (RestResponse response = client.get(flaky.getResourceUrl() + "/2", null)) {
+					Assert.assertEquals(response.getStatusCode(), 200);
+				}
+				BufferedResponse async = client.getAsync(flaky.getResourceUrl() + "/3", null).get(10,
+						TimeUnit.SECONDS);
+				Assert.assertEquals(async.getStatusCode(), 200);
+			}
+			Assert.assertTrue(client.getMetrics().forRequest("GET", flaky.getResourceUrl() + "/2").getRetries() > 0);
+			Assert.assertTrue(client.getMetrics().forRequest("GET", flaky.getResourceUrl() + "/3").getRetries() > 0);
+		} finally {
+			flaky.stop();
+		}
+	}
+
+	@Test(description = "Async retries wait for the in-flight cap on the resend pool, not on the common pool")
+	public void asyncResendPoolTest() throws Exception {
+		ConnectionPoolConfig poolConfig = new ConnectionPoolConfig();
+		poolConfig.setAsyncMaxInFlight(1);
+		ExecutorService submitter = Executors.newSingleThreadExecutor();
+		try (RestClient client = new RestClient(poolConfig)) {
+			RetryPolicy policy = fastPolicy(3);
+			policy.setBudgetMinPerSecond(1000);
+			client.setRetryPolicy(policy);
+			// Retries blocked in the cap on common pool threads would also block the
+			// completions that release it
+			Future<List<CompletableFuture<BufferedResponse>>> submitted = submitter.submit(() -> {
+				List<CompletableFuture<BufferedResponse>> futures = new ArrayList<>();
+				for (int i = 0; i < 16; i++) {
+					futures.add(client.getAsync(url + "/" + (i % 12 + 1), forcedStatus(503)));
+				}
+				return futures;
+			});
+			for (CompletableFuture<BufferedResponse> future : submitted.get(30, TimeUnit.SECONDS)) {
+				Assert.assertEquals(future.get(30, TimeUnit.SECONDS).getStatusCode(), 503);
+			}
+			long retries = 0;
+			for (EndpointMetrics endpoint : client.getMetrics().getEndpoints()) {
+				retries += endpoint.getRetries();
+			}
+			Assert.assertEquals(retries, 32);
+		} finally {
+			submitter.shutdownNow();
+		}
+	}
+
+	@Test(description = "Connection failures are retried and rethrown when attempts run out")
+	public void connectionFailureTest() throws IOException {
+		int port;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		String closed = "http://127.0.0.1:" + port + "/api/users";
+		try (RestClient client = new RestClient()) {
+			client.setRetryPolicy(fastPolicy(3));
+			try {
+				client.get(closed, null).close();
+				Assert.fail("Request to a closed port succeeded");
+			} catch (ConnectException expected) {
+			}
+			EndpointMetrics endpoint = client.getMetrics().forRequest("GET", closed);
+			Assert.assertEquals(endpoint.getRetryReasons().get("HttpHostConnectException"), Long.valueOf(2));
+			Assert.assertEquals(endpoint.getRetriesExhausted(), 1);
+		}
+	}
+
+	@Test(description = "A reset connection is retried by RestClient only, never by the HttpClient underneath")
+	public void connectionResetTest() throws Exception {
+		AtomicInteger attempts = new AtomicInteger();
+		try (ServerSocket resetting = new ServerSocket(0)) {
+			Thread acceptor = new Thread(() -> {
+				while (!resetting.isClosed()) {
+					try (Socket socket = resetting.accept()) {
+						attempts.incrementAndGet();
+						// Abortive close: the client reads a RST instead of a response
+						socket.setSoLinger(true, 0);
+					} catch (IOException closed) {
+					}
+				}
+			}, "resetting-server");
+			acceptor.setDaemon(true);
+			acceptor.start();
+
+			String reset = "http://127.0.0.1:" + resetting.getLocalPort() + "/api/users/2";
+			try (RestClient client = new RestClient()) {
+				client.setRetryPolicy(fastPolicy(3));
+				try {
+					client.get(reset, null).close();
+					Assert.fail("Request to a resetting server succeeded");
+				} catch (IOException expected) {
+				}
+				EndpointMetrics endpoint = client.getMetrics().forRequest("GET", reset);
+				Assert.assertEquals(endpoint.getRetries(), 2);
+				Assert.assertEquals(attempts.get(), endpoint.getRetries() + 1);
+			}
+		}
+	}
+
+	@Test(description = "Budget allows ratio x requests plus the reserve, then denies")
+	public void budgetTest() {
+		RetryBudget empty = new RetryBudget(0, 0, 10);
+		Assert.assertFalse(empty.tryAcquire());
+		Assert.assertEquals(empty.getDenied(), 1);
+
+		RetryBudget budget = new RetryBudget(0.5, 0, 10);
+		budget.onRequest();
+		budget.onRequest();
+		Assert.assertTrue(budget.tryAcquire());
+		Assert.assertFalse(budget.tryAcquire());
+
+		RetryBudget capped = new RetryBudget(1, 0, 2);
+		for (int i = 0; i < 10; i++) {
+			capped.onRequest();
+		}
+		Assert.assertEquals(capped.getAvailable(), 2.0);
+	}
+
+	@Test(description = "Full-jitter delay stays within the exponential cap; Retry-After is honoured")
+	public void backoffTest() {
+		Properties props = new Properties();
+		props.setProperty(RetryPolicy.BASE_DELAY_MILLIS, "100");
+		props.setProperty(RetryPolicy.MAX_DELAY_MILLIS, "1000");
+		props.setProperty(RetryPolicy.STATUS_CODES, "503");
+		RetryPolicy policy = RetryPolicy.fromProperties(props);
+		Assert.assertTrue(policy.isRetryableStatus(503));
+		Assert.assertFalse(policy.isRetryableStatus(502));
+		for (int i = 0; i < 1000; i++) {
+			Assert.assertTrue(policy.delayNanos(1, null) <= TimeUnit.MILLISECONDS.toNanos(100));
+			Assert.assertTrue(policy.delayNanos(3, null) <= TimeUnit.MILLISECONDS.toNanos(400));
+			Assert.assertTrue(policy.delayNanos(20, null) <= TimeUnit.MILLISECONDS.toNanos(1000));
+		}
+		Assert.assertTrue(policy.delayNanos(1, "1") >= TimeUnit.MILLISECONDS.toNanos(1000));
+		Assert.assertTrue(policy.delayNanos(1, "60") <= TimeUnit.MILLISECONDS.toNanos(1000));
+		Assert.assertTrue(policy.isRetryableException(new java.net.SocketTimeoutException()));
+		Assert.assertFalse(policy.isRetryableException(new java.net.UnknownHostException()));
+	}
+}
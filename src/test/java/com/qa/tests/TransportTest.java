@@ -0,0 +1,156 @@
+package com.qa.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.http.entity.ContentType;
+import org.json.JSONObject;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qa.client.ConnectionPoolConfig;
+import com.qa.client.RestClient;
+import com.qa.client.RestResponse;
+import com.qa.client.transport.ApacheTransport;
+import com.qa.client.transport.Http2Transport;
+import com.qa.mock.MockServerConfig;
+import com.qa.mock.MockUserServer;
+
+/**
+ * Transport Test Class Checks that the RestClient methods behave the same on
+ * the HTTP/2 transport, which falls back to HTTP/1.1 against the mock server
+ */
+public class TransportTest {
+
+	@Test(description = "http.transport selects the transport; unknown values are rejected")
+	public void configTest() throws Exception {
+		Properties props = new Properties();
+		try (RestClient client = new RestClient(ConnectionPoolConfig.fromProperties(props))) {
+			Assert.assertTrue(client.getTransport() instanceof ApacheTransport);
+		}
+		props.setProperty(ConnectionPoolConfig.TRANSPORT, "HTTP2");
+		ConnectionPoolConfig config = ConnectionPoolConfig.fromProperties(props);
+		Assert.assertTrue(config.isHttp2());
+		try (RestClient client = new RestClient(config)) {
+			Assert.assertTrue(client.getTransport() instanceof Http2Transport);
+		}
+		props.setProperty(ConnectionPoolConfig.TRANSPORT, "spdy");
+		Assert.expectThrows(IllegalArgumentException.class, () -> ConnectionPoolConfig.fromProperties(props));
+	}
+
+	@Test(description = "GET/POST/PUT/DELETE work unchanged on the HTTP/2 transport")
+	public void crudTest() throws Exception {
+		MockServerConfig mockConfig = new MockServerConfig();
+		mockConfig.setCompressMinBytes(0);
+		ConnectionPoolConfig config = new ConnectionPoolConfig();
+		config.setTransport(ConnectionPoolConfig.TRANSPORT_HTTP2);
+		try (MockUserServer server = new MockUserServer(mockConfig, MockUserServer.DEFAULT_RESOURCE_PATH).start();
+				RestClient client = new RestClient(config)) {
+			String users = server.getResourceUrl();
+			try (RestResponse response = client.get(users + "/2", null)) {
+				Assert.assertEquals(response.getStatusCode(), 200);
+				Assert.assertEquals(response.getStatusLine().getReasonPhrase(), "OK");
+				JSONObject user = new JSONObject(response.readBodyAsString()).getJSONObject("data");
+				Assert.assertEquals(user.getString("first_name"), "Janet");
+			}
+
+			String id;
+			try (RestResponse response = client.post(users, "{\"name\":\"morpheus\",\"job\":\"leader\"}", null)) {
+				Assert.assertEquals(response.getStatusCode(), 201);
+				id = new JSONObject(response.readBodyAsString()).get("id").toString();
+			}
+			try (RestResponse response = client.put(users + "/" + id, "{\"name\":\"morpheus\",\"job\":\"zion\"}",
+					null)) {
+				Assert.assertEquals(response.getStatusCode(), 200);
+				Assert.assertEquals(new JSONObject(response.readBodyAsString()).getString("job"), "zion");
+			}
+			try (RestResponse response = client.delete(users + "/" + id, null)) {
+				Assert.assertEquals(response.getStatusCode(), 204);
+				Assert.assertNull(response.getEntity());
+			}
+			try (RestResponse response = client.get(users + "/" + id, null)) {
+				Assert.assertEquals(response.getStatusCode(), 404);
+			}
+
+			Http2Transport transport = (Http2Transport) client.getTransport();
+			// The mock only speaks HTTP/1.1, so the h2c upgrade is refused
+			Assert.assertEquals(transport.getHttp1Responses(), 5);
+			Assert.assertEquals(client.getPoolStats().getLeased(), 0, "streams released on close");
+			// The unread 404 body is decoded too, while it is drained on close
+			Assert.assertEquals(client.getMetrics().forRequest("GET", users + "/2").getDecompressed(), 2);
+		}
+	}
+
+	@Test(description = "Request bodies stream to the HTTP/2 transport with and without a length")
+	public void streamedBodyTest() throws Exception {
+		ConnectionPoolConfig config = new ConnectionPoolConfig();
+		config.setTransport(ConnectionPoolConfig.TRANSPORT_HTTP2);
+		StringBuilder name = new StringBuilder();
+		for (int i = 0; i < 256 * 1024; i++) {
+			name.append((char) ('a' + i % 26));
+		}
+		byte[] body = new JSONObject().put("name", name).put("job", "leader").toString()
+				.getBytes(StandardCharsets.UTF_8);
+		try (MockUserServer server = new MockUserServer(new MockServerConfig(), MockUserServer.DEFAULT_RESOURCE_PATH)
+				.start(); RestClient client = new RestClient(config)) {
+			for (long length : new long[] { body.length, -1 }) {
+				try (RestResponse response = client.post(server.getResourceUrl(), new ByteArrayInputStream(body),
+						length, ContentType.APPLICATION_JSON, null)) {
+					Assert.assertEquals(response.getStatusCode(), 201, "length " + length);
+					Assert.assertEquals(new JSONObject(response.readBodyAsString()).getString("name"),
+							name.toString(), "length " + length);
+				}
+			}
+
+			// A failing entity fails the request instead of sending a truncated body
+			InputStream failing = new SequenceInputStream(new ByteArrayInputStream(body, 0, 1024), new InputStream() {
+				@Override
+				public int read() throws IOException {
+					throw new IOException("source failed");
+				}
+			});
+			Assert.expectThrows(IOException.class, () -> client
+					.post(server.getResourceUrl(), failing, -1, ContentType.APPLICATION_JSON, null).close());
+			Assert.assertEquals(client.getPoolStats().getLeased(), 0);
+		}
+	}
+
+	@Test(description = "Concurrent blocking requests share the HTTP/2 client")
+	public void concurrencyTest() throws Exception {
+		ConnectionPoolConfig config = new ConnectionPoolConfig();
+		config.setTransport(ConnectionPoolConfig.TRANSPORT_HTTP2);
+		ExecutorService threads = Executors.newFixedThreadPool(16);
+		try (MockUserServer server = new MockUserServer(new MockServerConfig(), MockUserServer.DEFAULT_RESOURCE_PATH)
+				.start(); RestClient client = new RestClient(config)) {
+			// Small delay on every request so they overlap
+			HashMap<String, String> latency = new HashMap<>();
+			latency.put(MockUserServer.LATENCY_HEADER, "20");
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int i = 0; i < 64; i++) {
+				String url = server.getResourceUrl() + "/" + (i % 12 + 1);
+				results.add(threads.submit(() -> {
+					try (RestResponse response = client.get(url, latency)) {
+						response.readBody();
+						return response.getStatusCode();
+					}
+				}));
+			}
+			for (Future<Integer> result : results) {
+				Assert.assertEquals(result.get().intValue(), 200);
+			}
+			Assert.assertEquals(client.getPoolStats().getLeased(), 0);
+		} finally {
+			threads.shutdown();
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package com.qa.tests;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.qa.util.VirtualThreads;
+
+/**
+ * VirtualThreads Test Class Checks the thread factories on both JDK 21+ and
+ * older JDKs (platform thread fallback)
+ */
+public class VirtualThreadsTest {
+
+	@Test(description = "Platform fallback creates named daemon threads")
+	public void platformThreadFactoryTest() {
+		Thread first = VirtualThreads.platformThreadFactory("pool-").newThread(() -> {
+		});
+		Assert.assertEquals(first.getName(), "pool-0");
+		Assert.assertTrue(first.isDaemon());
+	}
+
+	@Test(description = "Thread factory names threads with the prefix on any JDK")
+	public void threadFactoryTest() {
+		Thread thread = VirtualThreads.threadFactory("vt-").newThread(() -> {
+		});
+		Assert.assertEquals(thread.getName(), "vt-0");
+		if (!VirtualThreads.isSupported()) {
+			Assert.assertFalse(VirtualThreads.isEnabled());
+		}
+	}
+
+	@Test(description = "Thread-per-task executor runs tasks")
+	public void perTaskExecutorTest() throws Exception {
+		ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("task-");
+		try {
+			Future<String> name = executor.submit(() -> Thread.currentThread().getName());
+			Assert.assertTrue(name.get(5, TimeUnit.SECONDS).startsWith("task-"));
+		} finally {
+			executor.shutdown();
+		}
+	}
+}